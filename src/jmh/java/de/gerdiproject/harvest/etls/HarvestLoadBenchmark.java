@@ -0,0 +1,357 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.etls;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import de.gerdiproject.harvest.application.events.GetCacheFolderEvent;
+import de.gerdiproject.harvest.config.Configuration;
+import de.gerdiproject.harvest.etls.enums.ETLHealth;
+import de.gerdiproject.harvest.etls.loaders.AbstractIteratorLoader;
+import de.gerdiproject.harvest.etls.loaders.LoaderException;
+import de.gerdiproject.harvest.etls.loaders.utils.LoaderRegistry;
+import de.gerdiproject.harvest.event.EventSystem;
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsDataCiteConstants;
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsParameterConstants;
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsRegionConstants;
+import de.gerdiproject.harvest.seaaroundus.utils.SeaAroundUsParameterUtils;
+import de.gerdiproject.harvest.utils.data.constants.DataOperationConstants;
+import de.gerdiproject.harvest.utils.file.FileUtils;
+import de.gerdiproject.json.GsonUtils;
+import de.gerdiproject.json.datacite.DataCiteJson;
+
+/**
+ * This benchmark harvests a {@linkplain SyntheticApiTree} with thousands of entries
+ * and large polygons, in order to evaluate concurrency and caching changes without
+ * sending requests to the SeaAroundUs API. One operation is the full harvest of an
+ * ETL, from the retrieval of its version to the last loaded document.
+ * <br>
+ * The generated responses are served by a local stub server, which the harvester
+ * uses as an HTTP proxy. That way, the requests are sent by the same rate limiter,
+ * connection pool, and feature streams as in production. The stub server can
+ * simulate a network round trip time per request. The documents are serialized,
+ * but not submitted anywhere.
+ * <br>
+ * The {@linkplain HarvestLoadProfiler} reports the throughput, peak heap usage,
+ * and GC time per ETL:
+ * <br>mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="-prof de.gerdiproject.harvest.etls.HarvestLoadProfiler HarvestLoadBenchmark -p fixture=EEZ,COUNTRY -p roundTripMillis=0,20 -p pipelineThreads=0,2"
+ * <br>
+ * Other harvester parameters can be set via environment variables,
+ * e.g. GERDI_HARVESTER_EEZETL_PREFETCHTHREADS=8.
+ *
+ * @author Robin Weiss
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class HarvestLoadBenchmark
+{
+    private static final String MODULE_NAME = "SeaAroundUsLoadTest";
+    private static final String TEMP_FOLDER_PREFIX = "sauLoadTest";
+    private static final String RESPONSES_FOLDER = "responses";
+    private static final String CACHE_FOLDER = "cache";
+    private static final String CONFIG_FILE = "config.json";
+    private static final String PROXY_HOST_PROPERTY = "http.proxyHost";
+    private static final String PROXY_PORT_PROPERTY = "http.proxyPort";
+    private static final String ETAG_FORMAT = "\"%x-%x\"";
+    private static final String HARVEST_FAILED = "The harvest of %s failed with health '%s'!";
+
+    private static volatile int harvestedCount;
+
+    @Param
+    private EtlFixture fixture;
+
+    @Param({"1000"})
+    private int elementCount;
+
+    @Param({"1000"})
+    private int vertexCount;
+
+    @Param({"0"})
+    private int roundTripMillis;
+
+    @Param({"0"})
+    private int maxRequestsPerSecond;
+
+    @Param({"false"})
+    private boolean useCacheFolder;
+
+    @Param({"0"})
+    private int pipelineThreads;
+
+    private File tempFolder;
+    private SyntheticApiTree apiTree;
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private Configuration configuration;
+    private LoaderRegistry loaderRegistry;
+    private AbstractETL<?, ?> etl;
+
+
+    /**
+     * Returns the number of documents that were harvested by the most recent operation.
+     *
+     * @return the number of documents that were harvested by the most recent operation
+     */
+    public static int getHarvestedCount()
+    {
+        return harvestedCount;
+    }
+
+
+    /**
+     * Generates the synthetic API, starts the stub server, and initializes
+     * the benchmarked ETL.
+     *
+     * @throws IOException thrown if the API could not be generated or the server could not be started
+     */
+    @Setup
+    public void setup() throws IOException
+    {
+        tempFolder = Files.createTempDirectory(TEMP_FOLDER_PREFIX).toFile();
+        apiTree = new SyntheticApiTree(new File(tempFolder, RESPONSES_FOLDER), elementCount, vertexCount);
+        apiTree.write(fixture.testName, fixture.apiNames);
+
+        // response caches, change trackers, and checkpoints require a cache folder
+        if (useCacheFolder) {
+            final File cacheFolder = new File(tempFolder, CACHE_FOLDER);
+            EventSystem.addSynchronousListener(GetCacheFolderEvent.class, () -> cacheFolder);
+        }
+
+        // sends headers and small bodies without waiting for delayed acknowledgments
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::respond);
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        System.setProperty(PROXY_HOST_PROPERTY, "localhost");
+        System.setProperty(PROXY_PORT_PROPERTY, String.valueOf(server.getAddress().getPort()));
+
+        configuration = new Configuration(MODULE_NAME);
+        configuration.setCacheFilePath(new File(tempFolder, CONFIG_FILE).getPath());
+        configuration.addEventListeners();
+
+        loaderRegistry = new LoaderRegistry();
+        loaderRegistry.addEventListeners();
+        loaderRegistry.registerLoader(SerializingLoader.class);
+
+        SeaAroundUsParameterUtils.registerGlobalParameter(
+            SeaAroundUsParameterConstants.MAX_REQUESTS_PER_SECOND_KEY,
+            DataOperationConstants.HTTP_CATEGORY,
+            SeaAroundUsParameterConstants.MAX_REQUESTS_PER_SECOND_DEFAULT).setValue(String.valueOf(maxRequestsPerSecond));
+
+        etl = fixture.etlCreator.get();
+        etl.init(MODULE_NAME);
+
+        // the parameter can only be changed while the ETL is idle
+        SeaAroundUsParameterUtils.registerEtlParameter(
+            SeaAroundUsParameterConstants.PIPELINE_THREADS_KEY,
+            etl,
+            SeaAroundUsParameterConstants.PIPELINE_THREADS_DEFAULT).setValue(String.valueOf(pipelineThreads));
+    }
+
+
+    /**
+     * Stops the stub server and deletes the synthetic API and cache folder.
+     */
+    @TearDown
+    public void tearDown()
+    {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+
+        System.clearProperty(PROXY_HOST_PROPERTY);
+        System.clearProperty(PROXY_PORT_PROPERTY);
+
+        loaderRegistry.removeEventListeners();
+        configuration.removeEventListeners();
+        EventSystem.removeSynchronousListener(GetCacheFolderEvent.class);
+
+        FileUtils.deleteFile(tempFolder);
+    }
+
+
+    /**
+     * Harvests all documents of the ETL.
+     *
+     * @return the number of harvested documents
+     *
+     * @throws IllegalStateException thrown if the harvest failed
+     */
+    @Benchmark
+    public int harvest()
+    {
+        etl.prepareHarvest();
+        etl.harvest();
+
+        if (etl.getHealth() != ETLHealth.OK)
+            throw new IllegalStateException(String.format(HARVEST_FAILED, etl.getName(), etl.getHealth()));
+
+        harvestedCount = etl.getHarvestedCount();
+        return harvestedCount;
+    }
+
+
+    /**
+     * Responds to a request of the stub server with a generated response,
+     * after waiting for the simulated round trip time. Conditional requests
+     * are answered with "304 Not Modified" if the response file did not change.
+     *
+     * @param exchange the request and response
+     *
+     * @throws IOException thrown if the response could not be sent
+     */
+    private void respond(final HttpExchange exchange) throws IOException
+    {
+        try {
+            Thread.sleep(roundTripMillis);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        final File responseFile = apiTree.getResponseFile(exchange.getRequestURI());
+
+        if (!responseFile.exists()) {
+            exchange.sendResponseHeaders(HttpURLConnection.HTTP_NOT_FOUND, -1);
+            exchange.close();
+            return;
+        }
+
+        final String eTag = String.format(ETAG_FORMAT, responseFile.lastModified(), responseFile.length());
+
+        if (eTag.equals(exchange.getRequestHeaders().getFirst(SeaAroundUsParameterConstants.IF_NONE_MATCH_HEADER))) {
+            exchange.sendResponseHeaders(HttpURLConnection.HTTP_NOT_MODIFIED, -1);
+            exchange.close();
+            return;
+        }
+
+        exchange.getResponseHeaders().add(SeaAroundUsParameterConstants.ETAG_HEADER, eTag);
+        exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, responseFile.length());
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            Files.copy(responseFile.toPath(), out);
+        }
+    }
+
+
+    /**
+     * A loader that serializes documents like a submitting loader would,
+     * but discards them afterwards.
+     *
+     * @author Robin Weiss
+     */
+    public static class SerializingLoader extends AbstractIteratorLoader<DataCiteJson>
+    {
+        private final Gson gson = GsonUtils.createGerdiDocumentGsonBuilder().create();
+        private long serializedLength;
+
+
+        @Override
+        protected void loadElement(final DataCiteJson document) throws LoaderException
+        {
+            serializedLength += gson.toJson(document).length();
+        }
+
+
+        @Override
+        public void unregisterParameters()
+        {
+            // nothing to unregister
+        }
+
+
+        @Override
+        public void clear()
+        {
+            serializedLength = 0;
+        }
+    }
+
+
+    /**
+     * An enumeration of all benchmarked ETLs and the API endpoints they harvest.
+     *
+     * @author Robin Weiss
+     */
+    public enum EtlFixture
+    {
+        COUNTRY(SeaAroundUsETLFactory::createCountryETL, "Country", SeaAroundUsRegionConstants.COUNTRY_API_NAME),
+        TAXON(SeaAroundUsETLFactory::createTaxonETL, "Taxon",
+              SeaAroundUsRegionConstants.TAXA_API_NAME,
+              SeaAroundUsRegionConstants.TAXON_GROUP_API_NAME,
+              SeaAroundUsRegionConstants.TAXON_LEVEL_API_NAME),
+        GLOBAL_REGION(SeaAroundUsETLFactory::createGlobalRegionETL, "GlobalRegion", SeaAroundUsDataCiteConstants.GLOBAL_REGION_NAME),
+        FISHING_ENTITY(SeaAroundUsETLFactory::createFishingEntityETL, "FishingEntity",
+                       SeaAroundUsRegionConstants.FISHING_ENTITY_PARAMS.getRegionType().getUrlName()),
+        MARICULTURE(SeaAroundUsETLFactory::createMaricultureETL, "Mariculture", SeaAroundUsRegionConstants.MARICULTURE_API_NAME),
+        EEZ(SeaAroundUsETLFactory::createEezETL, "Eez", SeaAroundUsRegionConstants.EEZ_PARAMS.getRegionType().getUrlName()),
+        FAO(SeaAroundUsETLFactory::createFaoETL, "Fao", SeaAroundUsRegionConstants.FAO_PARAMS.getRegionType().getUrlName()),
+        LME(SeaAroundUsETLFactory::createLmeETL, "Lme", SeaAroundUsRegionConstants.LME_PARAMS.getRegionType().getUrlName()),
+        RFMO(SeaAroundUsETLFactory::createRfmoETL, "Rfmo", SeaAroundUsRegionConstants.RFMO_PARAMS.getRegionType().getUrlName()),
+        HIGH_SEAS(SeaAroundUsETLFactory::createHighSeasETL, "HighSeas", SeaAroundUsRegionConstants.HIGH_SEAS_PARAMS.getRegionType().getUrlName());
+
+        private final Supplier<AbstractETL<?, ?>> etlCreator;
+        private final String testName;
+        private final String[] apiNames;
+
+
+        /**
+         * Constructor that requires the means to create the ETL and its synthetic API.
+         *
+         * @param etlCreator a function that creates the ETL
+         * @param testName the name of the transformer test that mocks the API responses
+         * @param apiNames the names of the API endpoints that are harvested by the ETL
+         */
+        EtlFixture(final Supplier<AbstractETL<?, ?>> etlCreator, final String testName, final String... apiNames)
+        {
+            this.etlCreator = etlCreator;
+            this.testName = testName;
+            this.apiNames = apiNames;
+        }
+    }
+}
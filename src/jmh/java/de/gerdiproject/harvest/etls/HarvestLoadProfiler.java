@@ -0,0 +1,108 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.etls;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+/**
+ * This JMH profiler reports the throughput, the peak heap usage, and the GC
+ * time of every iteration of the {@linkplain HarvestLoadBenchmark}:
+ * <br>mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="-prof de.gerdiproject.harvest.etls.HarvestLoadProfiler HarvestLoadBenchmark"
+ * <br>
+ * The peak heap usage is the sum of the peak usages of all heap memory pools.
+ * Since the pools do not necessarily peak at the same time, it is an upper bound.
+ *
+ * @author Robin Weiss
+ */
+public class HarvestLoadProfiler implements InternalProfiler
+{
+    private static final double BYTES_PER_MEGABYTE = 1024 * 1024;
+
+    private long startTime;
+    private long startGcTime;
+
+
+    @Override
+    public String getDescription()
+    {
+        return "Harvested documents per second, peak heap usage, and GC time of ETL harvests";
+    }
+
+
+    @Override
+    public void beforeIteration(final BenchmarkParams benchmarkParams, final IterationParams iterationParams)
+    {
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP)
+                pool.resetPeakUsage();
+        }
+
+        startGcTime = getGcTime();
+        startTime = System.nanoTime();
+    }
+
+
+    @Override
+    public Collection<? extends Result<?>> afterIteration(
+        final BenchmarkParams benchmarkParams,
+        final IterationParams iterationParams,
+        final IterationResult result)
+    {
+        final double seconds = (System.nanoTime() - startTime) / (double) TimeUnit.SECONDS.toNanos(1);
+        final long gcTime = getGcTime() - startGcTime;
+        long peakHeap = 0;
+
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP)
+                peakHeap += pool.getPeakUsage().getUsed();
+        }
+
+        return Arrays.asList(
+                   new ScalarResult("harvest.docs", HarvestLoadBenchmark.getHarvestedCount() / seconds, "docs/s", AggregationPolicy.AVG),
+                   new ScalarResult("harvest.heap.peak", peakHeap / BYTES_PER_MEGABYTE, "MB", AggregationPolicy.MAX),
+                   new ScalarResult("harvest.gc.time", gcTime, "ms", AggregationPolicy.AVG));
+    }
+
+
+    /**
+     * Returns the accumulated time of all garbage collections.
+     *
+     * @return the accumulated time of all garbage collections in milliseconds
+     */
+    private static long getGcTime()
+    {
+        long gcTime = 0;
+
+        for (final GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+            gcTime += Math.max(collector.getCollectionTime(), 0);
+
+        return gcTime;
+    }
+}
@@ -0,0 +1,442 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.etls;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map.Entry;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonWriter;
+
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsDataCiteConstants;
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsRegionConstants;
+
+/**
+ * This class generates a synthetic SeaAroundUs API of arbitrary size from the
+ * mocked HTTP responses of the transformer tests. The single mocked entry of
+ * every list is replicated with consecutive identifiers, and every entry
+ * gets a detail response that is derived from the mocked detail response.
+ * All polygons are replaced by polygons with a configurable number of vertices,
+ * which are identical in the list and detail responses of the same entry.
+ * <br>
+ * The responses are written to a folder in the same layout as mocked HTTP
+ * responses, which means that they can also be read from disk by the
+ * harvester itself.
+ *
+ * @author Robin Weiss
+ */
+public class SyntheticApiTree
+{
+    private static final String TEMPLATE_FOLDER =
+        "/de/gerdiproject/harvest/etls/transformers/%sTransformerTest/mockedHttpResponses/";
+    private static final String API_FOLDER = "api.seaaroundus.org/api/v1/";
+    private static final String RESPONSE_FILE = "%s.response";
+    private static final String DETAIL_PATH = "%s/%d";
+    private static final String GLOBAL_SUB_REGION_PATH = "%s/1/%%query%%/fao_id=%d";
+    private static final String QUERY_PATH = "/%query%/";
+
+    private static final int TEMPLATE_ID = 1337;
+    private static final double POLYGON_RADIUS = 1.5;
+    private static final double POLYGON_JAGGEDNESS = 0.25;
+    private static final int POLYGON_WAVES = 7;
+    private static final double COORDINATE_PRECISION = 1e6;
+
+    private static final String DATA_FIELD = "data";
+    private static final String FEATURES_FIELD = "features";
+    private static final String TYPE_FIELD = "type";
+    private static final String COORDINATES_FIELD = "coordinates";
+    private static final String POLYGON_TYPE = "Polygon";
+    private static final String MULTI_POLYGON_TYPE = "MultiPolygon";
+
+    private final File folder;
+    private final int elementCount;
+    private final int vertexCount;
+    private final Gson gson;
+
+
+    /**
+     * Constructor that requires the size of the generated API.
+     *
+     * @param folder the folder to which the responses are written
+     * @param elementCount the number of entries of every replicated list
+     * @param vertexCount the number of vertices of every polygon
+     */
+    public SyntheticApiTree(final File folder, final int elementCount, final int vertexCount)
+    {
+        this.folder = folder;
+        this.elementCount = elementCount;
+        this.vertexCount = Math.max(vertexCount, 3);
+        this.gson = new Gson();
+    }
+
+
+    /**
+     * Writes the responses of the specified API endpoints. Lists that have
+     * detail responses are replicated, all other responses are copied.
+     *
+     * @param testName the name of the transformer test that mocks the responses, e.g. "Eez"
+     * @param apiNames the names of the API endpoints, e.g. "eez"
+     *
+     * @throws IOException thrown if a mocked response could not be read,
+     *          or a generated response could not be written
+     */
+    public void write(final String testName, final String... apiNames) throws IOException
+    {
+        for (final String apiName : apiNames) {
+            if (SeaAroundUsDataCiteConstants.GLOBAL_REGION_NAME.equals(apiName))
+                writeGlobalRegions(testName, apiName);
+
+            else if (hasTemplate(testName, String.format(DETAIL_PATH, apiName, TEMPLATE_ID)))
+                writeRegions(testName, apiName);
+
+            else
+                writeResponse(apiName, readTemplate(testName, apiName));
+        }
+    }
+
+
+    /**
+     * Retrieves the file of a response that was requested via HTTP. The
+     * URL is mapped to a path in the same way as mocked HTTP responses.
+     *
+     * @param uri the requested URI
+     *
+     * @return the file that contains the response
+     */
+    public File getResponseFile(final URI uri)
+    {
+        final StringBuilder pathBuilder = new StringBuilder(uri.getHost()).append(uri.getPath());
+
+        if (pathBuilder.charAt(pathBuilder.length() - 1) == '/')
+            pathBuilder.setLength(pathBuilder.length() - 1);
+
+        if (uri.getQuery() != null)
+            pathBuilder.append(QUERY_PATH).append(uri.getQuery());
+
+        return new File(folder, String.format(RESPONSE_FILE, pathBuilder.toString()));
+    }
+
+
+    /**
+     * Replicates the mocked list of an API endpoint and writes a detail
+     * response for every replicated entry.
+     *
+     * @param testName the name of the transformer test that mocks the responses
+     * @param apiName the name of the API endpoint
+     *
+     * @throws IOException thrown if a mocked response could not be read,
+     *          or a generated response could not be written
+     */
+    private void writeRegions(final String testName, final String apiName) throws IOException
+    {
+        final JsonObject listTemplate = readTemplate(testName, apiName).getAsJsonObject();
+        final JsonElement data = listTemplate.get(DATA_FIELD);
+        final JsonArray templateEntries = data.isJsonArray()
+                                          ? data.getAsJsonArray()
+                                          : data.getAsJsonObject().getAsJsonArray(FEATURES_FIELD);
+
+        // the list is streamed, because it can be too large to be held in memory
+        try (JsonWriter writer = gson.newJsonWriter(createResponseWriter(apiName))) {
+            writeList(writer, listTemplate, templateEntries);
+        }
+
+        final JsonElement detailTemplate = readTemplate(testName, String.format(DETAIL_PATH, apiName, TEMPLATE_ID));
+
+        for (int id = 1; id <= elementCount; id++)
+            writeResponse(String.format(DETAIL_PATH, apiName, id), instantiate(detailTemplate, id, new int[1]));
+    }
+
+
+    /**
+     * Recursively writes a mocked list response, replacing its entries
+     * by replicated entries.
+     *
+     * @param writer the writer of the generated response
+     * @param template a part of the mocked list response
+     * @param templateEntries the entries of the mocked list
+     *
+     * @throws IOException thrown if the response could not be written
+     */
+    private void writeList(final JsonWriter writer, final JsonElement template, final JsonArray templateEntries) throws IOException
+    {
+        if (template == templateEntries) {
+            writer.beginArray();
+
+            for (int id = 1; id <= elementCount; id++) {
+                final int[] polygonIndex = new int[1];
+
+                for (final JsonElement templateEntry : templateEntries)
+                    gson.toJson(instantiate(templateEntry, id, polygonIndex), writer);
+            }
+
+            writer.endArray();
+
+        } else if (template.isJsonObject()) {
+            writer.beginObject();
+
+            for (final Entry<String, JsonElement> field : template.getAsJsonObject().entrySet()) {
+                writer.name(field.getKey());
+                writeList(writer, field.getValue(), templateEntries);
+            }
+
+            writer.endObject();
+
+        } else
+            gson.toJson(template, writer);
+    }
+
+
+    /**
+     * Copies the mocked response of the global ocean to all of its sub-regions.
+     *
+     * @param testName the name of the transformer test that mocks the responses
+     * @param apiName the name of the global API endpoint
+     *
+     * @throws IOException thrown if a mocked response could not be read,
+     *          or a generated response could not be written
+     */
+    private void writeGlobalRegions(final String testName, final String apiName) throws IOException
+    {
+        final String globalPath = String.format(DETAIL_PATH, apiName, 1);
+        writeResponse(globalPath, readTemplate(testName, globalPath));
+
+        final JsonElement subRegionTemplate = readTemplate(testName, String.format(GLOBAL_SUB_REGION_PATH, apiName, 1));
+        final int subRegionCount = SeaAroundUsRegionConstants.GLOBAL_SUB_REGION_SUFFIXES.size();
+
+        for (int subRegionId = 1; subRegionId < subRegionCount; subRegionId++)
+            writeResponse(String.format(GLOBAL_SUB_REGION_PATH, apiName, subRegionId), subRegionTemplate);
+    }
+
+
+    /**
+     * Creates a copy of a mocked JSON element, replacing the identifier of the
+     * mocked entry and all polygons.
+     *
+     * @param template the mocked JSON element
+     * @param id the identifier of the generated entry
+     * @param polygonIndex a counter of the polygons of the generated entry
+     *
+     * @return a copy of the mocked JSON element
+     */
+    private JsonElement instantiate(final JsonElement template, final int id, final int[] polygonIndex)
+    {
+        if (template.isJsonObject()) {
+            final JsonObject templateObject = template.getAsJsonObject();
+
+            if (isPolygonal(templateObject))
+                return createPolygon(id, polygonIndex[0]++);
+
+            final JsonObject copy = new JsonObject();
+
+            for (final Entry<String, JsonElement> field : templateObject.entrySet())
+                copy.add(field.getKey(), instantiate(field.getValue(), id, polygonIndex));
+
+            return copy;
+        }
+
+        if (template.isJsonArray()) {
+            final JsonArray copy = new JsonArray();
+
+            for (final JsonElement item : template.getAsJsonArray())
+                copy.add(instantiate(item, id, polygonIndex));
+
+            return copy;
+        }
+
+        if (template.isJsonPrimitive()) {
+            final JsonPrimitive primitive = template.getAsJsonPrimitive();
+
+            if (primitive.isNumber() && primitive.getAsDouble() == TEMPLATE_ID)
+                return new JsonPrimitive(id);
+
+            if (primitive.isString() && primitive.getAsString().equals(String.valueOf(TEMPLATE_ID)))
+                return new JsonPrimitive(String.valueOf(id));
+        }
+
+        return template;
+    }
+
+
+    /**
+     * Creates a GeoJson multi-polygon that consists of a single jagged ring
+     * around a center that depends on the entry and the index of the polygon.
+     *
+     * @param id the identifier of the generated entry
+     * @param polygonIndex the index of the polygon within the generated entry
+     *
+     * @return a GeoJson multi-polygon
+     */
+    private JsonObject createPolygon(final int id, final int polygonIndex)
+    {
+        final double centerX = (id * 37 + polygonIndex * 11) % 340 - 170;
+        final double centerY = (id * 17 + polygonIndex * 7) % 140 - 70;
+
+        final JsonArray ring = new JsonArray();
+
+        for (int i = 0; i <= vertexCount; i++) {
+            final double angle = 2 * Math.PI * (i % vertexCount) / vertexCount;
+            final double radius = POLYGON_RADIUS * (1 + POLYGON_JAGGEDNESS * Math.sin(POLYGON_WAVES * angle));
+
+            final JsonArray vertex = new JsonArray();
+            vertex.add(round(centerX + radius * Math.cos(angle)));
+            vertex.add(round(centerY + radius * Math.sin(angle)));
+            ring.add(vertex);
+        }
+
+        final JsonArray polygon = new JsonArray();
+        polygon.add(ring);
+
+        final JsonArray multiPolygon = new JsonArray();
+        multiPolygon.add(polygon);
+
+        final JsonObject geometry = new JsonObject();
+        geometry.addProperty(TYPE_FIELD, MULTI_POLYGON_TYPE);
+        geometry.add(COORDINATES_FIELD, multiPolygon);
+        return geometry;
+    }
+
+
+    /**
+     * Rounds a coordinate to the precision of real SeaAroundUs responses.
+     *
+     * @param coordinate the coordinate that is to be rounded
+     *
+     * @return the rounded coordinate
+     */
+    private static double round(final double coordinate)
+    {
+        return Math.round(coordinate * COORDINATE_PRECISION) / COORDINATE_PRECISION;
+    }
+
+
+    /**
+     * Checks if a JSON object is a GeoJson polygon or multi-polygon.
+     *
+     * @param object the checked JSON object
+     *
+     * @return true if the object is to be replaced by a generated polygon
+     */
+    private static boolean isPolygonal(final JsonObject object)
+    {
+        final JsonElement type = object.get(TYPE_FIELD);
+
+        return type != null
+               && object.has(COORDINATES_FIELD)
+               && (POLYGON_TYPE.equals(type.getAsString()) || MULTI_POLYGON_TYPE.equals(type.getAsString()));
+    }
+
+
+    /**
+     * Checks if a mocked response exists.
+     *
+     * @param testName the name of the transformer test that mocks the response
+     * @param path the path of the response, relative to the API URL
+     *
+     * @return true if the mocked response exists
+     */
+    private boolean hasTemplate(final String testName, final String path)
+    {
+        return getClass().getResource(getTemplateResource(testName, path)) != null;
+    }
+
+
+    /**
+     * Reads a mocked response of the transformer tests.
+     *
+     * @param testName the name of the transformer test that mocks the response
+     * @param path the path of the response, relative to the API URL
+     *
+     * @return the parsed response
+     *
+     * @throws IOException thrown if the mocked response could not be read
+     */
+    private JsonElement readTemplate(final String testName, final String path) throws IOException
+    {
+        final String resource = getTemplateResource(testName, path);
+
+        try (InputStream template = getClass().getResourceAsStream(resource)) {
+            if (template == null)
+                throw new IOException(resource);
+
+            try (Reader reader = new InputStreamReader(template, StandardCharsets.UTF_8)) {
+                return new JsonParser().parse(reader);
+            }
+        }
+    }
+
+
+    /**
+     * Assembles the resource path of a mocked response.
+     *
+     * @param testName the name of the transformer test that mocks the response
+     * @param path the path of the response, relative to the API URL
+     *
+     * @return the resource path of the mocked response
+     */
+    private static String getTemplateResource(final String testName, final String path)
+    {
+        return String.format(TEMPLATE_FOLDER, testName)
+               + API_FOLDER
+               + String.format(RESPONSE_FILE, path);
+    }
+
+
+    /**
+     * Writes a generated response to the folder.
+     *
+     * @param path the path of the response, relative to the API URL
+     * @param response the generated response
+     *
+     * @throws IOException thrown if the response could not be written
+     */
+    private void writeResponse(final String path, final JsonElement response) throws IOException
+    {
+        try (Writer writer = createResponseWriter(path)) {
+            gson.toJson(response, writer);
+        }
+    }
+
+
+    /**
+     * Creates the file of a generated response and opens it for writing.
+     *
+     * @param path the path of the response, relative to the API URL
+     *
+     * @return a writer of the response file
+     *
+     * @throws IOException thrown if the response file could not be created
+     */
+    private Writer createResponseWriter(final String path) throws IOException
+    {
+        final File responseFile = new File(folder, API_FOLDER + String.format(RESPONSE_FILE, path));
+        Files.createDirectories(responseFile.getParentFile().toPath());
+
+        return Files.newBufferedWriter(responseFile.toPath(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,260 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.etls.extractors;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+import de.gerdiproject.harvest.seaaroundus.json.country.SauCountryProperties;
+import de.gerdiproject.harvest.seaaroundus.utils.IntGroupIndex;
+import de.gerdiproject.json.geo.Feature;
+
+/**
+ * This benchmark measures the heap that is retained while the sub-regions of a
+ * synthetic large country list are grouped by country and extracted, as done by
+ * the {@linkplain CountryExtractor}. It compares the {@linkplain IntGroupIndex},
+ * which releases the sub-regions of each country after it was extracted, to a
+ * {@linkplain HashMap} of lists, which retains all sub-regions until the extraction
+ * is finished. The retained heap is measured when half of the countries were extracted:
+ * <br>mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="CountryGroupingBenchmark"
+ * <br>
+ * The heap usage is measured after requesting a garbage collection, which means
+ * that it is an approximation. The garbage collection is part of the measured time.
+ *
+ * @author Robin Weiss
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class CountryGroupingBenchmark
+{
+    private static final double BYTES_PER_MEGABYTE = 1024 * 1024;
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+    @Param({"HASH_MAP", "INDEX"})
+    private Grouping grouping;
+
+    @Param({"5000"})
+    private int countryCount;
+
+    @Param({"4"})
+    private int subRegionCount;
+
+    @Param({"250"})
+    private int vertexCount;
+
+    private List<Feature<SauCountryProperties>> subRegions;
+    private long baselineHeap;
+
+
+    /**
+     * Creates the sub-regions of all countries. Like in the SeaAroundUs API,
+     * the sub-regions of a country are not listed consecutively.
+     */
+    @Setup(Level.Invocation)
+    public void setup()
+    {
+        subRegions = null;
+        baselineHeap = getUsedHeap();
+        subRegions = new LinkedList<>();
+
+        for (int i = 0; i < subRegionCount; i++) {
+            for (int countryId = 1; countryId <= countryCount; countryId++)
+                subRegions.add(createSubRegion(countryId, i));
+        }
+    }
+
+
+    /**
+     * Groups the sub-regions by country, releases the list of all sub-regions,
+     * and iterates all countries.
+     *
+     * @param counters the counters of the retained heap
+     * @param blackhole consumes the sub-regions of each country
+     */
+    @Benchmark
+    public void groupAndExtract(final HeapCounters counters, final Blackhole blackhole)
+    {
+        final Iterator<List<Feature<SauCountryProperties>>> countries = grouping.group(subRegions);
+        subRegions = null;
+
+        int extractedCount = 0;
+
+        while (countries.hasNext()) {
+            blackhole.consume(countries.next());
+
+            if (++extractedCount == countryCount / 2)
+                counters.retainedMegabytes = (getUsedHeap() - baselineHeap) / BYTES_PER_MEGABYTE;
+        }
+    }
+
+
+    /**
+     * Creates a sub-region feature with a polygon.
+     *
+     * @param countryId the identifier of the country of the sub-region
+     * @param subRegionIndex the index of the sub-region within the country
+     *
+     * @return a sub-region feature
+     */
+    private Feature<SauCountryProperties> createSubRegion(final int countryId, final int subRegionIndex)
+    {
+        final Coordinate[] ring = new Coordinate[vertexCount + 1];
+
+        for (int i = 0; i < vertexCount; i++) {
+            final double angle = 2 * Math.PI * i / vertexCount;
+            ring[i] = new Coordinate(
+                countryId % 360 - 180 + Math.cos(angle),
+                subRegionIndex * 10 - 80 + Math.sin(angle));
+        }
+
+        ring[vertexCount] = ring[0];
+
+        final SauCountryProperties properties = new SauCountryProperties();
+        properties.setCNumber(countryId);
+
+        final Feature<SauCountryProperties> subRegion = new Feature<>();
+        subRegion.setProperties(properties);
+        subRegion.setGeometry(GEOMETRY_FACTORY.createPolygon(ring));
+        return subRegion;
+    }
+
+
+    /**
+     * Requests a garbage collection and returns the used heap.
+     *
+     * @return the used heap in bytes
+     */
+    private static long getUsedHeap()
+    {
+        final Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+
+    /**
+     * The heap that is retained while half of the countries were extracted,
+     * which is reported alongside the benchmark score. The counter holds the
+     * measurement of the last invocation of each iteration.
+     *
+     * @author Robin Weiss
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class HeapCounters
+    {
+        public double retainedMegabytes;
+
+
+        /**
+         * Resets the counter before each iteration.
+         */
+        @Setup(Level.Iteration)
+        public void reset()
+        {
+            retainedMegabytes = 0;
+        }
+    }
+
+
+    /**
+     * The data structures that group sub-regions by country.
+     *
+     * @author Robin Weiss
+     */
+    public enum Grouping
+    {
+        HASH_MAP {
+            @Override
+            Iterator<List<Feature<SauCountryProperties>>> group(final List<Feature<SauCountryProperties>> subRegions)
+            {
+                final Map<Integer, List<Feature<SauCountryProperties>>> countryMap = new HashMap<>();
+
+                for (final Feature<SauCountryProperties> subRegion : subRegions)
+                    countryMap.computeIfAbsent(subRegion.getProperties().getCNumber(), (final Integer id) -> new LinkedList<>())
+                    .add(subRegion);
+
+                return countryMap.values().iterator();
+            }
+        },
+
+        INDEX {
+            @Override
+            Iterator<List<Feature<SauCountryProperties>>> group(final List<Feature<SauCountryProperties>> subRegions)
+            {
+                final IntGroupIndex<Feature<SauCountryProperties>> countryIndex =
+                    new IntGroupIndex<>(subRegions, (final Feature<SauCountryProperties> s) -> s.getProperties().getCNumber());
+
+                return new Iterator<List<Feature<SauCountryProperties>>>() {
+                    private int nextCountry;
+
+                    @Override
+                    public boolean hasNext()
+                    {
+                        return nextCountry < countryIndex.getGroupCount();
+                    }
+
+                    @Override
+                    public List<Feature<SauCountryProperties>> next()
+                    {
+                        if (!hasNext())
+                            throw new NoSuchElementException();
+
+                        return countryIndex.removeGroup(nextCountry++);
+                    }
+                };
+            }
+        };
+
+
+        /**
+         * Groups sub-regions by country.
+         *
+         * @param subRegions the sub-regions of all countries
+         *
+         * @return an iterator of the sub-regions of each country
+         */
+        abstract Iterator<List<Feature<SauCountryProperties>>> group(List<Feature<SauCountryProperties>> subRegions);
+    }
+}
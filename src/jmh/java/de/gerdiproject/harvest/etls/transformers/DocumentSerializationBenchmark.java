@@ -0,0 +1,119 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.etls.transformers;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+
+import de.gerdiproject.harvest.etls.transformers.TransformerBenchmark.TransformerFixture;
+import de.gerdiproject.harvest.seaaroundus.utils.DataCiteFragmentCache;
+import de.gerdiproject.harvest.seaaroundus.utils.GeoJsonStreamWriter;
+import de.gerdiproject.json.GsonUtils;
+import de.gerdiproject.json.datacite.DataCiteJson;
+
+/**
+ * This benchmark measures the serialization of a transformed document, comparing
+ * {@linkplain DataCiteJson#toJson()} to a {@linkplain Gson} instance that splices
+ * the constant parts of the document from a {@linkplain DataCiteFragmentCache},
+ * and streams its geometries via a {@linkplain GeoJsonStreamWriter}. The setup fails if both serializations differ. By default, the document of the
+ * Taxon ETL is serialized, which has no polygons:
+ * <br>mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="-prof gc DocumentSerializationBenchmark"
+ *
+ * @author Robin Weiss
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocumentSerializationBenchmark
+{
+    private static final String INPUT_RESOURCE = "/de/gerdiproject/harvest/etls/transformers/%sTransformerTest/input.json";
+
+    @Param({"TAXON"})
+    private TransformerFixture fixture;
+
+    private Gson fragmentCachingGson;
+    private DataCiteJson document;
+
+
+    /**
+     * Transforms the mocked input of the fixture to a document and verifies
+     * that both serializations are identical.
+     *
+     * @throws IOException if the mocked input could not be read
+     */
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws IOException
+    {
+        final AbstractIteratorTransformer<Object, DataCiteJson> transformer =
+            (AbstractIteratorTransformer<Object, DataCiteJson>) fixture.getTransformerCreator().get();
+        final String resource = String.format(INPUT_RESOURCE, fixture.getTestName());
+
+        try (Reader reader = new InputStreamReader(getClass().getResourceAsStream(resource), StandardCharsets.UTF_8)) {
+            document = transformer.transformElement(
+                           GsonUtils.createGerdiDocumentGsonBuilder().create().fromJson(reader, fixture.getInputType()));
+        }
+
+        fragmentCachingGson = DataCiteFragmentCache.createGsonBuilder().create();
+
+        if (!document.toJson().equals(fragmentCachingGson.toJson(document)))
+            throw new IllegalStateException("The cached fragments changed the serialized document!");
+    }
+
+
+    /**
+     * Serializes the document, including all of its constant parts.
+     *
+     * @return the JSON representation of the document
+     */
+    @Benchmark
+    public String toJson()
+    {
+        return document.toJson();
+    }
+
+
+    /**
+     * Serializes the document, splicing the cached JSON of its constant parts.
+     *
+     * @return the JSON representation of the document
+     */
+    @Benchmark
+    public String fragmentCache()
+    {
+        return fragmentCachingGson.toJson(document);
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.etls.transformers;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.reflect.TypeToken;
+
+import de.gerdiproject.harvest.etls.extractors.vos.CountryVO;
+import de.gerdiproject.harvest.etls.extractors.vos.FishingEntityVO;
+import de.gerdiproject.harvest.etls.extractors.vos.GlobalRegionVO;
+import de.gerdiproject.harvest.etls.extractors.vos.RegionVO;
+import de.gerdiproject.harvest.etls.extractors.vos.TaxonVO;
+import de.gerdiproject.harvest.seaaroundus.json.eez.SauEezRegion;
+import de.gerdiproject.harvest.seaaroundus.json.fao.SauFaoRegion;
+import de.gerdiproject.harvest.seaaroundus.json.generic.GenericRegion;
+import de.gerdiproject.harvest.seaaroundus.json.lme.SauLmeRegion;
+import de.gerdiproject.harvest.seaaroundus.json.mariculture.SauMariculture;
+import de.gerdiproject.harvest.seaaroundus.json.rfmo.SauRfmoRegion;
+import de.gerdiproject.json.GsonUtils;
+import de.gerdiproject.json.datacite.DataCiteJson;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * This benchmark transforms the mocked input of each transformer test to a document.
+ * It serves as a baseline for regression checks of transformer changes.
+ * One operation is the transformation of a single document, so the GC profiler
+ * reports the bytes that are allocated per document:
+ * <br>mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="-prof gc TransformerBenchmark"
+ *
+ * @author Robin Weiss
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransformerBenchmark
+{
+    private static final String INPUT_RESOURCE = "/de/gerdiproject/harvest/etls/transformers/%sTransformerTest/input.json";
+
+    @Param
+    private TransformerFixture fixture;
+
+    private AbstractIteratorTransformer<Object, DataCiteJson> transformer;
+    private Object input;
+
+
+    /**
+     * Creates the benchmarked transformer and reads its mocked input.
+     *
+     * @throws IOException if the mocked input could not be read
+     */
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws IOException
+    {
+        transformer = (AbstractIteratorTransformer<Object, DataCiteJson>) fixture.transformerCreator.get();
+
+        final String resource = String.format(INPUT_RESOURCE, fixture.testName);
+
+        try (Reader reader = new InputStreamReader(getClass().getResourceAsStream(resource), StandardCharsets.UTF_8)) {
+            input = GsonUtils.createGerdiDocumentGsonBuilder().create().fromJson(reader, fixture.inputType);
+        }
+    }
+
+
+    /**
+     * Transforms the mocked input to a document.
+     *
+     * @return the transformed document
+     */
+    @Benchmark
+    public DataCiteJson transform()
+    {
+        return transformer.transformElement(input);
+    }
+
+
+    /**
+     * An enumeration of all benchmarked transformers and the types of their
+     * mocked inputs.
+     *
+     * @author Robin Weiss
+     */
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    @Getter
+    public enum TransformerFixture
+    {
+        COUNTRY("Country", CountryTransformer::new, CountryVO.class),
+        TAXON("Taxon", TaxonTransformer::new, TaxonVO.class),
+        GLOBAL_REGION("GlobalRegion", GlobalRegionTransformer::new, GlobalRegionVO.class),
+        FISHING_ENTITY("FishingEntity", FishingEntityTransformer::new, FishingEntityVO.class),
+        MARICULTURE("Mariculture", MaricultureTransformer::new, new TypeToken<RegionVO<List<SauMariculture>>>() {} .getType()),
+        EEZ("Eez", EezTransformer::new, new TypeToken<RegionVO<SauEezRegion>>() {} .getType()),
+        FAO("Fao", FaoTransformer::new, new TypeToken<RegionVO<SauFaoRegion>>() {} .getType()),
+        LME("Lme", LmeTransformer::new, new TypeToken<RegionVO<SauLmeRegion>>() {} .getType()),
+        RFMO("Rfmo", RfmoTransformer::new, new TypeToken<RegionVO<SauRfmoRegion>>() {} .getType()),
+        HIGH_SEAS("HighSeas", HighSeasTransformer::new, new TypeToken<RegionVO<GenericRegion>>() {} .getType());
+
+        private final String testName;
+        private final Supplier<AbstractIteratorTransformer<?, DataCiteJson>> transformerCreator;
+        private final Type inputType;
+    }
+}
@@ -0,0 +1,212 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import de.gerdiproject.harvest.seaaroundus.utils.HttpRequestMetrics.RequestStats;
+
+/**
+ * This benchmark measures GET requests of the {@linkplain PooledHttpClient}
+ * against a local stub server that serves a GeoJSON feature collection.
+ * It compares connections that are kept alive to connections that are closed
+ * by the server after every response, and compressed to uncompressed responses.
+ * <br>
+ * Since connections to localhost are established almost instantly, the stub server
+ * can simulate a network round trip time, which it waits once per request and
+ * once more for every new connection:
+ * <br>mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="PooledHttpClientBenchmark -p roundTripMillis=0,20"
+ *
+ * @author Robin Weiss
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class PooledHttpClientBenchmark
+{
+    private static final int FEATURE_COUNT = 500;
+    private static final String FEATURE =
+        "{\"type\":\"Feature\",\"properties\":{\"region_id\":%d,\"title\":\"Region %d\"},"
+        + "\"geometry\":{\"type\":\"Polygon\",\"coordinates\":[[[19.%d,41.1],[19.5,42.%d],[20.1,41.%d],[19.%d,41.1]]]}}";
+    private static final String GZIP = "gzip";
+
+    @Param({"true", "false"})
+    private boolean keepAlive;
+
+    @Param({"identity", GZIP})
+    private String encoding;
+
+    @Param({"0"})
+    private int roundTripMillis;
+
+    private final Set<Integer> knownClientPorts = ConcurrentHashMap.newKeySet();
+    private byte[] uncompressedBody;
+    private byte[] compressedBody;
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String url;
+    private PooledHttpClient client;
+    private RequestStats stats;
+
+
+    /**
+     * Creates the served feature collection and starts the stub server.
+     *
+     * @throws IOException thrown if the server could not be started
+     */
+    @Setup
+    public void setup() throws IOException
+    {
+        final StringBuilder bodyBuilder = new StringBuilder("{\"data\":{\"type\":\"FeatureCollection\",\"features\":[");
+
+        for (int i = 0; i < FEATURE_COUNT; i++) {
+            if (i > 0)
+                bodyBuilder.append(',');
+
+            bodyBuilder.append(String.format(FEATURE, i, i, i, i, i, i));
+        }
+
+        uncompressedBody = bodyBuilder.append("]}}").toString().getBytes(StandardCharsets.UTF_8);
+
+        final ByteArrayOutputStream compressedBytes = new ByteArrayOutputStream();
+
+        try (OutputStream out = new GZIPOutputStream(compressedBytes)) {
+            out.write(uncompressedBody);
+        }
+
+        compressedBody = compressedBytes.toByteArray();
+
+        // sends headers and small bodies without waiting for delayed acknowledgments
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::respond);
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        url = "http://localhost:" + server.getAddress().getPort() + "/eez/";
+        client = new PooledHttpClient(StandardCharsets.UTF_8);
+        stats = new HttpRequestMetrics().getStats(null, url);
+    }
+
+
+    /**
+     * Stops the stub server.
+     */
+    @TearDown
+    public void tearDown()
+    {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+
+    /**
+     * Sends a GET request and reads the decompressed response.
+     *
+     * @return the number of decompressed bytes
+     *
+     * @throws IOException thrown if the response could not be read
+     */
+    @Benchmark
+    public long request() throws IOException
+    {
+        final HttpURLConnection connection = client.sendGetRequest(url);
+        long readBytes = 0;
+
+        try (InputStream body = client.getInputStream(connection, stats)) {
+            final byte[] buffer = new byte[8192];
+            int length;
+
+            while ((length = body.read(buffer)) != -1)
+                readBytes += length;
+        }
+
+        return readBytes;
+    }
+
+
+    /**
+     * Responds to a request of the stub server after waiting for the
+     * simulated round trip time. If connections are not to be kept alive,
+     * the server closes the connection after the response.
+     *
+     * @param exchange the request and response
+     *
+     * @throws IOException thrown if the response could not be sent
+     */
+    private void respond(final HttpExchange exchange) throws IOException
+    {
+        final boolean isNewConnection = knownClientPorts.add(exchange.getRemoteAddress().getPort());
+        final int roundTrips = isNewConnection ? 2 : 1;
+
+        try {
+            Thread.sleep(roundTrips * roundTripMillis);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        final String acceptedEncodings = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        final boolean isCompressed = GZIP.equals(encoding) && acceptedEncodings != null && acceptedEncodings.contains(GZIP);
+
+        if (isCompressed)
+            exchange.getResponseHeaders().add("Content-Encoding", GZIP);
+
+        if (!keepAlive)
+            exchange.getResponseHeaders().add("Connection", "close");
+
+        final byte[] body = isCompressed ? compressedBody : uncompressedBody;
+        exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, body.length);
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * This benchmark compares the fixed pool of prefetching threads to a cached pool
+ * that starts a thread per element, while a semaphore caps the number of elements
+ * that are retrieved at the same time. Both are driven by a {@linkplain PrefetchingIterator}
+ * with the same look-ahead, and retrieve elements that wait for a simulated request
+ * latency, followed by some parsing work:
+ * <br>mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="PrefetchingIteratorBenchmark -p latencyMillis=5,50"
+ *
+ * @author Robin Weiss
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrefetchingIteratorBenchmark
+{
+    private static final String FIXED_POOL = "FixedPool";
+    private static final String CAPPED_CACHED_POOL = "CappedCachedPool";
+    private static final String THREAD_NAME = "PrefetchingIteratorBenchmark";
+
+    @Param({FIXED_POOL, CAPPED_CACHED_POOL})
+    private String executor;
+
+    @Param({"4", "16"})
+    private int concurrency;
+
+    @Param({"64"})
+    private int lookAhead;
+
+    @Param({"200"})
+    private int elementCount;
+
+    @Param({"5"})
+    private int latencyMillis;
+
+    @Param({"1000"})
+    private int parsingTokens;
+
+
+    /**
+     * Retrieves all elements and consumes them in their original order.
+     *
+     * @param blackhole consumes the retrieved elements
+     *
+     * @throws InterruptedException thrown if the executor could not be shut down
+     */
+    @Benchmark
+    public void prefetch(final Blackhole blackhole) throws InterruptedException
+    {
+        final ExecutorService executorService;
+        final Function<Integer, Integer> retrieval;
+
+        if (FIXED_POOL.equals(executor)) {
+            executorService = PrefetchingIterator.createExecutor(THREAD_NAME, concurrency);
+            retrieval = this::retrieve;
+        } else {
+            final Semaphore requestCap = new Semaphore(concurrency);
+            executorService = Executors.newCachedThreadPool();
+            retrieval = (final Integer element) -> {
+                requestCap.acquireUninterruptibly();
+
+                try {
+                    return retrieve(element);
+                } finally {
+                    requestCap.release();
+                }
+            };
+        }
+
+        try {
+            final Iterator<Integer> elements = new PrefetchingIterator<>(
+                IntStream.range(0, elementCount).iterator(),
+                retrieval,
+                executorService,
+                lookAhead);
+
+            while (elements.hasNext())
+                blackhole.consume(elements.next());
+        } finally {
+            executorService.shutdownNow();
+            executorService.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+
+    /**
+     * Simulates the retrieval of the details of an element.
+     *
+     * @param element the element of which the details are retrieved
+     *
+     * @return the retrieved element
+     */
+    private Integer retrieve(final Integer element)
+    {
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        Blackhole.consumeCPU(parsingTokens);
+        return element;
+    }
+}
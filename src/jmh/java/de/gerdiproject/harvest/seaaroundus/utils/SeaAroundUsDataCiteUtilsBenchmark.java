@@ -0,0 +1,149 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsDataCiteConstants;
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsRegionConstants;
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsUrlConstants;
+import de.gerdiproject.harvest.seaaroundus.vos.EntryVO;
+import de.gerdiproject.harvest.seaaroundus.vos.RegionParametersVO;
+import de.gerdiproject.harvest.seaaroundus.vos.UrlVO;
+
+/**
+ * This benchmark measures the creation of all labels and URLs of a single
+ * EEZ or FAO document. It compares the precompiled templates of the
+ * {@linkplain SeaAroundUsDataCiteUtils} to formatting every label and URL anew.
+ * Allocations per document are reported by the GC profiler, which is enabled
+ * by default in the "benchmark" Maven profile:
+ * <br>mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="-prof gc SeaAroundUsDataCiteUtilsBenchmark"
+ *
+ * @author Robin Weiss
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SeaAroundUsDataCiteUtilsBenchmark
+{
+    private static final int REGION_ID = 8;
+    private static final String REGION_NAME = "Albania";
+
+    @Param({"EEZ", "FAO"})
+    private String regionType;
+
+    private RegionParametersVO params;
+
+
+    /**
+     * Retrieves the parameters of the benchmarked region type.
+     */
+    @Setup
+    public void setup()
+    {
+        params = "EEZ".equals(regionType)
+                 ? SeaAroundUsRegionConstants.EEZ_PARAMS
+                 : SeaAroundUsRegionConstants.FAO_PARAMS;
+    }
+
+
+    /**
+     * Creates all labels and URLs of a document by filling in the
+     * precompiled templates.
+     *
+     * @param blackhole consumes the created links and files
+     */
+    @Benchmark
+    public void templates(final Blackhole blackhole)
+    {
+        blackhole.consume(SeaAroundUsDataCiteUtils.createPrimaryProductionLink(params, REGION_ID, REGION_NAME));
+        blackhole.consume(SeaAroundUsDataCiteUtils.createStockStatusLink(params, REGION_ID, REGION_NAME));
+        blackhole.consume(SeaAroundUsDataCiteUtils.createMarineTrophicIndexLink(params, REGION_ID, REGION_NAME));
+        blackhole.consume(SeaAroundUsDataCiteUtils.createPrimaryProductionFile(params, REGION_ID, REGION_NAME));
+        blackhole.consume(SeaAroundUsDataCiteUtils.createStockStatusFile(params, REGION_ID, REGION_NAME));
+        blackhole.consume(SeaAroundUsDataCiteUtils.createMarineTrophicIndexFile(params, REGION_ID, REGION_NAME));
+        blackhole.consume(SeaAroundUsDataCiteUtils.createCatchLinks(params, REGION_ID, REGION_NAME));
+        blackhole.consume(SeaAroundUsDataCiteUtils.createCatchResearchData(params, REGION_ID, REGION_NAME));
+    }
+
+
+    /**
+     * Creates the same labels and URLs as {@linkplain #templates(Blackhole)}
+     * by formatting each of them for every document.
+     *
+     * @param blackhole consumes the created labels and URLs
+     */
+    @Benchmark
+    public void formatStrings(final Blackhole blackhole)
+    {
+        final EntryVO type = params.getRegionType();
+        final UrlVO urls = params.getUrls();
+        final String viewUrl = String.format(SeaAroundUsUrlConstants.VIEW_URL_PREFIX, type.getUrlName());
+        final String apiUrl = SeaAroundUsDataCiteUtils.getAllRegionsUrl(type.getUrlName());
+
+        final String primaryProductionLabel =
+            String.format(SeaAroundUsDataCiteConstants.PRIMARY_PRODUCTION_LABEL, type.getDisplayName(), REGION_NAME);
+        blackhole.consume(primaryProductionLabel);
+        blackhole.consume(urls.getPrimaryProductionViewUrl(viewUrl, REGION_ID));
+        blackhole.consume(urls.getPrimaryProductionDownloadUrl(apiUrl, REGION_ID));
+
+        final String stockStatusLabel =
+            String.format(SeaAroundUsDataCiteConstants.STOCK_STATUS_LABEL, type.getDisplayName(), REGION_NAME);
+        blackhole.consume(stockStatusLabel);
+        blackhole.consume(urls.getStockStatusViewUrl(viewUrl, REGION_ID));
+        blackhole.consume(urls.getStockStatusDownloadUrl(apiUrl, REGION_ID));
+
+        blackhole.consume(String.format(SeaAroundUsDataCiteConstants.MARINE_TROPHIC_INDEX_LABEL, REGION_NAME));
+        blackhole.consume(urls.getMarineTrophicIndexViewUrl(viewUrl, REGION_ID));
+        blackhole.consume(urls.getMarineTrophicIndexDownloadUrl(apiUrl, REGION_ID));
+
+        // links and files format their catch labels separately
+        for (int i = 0; i < 2; i++) {
+            for (final EntryVO measure : params.getMeasures()) {
+                for (final EntryVO dimension : params.getDimensions()) {
+                    blackhole.consume(String.format(
+                                          SeaAroundUsDataCiteConstants.CATCHES_LABEL,
+                                          measure.getDisplayName(),
+                                          dimension.getDisplayName(),
+                                          type.getDisplayName(),
+                                          REGION_NAME));
+
+                    if (i == 0)
+                        blackhole.consume(urls.getCatchesViewUrl(viewUrl, REGION_ID, dimension.getUrlName(), measure.getUrlName()));
+                    else
+                        blackhole.consume(urls.getCatchesDownloadUrl(apiUrl, REGION_ID, dimension.getUrlName(), measure.getUrlName())
+                                          + SeaAroundUsUrlConstants.CSV_FORM);
+                }
+            }
+        }
+    }
+}
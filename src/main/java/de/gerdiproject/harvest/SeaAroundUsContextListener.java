@@ -16,13 +16,19 @@
 package de.gerdiproject.harvest;
 
 import java.util.Arrays;
+import java.util.LinkedList;
 import java.util.List;
 
+import javax.servlet.ServletContextEvent;
 import javax.servlet.annotation.WebListener;
 
 import de.gerdiproject.harvest.application.ContextListener;
 import de.gerdiproject.harvest.etls.AbstractETL;
 import de.gerdiproject.harvest.etls.SeaAroundUsETLFactory;
+import de.gerdiproject.harvest.etls.loaders.ILoader;
+import de.gerdiproject.harvest.etls.loaders.SeaAroundUsDiskLoader;
+import de.gerdiproject.harvest.etls.loaders.SeaAroundUsElasticSearchLoader;
+import de.gerdiproject.harvest.etls.utils.HarvestProgressReporter;
 
 /**
  * This class initializes the harvester service and all objects that are required.
@@ -32,20 +38,52 @@ import de.gerdiproject.harvest.etls.SeaAroundUsETLFactory;
 @WebListener
 public class SeaAroundUsContextListener extends ContextListener
 {
+    private final HarvestProgressReporter progressReporter = new HarvestProgressReporter();
+
+
+    @Override
+    public void contextInitialized(final ServletContextEvent sce)
+    {
+        super.contextInitialized(sce);
+        progressReporter.addEventListeners();
+    }
+
+
+    @Override
+    public void contextDestroyed(final ServletContextEvent sce)
+    {
+        progressReporter.removeEventListeners();
+        super.contextDestroyed(sce);
+    }
+
+
     @Override
     protected List<? extends AbstractETL<?, ?>> createETLs()
     {
-        return Arrays.asList(
-                   SeaAroundUsETLFactory.createTaxonETL(),
-                   SeaAroundUsETLFactory.createGlobalRegionETL(),
-                   SeaAroundUsETLFactory.createFishingEntityETL(),
-                   SeaAroundUsETLFactory.createMaricultureETL(),
-                   SeaAroundUsETLFactory.createCountryETL(),
-                   SeaAroundUsETLFactory.createEezETL(),
-                   SeaAroundUsETLFactory.createRfmoETL(),
-                   SeaAroundUsETLFactory.createLmeETL(),
-                   SeaAroundUsETLFactory.createHighSeasETL(),
-                   SeaAroundUsETLFactory.createFaoETL()
-               );
+        final List<? extends AbstractETL<?, ?>> etls = Arrays.asList(
+            SeaAroundUsETLFactory.createTaxonETL(),
+            SeaAroundUsETLFactory.createGlobalRegionETL(),
+            SeaAroundUsETLFactory.createFishingEntityETL(),
+            SeaAroundUsETLFactory.createMaricultureETL(),
+            SeaAroundUsETLFactory.createCountryETL(),
+            SeaAroundUsETLFactory.createEezETL(),
+            SeaAroundUsETLFactory.createRfmoETL(),
+            SeaAroundUsETLFactory.createLmeETL(),
+            SeaAroundUsETLFactory.createHighSeasETL(),
+            SeaAroundUsETLFactory.createFaoETL()
+        );
+
+        progressReporter.setEtls(etls);
+        return etls;
+    }
+
+
+    @Override
+    protected List<Class<? extends ILoader<?>>> getLoaderClasses()
+    {
+        final List<Class<? extends ILoader<?>>> loaderClasses = new LinkedList<>();
+        loaderClasses.add(SeaAroundUsElasticSearchLoader.class);
+        loaderClasses.add(SeaAroundUsDiskLoader.class);
+        return loaderClasses;
     }
 }
@@ -53,6 +53,7 @@ import de.gerdiproject.harvest.seaaroundus.json.lme.SauLmeRegion;
 import de.gerdiproject.harvest.seaaroundus.json.mariculture.SauMariculture;
 import de.gerdiproject.harvest.seaaroundus.json.rfmo.SauRfmoRegion;
 import de.gerdiproject.harvest.seaaroundus.json.taxa.SauTaxon;
+import de.gerdiproject.harvest.seaaroundus.vos.CatchTemplatesVO;
 import de.gerdiproject.json.datacite.DataCiteJson;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
@@ -146,7 +147,8 @@ public class SeaAroundUsETLFactory // NOPMD the helper class name is suitable
         final String etlName = transformer.getRegionParameters().getEtlName();
         final String urlName = transformer.getRegionParameters().getRegionType().getUrlName();
         final Type responseType = new TypeToken<GenericResponse<SauLmeRegion>>() {} .getType();
-        final RegionExtractor<SauLmeRegion> extractor = new RegionExtractor<>(urlName, responseType);
+        final List<CatchTemplatesVO> catchTemplates = transformer.getRegionParameters().getTemplates().getCatches();
+        final RegionExtractor<SauLmeRegion> extractor = new RegionExtractor<>(urlName, responseType, catchTemplates);
 
         return new StaticIteratorETL<>(etlName, extractor, transformer);
     }
@@ -163,7 +165,8 @@ public class SeaAroundUsETLFactory // NOPMD the helper class name is suitable
         final String etlName = transformer.getRegionParameters().getEtlName();
         final String urlName = transformer.getRegionParameters().getRegionType().getUrlName();
         final Type responseType = new TypeToken<GenericResponse<SauEezRegion>>() {} .getType();
-        final RegionExtractor<SauEezRegion> extractor = new RegionExtractor<>(urlName, responseType);
+        final List<CatchTemplatesVO> catchTemplates = transformer.getRegionParameters().getTemplates().getCatches();
+        final RegionExtractor<SauEezRegion> extractor = new RegionExtractor<>(urlName, responseType, catchTemplates);
 
         return new StaticIteratorETL<>(etlName, extractor, transformer);
     }
@@ -180,7 +183,8 @@ public class SeaAroundUsETLFactory // NOPMD the helper class name is suitable
         final String etlName = transformer.getRegionParameters().getEtlName();
         final String urlName = transformer.getRegionParameters().getRegionType().getUrlName();
         final Type responseType = new TypeToken<GenericResponse<SauRfmoRegion>>() {} .getType();
-        final RegionExtractor<SauRfmoRegion> extractor = new RegionExtractor<>(urlName, responseType);
+        final List<CatchTemplatesVO> catchTemplates = transformer.getRegionParameters().getTemplates().getCatches();
+        final RegionExtractor<SauRfmoRegion> extractor = new RegionExtractor<>(urlName, responseType, catchTemplates);
 
         return new StaticIteratorETL<>(etlName, extractor, transformer);
     }
@@ -197,7 +201,8 @@ public class SeaAroundUsETLFactory // NOPMD the helper class name is suitable
         final String etlName = transformer.getRegionParameters().getEtlName();
         final String urlName = transformer.getRegionParameters().getRegionType().getUrlName();
         final Type responseType = new TypeToken<GenericResponse<GenericRegion>>() {} .getType();
-        final RegionExtractor<GenericRegion> extractor = new RegionExtractor<>(urlName, responseType);
+        final List<CatchTemplatesVO> catchTemplates = transformer.getRegionParameters().getTemplates().getCatches();
+        final RegionExtractor<GenericRegion> extractor = new RegionExtractor<>(urlName, responseType, catchTemplates);
 
         return new StaticIteratorETL<>(etlName, extractor, transformer);
     }
@@ -214,7 +219,8 @@ public class SeaAroundUsETLFactory // NOPMD the helper class name is suitable
         final String etlName = transformer.getRegionParameters().getEtlName();
         final String urlName = transformer.getRegionParameters().getRegionType().getUrlName();
         final Type responseType = new TypeToken<GenericResponse<SauFaoRegion>>() {} .getType();
-        final RegionExtractor<SauFaoRegion> extractor = new RegionExtractor<>(urlName, responseType);
+        final List<CatchTemplatesVO> catchTemplates = transformer.getRegionParameters().getTemplates().getCatches();
+        final RegionExtractor<SauFaoRegion> extractor = new RegionExtractor<>(urlName, responseType, catchTemplates);
 
         return new StaticIteratorETL<>(etlName, extractor, transformer);
     }
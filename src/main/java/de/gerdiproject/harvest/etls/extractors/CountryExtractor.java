@@ -16,23 +16,30 @@
  */
 package de.gerdiproject.harvest.etls.extractors;
 
-import java.lang.reflect.Type;
-import java.util.HashMap;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-
-import com.google.gson.reflect.TypeToken;
+import java.util.NoSuchElementException;
 
+import de.gerdiproject.harvest.config.parameters.BooleanParameter;
 import de.gerdiproject.harvest.etls.AbstractETL;
 import de.gerdiproject.harvest.etls.extractors.vos.CountryVO;
+import de.gerdiproject.harvest.etls.utils.HarvestCheckpoint;
+import de.gerdiproject.harvest.etls.utils.ShardFilter;
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsParameterConstants;
 import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsRegionConstants;
 import de.gerdiproject.harvest.seaaroundus.json.country.SauCountry;
 import de.gerdiproject.harvest.seaaroundus.json.country.SauCountryProperties;
 import de.gerdiproject.harvest.seaaroundus.json.generic.GenericResponse;
+import de.gerdiproject.harvest.seaaroundus.json.generic.SauFeatureSummary;
+import de.gerdiproject.harvest.seaaroundus.utils.ElementPrefetcher;
+import de.gerdiproject.harvest.seaaroundus.utils.FeatureStreamIterator;
+import de.gerdiproject.harvest.seaaroundus.utils.IntGroupIndex;
 import de.gerdiproject.harvest.seaaroundus.utils.SeaAroundUsDataCiteUtils;
-import de.gerdiproject.harvest.utils.data.HttpRequester;
+import de.gerdiproject.harvest.seaaroundus.utils.SeaAroundUsHttpRequester;
+import de.gerdiproject.harvest.seaaroundus.utils.SeaAroundUsParameterUtils;
 import de.gerdiproject.json.geo.Feature;
 import de.gerdiproject.json.geo.FeatureCollection;
 
@@ -40,56 +47,87 @@ import de.gerdiproject.json.geo.FeatureCollection;
  * A {@linkplain AbstractIteratorExtractor} implementation for extracting all countries from SeaAroundUs. <br>
  * <br>
  * see: http://api.seaaroundus.org/api/v1/country/
+ * <br>
+ * If streaming is enabled, the country features are parsed while they are being
+ * downloaded, and each country is extracted as soon as all of its sub-regions, and
+ * those of all preceding countries, were parsed. In both modes, the countries are
+ * extracted in the order in which their first sub-region appears in the list.
+ * The country details can be requested concurrently, several countries ahead of the
+ * country that is currently being extracted.
  *
  * @author Robin Weiss
  */
 public class CountryExtractor extends AbstractIteratorExtractor<CountryVO>
 {
-    protected final HttpRequester httpRequester = new HttpRequester();
+    protected final SeaAroundUsHttpRequester httpRequester = new SeaAroundUsHttpRequester();
 
-    protected final Map<Integer, List<Feature<SauCountryProperties>>> countryMap = new HashMap<>();
+    protected IntGroupIndex<Feature<SauCountryProperties>> countryIndex;
+    private IntGroupIndex<SauCountryProperties> scannedCountries;
     private int countryCount = -1;
     private String version;
 
+    private AbstractETL<?, ?> etl;
+    private ShardFilter shardFilter;
+    private BooleanParameter streamFeaturesParam;
+    private ElementPrefetcher prefetcher;
+    private boolean isStreaming;
+    private FeatureStreamIterator<Feature<SauCountryProperties>> featureStream;
+
 
     @Override
     public void init(final AbstractETL<?, ?> etl)
     {
         super.init(etl);
+        httpRequester.setEtlName(etl.getName());
+        this.etl = etl;
+        this.shardFilter = new ShardFilter();
 
-        // request all countries
-        final String apiUrl = SeaAroundUsDataCiteUtils.getAllRegionsUrl(SeaAroundUsRegionConstants.COUNTRY_API_NAME);
-        final GenericResponse<FeatureCollection<SauCountryProperties>> allCountries =
-            httpRequester.getObjectFromUrl(apiUrl, SeaAroundUsRegionConstants.ALL_COUNTRIES_RESPONSE_TYPE);
+        // the overview of all entries must always be up-to-date
+        httpRequester.setCacheVersion(null);
 
-        // set up the map of country sub-regions
-        countryMap.clear();
-        this.countryCount = 0;
+        this.streamFeaturesParam = SeaAroundUsParameterUtils.registerEtlParameter(
+                                       SeaAroundUsParameterConstants.STREAM_FEATURES_KEY,
+                                       etl,
+                                       SeaAroundUsParameterConstants.STREAM_FEATURES_DEFAULT);
+        this.prefetcher = new ElementPrefetcher(etl);
 
-        for (final Feature<SauCountryProperties> basicCountry : allCountries.getData().getFeatures()) {
-            final int countryId = basicCountry.getProperties().getCNumber();
+        closeFeatureStream();
+        countryIndex = null;
+        scannedCountries = null;
 
-            List<Feature<SauCountryProperties>> subRegions = countryMap.get(countryId);
+        // streamed responses cannot be mocked, nor saved to disk
+        this.isStreaming = streamFeaturesParam.getValue()
+                           && !httpRequester.isReadingFromDisk()
+                           && !httpRequester.isWritingToDisk();
 
-            if (subRegions == null) {
-                subRegions = new LinkedList<>();
-                countryMap.put(countryId, subRegions);
-                this.countryCount++;
-            }
+        // request all countries
+        final String apiUrl = SeaAroundUsDataCiteUtils.getAllRegionsUrl(SeaAroundUsRegionConstants.COUNTRY_API_NAME);
 
-            subRegions.add(basicCountry);
-        }
+        if (isStreaming) {
+            scanCountries(apiUrl);
+        } else {
+            final GenericResponse<FeatureCollection<SauCountryProperties>> allCountries =
+                httpRequester.getObjectFromUrl(apiUrl, SeaAroundUsRegionConstants.ALL_COUNTRIES_RESPONSE_TYPE);
 
+            // group the sub-regions of the countries of the shard of this harvester
+            final List<Feature<SauCountryProperties>> shardSubRegions =
+                shardFilter.filter(allCountries.getData().getFeatures(), CountryExtractor::getCountryId);
+            this.countryIndex = new IntGroupIndex<>(shardSubRegions, CountryExtractor::getCountryId);
+            this.countryCount = countryIndex.getGroupCount();
+
+            // get version from metadata
+            this.version = allCountries.getMetadata().getVersion();
+        }
 
-        // get version from metadata
-        this.version = allCountries.getMetadata().getVersion();
+        // cache all subsequent responses of this version
+        httpRequester.setCacheVersion(version);
     }
 
 
     @Override
     public String getUniqueVersionString()
     {
-        return version;
+        return shardFilter.getShardVersion(version);
     }
 
 
@@ -103,50 +141,277 @@ public class CountryExtractor extends AbstractIteratorExtractor<CountryVO>
     @Override
     protected Iterator<CountryVO> extractAll() throws ExtractorException
     {
-        return new CountryIterator();
+        // skip countries that were loaded before the previous harvest was interrupted
+        final int resumePosition = HarvestCheckpoint.getResumePosition(etl);
+
+        final Iterator<List<Feature<SauCountryProperties>>> countryIterator;
+
+        if (isStreaming)
+            countryIterator = new StreamingCountryIterator(resumePosition);
+        else
+            countryIterator = new CountryIterator(resumePosition);
+
+        return prefetcher.prefetch(countryIterator, this::retrieveCountry);
     }
 
 
     @Override
     public void clear()
     {
-        // nothing to clean up
+        if (prefetcher != null)
+            prefetcher.shutdown();
+
+        closeFeatureStream();
+    }
+
+
+    /**
+     * Streams the list of all countries in order to group the sub-regions of
+     * the countries of the shard of this harvester and to retrieve the version,
+     * without parsing the geometries.
+     *
+     * @param apiUrl the URL of the list of all countries
+     *
+     * @throws ExtractorException if the list could not be retrieved
+     */
+    private void scanCountries(final String apiUrl) throws ExtractorException
+    {
+        final List<SauCountryProperties> shardSubRegions = new ArrayList<>();
+
+        try (FeatureStreamIterator<SauFeatureSummary<SauCountryProperties>> countryScanner =
+                    httpRequester.getFeatureStreamFromUrl(apiUrl, SeaAroundUsRegionConstants.COUNTRY_FEATURE_SUMMARY_TYPE)) {
+            while (countryScanner.hasNext()) {
+                final SauCountryProperties properties = countryScanner.next().getProperties();
+
+                if (shardFilter.contains(properties.getCNumber()))
+                    shardSubRegions.add(properties);
+            }
+
+            // get version from metadata
+            this.version = countryScanner.getMetadata() == null
+                           ? null
+                           : countryScanner.getMetadata().getVersion();
+
+        } catch (final IOException e) {
+            throw new ExtractorException(e);
+        }
+
+        this.scannedCountries = new IntGroupIndex<>(shardSubRegions, SauCountryProperties::getCNumber);
+        this.countryCount = scannedCountries.getGroupCount();
+    }
+
+
+    /**
+     * Retrieves the identifier of the country of a sub-region.
+     *
+     * @param subRegion the feature of a country sub-region
+     *
+     * @return the identifier of the country
+     */
+    private static int getCountryId(final Feature<SauCountryProperties> subRegion)
+    {
+        return subRegion.getProperties().getCNumber();
+    }
+
+
+    /**
+     * Closes the stream of country features, if it was not iterated until the end.
+     */
+    private void closeFeatureStream()
+    {
+        if (featureStream != null) {
+            featureStream.close();
+            featureStream = null;
+        }
+    }
+
+
+    /**
+     * Retrieves the details of a country.
+     *
+     * @param subRegions the features of all sub-regions of the country
+     *
+     * @return a {@linkplain CountryVO} containing the country details and the features
+     */
+    private CountryVO retrieveCountry(final List<Feature<SauCountryProperties>> subRegions)
+    {
+        final int key = subRegions.get(0).getProperties().getCNumber();
+        final String apiUrl = SeaAroundUsDataCiteUtils.getRegionEntryUrl(
+                                  SeaAroundUsRegionConstants.COUNTRY_API_NAME,
+                                  key);
+
+        // retrieve and enrich country
+        final GenericResponse<SauCountry> country = httpRequester.getObjectFromUrl(
+                                                        apiUrl,
+                                                        SeaAroundUsRegionConstants.COUNTRY_RESPONSE_TYPE);
+
+        return new CountryVO(country, subRegions);
     }
 
 
     /**
-     * This iterator iterates through the map of countries and extracts related
-     * data which is then added to the retrieved {@linkplain SauCountry}.
+     * This iterator iterates through the index of countries and returns the
+     * sub-regions of each country, of which the {@linkplain SauCountry} is retrieved.
+     * The sub-regions of each country are removed from the index when the
+     * country is extracted, in order to release them as early as possible.
      *
      * @author Robin Weiss
      */
-    private class CountryIterator implements Iterator<CountryVO>
+    private class CountryIterator implements Iterator<List<Feature<SauCountryProperties>>>
     {
-        private final Iterator<List<Feature<SauCountryProperties>>> countryMapIterator = countryMap.values().iterator();
-        private final Type responseType = new TypeToken<GenericResponse<SauCountry>>() {} .getType();
+        private int nextCountry;
+
+
+        /**
+         * Constructor that skips a number of countries.
+         *
+         * @param skippedCountries the number of countries that are not extracted
+         */
+        CountryIterator(final int skippedCountries)
+        {
+            while (nextCountry < skippedCountries && hasNext())
+                countryIndex.removeGroup(nextCountry++);
+        }
 
         @Override
         public boolean hasNext()
         {
-            return countryMapIterator.hasNext();
+            return nextCountry < countryIndex.getGroupCount();
         }
 
 
         @Override
-        public CountryVO next()
+        public List<Feature<SauCountryProperties>> next()
         {
-            final List<Feature<SauCountryProperties>> subRegions = countryMapIterator.next();
-            final int key = subRegions.get(0).getProperties().getCNumber();
-            final String apiUrl = SeaAroundUsDataCiteUtils.getRegionEntryUrl(
-                                      SeaAroundUsRegionConstants.COUNTRY_API_NAME,
-                                      key);
-
-            // retrieve and enrich country
-            final GenericResponse<SauCountry> country = httpRequester.getObjectFromUrl(
-                                                            apiUrl,
-                                                            responseType);
-
-            return new CountryVO(country, subRegions);
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            return countryIndex.removeGroup(nextCountry++);
+        }
+    }
+
+
+    /**
+     * This iterator parses the country features while they are being downloaded.
+     * The features of a country are collected until all of its sub-regions were
+     * parsed, before they are returned in order to retrieve the related data of the country.
+     * The countries are returned in the order of the scanned list, which is why the
+     * features of a complete country are held back until all preceding countries are complete.
+     *
+     * @author Robin Weiss
+     */
+    private class StreamingCountryIterator implements Iterator<List<Feature<SauCountryProperties>>>
+    {
+        private final List<List<Feature<SauCountryProperties>>> pendingSubRegions;
+        private final int[] missingSubRegionCounts;
+        private int nextCountry;
+        private List<Feature<SauCountryProperties>> nextSubRegions;
+
+
+        /**
+         * Constructor that sends a request for the list of all countries and
+         * skips a number of countries without retrieving their details.
+         *
+         * @param skippedCountries the number of countries that are not extracted
+         *
+         * @throws ExtractorException if the list could not be retrieved
+         */
+        StreamingCountryIterator(final int skippedCountries) throws ExtractorException
+        {
+            closeFeatureStream();
+
+            try {
+                featureStream = httpRequester.getFeatureStreamFromUrl(
+                                    SeaAroundUsDataCiteUtils.getAllRegionsUrl(SeaAroundUsRegionConstants.COUNTRY_API_NAME),
+                                    SeaAroundUsRegionConstants.COUNTRY_FEATURE_TYPE);
+            } catch (final IOException e) {
+                throw new ExtractorException(e);
+            }
+
+            // the countries must not have changed since they were scanned
+            final String streamVersion = featureStream.getMetadata() == null
+                                         ? null
+                                         : featureStream.getMetadata().getVersion();
+
+            if (version != null && !version.equals(streamVersion)) {
+                closeFeatureStream();
+                throw new ExtractorException(String.format(
+                                                 SeaAroundUsParameterConstants.STREAM_VERSION_ERROR,
+                                                 SeaAroundUsRegionConstants.COUNTRY_API_NAME,
+                                                 version,
+                                                 streamVersion));
+            }
+
+            final int scannedCount = scannedCountries.getGroupCount();
+            this.pendingSubRegions = new ArrayList<>(Collections.nCopies(scannedCount, null));
+            this.missingSubRegionCounts = new int[scannedCount];
+
+            for (int i = 0; i < scannedCount; i++)
+                missingSubRegionCounts[i] = scannedCountries.getGroupSize(i);
+
+            int skipped = 0;
+
+            while (skipped < skippedCountries && collectNextCountry() != null)
+                skipped++;
+        }
+
+
+        @Override
+        public boolean hasNext()
+        {
+            if (nextSubRegions == null)
+                nextSubRegions = collectNextCountry();
+
+            return nextSubRegions != null;
+        }
+
+
+        @Override
+        public List<Feature<SauCountryProperties>> next()
+        {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            final List<Feature<SauCountryProperties>> subRegions = nextSubRegions;
+            nextSubRegions = null;
+
+            return subRegions;
+        }
+
+
+        /**
+         * Parses country features until all sub-regions of the next country were parsed.
+         *
+         * @return the features of all sub-regions of the next country, or null if
+         *          there are no more countries
+         */
+        private List<Feature<SauCountryProperties>> collectNextCountry()
+        {
+            while (nextCountry < pendingSubRegions.size()) {
+                // the stream may end early if it was interrupted
+                if (missingSubRegionCounts[nextCountry] <= 0 || !featureStream.hasNext()) {
+                    final List<Feature<SauCountryProperties>> subRegions = pendingSubRegions.set(nextCountry++, null);
+
+                    if (subRegions != null)
+                        return subRegions;
+
+                } else {
+                    final Feature<SauCountryProperties> subRegion = featureStream.next();
+                    final int country = scannedCountries.getGroup(subRegion.getProperties().getCNumber());
+
+                    // skip countries of other shards, and countries that were already returned
+                    if (country < nextCountry)
+                        continue;
+
+                    if (pendingSubRegions.get(country) == null)
+                        pendingSubRegions.set(country, new ArrayList<>(scannedCountries.getGroupSize(country)));
+
+                    pendingSubRegions.get(country).add(subRegion);
+                    missingSubRegionCounts[country]--;
+                }
+            }
+
+            return null;
         }
     }
 }
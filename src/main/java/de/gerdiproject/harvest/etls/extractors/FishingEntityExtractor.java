@@ -21,15 +21,20 @@ import java.util.List;
 
 import de.gerdiproject.harvest.etls.AbstractETL;
 import de.gerdiproject.harvest.etls.extractors.vos.FishingEntityVO;
+import de.gerdiproject.harvest.etls.utils.HarvestCheckpoint;
+import de.gerdiproject.harvest.etls.utils.ShardFilter;
 import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsRegionConstants;
 import de.gerdiproject.harvest.seaaroundus.json.fishingentity.SauFishingEntity;
 import de.gerdiproject.harvest.seaaroundus.json.fishingentity.SauFishingEntityReduced;
 import de.gerdiproject.harvest.seaaroundus.json.generic.GenericResponse;
+import de.gerdiproject.harvest.seaaroundus.utils.ElementPrefetcher;
 import de.gerdiproject.harvest.seaaroundus.utils.SeaAroundUsDataCiteUtils;
-import de.gerdiproject.harvest.utils.data.HttpRequester;
+import de.gerdiproject.harvest.seaaroundus.utils.SeaAroundUsHttpRequester;
 
 /**
  * A {@linkplain AbstractIteratorExtractor} implementation for extracting all Fishing Entities of SeaAroundUs. <br>
+ * The fishing entity details can be requested concurrently, several entities ahead of the
+ * entity that is currently being extracted.<br>
  * see http://api.seaaroundus.org/api/v1/fishing-entity/
  *
  * @author Robin Weiss
@@ -37,9 +42,12 @@ import de.gerdiproject.harvest.utils.data.HttpRequester;
 public class FishingEntityExtractor extends AbstractIteratorExtractor<FishingEntityVO>
 {
     protected static final String REGION_API_NAME = SeaAroundUsRegionConstants.FISHING_ENTITY_PARAMS.getRegionType().getUrlName();
-    protected final HttpRequester httpRequester = new HttpRequester();
+    protected final SeaAroundUsHttpRequester httpRequester = new SeaAroundUsHttpRequester();
     protected Iterator<SauFishingEntityReduced> fishingEntityListIterator;
 
+    private AbstractETL<?, ?> etl;
+    private ShardFilter shardFilter;
+    private ElementPrefetcher prefetcher;
     private String version;
     private int fishingEntityCount = -1;
 
@@ -48,6 +56,13 @@ public class FishingEntityExtractor extends AbstractIteratorExtractor<FishingEnt
     public void init(final AbstractETL<?, ?> etl)
     {
         super.init(etl);
+        httpRequester.setEtlName(etl.getName());
+        this.etl = etl;
+        this.shardFilter = new ShardFilter();
+        this.prefetcher = new ElementPrefetcher(etl);
+
+        // the overview of all entries must always be up-to-date
+        httpRequester.setCacheVersion(null);
 
         // request all items
         final String apiUrl = SeaAroundUsDataCiteUtils.getAllRegionsUrl(REGION_API_NAME);
@@ -55,11 +70,17 @@ public class FishingEntityExtractor extends AbstractIteratorExtractor<FishingEnt
         final GenericResponse<List<SauFishingEntityReduced>> allFishingEntities =
             httpRequester.getObjectFromUrl(apiUrl, SeaAroundUsRegionConstants.ALL_FISHING_ENTITIES_RESPONSE_TYPE);
 
-        this.fishingEntityListIterator = allFishingEntities.getData().iterator();
-        this.fishingEntityCount = allFishingEntities.getData().size();
+        // only harvest the fishing entities of the shard of this harvester
+        final List<SauFishingEntityReduced> shardFishingEntities =
+            shardFilter.filter(allFishingEntities.getData(), SauFishingEntityReduced::getId);
+        this.fishingEntityListIterator = shardFishingEntities.iterator();
+        this.fishingEntityCount = shardFishingEntities.size();
 
         // get version from metadata
         this.version = allFishingEntities.getMetadata().getVersion();
+
+        // cache all subsequent responses of this version
+        httpRequester.setCacheVersion(version);
     }
 
 
@@ -73,49 +94,42 @@ public class FishingEntityExtractor extends AbstractIteratorExtractor<FishingEnt
     @Override
     public String getUniqueVersionString()
     {
-        return version;
+        return shardFilter.getShardVersion(version);
     }
 
 
     @Override
     protected Iterator<FishingEntityVO> extractAll() throws ExtractorException
     {
-        return new FishingEntityIterator();
+        // skip fishing entities that were loaded before the previous harvest was interrupted
+        HarvestCheckpoint.skip(fishingEntityListIterator, HarvestCheckpoint.getResumePosition(etl));
+
+        return prefetcher.prefetch(fishingEntityListIterator, this::retrieveFishingEntity);
     }
 
 
     @Override
     public void clear()
     {
-        // nothing to clean up
+        if (prefetcher != null)
+            prefetcher.shutdown();
     }
 
 
     /**
-     * This iterator iterates a list of sub region IDs of the global Ocean and
-     * returns {@linkplain SauFishingEntity} objects.
+     * Retrieves the details of a single fishing entity.
      *
-     * @author Robin Weiss
+     * @param baseInfo the fishing entity as it is listed in the overview
+     *
+     * @return a {@linkplain FishingEntityVO} containing the {@linkplain SauFishingEntity}
      */
-    private class FishingEntityIterator implements Iterator<FishingEntityVO>
+    protected FishingEntityVO retrieveFishingEntity(final SauFishingEntityReduced baseInfo)
     {
-        @Override
-        public boolean hasNext()
-        {
-            return fishingEntityListIterator.hasNext();
-        }
-
-
-        @Override
-        public FishingEntityVO next()
-        {
-            final SauFishingEntityReduced baseInfo = fishingEntityListIterator.next();
-            final String apiUrl = SeaAroundUsDataCiteUtils.getRegionEntryUrl(REGION_API_NAME, baseInfo.getId());
+        final String apiUrl = SeaAroundUsDataCiteUtils.getRegionEntryUrl(REGION_API_NAME, baseInfo.getId());
 
-            final GenericResponse<SauFishingEntity> fishingEntity =
-                httpRequester.getObjectFromUrl(apiUrl, SeaAroundUsRegionConstants.FISHING_ENTITY_RESPONSE_TYPE);
+        final GenericResponse<SauFishingEntity> fishingEntity =
+            httpRequester.getObjectFromUrl(apiUrl, SeaAroundUsRegionConstants.FISHING_ENTITY_RESPONSE_TYPE);
 
-            return new FishingEntityVO(fishingEntity, baseInfo);
-        }
+        return new FishingEntityVO(fishingEntity, baseInfo);
     }
 }
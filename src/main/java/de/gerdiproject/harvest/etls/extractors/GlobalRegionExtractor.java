@@ -16,18 +16,21 @@
  */
 package de.gerdiproject.harvest.etls.extractors;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
 import de.gerdiproject.harvest.etls.AbstractETL;
 import de.gerdiproject.harvest.etls.extractors.vos.GlobalRegionVO;
+import de.gerdiproject.harvest.etls.utils.HarvestCheckpoint;
+import de.gerdiproject.harvest.etls.utils.ShardFilter;
 import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsDataCiteConstants;
 import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsRegionConstants;
 import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsUrlConstants;
 import de.gerdiproject.harvest.seaaroundus.json.generic.GenericResponse;
 import de.gerdiproject.harvest.seaaroundus.json.global.SauGlobal;
 import de.gerdiproject.harvest.seaaroundus.utils.SeaAroundUsDataCiteUtils;
-import de.gerdiproject.harvest.utils.data.HttpRequester;
+import de.gerdiproject.harvest.seaaroundus.utils.SeaAroundUsHttpRequester;
 
 /**
  * A {@linkplain AbstractIteratorExtractor} implementation for extracting all sub-regions of the Global Seas from SeaAroundUs.
@@ -38,8 +41,11 @@ import de.gerdiproject.harvest.utils.data.HttpRequester;
  */
 public class GlobalRegionExtractor extends AbstractIteratorExtractor<GlobalRegionVO>
 {
-    protected final HttpRequester httpRequester = new HttpRequester();
+    protected final SeaAroundUsHttpRequester httpRequester = new SeaAroundUsHttpRequester();
     protected final List<String> globalSubRegionNames = SeaAroundUsRegionConstants.GLOBAL_SUB_REGION_SUFFIXES;
+    private final List<Integer> shardSubRegionIds = new ArrayList<>();
+    private AbstractETL<?, ?> etl;
+    private ShardFilter shardFilter;
     private String version;
 
 
@@ -47,6 +53,12 @@ public class GlobalRegionExtractor extends AbstractIteratorExtractor<GlobalRegio
     public void init(final AbstractETL<?, ?> etl)
     {
         super.init(etl);
+        httpRequester.setEtlName(etl.getName());
+        this.etl = etl;
+        this.shardFilter = new ShardFilter();
+
+        // the overview of all entries must always be up-to-date
+        httpRequester.setCacheVersion(null);
 
         // get version from metadata
         final GenericResponse<SauGlobal> globalResponse =
@@ -55,27 +67,43 @@ public class GlobalRegionExtractor extends AbstractIteratorExtractor<GlobalRegio
                 SeaAroundUsRegionConstants.GLOBAL_RESPONSE_TYPE);
 
         this.version = globalResponse.getMetadata().getVersion();
+
+        // cache all subsequent responses of this version
+        httpRequester.setCacheVersion(version);
+
+        // only harvest the sub-regions of the shard of this harvester
+        shardSubRegionIds.clear();
+
+        for (int subRegionId = 0; subRegionId < globalSubRegionNames.size(); subRegionId++) {
+            if (shardFilter.contains(subRegionId))
+                shardSubRegionIds.add(subRegionId);
+        }
     }
 
 
     @Override
     public String getUniqueVersionString()
     {
-        return version;
+        return shardFilter.getShardVersion(version);
     }
 
 
     @Override
     public int size()
     {
-        return globalSubRegionNames.size();
+        return shardSubRegionIds.size();
     }
 
 
     @Override
     protected Iterator<GlobalRegionVO> extractAll() throws ExtractorException
     {
-        return new GlobalRegionIterator();
+        final Iterator<Integer> subRegionIds = shardSubRegionIds.iterator();
+
+        // skip sub-regions that were loaded before the previous harvest was interrupted
+        HarvestCheckpoint.skip(subRegionIds, HarvestCheckpoint.getResumePosition(etl));
+
+        return new GlobalRegionIterator(subRegionIds);
     }
 
 
@@ -115,27 +143,37 @@ public class GlobalRegionExtractor extends AbstractIteratorExtractor<GlobalRegio
      */
     private class GlobalRegionIterator implements Iterator<GlobalRegionVO>
     {
-        private int subRegionId = 0; // NOPMD explicit initialization of 0
+        private final Iterator<Integer> subRegionIds;
+
+
+        /**
+         * Constructor that requires the IDs of the extracted sub-regions.
+         *
+         * @param subRegionIds the IDs of the sub-regions that are extracted
+         */
+        GlobalRegionIterator(final Iterator<Integer> subRegionIds)
+        {
+            this.subRegionIds = subRegionIds;
+        }
+
 
         @Override
         public boolean hasNext()
         {
-            return subRegionId < size();
+            return subRegionIds.hasNext();
         }
 
 
         @Override
         public GlobalRegionVO next()
         {
+            final int subRegionId = subRegionIds.next();
             final GenericResponse<SauGlobal> globalResponse = httpRequester.getObjectFromUrl(
                                                                   createApiUrl(subRegionId),
                                                                   SeaAroundUsRegionConstants.GLOBAL_RESPONSE_TYPE);
 
             final String subRegionName = globalSubRegionNames.get(subRegionId);
-            final GlobalRegionVO vo = new GlobalRegionVO(globalResponse, subRegionId, subRegionName);
-            subRegionId++;
-
-            return vo;
+            return new GlobalRegionVO(globalResponse, subRegionId, subRegionName);
         }
     }
 }
@@ -16,22 +16,53 @@
  */
 package de.gerdiproject.harvest.etls.extractors;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import de.gerdiproject.harvest.config.parameters.BooleanParameter;
 import de.gerdiproject.harvest.etls.AbstractETL;
 import de.gerdiproject.harvest.etls.extractors.vos.RegionVO;
+import de.gerdiproject.harvest.etls.utils.GeometryDeduplicator;
+import de.gerdiproject.harvest.etls.utils.HarvestCheckpoint;
+import de.gerdiproject.harvest.etls.utils.ShardFilter;
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsParameterConstants;
 import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsRegionConstants;
+import de.gerdiproject.harvest.seaaroundus.json.catches.SauCatch;
+import de.gerdiproject.harvest.seaaroundus.json.generic.GenericRegion;
 import de.gerdiproject.harvest.seaaroundus.json.generic.GenericResponse;
 import de.gerdiproject.harvest.seaaroundus.json.generic.SauFeatureProperties;
-import de.gerdiproject.harvest.seaaroundus.json.global.SauGlobal;
+import de.gerdiproject.harvest.seaaroundus.utils.CatchSummary;
+import de.gerdiproject.harvest.seaaroundus.utils.ElementPrefetcher;
+import de.gerdiproject.harvest.seaaroundus.utils.FeatureStreamIterator;
 import de.gerdiproject.harvest.seaaroundus.utils.SeaAroundUsDataCiteUtils;
-import de.gerdiproject.harvest.utils.data.HttpRequester;
+import de.gerdiproject.harvest.seaaroundus.utils.SeaAroundUsHttpRequester;
+import de.gerdiproject.harvest.seaaroundus.utils.SeaAroundUsParameterUtils;
+import de.gerdiproject.harvest.seaaroundus.vos.CatchTemplatesVO;
 import de.gerdiproject.json.geo.Feature;
 import de.gerdiproject.json.geo.FeatureCollection;
 
 /**
  * This extractor retrieves region objects from a feature collection of generic regions.
+ * The region details can be requested concurrently, several features ahead of the
+ * feature that is currently being extracted.
+ * <br>
+ * If the region details contain the same geometry as the feature of the region,
+ * both share a single geometry instance.
+ * <br>
+ * If streaming is enabled, the feature collection is parsed one feature at a time
+ * while it is being downloaded, instead of holding all region geometries in memory.
+ * In that case, the collection is requested when the extractor is initialized, but only
+ * its metadata is read until the regions are extracted from the same response.
+ * This is why the number of regions is unknown while streaming.
+ * <br>
+ * If catch summaries are enabled, the catch time series of every measure and
+ * dimension of a region are streamed and summarized along with the region details.
  *
  * @param <T> the type of the extracted region
  *
@@ -39,15 +70,27 @@ import de.gerdiproject.json.geo.FeatureCollection;
  */
 public class RegionExtractor <T> extends AbstractIteratorExtractor<RegionVO<T>>
 {
-    protected final HttpRequester httpRequester;
+    // ETLs re-create their extractors without clearing them, which must not leave streams open
+    private static final Map<String, FeatureStreamIterator<?>> OPEN_STREAMS = new ConcurrentHashMap<>();
+
+    protected final SeaAroundUsHttpRequester httpRequester;
 
     protected final Type responseType;
     protected final String regionApiName;
+    protected final List<CatchTemplatesVO> catchTemplates;
 
     protected Iterator<Feature<SauFeatureProperties>> baseListIterator;
     private String version;
     private int regionCount = -1;
 
+    private AbstractETL<?, ?> etl;
+    private ShardFilter shardFilter;
+    private BooleanParameter streamFeaturesParam;
+    private BooleanParameter summarizeCatchesParam;
+    private ElementPrefetcher prefetcher;
+    private boolean isStreaming;
+    private FeatureStreamIterator<Feature<SauFeatureProperties>> featureStream;
+
 
     /**
      * Constructor that requires the API key of the region that is to be harvested.
@@ -56,12 +99,27 @@ public class RegionExtractor <T> extends AbstractIteratorExtractor<RegionVO<T>>
      * @param responseType the type of a single region server response
      */
     public RegionExtractor(final String regionApiName, final Type responseType)
+    {
+        this(regionApiName, responseType, Collections.emptyList());
+    }
+
+
+    /**
+     * Constructor that requires the API key of the region that is to be harvested,
+     * and the templates of the catches that can be summarized.
+     *
+     * @param regionApiName the API key of the region that is to be harvested
+     * @param responseType the type of a single region server response
+     * @param catchTemplates the templates of the catches of the region
+     */
+    public RegionExtractor(final String regionApiName, final Type responseType, final List<CatchTemplatesVO> catchTemplates)
     {
         super();
-        this.httpRequester = new HttpRequester();
+        this.httpRequester = new SeaAroundUsHttpRequester();
         this.responseType = responseType;
 
         this.regionApiName = regionApiName;
+        this.catchTemplates = catchTemplates;
     }
 
 
@@ -69,17 +127,54 @@ public class RegionExtractor <T> extends AbstractIteratorExtractor<RegionVO<T>>
     public void init(final AbstractETL<?, ?> etl)
     {
         super.init(etl);
+        httpRequester.setEtlName(etl.getName());
+
+        // the overview of all entries must always be up-to-date
+        httpRequester.setCacheVersion(null);
+
+        this.etl = etl;
+        this.shardFilter = new ShardFilter();
+        this.prefetcher = new ElementPrefetcher(etl);
+        this.streamFeaturesParam = SeaAroundUsParameterUtils.registerEtlParameter(
+                                       SeaAroundUsParameterConstants.STREAM_FEATURES_KEY,
+                                       etl,
+                                       SeaAroundUsParameterConstants.STREAM_FEATURES_DEFAULT);
+        this.summarizeCatchesParam = SeaAroundUsParameterUtils.registerEtlParameter(
+                                         SeaAroundUsParameterConstants.SUMMARIZE_CATCHES_KEY,
+                                         etl,
+                                         SeaAroundUsParameterConstants.SUMMARIZE_CATCHES_DEFAULT);
+
+        closeFeatureStream();
+
+        // streamed responses cannot be mocked, nor saved to disk
+        this.isStreaming = streamFeaturesParam.getValue()
+                           && !httpRequester.isReadingFromDisk()
+                           && !httpRequester.isWritingToDisk();
 
         // request all regions
         final String apiUrl = SeaAroundUsDataCiteUtils.getAllRegionsUrl(regionApiName);
-        final GenericResponse<FeatureCollection<SauFeatureProperties>> allRegions =
-            httpRequester.getObjectFromUrl(apiUrl, SeaAroundUsRegionConstants.ALL_REGIONS_RESPONSE_TYPE);
 
-        // get version from metadata
-        this.version = allRegions.getMetadata().getVersion();
+        if (isStreaming) {
+            openFeatureStream(apiUrl);
+            this.version = getStreamVersion();
+            this.regionCount = -1;
+            this.baseListIterator = null;
+        } else {
+            final GenericResponse<FeatureCollection<SauFeatureProperties>> allRegions =
+                httpRequester.getObjectFromUrl(apiUrl, SeaAroundUsRegionConstants.ALL_REGIONS_RESPONSE_TYPE);
 
-        this.regionCount = allRegions.getData().getFeatures().size();
-        this.baseListIterator = allRegions.getData().getFeatures().iterator();
+            // get version from metadata
+            this.version = allRegions.getMetadata().getVersion();
+
+            // only harvest the regions of the shard of this harvester
+            final List<Feature<SauFeatureProperties>> shardRegions =
+                shardFilter.filter(allRegions.getData().getFeatures(), RegionExtractor::getRegionId);
+            this.regionCount = shardRegions.size();
+            this.baseListIterator = shardRegions.iterator();
+        }
+
+        // cache all subsequent responses of this version
+        httpRequester.setCacheVersion(version);
     }
 
 
@@ -93,53 +188,190 @@ public class RegionExtractor <T> extends AbstractIteratorExtractor<RegionVO<T>>
     @Override
     public String getUniqueVersionString()
     {
-        return version;
+        return shardFilter.getShardVersion(version);
     }
 
 
     @Override
     protected Iterator<RegionVO<T>> extractAll() throws ExtractorException
     {
-        return new EntryIterator();
+        final int resumePosition = HarvestCheckpoint.getResumePosition(etl);
+
+        // skip regions that were loaded before the previous harvest was interrupted
+        if (isStreaming) {
+            // the stream that was opened during initialization is only re-opened if it was closed since
+            if (featureStream == null) {
+                openFeatureStream(SeaAroundUsDataCiteUtils.getAllRegionsUrl(regionApiName));
+
+                // the regions must not have changed since the version was retrieved
+                final String streamVersion = getStreamVersion();
+
+                if (version != null && !version.equals(streamVersion)) {
+                    closeFeatureStream();
+                    throw new ExtractorException(String.format(
+                                                     SeaAroundUsParameterConstants.STREAM_VERSION_ERROR,
+                                                     regionApiName,
+                                                     version,
+                                                     streamVersion));
+                }
+            }
+
+            this.baseListIterator = shardFilter.filter(featureStream, RegionExtractor::getRegionId);
+
+            // the features of other shards must be parsed in order to retrieve their region IDs
+            if (shardFilter.isSharded())
+                HarvestCheckpoint.skip(baseListIterator, resumePosition);
+            else {
+                for (int i = 0; i < resumePosition && featureStream.hasNext(); i++)
+                    featureStream.skip();
+            }
+        } else
+            HarvestCheckpoint.skip(baseListIterator, resumePosition);
+
+        return prefetcher.prefetch(baseListIterator, this::retrieveRegion);
     }
 
 
     @Override
     public void clear()
     {
-        // nothing to clean up
+        if (prefetcher != null)
+            prefetcher.shutdown();
+
+        closeFeatureStream();
     }
 
 
     /**
-     * This iterator iterates a list of sub region IDs of the global Ocean and
-     * returns {@linkplain SauGlobal} objects.
+     * Retrieves the details of a single region, and summarizes its
+     * catches if catch summaries are enabled.
+     *
+     * @param feature the feature of the region
      *
-     * @author Robin Weiss
+     * @return a {@linkplain RegionVO} containing the region details and the feature
      */
-    private class EntryIterator implements Iterator<RegionVO<T>>
+    protected RegionVO<T> retrieveRegion(final Feature<SauFeatureProperties> feature)
     {
-        @Override
-        public boolean hasNext()
-        {
-            return baseListIterator.hasNext();
+        final String apiUrl = SeaAroundUsDataCiteUtils.getRegionEntryUrl(
+                                  regionApiName,
+                                  feature.getProperties().getRegionId());
+
+        final GenericResponse<T> response = httpRequester.getObjectFromUrl(apiUrl, responseType);
+
+        // share a single geometry instance if the details contain the same geometry as the feature
+        if (response.getData() instanceof GenericRegion) {
+            final GenericRegion region = (GenericRegion) response.getData();
+            final GeometryDeduplicator deduplicator =
+                new GeometryDeduplicator(SeaAroundUsParameterConstants.GEOMETRY_DEDUPLICATION_TOLERANCE);
+
+            deduplicator.intern(feature.getGeometry());
+            region.setGeojson(deduplicator.intern(region.getGeojson()));
         }
 
+        final List<CatchSummary> catchSummaries = summarizeCatchesParam.getValue()
+                                                  ? summarizeCatches(feature.getProperties().getRegionId())
+                                                  : Collections.emptyList();
+
+        return new RegionVO<>(response, feature, catchSummaries);
+    }
 
-        @Override
-        public RegionVO<T> next()
-        {
-            // retrieve feature
-            final Feature<SauFeatureProperties> feature = baseListIterator.next();
 
-            // retrieve region
-            final String apiUrl = SeaAroundUsDataCiteUtils.getRegionEntryUrl(
-                                      regionApiName,
-                                      feature.getProperties().getRegionId());
+    /**
+     * Retrieves and summarizes the catches of a single region for every
+     * measure and dimension.
+     *
+     * @param regionId the ID of the region
+     *
+     * @return a summary per catch template, which is empty if the catches could not be retrieved
+     */
+    protected List<CatchSummary> summarizeCatches(final int regionId)
+    {
+        final List<CatchSummary> catchSummaries = new ArrayList<>(catchTemplates.size());
+
+        for (final CatchTemplatesVO templates : catchTemplates) {
+            final String apiUrl = templates.getDataUrl().fill(regionId);
+            final CatchSummary summary;
 
-            final GenericResponse<T> response = httpRequester.getObjectFromUrl(apiUrl, responseType);
+            // mocked responses and responses that are written to disk cannot be streamed
+            if (httpRequester.isReadingFromDisk() || httpRequester.isWritingToDisk()) {
+                final GenericResponse<List<SauCatch>> response =
+                    httpRequester.getObjectFromUrl(apiUrl, SeaAroundUsRegionConstants.CATCHES_RESPONSE_TYPE);
+                summary = new CatchSummary();
 
-            return new RegionVO<>(response, feature);
+                if (response != null && response.getData() != null)
+                    response.getData().forEach(summary::addSeries);
+            } else
+                summary = httpRequester.getObjectFromStream(apiUrl, CatchSummary::read);
+
+            catchSummaries.add(summary == null ? new CatchSummary() : summary);
+        }
+
+        return catchSummaries;
+    }
+
+
+    /**
+     * Retrieves the version of the streamed list of all regions. The metadata
+     * is read without parsing any region features.
+     *
+     * @return the version of the list, or null if the metadata does not precede the features
+     */
+    private String getStreamVersion()
+    {
+        return featureStream.getMetadata() == null
+               ? null
+               : featureStream.getMetadata().getVersion();
+    }
+
+
+    /**
+     * Sends a request for the list of all regions and opens a stream
+     * that parses the region features while they are being downloaded.
+     *
+     * @param apiUrl the URL of the list of all regions
+     *
+     * @throws ExtractorException if the list could not be retrieved
+     */
+    private void openFeatureStream(final String apiUrl) throws ExtractorException
+    {
+        closeFeatureStream();
+
+        try {
+            featureStream = httpRequester.getFeatureStreamFromUrl(apiUrl, SeaAroundUsRegionConstants.REGION_FEATURE_TYPE);
+        } catch (final IOException e) {
+            throw new ExtractorException(e);
+        }
+
+        // close the stream of a previous extractor of the same ETL
+        final FeatureStreamIterator<?> abandonedStream = OPEN_STREAMS.put(etl.getName(), featureStream);
+
+        if (abandonedStream != null)
+            abandonedStream.close();
+    }
+
+
+    /**
+     * Closes the stream of region features, if it was not iterated until the end.
+     */
+    private void closeFeatureStream()
+    {
+        if (featureStream != null) {
+            OPEN_STREAMS.remove(etl.getName(), featureStream);
+            featureStream.close();
+            featureStream = null;
         }
     }
+
+
+    /**
+     * Retrieves the ID of a region, which decides the shard of the region.
+     *
+     * @param feature the feature of the region
+     *
+     * @return the ID of the region
+     */
+    private static int getRegionId(final Feature<SauFeatureProperties> feature)
+    {
+        return feature.getProperties().getRegionId();
+    }
 }
@@ -17,28 +17,37 @@
 package de.gerdiproject.harvest.etls.extractors;
 
 import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Function;
 
 import com.google.gson.Gson;
 
 import de.gerdiproject.harvest.etls.AbstractETL;
 import de.gerdiproject.harvest.etls.extractors.vos.TaxonVO;
+import de.gerdiproject.harvest.etls.utils.HarvestCheckpoint;
+import de.gerdiproject.harvest.etls.utils.ShardFilter;
 import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsRegionConstants;
 import de.gerdiproject.harvest.seaaroundus.json.generic.GenericResponse;
 import de.gerdiproject.harvest.seaaroundus.json.taxa.SauTaxon;
 import de.gerdiproject.harvest.seaaroundus.json.taxa.SauTaxonGroup;
 import de.gerdiproject.harvest.seaaroundus.json.taxa.SauTaxonLevel;
 import de.gerdiproject.harvest.seaaroundus.json.taxa.SauTaxonReduced;
+import de.gerdiproject.harvest.seaaroundus.utils.ElementPrefetcher;
+import de.gerdiproject.harvest.seaaroundus.utils.IntObjectMap;
+import de.gerdiproject.harvest.seaaroundus.utils.ReferenceDataCache;
 import de.gerdiproject.harvest.seaaroundus.utils.SeaAroundUsDataCiteUtils;
-import de.gerdiproject.harvest.utils.data.HttpRequester;
+import de.gerdiproject.harvest.seaaroundus.utils.SeaAroundUsHttpRequester;
 import de.gerdiproject.json.GsonUtils;
 
 /**
  * A {@linkplain AbstractIteratorExtractor} implementation for extracting all taxa from SeaAroundUs. <br>
  * <br>
+ * The taxon details can be retrieved concurrently by a fixed number of threads,
+ * while the number of requests that are in flight at the same time is capped.
+ * The taxon groups and levels are retrieved from the {@linkplain ReferenceDataCache},
+ * which shares them with subsequent harvests of the same version.<br>
+ * <br>
  * see: http://api.seaaroundus.org/api/v1/taxa/
  *
  * @author Robin Weiss
@@ -46,42 +55,80 @@ import de.gerdiproject.json.GsonUtils;
 public class TaxonExtractor extends AbstractIteratorExtractor<TaxonVO>
 {
     private final Gson gson = GsonUtils.createGeoJsonGsonBuilder().create();
-    protected final HttpRequester httpRequester = new HttpRequester(gson, StandardCharsets.UTF_8);
+    protected final SeaAroundUsHttpRequester httpRequester = new SeaAroundUsHttpRequester(gson, StandardCharsets.UTF_8);
 
     protected Iterator<SauTaxonReduced> taxonListIterator;
-    protected Map<Integer, String> taxonGroups;
-    protected Map<Integer, String> taxonLevels;
+    protected IntObjectMap<String> taxonGroups;
+    protected IntObjectMap<String> taxonLevels;
     protected String version;
 
     private int taxonCount = -1;
 
+    private AbstractETL<?, ?> etl;
+    private ShardFilter shardFilter;
+    private ElementPrefetcher prefetcher;
+
 
     @Override
     public void init(final AbstractETL<?, ?> etl)
     {
         super.init(etl);
+        httpRequester.setEtlName(etl.getName());
+
+        // the overview of all entries must always be up-to-date
+        httpRequester.setCacheVersion(null);
+
+        this.etl = etl;
+        this.shardFilter = new ShardFilter();
+        this.prefetcher = new ElementPrefetcher(etl);
 
         // request all taxa
         final String apiUrl = SeaAroundUsDataCiteUtils.getAllRegionsUrl(SeaAroundUsRegionConstants.TAXA_API_NAME);
         final GenericResponse<List<SauTaxonReduced>> allTaxa = httpRequester.getObjectFromUrl(
                                                                    apiUrl,
                                                                    SeaAroundUsRegionConstants.ALL_TAXA_RESPONSE_TYPE);
-        this.taxonListIterator = allTaxa.getData().iterator();
-        this.taxonCount = allTaxa.getData().size();
+
+        // only harvest the taxa of the shard of this harvester
+        final List<SauTaxonReduced> shardTaxa = shardFilter.filter(allTaxa.getData(), SauTaxonReduced::getTaxonKey);
+        this.taxonListIterator = shardTaxa.iterator();
+        this.taxonCount = shardTaxa.size();
 
         // get version from metadata
         this.version = allTaxa.getMetadata().getVersion();
 
-        // get taxon groups and levels from other URLs
-        this.taxonGroups = getTaxonGroups();
-        this.taxonLevels = getTaxonLevels();
+        // cache all subsequent responses of this version
+        httpRequester.setCacheVersion(version);
+
+        // share the taxa index with other ETLs
+        final ReferenceDataCache referenceData = ReferenceDataCache.getInstance();
+        referenceData.getDictionary(
+            SeaAroundUsRegionConstants.TAXA_API_NAME,
+            version,
+            allTaxa::getData,
+            SauTaxonReduced::getTaxonKey,
+            Function.identity());
+
+        // get taxon groups and levels from other URLs only once per version,
+        // they are shared read-only by all prefetching threads
+        this.taxonGroups = referenceData.getDictionary(
+                               SeaAroundUsRegionConstants.TAXON_GROUP_API_NAME,
+                               version,
+                               this::getTaxonGroups,
+                               SauTaxonGroup::getTaxonGroupId,
+                               SauTaxonGroup::getName);
+        this.taxonLevels = referenceData.getDictionary(
+                               SeaAroundUsRegionConstants.TAXON_LEVEL_API_NAME,
+                               version,
+                               this::getTaxonLevels,
+                               SauTaxonLevel::getTaxonLevelId,
+                               SauTaxonLevel::getName);
     }
 
 
     @Override
     public String getUniqueVersionString()
     {
-        return version;
+        return shardFilter.getShardVersion(version);
     }
 
 
@@ -95,93 +142,78 @@ public class TaxonExtractor extends AbstractIteratorExtractor<TaxonVO>
     @Override
     protected Iterator<TaxonVO> extractAll() throws ExtractorException
     {
-        return new TaxonIterator();
+        // skip taxa that were loaded before the previous harvest was interrupted
+        HarvestCheckpoint.skip(taxonListIterator, HarvestCheckpoint.getResumePosition(etl));
+
+        // the look-ahead caps the number of requests in flight
+        return prefetcher.prefetch(taxonListIterator, this::retrieveTaxon);
     }
 
 
     /**
-     * Gets a map of taxon group names.
+     * Retrieves the details of a single taxon and enriches them with
+     * the taxon level and group names.
      *
-     * @return a map of taxon group names
+     * @param baseInfo the taxon as it is listed in the taxa overview
+     *
+     * @return a {@linkplain TaxonVO} containing all taxon related data
      */
-    private Map<Integer, String> getTaxonGroups()
+    protected TaxonVO retrieveTaxon(final SauTaxonReduced baseInfo)
     {
-        final String taxonGroupUrl =
-            SeaAroundUsDataCiteUtils.getAllRegionsUrl(SeaAroundUsRegionConstants.TAXON_GROUP_API_NAME);
+        final int key = baseInfo.getTaxonKey();
+        final String apiUrl = SeaAroundUsDataCiteUtils.getRegionEntryUrl(
+                                  SeaAroundUsRegionConstants.TAXA_API_NAME,
+                                  key);
 
-        final GenericResponse<List<SauTaxonGroup>> response =
-            httpRequester.getObjectFromUrl(taxonGroupUrl, SeaAroundUsRegionConstants.TAXON_GROUP_RESPONSE_TYPE);
+        // retrieve and enrich taxon details
+        final GenericResponse<SauTaxon> taxon =
+            httpRequester.getObjectFromUrl(apiUrl, SeaAroundUsRegionConstants.TAXON_RESPONSE_TYPE);
+
+        final String groupName = taxonGroups.get(taxon.getData().getTaxonGroupId());
+        final String levelName = taxonLevels.get(taxon.getData().getTaxonLevelId());
 
-        // create map out of group list
-        final Map<Integer, String> taxonLevelMap = new HashMap<>();
-        response.getData().forEach((final SauTaxonGroup g) ->
-                                   taxonLevelMap.put(g.getTaxonGroupId(), g.getName())
-                                  );
-        return taxonLevelMap;
+        return new TaxonVO(taxon, baseInfo, levelName, groupName);
     }
 
 
     /**
-     * Gets a map of taxon level names.
+     * Retrieves the list of all taxon groups.
      *
-     * @return a map of taxon level names
+     * @return a list of all taxon groups
      */
-    private Map<Integer, String> getTaxonLevels()
+    private List<SauTaxonGroup> getTaxonGroups()
     {
         final String taxonGroupUrl =
-            SeaAroundUsDataCiteUtils.getAllRegionsUrl(SeaAroundUsRegionConstants.TAXON_LEVEL_API_NAME);
-
-        final GenericResponse<List<SauTaxonLevel>> response =
-            httpRequester.getObjectFromUrl(taxonGroupUrl, SeaAroundUsRegionConstants.TAXON_LEVEL_RESPONSE_TYPE);
-
-        final Map<Integer, String> taxonLevelMap = new HashMap<>();
-        response.getData().forEach((final SauTaxonLevel l) ->
-                                   taxonLevelMap.put(l.getTaxonLevelId(), l.getName())
-                                  );
-        return taxonLevelMap;
-    }
+            SeaAroundUsDataCiteUtils.getAllRegionsUrl(SeaAroundUsRegionConstants.TAXON_GROUP_API_NAME);
 
+        final GenericResponse<List<SauTaxonGroup>> response =
+            httpRequester.getObjectFromUrl(taxonGroupUrl, SeaAroundUsRegionConstants.TAXON_GROUP_RESPONSE_TYPE);
 
-    @Override
-    public void clear()
-    {
-        // nothing to clean up
+        return response.getData();
     }
 
 
     /**
-     * This iterator iterates a list of taxon keys and extracts more taxon related
-     * data which is then added to the retrieved {@linkplain SauTaxon}.
+     * Retrieves the list of all taxon levels.
      *
-     * @author Robin Weiss
+     * @return a list of all taxon levels
      */
-    private class TaxonIterator implements Iterator<TaxonVO>
+    private List<SauTaxonLevel> getTaxonLevels()
     {
-        @Override
-        public boolean hasNext()
-        {
-            return taxonListIterator.hasNext();
-        }
-
-
-        @Override
-        public TaxonVO next()
-        {
-            final SauTaxonReduced baseInfo = taxonListIterator.next();
-            final int key = baseInfo.getTaxonKey();
-            final String apiUrl = SeaAroundUsDataCiteUtils.getRegionEntryUrl(
-                                      SeaAroundUsRegionConstants.TAXA_API_NAME,
-                                      key);
+        final String taxonLevelUrl =
+            SeaAroundUsDataCiteUtils.getAllRegionsUrl(SeaAroundUsRegionConstants.TAXON_LEVEL_API_NAME);
 
-            // retrieve and enrich taxon details
-            final GenericResponse<SauTaxon> taxon =
-                httpRequester.getObjectFromUrl(apiUrl, SeaAroundUsRegionConstants.TAXON_RESPONSE_TYPE);
+        final GenericResponse<List<SauTaxonLevel>> response =
+            httpRequester.getObjectFromUrl(taxonLevelUrl, SeaAroundUsRegionConstants.TAXON_LEVEL_RESPONSE_TYPE);
 
-            final String groupName = taxonGroups.get(taxon.getData().getTaxonGroupId());
-            final String levelName = taxonLevels.get(taxon.getData().getTaxonLevelId());
+        return response.getData();
+    }
 
-            return new TaxonVO(taxon, baseInfo, levelName, groupName);
-        }
 
+    @Override
+    public void clear()
+    {
+        if (prefetcher != null)
+            prefetcher.shutdown();
     }
 }
@@ -17,8 +17,11 @@
 package de.gerdiproject.harvest.etls.extractors.vos;
 
 
+import java.util.List;
+
 import de.gerdiproject.harvest.seaaroundus.json.generic.GenericResponse;
 import de.gerdiproject.harvest.seaaroundus.json.generic.SauFeatureProperties;
+import de.gerdiproject.harvest.seaaroundus.utils.CatchSummary;
 import de.gerdiproject.json.geo.Feature;
 import lombok.Value;
 
@@ -32,4 +35,10 @@ public class RegionVO<T>
 {
     private final GenericResponse<T> response;
     private final Feature<SauFeatureProperties> feature;
+
+    /**
+     * Summaries of the catches of the region, ordered like the catch templates
+     * of the region parameters, or an empty list if catches are not summarized.
+     */
+    private final List<CatchSummary> catchSummaries;
 }
@@ -0,0 +1,122 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.etls.loaders;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import de.gerdiproject.json.datacite.DataCiteJson;
+
+/**
+ * A batch of serialized bulk instructions that are sent to a search index
+ * in a single request. The size of a batch is the number of bytes of its
+ * uncompressed instructions.
+ *
+ * @author Robin Weiss
+ */
+public class BulkRequestBatch
+{
+    private final ByteArrayOutputStream instructions = new ByteArrayOutputStream();
+    private final Map<String, DataCiteJson> indexedDocuments = new HashMap<>();
+    private int instructionCount;
+
+
+    /**
+     * Adds a serialized bulk instruction to the batch.
+     *
+     * @param documentId the identifier of the document that is indexed or deleted
+     * @param document the document that is indexed, or null if it is deleted
+     * @param instruction the serialized bulk instruction
+     */
+    public void add(final String documentId, final DataCiteJson document, final byte[] instruction)
+    {
+        instructions.write(instruction, 0, instruction.length);
+        instructionCount++;
+
+        if (document == null)
+            indexedDocuments.remove(documentId);
+        else
+            indexedDocuments.put(documentId, document);
+    }
+
+
+    /**
+     * Writes all instructions of the batch to a stream.
+     *
+     * @param out the stream to which the instructions are written
+     * @param isCompressed if true, the instructions are gzip compressed
+     *
+     * @throws IOException if the instructions could not be written
+     */
+    public void writeTo(final OutputStream out, final boolean isCompressed) throws IOException
+    {
+        if (isCompressed) {
+            final GZIPOutputStream compressedOut = new GZIPOutputStream(out);
+            instructions.writeTo(compressedOut);
+            compressedOut.finish();
+        } else
+            instructions.writeTo(out);
+    }
+
+
+    /**
+     * Returns the number of bytes of all uncompressed instructions.
+     *
+     * @return the size of the batch in bytes
+     */
+    public int getSize()
+    {
+        return instructions.size();
+    }
+
+
+    /**
+     * Returns the number of instructions in the batch.
+     *
+     * @return the number of indexed and deleted documents
+     */
+    public int getInstructionCount()
+    {
+        return instructionCount;
+    }
+
+
+    /**
+     * Checks if the batch contains no instructions.
+     *
+     * @return true if the batch contains no instructions
+     */
+    public boolean isEmpty()
+    {
+        return instructionCount == 0;
+    }
+
+
+    /**
+     * Returns the documents that are indexed by the batch, mapped by their identifiers.
+     *
+     * @return an unmodifiable map of indexed documents
+     */
+    public Map<String, DataCiteJson> getIndexedDocuments()
+    {
+        return Collections.unmodifiableMap(indexedDocuments);
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.etls.loaders;
+
+import de.gerdiproject.json.datacite.DataCiteJson;
+
+/**
+ * This document signals loaders that a previously harvested document
+ * no longer exists in the source repository and must be removed.
+ *
+ * @author Robin Weiss
+ */
+public class DeletedDocument extends DataCiteJson
+{
+    /**
+     * Constructor that requires the identifier of the removed document.
+     *
+     * @param sourceId the source identifier of the removed document
+     */
+    public DeletedDocument(final String sourceId)
+    {
+        super(sourceId);
+    }
+}
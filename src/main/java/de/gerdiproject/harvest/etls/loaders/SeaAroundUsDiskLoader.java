@@ -0,0 +1,49 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.etls.loaders;
+
+import de.gerdiproject.harvest.etls.AbstractETL;
+import de.gerdiproject.harvest.etls.utils.HarvestCheckpoint;
+import de.gerdiproject.json.datacite.DataCiteJson;
+
+/**
+ * A {@linkplain DiskLoader} that ignores {@linkplain DeletedDocument}s.
+ * Since every harvest creates a new file, interrupted harvests are never resumed.
+ *
+ * @author Robin Weiss
+ */
+public class SeaAroundUsDiskLoader extends DiskLoader
+{
+    @Override
+    public void init(final AbstractETL<?, ?> etl)
+    {
+        super.init(etl);
+
+        // the file must contain all documents, so the extractor must not skip any
+        final HarvestCheckpoint checkpoint = HarvestCheckpoint.create(etl);
+
+        if (checkpoint != null)
+            checkpoint.delete();
+    }
+
+
+    @Override
+    public void loadElement(final DataCiteJson document) throws LoaderException
+    {
+        if (!(document instanceof DeletedDocument))
+            super.loadElement(document);
+    }
+}
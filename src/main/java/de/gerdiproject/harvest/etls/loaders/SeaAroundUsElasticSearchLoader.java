@@ -0,0 +1,404 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.etls.loaders;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+
+import com.google.gson.Gson;
+
+import de.gerdiproject.harvest.config.Configuration;
+import de.gerdiproject.harvest.config.parameters.BooleanParameter;
+import de.gerdiproject.harvest.config.parameters.constants.ParameterMappingFunctions;
+import de.gerdiproject.harvest.etls.AbstractETL;
+import de.gerdiproject.harvest.etls.enums.ETLState;
+import de.gerdiproject.harvest.etls.loaders.constants.ElasticSearchConstants;
+import de.gerdiproject.harvest.etls.loaders.constants.LoaderConstants;
+import de.gerdiproject.harvest.etls.loaders.json.ElasticSearchIndex;
+import de.gerdiproject.harvest.etls.loaders.json.ElasticSearchIndexWrapper;
+import de.gerdiproject.harvest.etls.loaders.json.ElasticSearchResponse;
+import de.gerdiproject.harvest.etls.utils.HarvestCheckpoint;
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsParameterConstants;
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsProgressConstants;
+import de.gerdiproject.harvest.seaaroundus.utils.DataCiteFragmentCache;
+import de.gerdiproject.harvest.seaaroundus.utils.SeaAroundUsParameterUtils;
+import de.gerdiproject.harvest.utils.data.constants.DataOperationConstants;
+import de.gerdiproject.harvest.utils.data.enums.RestRequestType;
+import de.gerdiproject.json.GsonUtils;
+import de.gerdiproject.json.datacite.DataCiteJson;
+
+/**
+ * An {@linkplain ElasticSearchLoader} that removes {@linkplain DeletedDocument}s
+ * from the index instead of indexing them.
+ * <br>
+ * Documents are serialized only once, splicing cached JSON of their constant parts
+ * from a {@linkplain DataCiteFragmentCache}, into {@linkplain BulkRequestBatch}es that
+ * are capped by the number of bytes of their bulk instructions, because the sizes
+ * of documents range from a few hundred bytes to megabytes of polygons.
+ * Finished batches are compressed and uploaded by a background thread, while
+ * the next batch is being serialized.
+ * <br>
+ * After each successful upload, the number of harvested elements is committed to a
+ * {@linkplain HarvestCheckpoint}, allowing an interrupted harvest to be resumed.
+ *
+ * @author Robin Weiss
+ */
+public class SeaAroundUsElasticSearchLoader extends ElasticSearchLoader
+{
+    private static final Pattern DATE_RANGE_PATTERN = Pattern.compile(ElasticSearchConstants.DATE_RANGE_REGEX);
+    private static final Pattern DATE_PATTERN = Pattern.compile(ElasticSearchConstants.DATE_REGEX);
+    private static final Gson DOCUMENT_GSON = DataCiteFragmentCache.createGsonBuilder().create();
+
+    private final Gson gson = GsonUtils.createGerdiDocumentGsonBuilder().create();
+    private final BooleanParameter compressBatchesParam;
+    private BulkRequestBatch currentBatch;
+    private ExecutorService uploadExecutor;
+    private Future<?> pendingUpload;
+    private HarvestCheckpoint checkpoint;
+
+
+    /**
+     * Constructor that registers the parameters of the loader.
+     */
+    public SeaAroundUsElasticSearchLoader()
+    {
+        super();
+        this.compressBatchesParam = SeaAroundUsParameterUtils.registerParameter(
+                                        new BooleanParameter(
+                                            SeaAroundUsParameterConstants.COMPRESS_BATCHES_KEY,
+                                            LoaderConstants.PARAMETER_CATEGORY,
+                                            SeaAroundUsParameterConstants.COMPRESS_BATCHES_DEFAULT,
+                                            ParameterMappingFunctions.createMapperForETLs(ParameterMappingFunctions::mapToBoolean)));
+    }
+
+
+    @Override
+    public void unregisterParameters()
+    {
+        super.unregisterParameters();
+        Configuration.unregisterParameter(compressBatchesParam);
+    }
+
+
+    @Override
+    public void init(final AbstractETL<?, ?> etl)
+    {
+        super.init(etl);
+
+        final String threadName = String.format(SeaAroundUsParameterConstants.BULK_UPLOAD_THREAD_NAME, etl.getName());
+        this.currentBatch = new BulkRequestBatch();
+        this.pendingUpload = null;
+        this.checkpoint = HarvestCheckpoint.create(etl);
+        this.uploadExecutor = Executors.newSingleThreadExecutor((final Runnable r) -> {
+            final Thread thread = new Thread(r, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+
+    @Override
+    public void load(final Iterator<DataCiteJson> documents) throws LoaderException
+    {
+        final int resumePosition = checkpoint == null ? 0 : checkpoint.getPosition(dedicatedEtl.getHash());
+
+        // count the elements that were loaded before the harvest was interrupted
+        if (resumePosition > 0) {
+            logger.info(String.format(SeaAroundUsProgressConstants.RESUME_REPORT, dedicatedEtl.getName(), resumePosition));
+
+            for (int i = 0; i < resumePosition; i++)
+                dedicatedEtl.incrementHarvestedDocuments();
+        }
+
+        super.load(documents);
+        submitCurrentBatch();
+        awaitPendingUpload();
+
+        // the next harvest must start from the beginning, unless this one was aborted
+        if (checkpoint != null && dedicatedEtl.getState() == ETLState.HARVESTING)
+            checkpoint.delete();
+    }
+
+
+    @Override
+    public void loadElement(final DataCiteJson document) throws LoaderException
+    {
+        final String documentId = getDocumentId(document);
+        final DataCiteJson indexedDocument = document instanceof DeletedDocument ? null : document;
+        final byte[] instruction = createBulkInstruction(documentId, indexedDocument);
+        final int maxBatchSize = maxBatchSizeParam.getValue();
+
+        if (instruction.length > maxBatchSize)
+            throw new LoaderException(String.format(LoaderConstants.DOCUMENT_TOO_LARGE, documentId, instruction.length, maxBatchSize));
+
+        if (currentBatch.getSize() + instruction.length > maxBatchSize)
+            submitCurrentBatch();
+
+        currentBatch.add(documentId, indexedDocument, instruction);
+    }
+
+
+    @Override
+    public void clear()
+    {
+        super.clear();
+
+        if (uploadExecutor == null)
+            return;
+
+        try {
+            submitCurrentBatch();
+            awaitPendingUpload();
+        } catch (final LoaderException e) {
+            logger.warn(LoaderConstants.CLEAN_LOAD_ERROR, e);
+        } finally {
+            uploadExecutor.shutdown();
+            uploadExecutor = null;
+            currentBatch = null;
+            checkpoint = null;
+        }
+    }
+
+
+    /**
+     * Hands the current batch over to the upload thread and starts a new batch.
+     * Since only one batch is uploaded at a time, this method blocks until
+     * the previous batch was uploaded. All elements that were harvested until
+     * now are committed to the checkpoint as soon as the batch was uploaded.
+     *
+     * @throws LoaderException if the previous batch could not be uploaded
+     */
+    private void submitCurrentBatch() throws LoaderException
+    {
+        if (currentBatch == null || currentBatch.isEmpty())
+            return;
+
+        awaitPendingUpload();
+
+        final BulkRequestBatch batch = currentBatch;
+        final boolean isCompressed = compressBatchesParam.getValue();
+        final HarvestCheckpoint batchCheckpoint = checkpoint;
+        final String version = dedicatedEtl.getHash();
+        final int position = dedicatedEtl.getHarvestedCount();
+
+        currentBatch = new BulkRequestBatch();
+        pendingUpload = uploadExecutor.submit(() -> {
+            uploadBatch(batch, isCompressed);
+
+            if (batchCheckpoint != null)
+                batchCheckpoint.commit(version, position);
+        });
+    }
+
+
+    /**
+     * Blocks until the batch that is currently being uploaded is done.
+     *
+     * @throws LoaderException if the batch could not be uploaded
+     */
+    private void awaitPendingUpload() throws LoaderException
+    {
+        if (pendingUpload == null)
+            return;
+
+        try {
+            pendingUpload.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LoaderException(e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof LoaderException)
+                throw (LoaderException) e.getCause();
+
+            throw new LoaderException(e.getCause());
+        } finally {
+            pendingUpload = null;
+        }
+    }
+
+
+    /**
+     * Uploads a batch and resubmits documents that could not be indexed,
+     * after removing their invalid fields.
+     *
+     * @param batch the uploaded batch
+     * @param isCompressed if true, the batch is gzip compressed
+     *
+     * @throws LoaderException if the batch could not be uploaded
+     */
+    private void uploadBatch(final BulkRequestBatch batch, final boolean isCompressed) throws LoaderException
+    {
+        final ElasticSearchResponse response;
+
+        try {
+            response = sendBulkRequest(batch, isCompressed);
+        } catch (final IOException e) {
+            throw new LoaderException(e);
+        }
+
+        if (response != null && response.hasErrors()) {
+            final Map<String, DataCiteJson> failedDocuments = getFailedDocuments(response, batch);
+
+            if (!failedDocuments.isEmpty()) {
+                logger.warn(String.format(SeaAroundUsParameterConstants.BULK_UPLOAD_RESUBMIT, failedDocuments.size()));
+
+                try {
+                    super.loadBatch(failedDocuments);
+                } catch (final RuntimeException e) {
+                    throw new LoaderException(e);
+                }
+            }
+        }
+
+        if (logger.isInfoEnabled())
+            logger.info(String.format(LoaderConstants.LOADED_PARTIAL_OK, batch.getInstructionCount()));
+    }
+
+
+    /**
+     * Sends a batch to the bulk API of Elasticsearch and parses the response.
+     *
+     * @param batch the uploaded batch
+     * @param isCompressed if true, the request body is gzip compressed
+     *
+     * @return the parsed response
+     *
+     * @throws IOException if the request failed
+     */
+    private ElasticSearchResponse sendBulkRequest(final BulkRequestBatch batch, final boolean isCompressed) throws IOException
+    {
+        final String url = getUrl();
+        final String credentials = getCredentials();
+
+        final HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod(RestRequestType.POST.toString());
+        connection.setDoOutput(true);
+        connection.setUseCaches(false);
+        connection.setRequestProperty(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
+
+        if (credentials != null)
+            connection.setRequestProperty(SeaAroundUsParameterConstants.AUTHORIZATION_HEADER, credentials);
+
+        if (isCompressed) {
+            connection.setRequestProperty(SeaAroundUsParameterConstants.CONTENT_ENCODING_HEADER, DataOperationConstants.GZIP_ENCODING);
+            connection.setChunkedStreamingMode(0);
+        } else
+            connection.setFixedLengthStreamingMode(batch.getSize());
+
+        try (OutputStream out = connection.getOutputStream()) {
+            batch.writeTo(out, isCompressed);
+        }
+
+        final int statusCode = connection.getResponseCode();
+
+        if (statusCode >= HttpURLConnection.HTTP_BAD_REQUEST) {
+            String errorText = null;
+            final InputStream errorStream = connection.getErrorStream();
+
+            if (errorStream != null) {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(errorStream, StandardCharsets.UTF_8))) {
+                    errorText = reader.lines().collect(Collectors.joining(System.lineSeparator()));
+                }
+            }
+
+            throw new IOException(String.format(SeaAroundUsParameterConstants.BULK_UPLOAD_ERROR, url, statusCode, errorText));
+        }
+
+        try (Reader reader = new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)) {
+            return gson.fromJson(reader, ElasticSearchResponse.class);
+        }
+    }
+
+
+    /**
+     * Retrieves all documents of a batch that could not be indexed.
+     *
+     * @param response the response to the bulk request of the batch
+     * @param batch the uploaded batch
+     *
+     * @return a map of documents that could not be indexed
+     */
+    private Map<String, DataCiteJson> getFailedDocuments(final ElasticSearchResponse response, final BulkRequestBatch batch)
+    {
+        final Map<String, DataCiteJson> indexedDocuments = batch.getIndexedDocuments();
+        final Map<String, DataCiteJson> failedDocuments = new HashMap<>();
+
+        for (final ElasticSearchIndexWrapper item : response.getItems()) {
+            // the items of deletions have no index
+            final ElasticSearchIndex index = item.getIndex();
+
+            if (index != null && index.getError() != null && indexedDocuments.containsKey(index.getId()))
+                failedDocuments.put(index.getId(), indexedDocuments.get(index.getId()));
+        }
+
+        return failedDocuments;
+    }
+
+
+    /**
+     * Serializes a bulk instruction that indexes or deletes a document.
+     *
+     * @param documentId the identifier of the document
+     * @param document the indexed document, or null if it is to be deleted
+     *
+     * @return the UTF-8 bytes of the bulk instruction
+     */
+    private static byte[] createBulkInstruction(final String documentId, final DataCiteJson document)
+    {
+        final String instruction = document == null
+                                   ? String.format(ElasticSearchConstants.BATCH_DELETE_INSTRUCTION, documentId)
+                                   : String.format(ElasticSearchConstants.BATCH_INDEX_INSTRUCTION, documentId, toElasticSearchJson(document));
+
+        return instruction.getBytes(StandardCharsets.UTF_8);
+    }
+
+
+    /**
+     * Serializes a document and converts its dates to date ranges, which
+     * are expected by the index.
+     *
+     * @param document the serialized document
+     *
+     * @return the JSON representation of the document
+     */
+    private static String toElasticSearchJson(final DataCiteJson document)
+    {
+        final String jsonWithDateRanges = DATE_RANGE_PATTERN.matcher(DOCUMENT_GSON.toJson(document))
+                                          .replaceAll(ElasticSearchConstants.DATE_RANGE_REPLACEMENT);
+
+        return DATE_PATTERN.matcher(jsonWithDateRanges)
+               .replaceAll(ElasticSearchConstants.DATE_REPLACEMENT);
+    }
+}
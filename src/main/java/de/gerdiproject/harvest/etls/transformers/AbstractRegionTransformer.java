@@ -17,15 +17,15 @@
 package de.gerdiproject.harvest.etls.transformers;
 
 import java.io.File;
-import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
 import com.vividsolutions.jts.geom.Geometry;
 
-import de.gerdiproject.harvest.etls.AbstractETL;
 import de.gerdiproject.harvest.etls.extractors.vos.RegionVO;
+import de.gerdiproject.harvest.etls.utils.GeometryDeduplicator;
 import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsDataCiteConstants;
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsParameterConstants;
 import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsUrlConstants;
 import de.gerdiproject.harvest.seaaroundus.json.generic.GenericRegion;
 import de.gerdiproject.harvest.seaaroundus.json.generic.Metric;
@@ -47,7 +47,7 @@ import de.gerdiproject.json.datacite.extension.generic.WebLink;
  *
  * @author Robin Weiss
  */
-public abstract class AbstractRegionTransformer <T extends GenericRegion> extends AbstractIteratorTransformer<RegionVO<T>, DataCiteJson>
+public abstract class AbstractRegionTransformer <T extends GenericRegion> extends AbstractSeaAroundUsTransformer<RegionVO<T>>
 {
     protected final RegionParametersVO params;
 
@@ -65,9 +65,11 @@ public abstract class AbstractRegionTransformer <T extends GenericRegion> extend
 
 
     @Override
-    public void init(final AbstractETL<?, ?> etl) // NOPMD init is empty on purpose here
+    protected String getDocumentId(final RegionVO<T> vo)
     {
-        // nothing to retrieve from the ETL
+        final T region = vo.getResponse().getData();
+        final int regionId = vo.getFeature().getProperties().getRegionId();
+        return region.getClass().getSimpleName() + regionId;
     }
 
 
@@ -78,7 +80,7 @@ public abstract class AbstractRegionTransformer <T extends GenericRegion> extend
         final SauFeatureProperties properties = vo.getFeature().getProperties();
         final int regionId = properties.getRegionId();
 
-        final DataCiteJson document = new DataCiteJson(region.getClass().getSimpleName() + regionId);
+        final DataCiteJson document = new DataCiteJson(getDocumentId(vo));
         document.setVersion(vo.getResponse().getMetadata().getVersion());
         document.setRepositoryIdentifier(SeaAroundUsDataCiteConstants.REPOSITORY_ID);
         document.addResearchDisciplines(SeaAroundUsDataCiteConstants.RESEARCH_DISCIPLINES);
@@ -179,6 +181,7 @@ public abstract class AbstractRegionTransformer <T extends GenericRegion> extend
 
     /**
      * Retrieves the {@linkplain GeoJson} from the base region object and adds it to a list of {@linkplain GeoLocation}s.
+     * Polygons of the region details that are identical or near-identical to the region borders are omitted.
      *
      * @param vo the extracted region value object
      *
@@ -190,13 +193,23 @@ public abstract class AbstractRegionTransformer <T extends GenericRegion> extend
         final Geometry regionGeometry = vo.getResponse().getData().getGeojson();
         final String regionName = vo.getFeature().getProperties().getTitle();
 
-        final List<GeoLocation> geoLocations =
-            SeaAroundUsDataCiteUtils.createBasicGeoLocations(regionBorders, regionName);
+        final GeometryDeduplicator deduplicator =
+            new GeometryDeduplicator(SeaAroundUsParameterConstants.GEOMETRY_DEDUPLICATION_TOLERANCE);
+        final List<GeoLocation> geoLocations = new LinkedList<>();
+
+        if (regionBorders != null) {
+            final GeoLocation borderLocation = new GeoLocation();
+            borderLocation.setPlace(regionName);
+            borderLocation.addPolygons(deduplicator.getUniquePolygons(regionBorders));
+            geoLocations.add(borderLocation);
+        }
 
-        // quick check to avoid duplicate GeoJson objects: if the coordinate is the same, do not add the polygon
-        if (regionGeometry != null && !regionGeometry.getCoordinate().equals(regionBorders.getCoordinate())) {
+        // only add polygons that are not part of the region borders
+        final List<Geometry> additionalPolygons = deduplicator.getUniquePolygons(regionGeometry);
+
+        if (!additionalPolygons.isEmpty()) {
             final GeoLocation geoLocation = new GeoLocation();
-            geoLocation.addPolygons(Arrays.asList(regionGeometry));
+            geoLocation.addPolygons(additionalPolygons);
             geoLocations.add(geoLocation);
         }
 
@@ -271,13 +284,10 @@ public abstract class AbstractRegionTransformer <T extends GenericRegion> extend
                 subjects.add(new Subject(m.getTitle()));
         }
 
-        return subjects;
-    }
-
+        // add catch summaries, which are missing if the value object was deserialized
+        if (vo.getCatchSummaries() != null)
+            subjects.addAll(SeaAroundUsDataCiteUtils.createCatchSummarySubjects(params, vo.getCatchSummaries(), vo.getResponse().getData().getTitle()));
 
-    @Override
-    public void clear() // NOPMD clear is empty on purpose here
-    {
-        // nothing to clean up
+        return subjects;
     }
 }
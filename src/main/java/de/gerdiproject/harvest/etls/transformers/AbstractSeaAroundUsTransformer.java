@@ -0,0 +1,447 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.etls.transformers;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Iterator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.gerdiproject.harvest.application.events.GetCacheFolderEvent;
+import de.gerdiproject.harvest.config.parameters.BooleanParameter;
+import de.gerdiproject.harvest.config.parameters.IntegerParameter;
+import de.gerdiproject.harvest.config.parameters.StringParameter;
+import de.gerdiproject.harvest.config.parameters.constants.ParameterMappingFunctions;
+import de.gerdiproject.harvest.etls.AbstractETL;
+import de.gerdiproject.harvest.etls.AbstractIteratorETL;
+import de.gerdiproject.harvest.etls.enums.ETLHealth;
+import de.gerdiproject.harvest.etls.enums.ETLState;
+import de.gerdiproject.harvest.etls.loaders.DeletedDocument;
+import de.gerdiproject.harvest.etls.loaders.constants.LoaderConstants;
+import de.gerdiproject.harvest.etls.utils.DocumentChangeTracker;
+import de.gerdiproject.harvest.etls.utils.GeometryPostProcessor;
+import de.gerdiproject.harvest.etls.utils.HarvestCheckpoint;
+import de.gerdiproject.harvest.event.EventSystem;
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsParameterConstants;
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsProgressConstants;
+import de.gerdiproject.harvest.seaaroundus.utils.PipelinedIterator;
+import de.gerdiproject.harvest.seaaroundus.utils.SeaAroundUsParameterUtils;
+import de.gerdiproject.json.datacite.DataCiteJson;
+
+/**
+ * This transformer is the base of all SeaAroundUs transformers. It supports
+ * incremental harvests by comparing content hashes of the transformed documents with those
+ * of the previous harvest. Unchanged documents are not loaded, and documents that no longer
+ * exist are emitted as {@linkplain DeletedDocument}s, unless the harvest was resumed from
+ * a {@linkplain HarvestCheckpoint}. Since the documents are hashed after they were transformed,
+ * changes of the transformation itself or of its parameters are detected as well.
+ * Harvests that are not incremental load all documents, but still remember their hashes.
+ * <br>
+ * If enabled, the polygons of the transformed documents are reduced in size
+ * by a {@linkplain GeometryPostProcessor}, and the saved vertices and bytes are reported.
+ * <br>
+ * Optionally, the elements can be extracted and transformed in a {@linkplain PipelinedIterator},
+ * which allows network requests of the extractor to overlap with the transformation.
+ *
+ * @param <T> the type of the extracted elements that are to be transformed
+ *
+ * @author Robin Weiss
+ */
+public abstract class AbstractSeaAroundUsTransformer <T> extends AbstractIteratorTransformer<T, DataCiteJson>
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractSeaAroundUsTransformer.class);
+
+    private AbstractIteratorETL<?, ?> etl;
+    private DocumentChangeTracker changeTracker;
+    private boolean isIncremental;
+    private boolean isFullRange;
+    private boolean isCompleted;
+
+    private String etlName;
+    private GeometryPostProcessor geometryProcessor;
+    private IntegerParameter pipelineThreadsParam;
+    private IntegerParameter pipelineQueueSizeParam;
+    private PipelinedIterator<T, DataCiteJson> pipeline;
+
+
+    /**
+     * Returns the identifier of the document that is created from an extracted element.
+     *
+     * @param source the extracted element
+     *
+     * @return the source identifier of the document
+     */
+    protected abstract String getDocumentId(T source);
+
+
+    @Override
+    public void init(final AbstractETL<?, ?> etl)
+    {
+        this.changeTracker = null;
+        this.isCompleted = false;
+        this.etlName = etl.getName();
+        this.geometryProcessor = createGeometryProcessor(etl);
+        this.pipelineThreadsParam = SeaAroundUsParameterUtils.registerEtlParameter(
+                                        SeaAroundUsParameterConstants.PIPELINE_THREADS_KEY,
+                                        etl,
+                                        SeaAroundUsParameterConstants.PIPELINE_THREADS_DEFAULT);
+        this.pipelineQueueSizeParam = SeaAroundUsParameterUtils.registerEtlParameter(
+                                          SeaAroundUsParameterConstants.PIPELINE_QUEUE_SIZE_KEY,
+                                          etl,
+                                          SeaAroundUsParameterConstants.PIPELINE_QUEUE_SIZE_DEFAULT);
+
+        if (!(etl instanceof AbstractIteratorETL))
+            return;
+
+        this.etl = (AbstractIteratorETL<?, ?>) etl;
+        this.isFullRange = this.etl.getStartIndex() == 0 && this.etl.getEndIndex() == Integer.MAX_VALUE;
+
+        final BooleanParameter incrementalParam = SeaAroundUsParameterUtils.registerEtlParameter(
+                                                      SeaAroundUsParameterConstants.INCREMENTAL_HARVEST_KEY,
+                                                      etl,
+                                                      SeaAroundUsParameterConstants.INCREMENTAL_HARVEST_DEFAULT);
+
+        final File cacheRootFolder = EventSystem.sendSynchronousEvent(new GetCacheFolderEvent());
+
+        this.isIncremental = incrementalParam.getValue();
+
+        if (cacheRootFolder != null) {
+            final File hashFile = new File(
+                new File(cacheRootFolder, SeaAroundUsParameterConstants.DOCUMENT_HASHES_FOLDER),
+                String.format(SeaAroundUsParameterConstants.DOCUMENT_HASHES_FILE, etl.getName()));
+
+            this.changeTracker = new DocumentChangeTracker(hashFile, getLoadTarget());
+        }
+    }
+
+
+    @Override
+    public Iterator<DataCiteJson> transform(final Iterator<T> elements) throws TransformerException
+    {
+        // the elements that were skipped by a resumed harvest must not be detected as removed
+        if (changeTracker != null && HarvestCheckpoint.getResumePosition(etl) > 0)
+            isFullRange = false;
+
+        final Iterator<DataCiteJson> transformedDocuments = transformAll(elements);
+
+        // pipelined documents are post-processed by the threads that transform them
+        final Iterator<DataCiteJson> documents = pipeline != null
+                                                 ? transformedDocuments
+                                                 : new PostProcessingIterator(transformedDocuments);
+
+        return changeTracker == null
+               ? documents
+               : new DeletionAppendingIterator(documents);
+    }
+
+
+    @Override
+    public void clear()
+    {
+        // only remember the hashes if the documents were loaded successfully
+        if (changeTracker != null
+            && isCompleted
+            && etl.getState() == ETLState.HARVESTING
+            && etl.getHealth() == ETLHealth.OK)
+            changeTracker.save(isFullRange);
+
+        changeTracker = null;
+
+        if (geometryProcessor != null && geometryProcessor.getOriginalVertexCount() > 0) {
+            LOGGER.info(String.format(
+                            SeaAroundUsProgressConstants.GEOMETRY_REPORT,
+                            etlName,
+                            geometryProcessor.getOriginalVertexCount(),
+                            geometryProcessor.getProcessedVertexCount()));
+            LOGGER.info(String.format(
+                            SeaAroundUsProgressConstants.GEOMETRY_BYTES_REPORT,
+                            etlName,
+                            geometryProcessor.getOriginalByteCount(),
+                            geometryProcessor.getProcessedByteCount(),
+                            geometryProcessor.getSavedByteCount()));
+        }
+
+        geometryProcessor = null;
+
+        closePipeline();
+    }
+
+
+    /**
+     * Transforms all elements, either on the thread that retrieves the documents,
+     * or in a {@linkplain PipelinedIterator} if pipelining is enabled.
+     *
+     * @param elements the elements that are to be transformed
+     *
+     * @return an iterator of the transformed documents
+     */
+    private Iterator<DataCiteJson> transformAll(final Iterator<T> elements)
+    {
+        closePipeline();
+
+        final int pipelineThreads = pipelineThreadsParam.getValue();
+
+        // zero threads disable the pipelined transformation
+        if (pipelineThreads <= 0)
+            return super.transform(elements);
+
+        pipeline = new PipelinedIterator<>(
+            etlName,
+            elements,
+            this::transformPipelinedElement,
+            pipelineThreads,
+            pipelineQueueSizeParam.getValue());
+
+        return pipeline;
+    }
+
+
+    /**
+     * Transforms and post-processes a single element on a thread of the pipeline.
+     * Like in the sequential transformation, unexpected exceptions are
+     * wrapped in {@linkplain TransformerException}s.
+     *
+     * @param element the element that is to be transformed
+     *
+     * @return the transformed document, or null if it is not to be loaded
+     */
+    private DataCiteJson transformPipelinedElement(final T element)
+    {
+        try {
+            return postProcess(transformElement(element));
+        } catch (final TransformerException e) {
+            throw e;
+        } catch (final RuntimeException e) { // NOPMD unexpected exceptions must be reported as transformer errors
+            throw new TransformerException(e);
+        }
+    }
+
+
+    /**
+     * Stops the pipeline of the previous transformation, if there was any,
+     * and logs the queue depth and idle times of its stages.
+     */
+    private void closePipeline()
+    {
+        if (pipeline != null) {
+            pipeline.close();
+            LOGGER.info(String.format(
+                            SeaAroundUsProgressConstants.PIPELINE_REPORT,
+                            etlName,
+                            pipeline.getAverageQueueDepth(),
+                            pipeline.getMaxQueueDepth(),
+                            pipeline.getQueueSize(),
+                            pipeline.getSourceIdleMillis(),
+                            pipeline.getMappingIdleMillis(),
+                            pipeline.getConsumerIdleMillis()));
+            pipeline = null;
+        }
+    }
+
+
+    /**
+     * Registers the geometry post-processing parameters of an ETL and creates a
+     * {@linkplain GeometryPostProcessor} that is configured by them.
+     *
+     * @param etl the ETL of which the documents are post-processed
+     *
+     * @return a new {@linkplain GeometryPostProcessor}, or null if post-processing is disabled
+     */
+    private GeometryPostProcessor createGeometryProcessor(final AbstractETL<?, ?> etl)
+    {
+        final BooleanParameter enabledParam = SeaAroundUsParameterUtils.registerEtlParameter(
+                                                  SeaAroundUsParameterConstants.PROCESS_GEOMETRIES_KEY,
+                                                  etl,
+                                                  SeaAroundUsParameterConstants.PROCESS_GEOMETRIES_DEFAULT);
+        final IntegerParameter decimalsParam = SeaAroundUsParameterUtils.registerEtlParameter(
+                                                   SeaAroundUsParameterConstants.GEOMETRY_DECIMALS_KEY,
+                                                   etl,
+                                                   SeaAroundUsParameterConstants.GEOMETRY_DECIMALS_DEFAULT);
+        final IntegerParameter toleranceParam = SeaAroundUsParameterUtils.registerEtlParameter(
+                                                    SeaAroundUsParameterConstants.GEOMETRY_TOLERANCE_KEY,
+                                                    etl,
+                                                    SeaAroundUsParameterConstants.GEOMETRY_TOLERANCE_DEFAULT);
+        final IntegerParameter vertexBudgetParam = SeaAroundUsParameterUtils.registerEtlParameter(
+                                                       SeaAroundUsParameterConstants.GEOMETRY_VERTEX_BUDGET_KEY,
+                                                       etl,
+                                                       SeaAroundUsParameterConstants.GEOMETRY_VERTEX_BUDGET_DEFAULT);
+        final StringParameter simplifierParam = SeaAroundUsParameterUtils.registerEtlParameter(
+                                                    SeaAroundUsParameterConstants.GEOMETRY_SIMPLIFIER_KEY,
+                                                    etl,
+                                                    SeaAroundUsParameterConstants.TOPOLOGY_PRESERVING_SIMPLIFIER,
+                                                    SeaAroundUsParameterConstants.GEOMETRY_SIMPLIFIERS);
+
+        if (!enabledParam.getValue())
+            return null;
+
+        return new GeometryPostProcessor(
+                   decimalsParam.getValue(),
+                   toleranceParam.getValue(),
+                   vertexBudgetParam.getValue(),
+                   SeaAroundUsParameterConstants.TOPOLOGY_PRESERVING_SIMPLIFIER.equals(simplifierParam.getValue()),
+                   true);
+    }
+
+
+    /**
+     * Describes the target to which the documents are loaded, which is
+     * defined by the type and URL of the loader.
+     *
+     * @return a description of the load target
+     */
+    private static String getLoadTarget()
+    {
+        final StringParameter loaderParam = SeaAroundUsParameterUtils.registerParameter(
+                                                new StringParameter(
+                                                    LoaderConstants.LOADER_TYPE_PARAM_KEY,
+                                                    LoaderConstants.PARAMETER_CATEGORY,
+                                                    null,
+                                                    ParameterMappingFunctions.createMapperForETLs(ParameterMappingFunctions::mapToString)));
+        final StringParameter urlParam = SeaAroundUsParameterUtils.registerParameter(LoaderConstants.URL_PARAM);
+
+        return String.format(
+                   SeaAroundUsParameterConstants.DOCUMENT_HASHES_TARGET,
+                   loaderParam.getValue(),
+                   urlParam.getValue());
+    }
+
+
+    /**
+     * Reduces the size of the polygons of a transformed document, and checks
+     * if the document changed since the previous harvest.
+     *
+     * @param document the transformed document
+     *
+     * @return the post-processed document, or null if the document did not change
+     *          during an incremental harvest, in which case it is not loaded,
+     *          but counted as a harvested document
+     */
+    private DataCiteJson postProcess(final DataCiteJson document)
+    {
+        if (document == null)
+            return null;
+
+        if (geometryProcessor != null)
+            geometryProcessor.process(document);
+
+        if (changeTracker != null) {
+            final boolean isChanged = changeTracker.update(
+                                          document.getSourceId(),
+                                          DocumentChangeTracker.getContentHash(document));
+
+            if (!isChanged && isIncremental)
+                return null;
+        }
+
+        return document;
+    }
+
+
+    /**
+     * This iterator returns the transformed documents, followed by
+     * {@linkplain DeletedDocument}s of all documents that were harvested
+     * previously, but no longer exist.
+     *
+     * @author Robin Weiss
+     */
+    private class DeletionAppendingIterator implements Iterator<DataCiteJson>
+    {
+        private final Iterator<DataCiteJson> documents;
+        private Iterator<String> removedDocumentIds;
+
+
+        /**
+         * Constructor that requires the transformed documents.
+         *
+         * @param documents the transformed documents
+         */
+        DeletionAppendingIterator(final Iterator<DataCiteJson> documents)
+        {
+            this.documents = documents;
+        }
+
+
+        @Override
+        public boolean hasNext()
+        {
+            if (removedDocumentIds == null) {
+                if (documents.hasNext())
+                    return true;
+
+                // removed documents can only be detected if all documents were harvested
+                removedDocumentIds = isIncremental && isFullRange
+                                     ? changeTracker.getRemovedDocumentIds().iterator()
+                                     : Collections.<String>emptyIterator();
+            }
+
+            final boolean hasNext = removedDocumentIds.hasNext();
+
+            if (!hasNext)
+                isCompleted = true;
+
+            return hasNext;
+        }
+
+
+        @Override
+        public DataCiteJson next()
+        {
+            if (removedDocumentIds == null)
+                return documents.next();
+            else
+                return new DeletedDocument(removedDocumentIds.next());
+        }
+    }
+
+
+    /**
+     * This iterator post-processes transformed documents, returning null
+     * instead of documents that are not to be loaded.
+     *
+     * @author Robin Weiss
+     */
+    private class PostProcessingIterator implements Iterator<DataCiteJson>
+    {
+        private final Iterator<DataCiteJson> documents;
+
+
+        /**
+         * Constructor that requires the transformed documents.
+         *
+         * @param documents the transformed documents
+         */
+        PostProcessingIterator(final Iterator<DataCiteJson> documents)
+        {
+            this.documents = documents;
+        }
+
+
+        @Override
+        public boolean hasNext()
+        {
+            return documents.hasNext();
+        }
+
+
+        @Override
+        public DataCiteJson next()
+        {
+            return postProcess(documents.next());
+        }
+    }
+}
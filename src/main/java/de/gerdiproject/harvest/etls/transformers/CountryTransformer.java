@@ -19,7 +19,6 @@ package de.gerdiproject.harvest.etls.transformers;
 import java.util.LinkedList;
 import java.util.List;
 
-import de.gerdiproject.harvest.etls.AbstractETL;
 import de.gerdiproject.harvest.etls.extractors.vos.CountryVO;
 import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsDataCiteConstants;
 import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsRegionConstants;
@@ -42,12 +41,12 @@ import de.gerdiproject.json.geo.Feature;
  *
  * @author Robin Weiss
  */
-public class CountryTransformer extends AbstractIteratorTransformer<CountryVO, DataCiteJson>
+public class CountryTransformer extends AbstractSeaAroundUsTransformer<CountryVO>
 {
     @Override
-    public void init(final AbstractETL<?, ?> etl)
+    protected String getDocumentId(final CountryVO vo)
     {
-        // nothing to retrieve from the ETL
+        return SeaAroundUsRegionConstants.COUNTRY_API_NAME + vo.getResponse().getData().getCNumber();
     }
 
 
@@ -57,8 +56,7 @@ public class CountryTransformer extends AbstractIteratorTransformer<CountryVO, D
         final SauCountry country = vo.getResponse().getData();
         final List<Feature<SauCountryProperties>> subRegions = vo.getSubRegions();
 
-        final DataCiteJson document =
-            new DataCiteJson(SeaAroundUsRegionConstants.COUNTRY_API_NAME + country.getCNumber());
+        final DataCiteJson document = new DataCiteJson(getDocumentId(vo));
 
         document.setRepositoryIdentifier(SeaAroundUsDataCiteConstants.REPOSITORY_ID);
         document.addResearchDisciplines(SeaAroundUsDataCiteConstants.RESEARCH_DISCIPLINES);
@@ -238,11 +236,4 @@ public class CountryTransformer extends AbstractIteratorTransformer<CountryVO, D
 
         return geoLocations;
     }
-
-
-    @Override
-    public void clear()
-    {
-        // nothing to clean up
-    }
 }
@@ -19,7 +19,6 @@ package de.gerdiproject.harvest.etls.transformers;
 import java.util.LinkedList;
 import java.util.List;
 
-import de.gerdiproject.harvest.etls.AbstractETL;
 import de.gerdiproject.harvest.etls.extractors.vos.FishingEntityVO;
 import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsDataCiteConstants;
 import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsRegionConstants;
@@ -38,12 +37,13 @@ import de.gerdiproject.json.datacite.extension.generic.enums.WebLinkType;
  *
  * @author Robin Weiss
  */
-public class FishingEntityTransformer extends AbstractIteratorTransformer<FishingEntityVO, DataCiteJson>
+public class FishingEntityTransformer extends AbstractSeaAroundUsTransformer<FishingEntityVO>
 {
     @Override
-    public void init(final AbstractETL<?, ?> etl)
+    protected String getDocumentId(final FishingEntityVO vo)
     {
-        // nothing to retrieve from the ETL
+        final String regionApiName = SeaAroundUsRegionConstants.FISHING_ENTITY_PARAMS.getRegionType().getUrlName();
+        return SeaAroundUsDataCiteUtils.getRegionEntryUrl(regionApiName, vo.getResponse().getData().getId());
     }
 
 
@@ -54,9 +54,8 @@ public class FishingEntityTransformer extends AbstractIteratorTransformer<Fishin
         final int regionId = entry.getId();
         final String regionName = entry.getTitle();
         final String regionApiName = SeaAroundUsRegionConstants.FISHING_ENTITY_PARAMS.getRegionType().getUrlName();
-        final String apiUrl = SeaAroundUsDataCiteUtils.getRegionEntryUrl(regionApiName, regionId);
 
-        final DataCiteJson document = new DataCiteJson(apiUrl);
+        final DataCiteJson document = new DataCiteJson(getDocumentId(vo));
         document.setVersion(vo.getResponse().getMetadata().getVersion());
         document.setRepositoryIdentifier(SeaAroundUsDataCiteConstants.REPOSITORY_ID);
         document.addResearchDisciplines(SeaAroundUsDataCiteConstants.RESEARCH_DISCIPLINES);
@@ -185,11 +184,4 @@ public class FishingEntityTransformer extends AbstractIteratorTransformer<Fishin
                                              regionName);
         return files;
     }
-
-
-    @Override
-    public void clear()
-    {
-        // nothing to clean up
-    }
 }
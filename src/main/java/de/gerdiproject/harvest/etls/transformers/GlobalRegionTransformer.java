@@ -20,7 +20,6 @@ import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
-import de.gerdiproject.harvest.etls.AbstractETL;
 import de.gerdiproject.harvest.etls.extractors.vos.GlobalRegionVO;
 import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsDataCiteConstants;
 import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsRegionConstants;
@@ -42,12 +41,12 @@ import de.gerdiproject.json.datacite.extension.generic.WebLink;
  *
  * @author Robin Weiss
  */
-public class GlobalRegionTransformer extends AbstractIteratorTransformer<GlobalRegionVO, DataCiteJson>
+public class GlobalRegionTransformer extends AbstractSeaAroundUsTransformer<GlobalRegionVO>
 {
     @Override
-    public void init(final AbstractETL<?, ?> etl)
+    protected String getDocumentId(final GlobalRegionVO vo)
     {
-        // nothing to retrieve from the ETL
+        return SauGlobal.class.getSimpleName() + vo.getSubRegionId();
     }
 
 
@@ -57,7 +56,7 @@ public class GlobalRegionTransformer extends AbstractIteratorTransformer<GlobalR
         final String subRegionName = vo.getSubRegionNameSuffix();
         final int subRegionId = vo.getSubRegionId();
 
-        final DataCiteJson document = new DataCiteJson(SauGlobal.class.getSimpleName() + subRegionId);
+        final DataCiteJson document = new DataCiteJson(getDocumentId(vo));
         document.setVersion(vo.getResponse().getMetadata().getVersion());
         document.setRepositoryIdentifier(SeaAroundUsDataCiteConstants.REPOSITORY_ID);
         document.addResearchDisciplines(SeaAroundUsDataCiteConstants.RESEARCH_DISCIPLINES);
@@ -200,11 +199,4 @@ public class GlobalRegionTransformer extends AbstractIteratorTransformer<GlobalR
 
         return urlBuilder.toString();
     }
-
-
-    @Override
-    public void clear()
-    {
-        // nothing to clean up
-    }
 }
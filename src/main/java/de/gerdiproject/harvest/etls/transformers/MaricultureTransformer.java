@@ -22,7 +22,6 @@ import java.util.List;
 import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.Geometry;
 
-import de.gerdiproject.harvest.etls.AbstractETL;
 import de.gerdiproject.harvest.etls.extractors.vos.RegionVO;
 import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsDataCiteConstants;
 import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsDimensionConstants;
@@ -43,12 +42,13 @@ import de.gerdiproject.json.datacite.extension.generic.ResearchData;
  *
  * @author Robin Weiss
  */
-public class MaricultureTransformer extends AbstractIteratorTransformer<RegionVO<List<SauMariculture>>, DataCiteJson>
+public class MaricultureTransformer extends AbstractSeaAroundUsTransformer<RegionVO<List<SauMariculture>>>
 {
     @Override
-    public void init(final AbstractETL<?, ?> etl)
+    protected String getDocumentId(final RegionVO<List<SauMariculture>> source)
     {
-        // nothing to retrieve from the ETL
+        final int regionId = source.getResponse().getData().get(0).getEntityId();
+        return SeaAroundUsRegionConstants.MARICULTURE_API_NAME + regionId;
     }
 
 
@@ -59,7 +59,7 @@ public class MaricultureTransformer extends AbstractIteratorTransformer<RegionVO
         final int regionId = subRegions.get(0).getEntityId();
         final String regionApiName = SeaAroundUsRegionConstants.MARICULTURE_API_NAME;
 
-        final DataCiteJson document = new DataCiteJson(regionApiName + regionId);
+        final DataCiteJson document = new DataCiteJson(getDocumentId(source));
         document.setVersion(source.getResponse().getMetadata().getVersion());
         document.setRepositoryIdentifier(SeaAroundUsDataCiteConstants.REPOSITORY_ID);
         document.addResearchDisciplines(SeaAroundUsDataCiteConstants.RESEARCH_DISCIPLINES);
@@ -188,11 +188,4 @@ public class MaricultureTransformer extends AbstractIteratorTransformer<RegionVO
 
         return geoLocations;
     }
-
-
-    @Override
-    public void clear()
-    {
-        // nothing to clean up
-    }
 }
@@ -16,14 +16,23 @@
  */
 package de.gerdiproject.harvest.etls.transformers;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
 
+import de.gerdiproject.harvest.etls.AbstractETL;
 import de.gerdiproject.harvest.etls.extractors.vos.RegionVO;
 import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsDataCiteConstants;
 import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsRegionConstants;
+import de.gerdiproject.harvest.seaaroundus.json.generic.GenericResponse;
 import de.gerdiproject.harvest.seaaroundus.json.rfmo.SauRfmoContractingCountry;
 import de.gerdiproject.harvest.seaaroundus.json.rfmo.SauRfmoRegion;
 import de.gerdiproject.harvest.seaaroundus.json.taxa.SauTaxonReduced;
+import de.gerdiproject.harvest.seaaroundus.utils.IntObjectMap;
+import de.gerdiproject.harvest.seaaroundus.utils.ReferenceDataCache;
+import de.gerdiproject.harvest.seaaroundus.utils.SeaAroundUsDataCiteUtils;
+import de.gerdiproject.harvest.seaaroundus.utils.SeaAroundUsHttpRequester;
 import de.gerdiproject.json.datacite.Subject;
 import de.gerdiproject.json.datacite.extension.generic.WebLink;
 
@@ -35,6 +44,11 @@ import de.gerdiproject.json.datacite.extension.generic.WebLink;
  */
 public class RfmoTransformer extends AbstractRegionTransformer<SauRfmoRegion>
 {
+    private final SeaAroundUsHttpRequester httpRequester = new SeaAroundUsHttpRequester();
+    private IntObjectMap<SauTaxonReduced> taxaIndex;
+    private String taxaIndexVersion;
+
+
     /**
      * Constructor that sets region parameters.
      */
@@ -44,6 +58,23 @@ public class RfmoTransformer extends AbstractRegionTransformer<SauRfmoRegion>
     }
 
 
+    @Override
+    public void init(final AbstractETL<?, ?> etl)
+    {
+        super.init(etl);
+        httpRequester.setEtlName(etl.getName());
+        clearTaxaIndex();
+    }
+
+
+    @Override
+    public void clear()
+    {
+        super.clear();
+        clearTaxaIndex();
+    }
+
+
     @Override
     protected List<WebLink> createWebLinks(final SauRfmoRegion regionObject)
     {
@@ -72,36 +103,109 @@ public class RfmoTransformer extends AbstractRegionTransformer<SauRfmoRegion>
     protected List<Subject> createSubjects(final RegionVO<SauRfmoRegion> vo)
     {
         final List<Subject> subjects = super.createSubjects(vo);
+        final String version = vo.getResponse().getMetadata().getVersion();
 
-        addTaxaSubjects(subjects, vo.getResponse().getData().getPrimaryTaxa());
-        addTaxaSubjects(subjects, vo.getResponse().getData().getSecondaryTaxa());
+        addTaxaSubjects(subjects, vo.getResponse().getData().getPrimaryTaxa(), version);
+        addTaxaSubjects(subjects, vo.getResponse().getData().getSecondaryTaxa(), version);
 
         return subjects;
     }
 
 
     /**
-     * Adds {@linkplain Subject}s of taxa of the RFMO to the document's weblinks.
+     * Adds {@linkplain Subject}s of taxa of the RFMO to the document's subjects.
+     * Missing names are looked up in the taxa index of the RFMO version.
      *
      * @param subjects the subject list of the document that is to be enriched
      * @param taxa a list of taxon data
+     * @param version the dataset version of the RFMO
      */
-    private void addTaxaSubjects(final List<Subject> subjects, final List<SauTaxonReduced> taxa)
+    private void addTaxaSubjects(final List<Subject> subjects, final List<SauTaxonReduced> taxa, final String version)
     {
         if (taxa != null && !taxa.isEmpty()) {
-
             taxa.forEach((final SauTaxonReduced taxon) -> {
+                final SauTaxonReduced indexedTaxon = taxon.getCommonName() == null || taxon.getScientificName() == null
+                                                     ? getTaxaIndex(version).get(taxon.getTaxonKey())
+                                                     : null;
 
-                final String commonName = taxon.getCommonName();
+                final String commonName = taxon.getCommonName() == null && indexedTaxon != null
+                                          ? indexedTaxon.getCommonName()
+                                          : taxon.getCommonName();
 
                 if (commonName != null)
                     subjects.add(new Subject(commonName));
 
-                final String scientificName = taxon.getScientificName();
+                final String scientificName = taxon.getScientificName() == null && indexedTaxon != null
+                                              ? indexedTaxon.getScientificName()
+                                              : taxon.getScientificName();
+
                 if (scientificName != null)
                     subjects.add(new Subject(scientificName));
             });
         }
     }
 
+
+    /**
+     * Returns the index of all taxa of a dataset version. The index is retrieved only
+     * once per harvest, even if it is empty because the taxa could not be retrieved.
+     * It is looked up in the {@linkplain ReferenceDataCache} first, and is only
+     * downloaded if no other ETL cached the taxa of the same version.
+     *
+     * @param version the dataset version of the RFMOs, or null if it is unknown
+     *
+     * @return a dictionary of taxon keys to taxa
+     */
+    private synchronized IntObjectMap<SauTaxonReduced> getTaxaIndex(final String version)
+    {
+        if (taxaIndex == null || !Objects.equals(version, taxaIndexVersion)) {
+            final IntObjectMap<SauTaxonReduced> cachedIndex = version == null
+                                                              ? null
+                                                              : ReferenceDataCache.getInstance().getDictionary(SeaAroundUsRegionConstants.TAXA_API_NAME, version);
+
+            taxaIndex = cachedIndex == null ? loadTaxaIndex(version) : cachedIndex;
+            taxaIndexVersion = version;
+        }
+
+        return taxaIndex;
+    }
+
+
+    /**
+     * Discards the taxa index of the previous harvest.
+     */
+    private synchronized void clearTaxaIndex()
+    {
+        taxaIndex = null;
+        taxaIndexVersion = null;
+    }
+
+
+    /**
+     * Retrieves the list of all taxa and caches it as a dictionary
+     * of taxon keys to taxa, if the version is known.
+     *
+     * @param version the dataset version of the RFMOs, or null if it is unknown
+     *
+     * @return a dictionary of taxon keys to taxa, which is empty
+     *          if the list could not be retrieved
+     */
+    private IntObjectMap<SauTaxonReduced> loadTaxaIndex(final String version)
+    {
+        // the list is downloaded before the shared cache is locked
+        httpRequester.setCacheVersion(version);
+        final GenericResponse<List<SauTaxonReduced>> allTaxa = httpRequester.getObjectFromUrl(
+                                                                   SeaAroundUsDataCiteUtils.getAllRegionsUrl(SeaAroundUsRegionConstants.TAXA_API_NAME),
+                                                                   SeaAroundUsRegionConstants.ALL_TAXA_RESPONSE_TYPE);
+
+        if (allTaxa == null || allTaxa.getData() == null)
+            return new IntObjectMap<>(Collections.<SauTaxonReduced>emptyList(), SauTaxonReduced::getTaxonKey, Function.identity());
+
+        return ReferenceDataCache.getInstance().getDictionary(
+                   SeaAroundUsRegionConstants.TAXA_API_NAME,
+                   version,
+                   allTaxa::getData,
+                   SauTaxonReduced::getTaxonKey,
+                   Function.identity());
+    }
 }
@@ -22,7 +22,6 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
-import de.gerdiproject.harvest.etls.AbstractETL;
 import de.gerdiproject.harvest.etls.extractors.vos.TaxonVO;
 import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsDataCiteConstants;
 import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsDimensionConstants;
@@ -45,12 +44,14 @@ import de.gerdiproject.json.datacite.extension.generic.enums.WebLinkType;
  *
  * @author Robin Weiss
  */
-public class TaxonTransformer extends AbstractIteratorTransformer<TaxonVO, DataCiteJson>
+public class TaxonTransformer extends AbstractSeaAroundUsTransformer<TaxonVO>
 {
     @Override
-    public void init(final AbstractETL<?, ?> etl)
+    protected String getDocumentId(final TaxonVO vo)
     {
-        // nothing to retrieve from the ETL
+        return SeaAroundUsDataCiteUtils.getRegionEntryUrl(
+                   SeaAroundUsRegionConstants.TAXA_API_NAME,
+                   vo.getResponse().getData().getTaxonKey());
     }
 
 
@@ -64,7 +65,7 @@ public class TaxonTransformer extends AbstractIteratorTransformer<TaxonVO, DataC
                                   taxonKey);
         final String label = createTaxonLabel(taxon);
 
-        final DataCiteJson document = new DataCiteJson(apiUrl);
+        final DataCiteJson document = new DataCiteJson(getDocumentId(vo));
         document.setVersion(vo.getResponse().getMetadata().getVersion());
         document.setRepositoryIdentifier(SeaAroundUsDataCiteConstants.REPOSITORY_ID);
         document.addResearchDisciplines(SeaAroundUsDataCiteConstants.RESEARCH_DISCIPLINES);
@@ -278,11 +279,4 @@ public class TaxonTransformer extends AbstractIteratorTransformer<TaxonVO, DataC
 
         return subjects;
     }
-
-
-    @Override
-    public void clear()
-    {
-        // nothing to clean up
-    }
 }
@@ -0,0 +1,227 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.etls.utils;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+import de.gerdiproject.harvest.utils.HashGenerator;
+import de.gerdiproject.harvest.utils.data.DiskIO;
+import de.gerdiproject.json.datacite.DataCiteJson;
+
+/**
+ * This class keeps track of content hashes of documents, in order to
+ * detect which documents were added, changed, or removed since the
+ * previous harvest. The hashes are stored in a file, mapped by document ID,
+ * along with the target to which the documents were loaded. If the target
+ * changes, the hashes of the previous harvest are discarded, because the
+ * documents must be loaded to the new target again.
+ * <br>
+ * Documents may be registered concurrently.
+ *
+ * @author Robin Weiss
+ */
+public class DocumentChangeTracker
+{
+    private final DiskIO diskIO;
+    private final File hashFile;
+    private final String loadTarget;
+    private final Map<String, String> previousHashes;
+    private final Map<String, String> currentHashes;
+
+
+    /**
+     * Constructor that loads the hashes of the previous harvest from a file.
+     *
+     * @param hashFile the file in which the document hashes are stored
+     * @param loadTarget a description of the target to which the documents are loaded
+     */
+    public DocumentChangeTracker(final File hashFile, final String loadTarget)
+    {
+        this.diskIO = new DiskIO(new Gson(), StandardCharsets.UTF_8);
+        this.hashFile = hashFile;
+        this.loadTarget = loadTarget;
+        this.currentHashes = new ConcurrentHashMap<>();
+
+        final StoredHashes storedHashes = diskIO.getObject(hashFile, StoredHashes.class);
+
+        // documents that were loaded to another target must be loaded again
+        this.previousHashes = storedHashes == null
+                              || storedHashes.hashes == null
+                              || !Objects.equals(storedHashes.loadTarget, loadTarget)
+                              ? new HashMap<>()
+                              : storedHashes.hashes;
+    }
+
+
+    /**
+     * Calculates a hash of the JSON representation of a document. Since most
+     * fields of a document are sets, of which the iteration order is not
+     * guaranteed to be the same in every harvest, the elements of arrays of
+     * objects or strings are hashed regardless of their order.
+     *
+     * @param document the document of which the hash is calculated
+     *
+     * @return a hash of the content of the document
+     */
+    public static String getContentHash(final DataCiteJson document)
+    {
+        final JsonElement documentJson = new JsonParser().parse(document.toJson());
+        return new HashGenerator(StandardCharsets.UTF_8).getShaHash(normalize(documentJson).toString());
+    }
+
+
+    /**
+     * Registers the content hash of a document and checks if the document
+     * is new or was changed since the previous harvest.
+     *
+     * @param documentId a unique identifier of the document
+     * @param contentHash a hash of the content of the document
+     *
+     * @return true if the document was added or changed
+     */
+    public boolean update(final String documentId, final String contentHash)
+    {
+        currentHashes.put(documentId, contentHash);
+        return !contentHash.equals(previousHashes.get(documentId));
+    }
+
+
+    /**
+     * Returns the IDs of all documents that were harvested previously,
+     * but not during the current harvest.
+     *
+     * @return a list of document IDs
+     */
+    public List<String> getRemovedDocumentIds()
+    {
+        final List<String> removedIds = new LinkedList<>();
+
+        for (final String documentId : previousHashes.keySet()) {
+            if (!currentHashes.containsKey(documentId))
+                removedIds.add(documentId);
+        }
+
+        return removedIds;
+    }
+
+
+    /**
+     * Stores the document hashes of the current harvest in the hash file.
+     *
+     * @param isComplete if true, all documents were harvested, which means that
+     *          the hashes of documents that were not harvested are discarded
+     */
+    public void save(final boolean isComplete)
+    {
+        final Map<String, String> savedHashes;
+
+        if (isComplete) {
+            savedHashes = new HashMap<>(currentHashes);
+        } else {
+            savedHashes = new HashMap<>(previousHashes);
+            savedHashes.putAll(currentHashes);
+        }
+
+        diskIO.writeObjectToFile(hashFile, new StoredHashes(loadTarget, savedHashes));
+    }
+
+
+    /**
+     * Creates a copy of a JSON element, in which the elements of arrays of
+     * objects or strings are replaced by their sorted JSON representations.
+     * Other arrays, such as coordinates, keep their order. The copy is
+     * only meant to be hashed.
+     *
+     * @param json the JSON element that is to be normalized
+     *
+     * @return a normalized copy of the JSON element
+     */
+    private static JsonElement normalize(final JsonElement json)
+    {
+        if (json.isJsonObject()) {
+            final JsonObject normalizedObject = new JsonObject();
+
+            for (final Map.Entry<String, JsonElement> field : json.getAsJsonObject().entrySet())
+                normalizedObject.add(field.getKey(), normalize(field.getValue()));
+
+            return normalizedObject;
+        }
+
+        if (!json.isJsonArray())
+            return json;
+
+        final JsonArray normalizedArray = new JsonArray();
+        boolean isUnordered = true;
+
+        for (final JsonElement element : json.getAsJsonArray()) {
+            normalizedArray.add(normalize(element));
+            isUnordered &= element.isJsonObject() || element.isJsonPrimitive() && element.getAsJsonPrimitive().isString();
+        }
+
+        if (!isUnordered)
+            return normalizedArray;
+
+        // serialize every element only once, in order to sort them
+        final List<String> sortedElements = new ArrayList<>(normalizedArray.size());
+        normalizedArray.forEach((final JsonElement element) -> sortedElements.add(element.toString()));
+        sortedElements.sort(Comparator.naturalOrder());
+
+        final JsonArray sortedArray = new JsonArray();
+        sortedElements.forEach((final String element) -> sortedArray.add(new JsonPrimitive(element)));
+        return sortedArray;
+    }
+
+
+    /**
+     * The content of a hash file.
+     *
+     * @author Robin Weiss
+     */
+    private static class StoredHashes
+    {
+        private final String loadTarget;
+        private final Map<String, String> hashes;
+
+
+        /**
+         * Constructor that requires all fields.
+         *
+         * @param loadTarget a description of the target to which the documents were loaded
+         * @param hashes the content hashes of the documents, mapped by document ID
+         */
+        StoredHashes(final String loadTarget, final Map<String, String> hashes)
+        {
+            this.loadTarget = loadTarget;
+            this.hashes = hashes;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.etls.utils;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.Polygon;
+
+import de.gerdiproject.json.datacite.GeoLocation;
+
+/**
+ * This class interns {@linkplain Geometry}s, in order to detect geometries that
+ * are identical or near-identical to a geometry that was seen before. Geometries are
+ * compared in their normalized form, which means that polygons that only differ in
+ * the orientation or start vertex of their rings, or in the order of their parts,
+ * are equal. Two coordinates are equal, if they differ by no more than a tolerance.
+ * <br>
+ * Geometries are looked up by a hash of their normalized coordinates, which are
+ * snapped to a grid of the size of the tolerance.
+ *
+ * @author Robin Weiss
+ */
+public class GeometryDeduplicator
+{
+    private final double tolerance;
+    private final Map<Integer, List<InternedGeometry>> internedGeometries;
+
+
+    /**
+     * Constructor that requires the max difference of equal coordinates.
+     *
+     * @param tolerance the max distance between two coordinates that are considered equal
+     */
+    public GeometryDeduplicator(final double tolerance)
+    {
+        this.tolerance = tolerance;
+        this.internedGeometries = new HashMap<>();
+    }
+
+
+    /**
+     * Returns the first interned geometry that is equal to a specified geometry.
+     * If no such geometry exists, the specified geometry is interned itself.
+     *
+     * @param geometry the geometry that is to be interned
+     *
+     * @return an equal geometry that was interned previously, the specified
+     *          geometry itself, or null if the geometry is null
+     */
+    public Geometry intern(final Geometry geometry)
+    {
+        if (geometry == null)
+            return null;
+
+        final Geometry internedGeometry = add(geometry);
+        return internedGeometry == null ? geometry : internedGeometry;
+    }
+
+
+    /**
+     * Splits a geometry into polygons and returns those polygons that are not
+     * equal to any geometry that was interned previously. The returned polygons
+     * are interned, too.
+     *
+     * @param geometry a polygon, multi-polygon or geometry collection, or null
+     *
+     * @return a list of polygons that are to be added to a {@linkplain GeoLocation}
+     */
+    public List<Geometry> getUniquePolygons(final Geometry geometry)
+    {
+        final List<Geometry> uniquePolygons = new LinkedList<>();
+
+        if (geometry != null)
+            addUniquePolygons(geometry, uniquePolygons);
+
+        return uniquePolygons;
+    }
+
+
+    /**
+     * Recursively adds all polygons of a geometry to a list,
+     * unless they are equal to a previously interned geometry.
+     *
+     * @param geometry the geometry that is to be split into polygons
+     * @param uniquePolygons the list to which the polygons are added
+     */
+    private void addUniquePolygons(final Geometry geometry, final List<Geometry> uniquePolygons)
+    {
+        if (geometry instanceof Polygon) {
+            if (add(geometry) == null)
+                uniquePolygons.add(geometry);
+        } else {
+            final int numGeometries = geometry.getNumGeometries();
+
+            for (int i = 0; i < numGeometries; i++) {
+                final Geometry part = geometry.getGeometryN(i);
+
+                // a geometry that is not a collection returns itself
+                if (part != geometry)
+                    addUniquePolygons(part, uniquePolygons);
+            }
+        }
+    }
+
+
+    /**
+     * Interns a geometry, unless an equal geometry was interned before.
+     *
+     * @param geometry the geometry that is to be interned
+     *
+     * @return the equal geometry that was interned before, or null if
+     *          the geometry was interned now
+     */
+    private Geometry add(final Geometry geometry)
+    {
+        final Geometry normalizedGeometry = geometry.norm();
+        final List<InternedGeometry> candidates =
+            internedGeometries.computeIfAbsent(getNormalizedHash(normalizedGeometry), (final Integer hash) -> new LinkedList<>());
+
+        for (final InternedGeometry candidate : candidates) {
+            if (candidate.normalizedGeometry.equalsExact(normalizedGeometry, tolerance))
+                return candidate.geometry;
+        }
+
+        candidates.add(new InternedGeometry(geometry, normalizedGeometry));
+        return null;
+    }
+
+
+    /**
+     * Calculates a hash of the type and coordinates of a normalized geometry.
+     * The coordinates are snapped to the tolerance grid, in order for
+     * near-identical geometries to have the same hash.
+     *
+     * @param normalizedGeometry a normalized geometry
+     *
+     * @return a hash of the geometry
+     */
+    private int getNormalizedHash(final Geometry normalizedGeometry)
+    {
+        int hash = normalizedGeometry.getGeometryType().hashCode();
+
+        for (final Coordinate c : normalizedGeometry.getCoordinates()) {
+            hash = 31 * hash + Long.hashCode(Math.round(c.x / tolerance));
+            hash = 31 * hash + Long.hashCode(Math.round(c.y / tolerance));
+        }
+
+        return hash;
+    }
+
+
+    /**
+     * A geometry that was interned, along with its normalized form.
+     *
+     * @author Robin Weiss
+     */
+    private static class InternedGeometry
+    {
+        private final Geometry geometry;
+        private final Geometry normalizedGeometry;
+
+
+        /**
+         * Constructor that requires the interned geometry and its normalized form.
+         *
+         * @param geometry the interned geometry
+         * @param normalizedGeometry the normalized form of the geometry
+         */
+        InternedGeometry(final Geometry geometry, final Geometry normalizedGeometry)
+        {
+            this.geometry = geometry;
+            this.normalizedGeometry = normalizedGeometry;
+        }
+    }
+}
@@ -0,0 +1,364 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.etls.utils;
+
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.gson.Gson;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.geom.PrecisionModel;
+import com.vividsolutions.jts.precision.GeometryPrecisionReducer;
+import com.vividsolutions.jts.simplify.DouglasPeuckerSimplifier;
+import com.vividsolutions.jts.simplify.TopologyPreservingSimplifier;
+
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsParameterConstants;
+import de.gerdiproject.harvest.seaaroundus.utils.GeoJsonStreamWriter;
+import de.gerdiproject.json.GsonUtils;
+import de.gerdiproject.json.datacite.DataCiteJson;
+import de.gerdiproject.json.datacite.GeoLocation;
+
+/**
+ * This class reduces the size of the polygons of {@linkplain GeoLocation}s of
+ * harvested documents. The polygons are simplified, until the number of vertices of
+ * a document fits into a budget, and the coordinates are rounded to a number of decimals.
+ * <br>
+ * The number of vertices before and after the post-processing are summed up, in order
+ * to report how much was saved. Measuring the serialized bytes requires the polygons to
+ * be serialized twice, which is why it can be enabled separately. Documents can be
+ * processed by multiple threads at the same time.
+ *
+ * @author Robin Weiss
+ */
+public class GeometryPostProcessor
+{
+    private final Gson gson = GsonUtils.createGeoJsonGsonBuilder()
+                              .registerTypeAdapterFactory(new GeoJsonStreamWriter(new GeometryFactory()))
+                              .create();
+
+    private final GeometryPrecisionReducer precisionReducer;
+    private final double initialTolerance;
+    private final double gridSize;
+    private final int vertexBudget;
+    private final boolean isPreservingTopology;
+    private final boolean isMeasuringBytes;
+
+    private final LongAdder originalVertexCount = new LongAdder();
+    private final LongAdder processedVertexCount = new LongAdder();
+    private final LongAdder originalByteCount = new LongAdder();
+    private final LongAdder processedByteCount = new LongAdder();
+
+
+    /**
+     * Constructor that requires the post-processing configuration.
+     *
+     * @param decimals the number of decimals to which coordinates are rounded
+     * @param tolerance the simplification distance tolerance, measured in units
+     *          of the last rounded decimal, or 0 if geometries are only to be
+     *          simplified if they exceed the vertex budget
+     * @param vertexBudget the max number of vertices of all polygons of a document,
+     *          or 0 if the number of vertices is not to be restricted
+     * @param isPreservingTopology if true, the simplification preserves the topology
+     *          of polygons, otherwise the faster Douglas-Peucker algorithm is used
+     * @param isMeasuringBytes if true, the serialized size of the polygons is measured
+     *          before and after the post-processing
+     */
+    public GeometryPostProcessor(final int decimals, final int tolerance, final int vertexBudget, final boolean isPreservingTopology, final boolean isMeasuringBytes)
+    {
+        final double scale = Math.pow(10, Math.min(decimals, SeaAroundUsParameterConstants.GEOMETRY_DECIMALS_MAX));
+
+        this.precisionReducer = new GeometryPrecisionReducer(new PrecisionModel(scale));
+        this.gridSize = 1 / scale;
+        this.initialTolerance = tolerance * gridSize;
+        this.vertexBudget = vertexBudget;
+        this.isPreservingTopology = isPreservingTopology;
+        this.isMeasuringBytes = isMeasuringBytes;
+    }
+
+
+    /**
+     * Simplifies and rounds the polygons of all {@linkplain GeoLocation}s of a document.
+     * Since the hash codes of the {@linkplain GeoLocation}s change with their polygons,
+     * they are removed from the document while they are processed, and added again afterwards.
+     *
+     * @param document the document of which the polygons are to be processed
+     */
+    public void process(final DataCiteJson document)
+    {
+        final Set<GeoLocation> geoLocations = document.getGeoLocations();
+
+        if (geoLocations == null)
+            return;
+
+        int vertexCount = 0;
+        long byteCount = 0;
+
+        for (final GeoLocation geoLocation : geoLocations) {
+            if (geoLocation.getPolygons() != null) {
+                for (final Polygon polygon : geoLocation.getPolygons()) {
+                    vertexCount += polygon.getNumPoints();
+                    byteCount += getByteCount(polygon);
+                }
+            }
+        }
+
+        originalByteCount.add(byteCount);
+
+        if (vertexCount == 0)
+            return;
+
+        originalVertexCount.add(vertexCount);
+
+        // increase the tolerance until the polygons fit into the vertex budget
+        double tolerance = initialTolerance;
+        List<List<Geometry>> processedPolygons = processPolygons(geoLocations, tolerance);
+
+        for (int attempt = 1; attempt < SeaAroundUsParameterConstants.GEOMETRY_VERTEX_BUDGET_MAX_ATTEMPTS; attempt++) {
+            if (vertexBudget == 0 || countVertices(processedPolygons) <= vertexBudget)
+                break;
+
+            tolerance = tolerance == 0 ? gridSize : tolerance * 2;
+            processedPolygons = processPolygons(geoLocations, tolerance);
+        }
+
+        // replace the polygons outside of the set of the document
+        final List<GeoLocation> processedLocations = new ArrayList<>(geoLocations);
+        geoLocations.clear();
+
+        int i = 0;
+        vertexCount = 0;
+        byteCount = 0;
+
+        for (final GeoLocation geoLocation : processedLocations) {
+            final List<Geometry> polygons = processedPolygons.get(i++);
+
+            if (geoLocation.getPolygons() != null) {
+                geoLocation.getPolygons().clear();
+                geoLocation.addPolygons(polygons);
+
+                for (final Polygon polygon : geoLocation.getPolygons()) {
+                    vertexCount += polygon.getNumPoints();
+                    byteCount += getByteCount(polygon);
+                }
+            }
+        }
+
+        document.addGeoLocations(processedLocations);
+
+        processedVertexCount.add(vertexCount);
+        processedByteCount.add(byteCount);
+    }
+
+
+    /**
+     * Returns the number of polygon vertices before the post-processing.
+     *
+     * @return the number of vertices of all processed documents
+     */
+    public long getOriginalVertexCount()
+    {
+        return originalVertexCount.sum();
+    }
+
+
+    /**
+     * Returns the number of polygon vertices after the post-processing.
+     *
+     * @return the number of vertices of all processed documents
+     */
+    public long getProcessedVertexCount()
+    {
+        return processedVertexCount.sum();
+    }
+
+
+    /**
+     * Returns the serialized size of all polygons before the post-processing,
+     * or 0 if the bytes are not measured.
+     *
+     * @return the number of bytes of the polygons of all processed documents
+     */
+    public long getOriginalByteCount()
+    {
+        return originalByteCount.sum();
+    }
+
+
+    /**
+     * Returns the serialized size of all polygons after the post-processing,
+     * or 0 if the bytes are not measured.
+     *
+     * @return the number of bytes of the polygons of all processed documents
+     */
+    public long getProcessedByteCount()
+    {
+        return processedByteCount.sum();
+    }
+
+
+    /**
+     * Returns the number of bytes that were saved by the post-processing.
+     *
+     * @return the number of bytes that were saved
+     */
+    public long getSavedByteCount()
+    {
+        return getOriginalByteCount() - getProcessedByteCount();
+    }
+
+
+    /**
+     * Simplifies and rounds the polygons of a set of {@linkplain GeoLocation}s.
+     *
+     * @param geoLocations the {@linkplain GeoLocation}s of which the polygons are processed
+     * @param tolerance the distance tolerance of the simplification
+     *
+     * @return a list of processed polygons for each {@linkplain GeoLocation}
+     */
+    private List<List<Geometry>> processPolygons(final Set<GeoLocation> geoLocations, final double tolerance)
+    {
+        final List<List<Geometry>> processedPolygons = new LinkedList<>();
+
+        for (final GeoLocation geoLocation : geoLocations) {
+            final List<Geometry> polygons = new LinkedList<>();
+
+            if (geoLocation.getPolygons() != null) {
+                for (final Polygon polygon : geoLocation.getPolygons())
+                    polygons.add(processPolygon(polygon, tolerance));
+            }
+
+            processedPolygons.add(polygons);
+        }
+
+        return processedPolygons;
+    }
+
+
+    /**
+     * Simplifies a polygon and rounds its coordinates. If a polygon is too small
+     * to be simplified or rounded, the unaltered polygon is returned.
+     *
+     * @param polygon the polygon that is to be processed
+     * @param tolerance the distance tolerance of the simplification
+     *
+     * @return the processed polygon or multi-polygon
+     */
+    private Geometry processPolygon(final Polygon polygon, final double tolerance)
+    {
+        Geometry processed = polygon;
+
+        try {
+            if (tolerance > 0)
+                processed = isPreservingTopology
+                            ? TopologyPreservingSimplifier.simplify(processed, tolerance)
+                            : DouglasPeuckerSimplifier.simplify(processed, tolerance);
+
+            processed = precisionReducer.reduce(processed);
+
+        } catch (final RuntimeException e) { // NOPMD JTS throws unchecked exceptions for degenerate geometries
+            return polygon;
+        }
+
+        return processed == null || processed.isEmpty() ? polygon : processed;
+    }
+
+
+    /**
+     * Counts the vertices of lists of geometries.
+     *
+     * @param geometryLists lists of geometries
+     *
+     * @return the total number of vertices of all geometries
+     */
+    private static int countVertices(final List<List<Geometry>> geometryLists)
+    {
+        int vertexCount = 0;
+
+        for (final List<Geometry> geometries : geometryLists) {
+            for (final Geometry geometry : geometries)
+                vertexCount += geometry.getNumPoints();
+        }
+
+        return vertexCount;
+    }
+
+
+    /**
+     * Calculates the number of bytes of a serialized geometry,
+     * without storing the serialized geometry.
+     *
+     * @param geometry the geometry of which the size is calculated
+     *
+     * @return the number of bytes of the serialized geometry,
+     *          or 0 if the bytes are not measured
+     */
+    private long getByteCount(final Geometry geometry)
+    {
+        if (!isMeasuringBytes)
+            return 0;
+
+        final ByteCountingWriter writer = new ByteCountingWriter();
+        gson.toJson(geometry, Geometry.class, writer);
+        return writer.byteCount;
+    }
+
+
+    /**
+     * This {@linkplain Writer} discards all written characters and only
+     * counts them. Since GeoJson consists of ASCII characters only,
+     * each character is counted as one byte.
+     *
+     * @author Robin Weiss
+     */
+    private static class ByteCountingWriter extends Writer
+    {
+        private long byteCount;
+
+
+        @Override
+        public void write(final char[] cbuf, final int off, final int len)
+        {
+            byteCount += len;
+        }
+
+
+        @Override
+        public void write(final String str, final int off, final int len)
+        {
+            byteCount += len;
+        }
+
+
+        @Override
+        public void flush()
+        {
+            // nothing to flush
+        }
+
+
+        @Override
+        public void close()
+        {
+            // nothing to close
+        }
+    }
+}
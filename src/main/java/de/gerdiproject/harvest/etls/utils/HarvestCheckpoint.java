@@ -0,0 +1,186 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.etls.utils;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+import com.google.gson.Gson;
+
+import de.gerdiproject.harvest.application.events.GetCacheFolderEvent;
+import de.gerdiproject.harvest.config.parameters.BooleanParameter;
+import de.gerdiproject.harvest.etls.AbstractETL;
+import de.gerdiproject.harvest.etls.AbstractIteratorETL;
+import de.gerdiproject.harvest.event.EventSystem;
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsParameterConstants;
+import de.gerdiproject.harvest.seaaroundus.utils.SeaAroundUsParameterUtils;
+import de.gerdiproject.harvest.utils.data.DiskIO;
+import de.gerdiproject.harvest.utils.file.FileUtils;
+import lombok.Data;
+
+/**
+ * This class stores the number of elements of a harvest that were loaded
+ * successfully, in order to allow an interrupted harvest to be resumed
+ * without retrieving those elements again. The position is only valid for
+ * the version of the source data, during which it was committed.
+ *
+ * @author Robin Weiss
+ */
+public class HarvestCheckpoint
+{
+    private final DiskIO diskIO;
+    private final File checkpointFile;
+
+
+    /**
+     * Constructor that requires the file in which the checkpoint is stored.
+     *
+     * @param checkpointFile the file in which the checkpoint is stored
+     */
+    public HarvestCheckpoint(final File checkpointFile)
+    {
+        this.diskIO = new DiskIO(new Gson(), StandardCharsets.UTF_8);
+        this.checkpointFile = checkpointFile;
+    }
+
+
+    /**
+     * Creates the checkpoint of an ETL. Checkpoints are only supported for
+     * harvests that are not restricted to a range of documents, because positions
+     * that were committed within different ranges cannot be compared.
+     *
+     * @param etl the ETL of which the harvest is to be resumed
+     *
+     * @return the checkpoint of the ETL, or null if the harvest cannot be resumed
+     */
+    public static HarvestCheckpoint create(final AbstractETL<?, ?> etl)
+    {
+        if (!(etl instanceof AbstractIteratorETL))
+            return null;
+
+        final AbstractIteratorETL<?, ?> iterEtl = (AbstractIteratorETL<?, ?>) etl;
+
+        if (iterEtl.getStartIndex() != 0 || iterEtl.getEndIndex() != Integer.MAX_VALUE)
+            return null;
+
+        final BooleanParameter resumableParam = SeaAroundUsParameterUtils.registerEtlParameter(
+                                                    SeaAroundUsParameterConstants.RESUMABLE_HARVEST_KEY,
+                                                    etl,
+                                                    SeaAroundUsParameterConstants.RESUMABLE_HARVEST_DEFAULT);
+
+        final File cacheRootFolder = EventSystem.sendSynchronousEvent(new GetCacheFolderEvent());
+
+        if (!resumableParam.getValue() || cacheRootFolder == null)
+            return null;
+
+        return new HarvestCheckpoint(
+                   new File(
+                       new File(cacheRootFolder, SeaAroundUsParameterConstants.CHECKPOINTS_FOLDER),
+                       String.format(SeaAroundUsParameterConstants.CHECKPOINT_FILE, etl.getName())));
+    }
+
+
+    /**
+     * Returns the number of elements that an ETL can skip, because they
+     * were loaded before its previous harvest was interrupted.
+     *
+     * @param etl the ETL of which the harvest is to be resumed
+     *
+     * @return the number of elements that can be skipped
+     */
+    public static int getResumePosition(final AbstractETL<?, ?> etl)
+    {
+        final HarvestCheckpoint checkpoint = create(etl);
+        return checkpoint == null ? 0 : checkpoint.getPosition(etl.getHash());
+    }
+
+
+    /**
+     * Returns the number of elements that were loaded before the harvest
+     * was interrupted.
+     *
+     * @param version the version of the source data that is harvested
+     *
+     * @return the number of elements that can be skipped, or 0 if no checkpoint
+     *          was committed for the specified version
+     */
+    public int getPosition(final String version)
+    {
+        final CheckpointJson checkpoint = diskIO.getObject(checkpointFile, CheckpointJson.class);
+
+        if (checkpoint == null || version == null || !version.equals(checkpoint.getVersion()))
+            return 0;
+
+        return Math.max(checkpoint.getPosition(), 0);
+    }
+
+
+    /**
+     * Stores the number of elements that were loaded successfully.
+     *
+     * @param version the version of the source data that is harvested
+     * @param position the number of elements that were loaded successfully
+     */
+    public void commit(final String version, final int position)
+    {
+        diskIO.writeObjectToFile(checkpointFile, new CheckpointJson(version, position));
+    }
+
+
+    /**
+     * Removes the checkpoint, causing the next harvest to start from the beginning.
+     */
+    public void delete()
+    {
+        if (checkpointFile.exists())
+            FileUtils.deleteFile(checkpointFile);
+    }
+
+
+    /**
+     * Skips elements of an iterator.
+     *
+     * @param elements the iterator of which elements are skipped
+     * @param count the number of elements that are to be skipped
+     *
+     * @return the number of elements that were skipped
+     */
+    public static int skip(final Iterator<?> elements, final int count)
+    {
+        int skipped = 0;
+
+        while (skipped < count && elements.hasNext()) {
+            elements.next();
+            skipped++;
+        }
+
+        return skipped;
+    }
+
+
+    /**
+     * The JSON representation of a checkpoint.
+     *
+     * @author Robin Weiss
+     */
+    @Data
+    private static class CheckpointJson
+    {
+        private final String version;
+        private final int position;
+    }
+}
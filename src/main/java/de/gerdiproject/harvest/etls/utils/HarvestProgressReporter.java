@@ -0,0 +1,207 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.etls.utils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.gerdiproject.harvest.etls.AbstractETL;
+import de.gerdiproject.harvest.etls.events.HarvestFinishedEvent;
+import de.gerdiproject.harvest.etls.events.HarvestStartedEvent;
+import de.gerdiproject.harvest.event.EventSystem;
+import de.gerdiproject.harvest.event.IEventListener;
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsProgressConstants;
+
+/**
+ * This class periodically logs the progress of every ETL and the overall
+ * throughput while a harvest is running. This is most useful if the ETLs
+ * are harvested concurrently.
+ *
+ * @author Robin Weiss
+ */
+public class HarvestProgressReporter implements IEventListener
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(HarvestProgressReporter.class);
+
+    private final Consumer<HarvestStartedEvent> onHarvestStartedCallback = this::onHarvestStarted;
+    private final Consumer<HarvestFinishedEvent> onHarvestFinishedCallback = this::onHarvestFinished;
+
+    private List<? extends AbstractETL<?, ?>> etls;
+    private ScheduledExecutorService reportExecutor;
+    private long startTimestamp;
+
+
+    /**
+     * Constructor that creates a reporter without ETLs.
+     */
+    public HarvestProgressReporter()
+    {
+        this.etls = Collections.emptyList();
+    }
+
+
+    /**
+     * Changes the ETLs of which the progress is reported.
+     *
+     * @param etls the ETLs of which the progress is reported
+     */
+    public synchronized void setEtls(final List<? extends AbstractETL<?, ?>> etls)
+    {
+        this.etls = etls;
+    }
+
+
+    @Override
+    public void addEventListeners()
+    {
+        EventSystem.addListener(HarvestStartedEvent.class, onHarvestStartedCallback);
+        EventSystem.addListener(HarvestFinishedEvent.class, onHarvestFinishedCallback);
+    }
+
+
+    @Override
+    public void removeEventListeners()
+    {
+        EventSystem.removeListener(HarvestStartedEvent.class, onHarvestStartedCallback);
+        EventSystem.removeListener(HarvestFinishedEvent.class, onHarvestFinishedCallback);
+        stopReporting();
+    }
+
+
+    /**
+     * Logs the number of harvested documents of every ETL, as well as
+     * the total number of harvested documents and the throughput.
+     */
+    public synchronized void report()
+    {
+        int harvestedCount = 0;
+        int maxCount = 0;
+
+        for (final AbstractETL<?, ?> etl : etls) {
+            final int etlHarvestedCount = etl.getHarvestedCount();
+            final int etlMaxCount = etl.getMaxNumberOfDocuments();
+            harvestedCount += etlHarvestedCount;
+            maxCount += Math.max(etlMaxCount, 0);
+
+            LOGGER.info(String.format(
+                            SeaAroundUsProgressConstants.ETL_PROGRESS_REPORT,
+                            etl.getName(),
+                            etlHarvestedCount,
+                            etlMaxCount < 0 ? SeaAroundUsProgressConstants.UNKNOWN_SIZE : String.valueOf(etlMaxCount)));
+        }
+
+        final long seconds = getElapsedSeconds();
+        LOGGER.info(String.format(
+                        SeaAroundUsProgressConstants.TOTAL_PROGRESS_REPORT,
+                        harvestedCount,
+                        maxCount,
+                        seconds,
+                        getThroughput(harvestedCount, seconds)));
+    }
+
+
+    /**
+     * Starts logging the harvest progress periodically.
+     *
+     * @param event the event that signals the start of a harvest
+     */
+    private synchronized void onHarvestStarted(final HarvestStartedEvent event)
+    {
+        stopReporting();
+        startTimestamp = System.currentTimeMillis();
+
+        reportExecutor = Executors.newSingleThreadScheduledExecutor((final Runnable r) -> {
+            final Thread thread = new Thread(r, SeaAroundUsProgressConstants.PROGRESS_REPORT_THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+        reportExecutor.scheduleAtFixedRate(
+            this::report,
+            SeaAroundUsProgressConstants.PROGRESS_REPORT_INTERVAL,
+            SeaAroundUsProgressConstants.PROGRESS_REPORT_INTERVAL,
+            TimeUnit.SECONDS);
+    }
+
+
+    /**
+     * Stops logging the harvest progress and logs the final progress.
+     *
+     * @param event the event that signals the end of a harvest
+     */
+    private synchronized void onHarvestFinished(final HarvestFinishedEvent event)
+    {
+        if (reportExecutor == null)
+            return;
+
+        stopReporting();
+        report();
+
+        int harvestedCount = 0;
+
+        for (final AbstractETL<?, ?> etl : etls)
+            harvestedCount += etl.getHarvestedCount();
+
+        final long seconds = getElapsedSeconds();
+        LOGGER.info(String.format(
+                        SeaAroundUsProgressConstants.FINAL_PROGRESS_REPORT,
+                        seconds,
+                        getThroughput(harvestedCount, seconds)));
+    }
+
+
+    /**
+     * Stops the periodic logging of the harvest progress.
+     */
+    private synchronized void stopReporting()
+    {
+        if (reportExecutor != null) {
+            reportExecutor.shutdownNow();
+            reportExecutor = null;
+        }
+    }
+
+
+    /**
+     * Returns the number of seconds that passed since the harvest started.
+     *
+     * @return the number of seconds that passed since the harvest started
+     */
+    private long getElapsedSeconds()
+    {
+        return TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - startTimestamp);
+    }
+
+
+    /**
+     * Calculates the number of documents that were harvested per second.
+     *
+     * @param harvestedCount the number of harvested documents
+     * @param seconds the number of seconds it took to harvest the documents
+     *
+     * @return the number of documents that were harvested per second
+     */
+    private static double getThroughput(final int harvestedCount, final long seconds)
+    {
+        return seconds == 0 ? harvestedCount : (double) harvestedCount / seconds;
+    }
+}
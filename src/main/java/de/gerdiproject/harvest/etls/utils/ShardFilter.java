@@ -0,0 +1,249 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.etls.utils;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.ToIntFunction;
+
+import de.gerdiproject.harvest.config.parameters.IntegerParameter;
+import de.gerdiproject.harvest.etls.constants.ETLConstants;
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsParameterConstants;
+import de.gerdiproject.harvest.seaaroundus.utils.SeaAroundUsParameterUtils;
+import lombok.Getter;
+
+/**
+ * This class partitions the elements of all ETLs across several harvester replicas.
+ * Each element is assigned to exactly one shard by a hash of its numeric identifier,
+ * which means that all replicas agree on the partitioning without communicating,
+ * as long as they are configured with the same number of shards.
+ *
+ * @author Robin Weiss
+ */
+public class ShardFilter
+{
+    @Getter
+    private final int shardCount;
+
+    @Getter
+    private final int shardIndex;
+
+
+    /**
+     * Constructor that retrieves the shard of this harvester from the
+     * global parameters "shardCount" and "shardIndex".
+     *
+     * @throws IllegalStateException if the shard index is not lower than the shard count
+     */
+    public ShardFilter()
+    {
+        this(registerShardParameter(
+                 SeaAroundUsParameterConstants.SHARD_COUNT_KEY,
+                 SeaAroundUsParameterConstants.SHARD_COUNT_DEFAULT).getValue(),
+             registerShardParameter(
+                 SeaAroundUsParameterConstants.SHARD_INDEX_KEY,
+                 SeaAroundUsParameterConstants.SHARD_INDEX_DEFAULT).getValue());
+    }
+
+
+    /**
+     * Constructor that requires the number of shards and the shard that is harvested.
+     *
+     * @param shardCount the number of harvester replicas, values below 1 disable sharding
+     * @param shardIndex the zero-based index of the shard that is harvested
+     *
+     * @throws IllegalStateException if the shard index is not lower than the shard count
+     */
+    public ShardFilter(final int shardCount, final int shardIndex)
+    {
+        this.shardCount = Math.max(shardCount, 1);
+        this.shardIndex = shardIndex;
+
+        if (shardIndex < 0 || shardIndex >= this.shardCount)
+            throw new IllegalStateException(String.format(SeaAroundUsParameterConstants.SHARD_INDEX_ERROR, shardIndex, this.shardCount));
+    }
+
+
+    /**
+     * Checks if the elements are partitioned across more than one shard.
+     *
+     * @return true if not all elements are harvested
+     */
+    public boolean isSharded()
+    {
+        return shardCount > 1;
+    }
+
+
+    /**
+     * Checks if an element belongs to the harvested shard.
+     *
+     * @param key the numeric identifier of the element
+     *
+     * @return true if the element is to be harvested
+     */
+    public boolean contains(final int key)
+    {
+        if (!isSharded())
+            return true;
+
+        // spread consecutive identifiers evenly across all shards
+        final int hash = key * SeaAroundUsParameterConstants.SHARD_HASH_MULTIPLIER;
+        return Math.floorMod(hash ^ (hash >>> 16), shardCount) == shardIndex;
+    }
+
+
+    /**
+     * Creates a list of all elements of a list that belong to the harvested shard.
+     *
+     * @param elements the elements that are to be filtered
+     * @param keyFunction a function that retrieves the numeric identifier of an element
+     * @param <T> the type of the elements
+     *
+     * @return the elements that belong to the harvested shard, or the same list if
+     *          the elements are not partitioned
+     */
+    public <T> List<T> filter(final List<T> elements, final ToIntFunction<T> keyFunction)
+    {
+        if (!isSharded())
+            return elements;
+
+        final List<T> shardElements = new LinkedList<>();
+
+        for (final T element : elements) {
+            if (contains(keyFunction.applyAsInt(element)))
+                shardElements.add(element);
+        }
+
+        return shardElements;
+    }
+
+
+    /**
+     * Creates an iterator that only returns elements that belong to the harvested shard.
+     *
+     * @param elements the elements that are to be filtered
+     * @param keyFunction a function that retrieves the numeric identifier of an element
+     * @param <T> the type of the elements
+     *
+     * @return an iterator of the elements that belong to the harvested shard, or the
+     *          same iterator if the elements are not partitioned
+     */
+    public <T> Iterator<T> filter(final Iterator<T> elements, final ToIntFunction<T> keyFunction)
+    {
+        return isSharded()
+               ? new ShardIterator<>(elements, keyFunction)
+               : elements;
+    }
+
+
+    /**
+     * Appends the shard to the version of the source data, in order to distinguish
+     * the harvests of different shards. The version remains unchanged if the
+     * elements are not partitioned.
+     *
+     * @param version the version of the source data
+     *
+     * @return a version that is unique for the harvested shard
+     */
+    public String getShardVersion(final String version)
+    {
+        return isSharded() && version != null
+               ? String.format(SeaAroundUsParameterConstants.SHARD_VERSION, version, shardIndex, shardCount)
+               : version;
+    }
+
+
+    /**
+     * Registers a sharding parameter that applies to all ETLs. Like all
+     * parameters, it can be set via an environment variable, for instance
+     * GERDI_HARVESTER_ALLETLS_SHARDINDEX, which allows each replica to be
+     * configured individually.
+     *
+     * @param key the parameter key
+     * @param defaultValue the value of the parameter if it was not configured
+     *
+     * @return the registered parameter
+     */
+    private static IntegerParameter registerShardParameter(final String key, final int defaultValue)
+    {
+        return SeaAroundUsParameterUtils.registerGlobalParameter(
+                   key,
+                   ETLConstants.PARAMETER_CATEGORY,
+                   defaultValue);
+    }
+
+
+    /**
+     * This iterator skips all elements that do not belong to the harvested shard.
+     *
+     * @param <T> the type of the elements
+     *
+     * @author Robin Weiss
+     */
+    private class ShardIterator <T> implements Iterator<T>
+    {
+        private final Iterator<T> elements;
+        private final ToIntFunction<T> keyFunction;
+        private T nextElement;
+        private boolean hasNextElement;
+
+
+        /**
+         * Constructor that requires the filtered elements.
+         *
+         * @param elements the elements that are to be filtered
+         * @param keyFunction a function that retrieves the numeric identifier of an element
+         */
+        ShardIterator(final Iterator<T> elements, final ToIntFunction<T> keyFunction)
+        {
+            this.elements = elements;
+            this.keyFunction = keyFunction;
+        }
+
+
+        @Override
+        public boolean hasNext()
+        {
+            while (!hasNextElement && elements.hasNext()) {
+                final T element = elements.next();
+
+                if (contains(keyFunction.applyAsInt(element))) {
+                    nextElement = element;
+                    hasNextElement = true;
+                }
+            }
+
+            return hasNextElement;
+        }
+
+
+        @Override
+        public T next()
+        {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            final T element = nextElement;
+            nextElement = null;
+            hasNextElement = false;
+
+            return element;
+        }
+    }
+}
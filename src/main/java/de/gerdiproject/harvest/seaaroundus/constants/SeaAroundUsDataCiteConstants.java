@@ -70,6 +70,12 @@ public class SeaAroundUsDataCiteConstants
     public static final String CATCHES_LABEL = "%s by %s %s %s";
     public static final String PRIMARY_PRODUCTION_LABEL = "Primary Production Required for catches %s %s";
     public static final String STOCK_STATUS_LABEL = "Stock status %s %s";
+    public static final String CATCH_SUMMARY_SUBJECT = "%s: %d to %d, total of %d, peak of %d in %d";
+
+    // TEMPLATES
+    public static final int TEMPLATE_ID_PLACEHOLDER = Integer.MIN_VALUE;
+    public static final String TEMPLATE_ID_FORMAT = "%d";
+    public static final String TEMPLATE_NAME_PLACEHOLDER = "\u0000";
 
     // LME
     public static final String FISHBASE_TAXA_LINK_NAME = "FishBase Taxa";
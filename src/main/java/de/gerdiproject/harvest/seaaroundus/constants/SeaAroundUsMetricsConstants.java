@@ -0,0 +1,85 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.constants;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ *  This static class contains constants that are used for measuring HTTP requests
+ *  and exposing the measurements in the Prometheus text format.
+ *
+ *  @author Robin Weiss
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class SeaAroundUsMetricsConstants
+{
+    // REST
+    public static final String METRICS_APPLICATION_PATH = "harvest/metrics";
+    public static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    // PATH TEMPLATES
+    public static final String ID_PLACEHOLDER = "{id}";
+    public static final String ID_PATTERN = "\\d+";
+    public static final String UNKNOWN_ETL = "unknown";
+
+    // METRIC NAMES
+    public static final String REQUESTS_METRIC = "seaaroundus_http_requests_total";
+    public static final String REQUESTS_HELP = "Number of HTTP requests sent to the SeaAroundUs API.";
+    public static final String ERRORS_METRIC = "seaaroundus_http_request_errors_total";
+    public static final String ERRORS_HELP = "Number of HTTP requests that failed or could not be parsed.";
+    public static final String RETRIES_METRIC = "seaaroundus_http_request_retries_total";
+    public static final String RETRIES_HELP = "Number of times an HTTP request was re-sent after a server error or timeout.";
+    public static final String BYTES_METRIC = "seaaroundus_http_response_bytes_total";
+    public static final String BYTES_HELP = "Number of bytes that were received in HTTP response bodies, before they were decompressed.";
+    public static final String REVALIDATION_HITS_METRIC = "seaaroundus_http_revalidation_hits_total";
+    public static final String REVALIDATION_HITS_HELP = "Number of conditional HTTP requests that were answered with 304 Not Modified and served from the local store.";
+    public static final String REVALIDATION_MISSES_METRIC = "seaaroundus_http_revalidation_misses_total";
+    public static final String REVALIDATION_MISSES_HELP = "Number of HTTP responses that were downloaded, because no stored response was valid.";
+    public static final String LATENCY_METRIC = "seaaroundus_http_request_duration_seconds";
+    public static final String LATENCY_HELP = "Duration of HTTP requests, including the parsing of non-streamed responses.";
+    public static final String RATE_LIMIT_METRIC = "seaaroundus_http_rate_limit_requests_per_second";
+    public static final String RATE_LIMIT_HELP = "Number of HTTP requests per second that the adaptive rate limiter currently allows.";
+    public static final String EFFECTIVE_RATE_METRIC = "seaaroundus_http_effective_requests_per_second";
+    public static final String EFFECTIVE_RATE_HELP = "Number of HTTP requests per second that were started during the last measurement window.";
+
+    // PROMETHEUS TEXT FORMAT
+    public static final String HELP_PREFIX = "# HELP ";
+    public static final String TYPE_PREFIX = "# TYPE ";
+    public static final String COUNTER_TYPE = "counter";
+    public static final String GAUGE_TYPE = "gauge";
+    public static final String HISTOGRAM_TYPE = "histogram";
+    public static final String BUCKET_SUFFIX = "_bucket";
+    public static final String SUM_SUFFIX = "_sum";
+    public static final String COUNT_SUFFIX = "_count";
+    public static final String ETL_LABEL = "{etl=\"";
+    public static final String PATH_LABEL = "\",path=\"";
+    public static final String LE_LABEL = "\",le=\"";
+    public static final String LABELS_END = "\"} ";
+    public static final String INFINITE_BUCKET = "+Inf";
+
+    /**
+     * The upper bounds of the latency histogram buckets in seconds.
+     */
+    public static final List<Double> LATENCY_BUCKETS =
+        Collections.unmodifiableList(Arrays.asList(0.05, 0.1, 0.25, 0.5, 1.0, 2.5, 5.0, 10.0, 30.0, 60.0));
+    public static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+}
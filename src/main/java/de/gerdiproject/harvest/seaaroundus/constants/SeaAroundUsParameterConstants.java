@@ -0,0 +1,173 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.constants;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import de.gerdiproject.harvest.utils.data.constants.DataOperationConstants;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ *  This static class contains keys and default values of harvester parameters
+ *  that are registered per ETL.
+ *
+ *  @author Robin Weiss
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class SeaAroundUsParameterConstants
+{
+    // PREFETCHING
+    public static final String PREFETCH_THREADS_KEY = "prefetchThreads";
+    public static final int PREFETCH_THREADS_DEFAULT = 4;
+
+    public static final String PREFETCH_LOOK_AHEAD_KEY = "prefetchLookAhead";
+    public static final int PREFETCH_LOOK_AHEAD_DEFAULT = 16;
+
+    public static final String PREFETCH_THREAD_NAME = "%s-prefetch-%d";
+
+    // PIPELINING
+    public static final String PIPELINE_THREADS_KEY = "pipelineThreads";
+    public static final int PIPELINE_THREADS_DEFAULT = 0;
+
+    public static final String PIPELINE_QUEUE_SIZE_KEY = "pipelineQueueSize";
+    public static final int PIPELINE_QUEUE_SIZE_DEFAULT = 16;
+
+    public static final String PIPELINE_EXTRACT_THREAD_NAME = "%s-extract";
+    public static final String PIPELINE_TRANSFORM_THREAD_NAME = "%s-transform-%d";
+    public static final long PIPELINE_POLL_INTERVAL = 100;
+
+    // HTTP REQUESTS
+    public static final String MAX_CONCURRENT_REQUESTS_KEY = "maxConcurrentRequests";
+    public static final int MAX_CONCURRENT_REQUESTS_DEFAULT = 16;
+
+    // CONNECTION POOL
+    public static final String KEEP_ALIVE_CONNECTIONS_KEY = "keepAliveConnectionsPerHost";
+    public static final int KEEP_ALIVE_CONNECTIONS_DEFAULT = MAX_CONCURRENT_REQUESTS_DEFAULT;
+    public static final String POOL_SIZE_PROPERTY = "http.maxConnections";
+    public static final int MAX_REDIRECTS = 5;
+    public static final int DECOMPRESSION_BUFFER_SIZE = 8192;
+    public static final String LOCATION_HEADER = "Location";
+    public static final String CONNECTION_HEADER = "Connection";
+    public static final String KEEP_ALIVE = "keep-alive";
+    public static final String ACCEPT_CHARSET_HEADER = "Accept-Charset";
+    public static final String ACCEPT_ENCODING_HEADER = "Accept-Encoding";
+    public static final String DEFLATE_ENCODING = "deflate";
+    public static final String ACCEPTED_ENCODINGS = DataOperationConstants.GZIP_ENCODING + ", " + DEFLATE_ENCODING;
+
+    // RATE LIMITING
+    public static final String MAX_REQUESTS_PER_SECOND_KEY = "maxRequestsPerSecond";
+    public static final int MAX_REQUESTS_PER_SECOND_DEFAULT = 20;
+    public static final double MIN_REQUESTS_PER_SECOND = 0.5;
+    public static final double RATE_INCREASE_PER_SECOND = 1;
+    public static final double RATE_DECREASE_FACTOR = 0.5;
+    public static final long RATE_DECREASE_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+    public static final long SLOW_RESPONSE_THRESHOLD = TimeUnit.SECONDS.toNanos(5);
+    public static final long EFFECTIVE_RATE_WINDOW = TimeUnit.SECONDS.toNanos(10);
+    public static final long RETRY_BACKOFF_INITIAL_MILLIS = 500;
+    public static final long RETRY_BACKOFF_MAX_MILLIS = 60000;
+    public static final int THROTTLED_STATUS_CODE = 429;
+    public static final String RETRY_AFTER_HEADER = "Retry-After";
+    public static final String CLIENT_ERROR = "GET-request for URL '%s' returned HTTP Status-Code %d.";
+    public static final String THROTTLED_ERROR = "GET-request for URL '%s' was throttled with HTTP Status-Code %d.";
+
+    // BULK UPLOAD
+    public static final String COMPRESS_BATCHES_KEY = "compressBatches";
+    public static final boolean COMPRESS_BATCHES_DEFAULT = true;
+    public static final String BULK_UPLOAD_THREAD_NAME = "%s-bulk-upload";
+    public static final String AUTHORIZATION_HEADER = "Authorization";
+    public static final String CONTENT_ENCODING_HEADER = "Content-Encoding";
+    public static final String BULK_UPLOAD_ERROR = "Bulk request to URL '%s' returned HTTP Status-Code %d: %s";
+    public static final String BULK_UPLOAD_RESUBMIT = "Resubmitting %d documents that could not be indexed.";
+
+    // RESPONSE CACHE
+    public static final String RESPONSE_CACHE_SIZE_KEY = "responseCacheSizeMB";
+    public static final int RESPONSE_CACHE_SIZE_DEFAULT = 512;
+    public static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
+    public static final String RESPONSE_CACHE_FOLDER = "responseCache";
+    public static final String RESPONSE_CACHE_FILE_EXTENSION = ".json";
+    public static final String RESPONSE_CACHE_TEMP_FILE_EXTENSION = ".tmp";
+    public static final String RESPONSE_CACHE_TEMP_FILE = "%s.%d" + RESPONSE_CACHE_TEMP_FILE_EXTENSION;
+
+    // CONDITIONAL REQUESTS
+    public static final String VALIDATORS_CACHE_VERSION = "validators";
+    public static final String VALIDATED_RESPONSE_CACHE_VERSION = "validated %s %s";
+    public static final String ETAG_HEADER = "ETag";
+    public static final String LAST_MODIFIED_HEADER = "Last-Modified";
+    public static final String IF_NONE_MATCH_HEADER = "If-None-Match";
+    public static final String IF_MODIFIED_SINCE_HEADER = "If-Modified-Since";
+
+    // INCREMENTAL HARVEST
+    public static final String INCREMENTAL_HARVEST_KEY = "incrementalHarvest";
+    public static final boolean INCREMENTAL_HARVEST_DEFAULT = true;
+    public static final String DOCUMENT_HASHES_FOLDER = "documentHashes";
+    public static final String DOCUMENT_HASHES_FILE = "%s.json";
+    public static final String DOCUMENT_HASHES_TARGET = "%s %s";
+    public static final String RESPONSE_METADATA_FIELD = "meta";
+
+    // RESUMABLE HARVEST
+    public static final String RESUMABLE_HARVEST_KEY = "resumableHarvest";
+    public static final boolean RESUMABLE_HARVEST_DEFAULT = true;
+    public static final String CHECKPOINTS_FOLDER = "harvestCheckpoints";
+    public static final String CHECKPOINT_FILE = "%s.json";
+
+    // SHARDING
+    public static final String SHARD_COUNT_KEY = "shardCount";
+    public static final int SHARD_COUNT_DEFAULT = 1;
+    public static final String SHARD_INDEX_KEY = "shardIndex";
+    public static final int SHARD_INDEX_DEFAULT = 0;
+    public static final int SHARD_HASH_MULTIPLIER = 0x9E3779B9;
+    public static final String SHARD_VERSION = "%s/shard-%d-of-%d";
+    public static final String SHARD_INDEX_ERROR = "Shard index %d is out of range, because there are only %d shards!";
+
+    // STREAMING
+    public static final String STREAM_FEATURES_KEY = "streamFeatures";
+    public static final boolean STREAM_FEATURES_DEFAULT = false;
+    public static final String STREAM_VERSION_ERROR = "The list of '%s' changed from version %s to %s since the harvest was prepared!";
+    public static final String RESPONSE_DATA_FIELD = "data";
+    public static final String FEATURES_FIELD = "features";
+
+    // CATCH SUMMARIES
+    public static final String SUMMARIZE_CATCHES_KEY = "summarizeCatches";
+    public static final boolean SUMMARIZE_CATCHES_DEFAULT = false;
+    public static final String CATCH_VALUES_FIELD = "values";
+
+    // GEOMETRY POST-PROCESSING
+    public static final String PROCESS_GEOMETRIES_KEY = "processGeometries";
+    public static final boolean PROCESS_GEOMETRIES_DEFAULT = false;
+
+    public static final String GEOMETRY_DECIMALS_KEY = "geometryDecimals";
+    public static final int GEOMETRY_DECIMALS_DEFAULT = 4;
+    public static final int GEOMETRY_DECIMALS_MAX = 15;
+
+    public static final String GEOMETRY_TOLERANCE_KEY = "geometryTolerance";
+    public static final int GEOMETRY_TOLERANCE_DEFAULT = 10;
+
+    public static final String GEOMETRY_VERTEX_BUDGET_KEY = "geometryVertexBudget";
+    public static final int GEOMETRY_VERTEX_BUDGET_DEFAULT = 10000;
+    public static final int GEOMETRY_VERTEX_BUDGET_MAX_ATTEMPTS = 16;
+
+    public static final double GEOMETRY_DEDUPLICATION_TOLERANCE = 1e-6;
+
+    public static final String GEOMETRY_SIMPLIFIER_KEY = "geometrySimplifier";
+    public static final String TOPOLOGY_PRESERVING_SIMPLIFIER = "TopologyPreserving";
+    public static final String DOUGLAS_PEUCKER_SIMPLIFIER = "DouglasPeucker";
+    public static final List<String> GEOMETRY_SIMPLIFIERS =
+        Collections.unmodifiableList(Arrays.asList(TOPOLOGY_PRESERVING_SIMPLIFIER, DOUGLAS_PEUCKER_SIMPLIFIER));
+}
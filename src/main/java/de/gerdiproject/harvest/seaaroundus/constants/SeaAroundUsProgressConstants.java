@@ -0,0 +1,42 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.constants;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ *  This static class contains constants that are used for reporting the progress of a harvest.
+ *
+ *  @author Robin Weiss
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class SeaAroundUsProgressConstants
+{
+    public static final long PROGRESS_REPORT_INTERVAL = 30;
+    public static final String PROGRESS_REPORT_THREAD_NAME = "HarvestProgressReporter";
+    public static final String ETL_PROGRESS_REPORT = "%s: %d / %s documents";
+    public static final String TOTAL_PROGRESS_REPORT = "Harvested %d / %d documents in %d seconds (%.2f documents per second)";
+    public static final String FINAL_PROGRESS_REPORT = "Harvest took %d seconds at %.2f documents per second.";
+    public static final String UNKNOWN_SIZE = "?";
+    public static final String GEOMETRY_REPORT =
+        "%s: Post-processing reduced %d geometry vertices to %d";
+    public static final String GEOMETRY_BYTES_REPORT =
+        "%s: Post-processing reduced %d geometry bytes to %d (%d bytes saved)";
+    public static final String PIPELINE_REPORT =
+        "%s: Pipeline queue held %.1f elements on average (max %d of %d); idle time: extractor %d ms, transformers %d ms, loader %d ms";
+    public static final String RESUME_REPORT = "%s: Resuming interrupted harvest after %d elements";
+}
@@ -22,12 +22,14 @@ import java.util.List;
 
 import com.google.gson.reflect.TypeToken;
 
+import de.gerdiproject.harvest.seaaroundus.json.catches.SauCatch;
 import de.gerdiproject.harvest.seaaroundus.json.country.SauCountry;
 import de.gerdiproject.harvest.seaaroundus.json.country.SauCountryProperties;
 import de.gerdiproject.harvest.seaaroundus.json.fishingentity.SauFishingEntity;
 import de.gerdiproject.harvest.seaaroundus.json.fishingentity.SauFishingEntityReduced;
 import de.gerdiproject.harvest.seaaroundus.json.generic.GenericResponse;
 import de.gerdiproject.harvest.seaaroundus.json.generic.SauFeatureProperties;
+import de.gerdiproject.harvest.seaaroundus.json.generic.SauFeatureSummary;
 import de.gerdiproject.harvest.seaaroundus.json.global.SauGlobal;
 import de.gerdiproject.harvest.seaaroundus.json.taxa.SauTaxon;
 import de.gerdiproject.harvest.seaaroundus.json.taxa.SauTaxonGroup;
@@ -35,6 +37,7 @@ import de.gerdiproject.harvest.seaaroundus.json.taxa.SauTaxonLevel;
 import de.gerdiproject.harvest.seaaroundus.json.taxa.SauTaxonReduced;
 import de.gerdiproject.harvest.seaaroundus.vos.EntryVO;
 import de.gerdiproject.harvest.seaaroundus.vos.RegionParametersVO;
+import de.gerdiproject.json.geo.Feature;
 import de.gerdiproject.json.geo.FeatureCollection;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
@@ -54,6 +57,8 @@ public class SeaAroundUsRegionConstants
     public static final String COUNTRY_ETL_NAME = "CountryETL";
     public static final Type ALL_COUNTRIES_RESPONSE_TYPE = new TypeToken<GenericResponse<FeatureCollection<SauCountryProperties>>>() {} .getType();
     public static final Type COUNTRY_RESPONSE_TYPE =  new TypeToken<GenericResponse<SauCountry>>() {} .getType();
+    public static final Type COUNTRY_FEATURE_TYPE = new TypeToken<Feature<SauCountryProperties>>() {} .getType();
+    public static final Type COUNTRY_FEATURE_SUMMARY_TYPE = new TypeToken<SauFeatureSummary<SauCountryProperties>>() {} .getType();
 
     // MARICULTURE
     public static final String MARICULTURE_API_NAME = "mariculture";
@@ -79,6 +84,8 @@ public class SeaAroundUsRegionConstants
     public static final List<EntryVO> TAXON_MEASURES = Collections.unmodifiableList(Arrays.asList(TAXON_MEASURE_VALUE, TAXON_MEASURE_TONNAGE));
 
     public static final Type ALL_REGIONS_RESPONSE_TYPE = new TypeToken<GenericResponse<FeatureCollection<SauFeatureProperties>>>() {} .getType();
+    public static final Type REGION_FEATURE_TYPE = new TypeToken<Feature<SauFeatureProperties>>() {} .getType();
+    public static final Type CATCHES_RESPONSE_TYPE = new TypeToken<GenericResponse<List<SauCatch>>>() {} .getType();
 
     public static final RegionParametersVO EEZ_PARAMS = new RegionParametersVO(
         "EezETL",
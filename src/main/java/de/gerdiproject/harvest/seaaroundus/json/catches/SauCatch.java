@@ -55,6 +55,6 @@ public final class SauCatch
      */
     public int getLatestYear()
     {
-        return values.get(values.size()).get(0).intValue();
+        return values.get(values.size() - 1).get(0).intValue();
     }
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.rest;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Response;
+
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsMetricsConstants;
+import de.gerdiproject.harvest.seaaroundus.utils.SeaAroundUsHttpRequester;
+
+/**
+ * A REST resource that exposes the measurements of all HTTP requests that
+ * were sent to the SeaAroundUs API in the Prometheus text format.
+ * <br>GET harvest/metrics
+ *
+ * @author Robin Weiss
+ */
+@Path("")
+public class HttpMetricsRestResource
+{
+    /**
+     * Retrieves the latencies, response sizes, errors, and retries of all HTTP requests,
+     * grouped by ETL and path template.
+     *
+     * @return a response that contains the metrics in the Prometheus text format
+     */
+    @GET
+    @Produces(SeaAroundUsMetricsConstants.PROMETHEUS_CONTENT_TYPE)
+    public Response getMetrics()
+    {
+        return Response
+               .ok(SeaAroundUsHttpRequester.getRequestMetrics().toPrometheusText(), SeaAroundUsMetricsConstants.PROMETHEUS_CONTENT_TYPE)
+               .build();
+    }
+}
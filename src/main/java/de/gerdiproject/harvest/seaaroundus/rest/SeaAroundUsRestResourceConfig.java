@@ -0,0 +1,42 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.rest;
+
+import java.util.Collections;
+import java.util.Set;
+
+import javax.ws.rs.ApplicationPath;
+import javax.ws.rs.core.Application;
+
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsMetricsConstants;
+
+/**
+ * This class registers the REST resources of the SeaAroundUs harvester
+ * that are not part of the RestfulHarvester library. The application path is
+ * nested in the path of the library resources, so the most specific servlet
+ * mapping routes all metrics requests here.
+ *
+ * @author Robin Weiss
+ */
+@ApplicationPath(SeaAroundUsMetricsConstants.METRICS_APPLICATION_PATH)
+public class SeaAroundUsRestResourceConfig extends Application
+{
+    @Override
+    public Set<Class<?>> getClasses()
+    {
+        return Collections.singleton(HttpMetricsRestResource.class);
+    }
+}
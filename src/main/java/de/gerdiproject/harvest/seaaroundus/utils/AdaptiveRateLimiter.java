@@ -0,0 +1,225 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsParameterConstants;
+
+/**
+ * A token bucket that limits the number of operations per second.
+ * The rate adapts to the observed responses by additive increase and
+ * multiplicative decrease (AIMD): Every fast, successful response raises the rate
+ * slightly, up to a configurable maximum, whereas throttled, failed, or slow
+ * responses halve it.
+ *
+ * @author Robin Weiss
+ */
+public class AdaptiveRateLimiter
+{
+    private double maxRate;
+    private double rate;
+    private double tokens;
+    private long lastRefillTime;
+    private long lastDecreaseTime;
+
+    private long windowStartTime;
+    private long windowCount;
+    private double effectiveRate;
+
+
+    /**
+     * Constructor that requires the initial max number of operations per second.
+     *
+     * @param maxRate the max number of operations per second,
+     *          or 0 if the number is not to be limited
+     */
+    public AdaptiveRateLimiter(final double maxRate)
+    {
+        final long now = System.nanoTime();
+        this.lastRefillTime = now;
+        this.lastDecreaseTime = now - SeaAroundUsParameterConstants.RATE_DECREASE_INTERVAL;
+        this.windowStartTime = now;
+        setMaxRate(maxRate);
+        this.tokens = 1;
+    }
+
+
+    /**
+     * Changes the max number of operations per second. The current rate is
+     * lowered if it exceeds the new maximum.
+     *
+     * @param newMaxRate the max number of operations per second,
+     *          or 0 if the number is not to be limited
+     */
+    public synchronized void setMaxRate(final double newMaxRate)
+    {
+        this.maxRate = Math.max(newMaxRate, 0);
+
+        if (rate > maxRate)
+            rate = maxRate;
+        else if (rate == 0)
+            rate = maxRate;
+    }
+
+
+    /**
+     * Returns the number of operations per second that are currently allowed.
+     *
+     * @return the number of operations per second that are currently allowed,
+     *          or 0 if the number is not limited
+     */
+    public synchronized double getRate()
+    {
+        return rate;
+    }
+
+
+    /**
+     * Returns the number of operations per second that were started during
+     * the most recent measurement window.
+     *
+     * @return the number of operations that were started per second
+     */
+    public synchronized double getEffectiveRate()
+    {
+        updateEffectiveRate(System.nanoTime());
+        return effectiveRate;
+    }
+
+
+    /**
+     * Blocks until an operation may be started. Operations are started in
+     * the order in which this method is called.
+     *
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public void acquire() throws InterruptedException
+    {
+        final long waitingTime;
+
+        synchronized (this) {
+            final long now = System.nanoTime();
+            windowCount++;
+            updateEffectiveRate(now);
+
+            if (maxRate == 0)
+                return;
+
+            refill(now);
+
+            // reserve a token, possibly in advance, so that the caller only needs to wait
+            tokens--;
+            waitingTime = tokens < 0 ? (long)(-tokens / rate * TimeUnit.SECONDS.toNanos(1)) : 0;
+        }
+
+        if (waitingTime > 0)
+            TimeUnit.NANOSECONDS.sleep(waitingTime);
+    }
+
+
+    /**
+     * Signals that an operation was successful, raising the rate
+     * if the response was not slow.
+     *
+     * @param latency the time it took to receive the response in nanoseconds
+     */
+    public synchronized void onSuccess(final long latency)
+    {
+        if (latency > SeaAroundUsParameterConstants.SLOW_RESPONSE_THRESHOLD)
+            onFailure();
+
+        // raise the rate by a fixed amount per second worth of successful operations
+        else if (maxRate > 0) {
+            refill(System.nanoTime());
+            rate = Math.min(maxRate, rate + SeaAroundUsParameterConstants.RATE_INCREASE_PER_SECOND / rate);
+        }
+    }
+
+
+    /**
+     * Signals that an operation was throttled or failed, lowering the rate.
+     * Failures of operations that run concurrently only lower the rate once.
+     */
+    public synchronized void onFailure()
+    {
+        final long now = System.nanoTime();
+
+        if (maxRate == 0 || now - lastDecreaseTime < SeaAroundUsParameterConstants.RATE_DECREASE_INTERVAL)
+            return;
+
+        refill(now);
+        rate = Math.max(
+                   SeaAroundUsParameterConstants.MIN_REQUESTS_PER_SECOND,
+                   rate * SeaAroundUsParameterConstants.RATE_DECREASE_FACTOR);
+        lastDecreaseTime = now;
+    }
+
+
+    /**
+     * Calculates how long to wait before retrying an operation, using an
+     * exponential backoff with full jitter.
+     *
+     * @param attempt the number of attempts that failed so far, starting at 1
+     * @param minDelay a delay in milliseconds that must not be undercut,
+     *          such as the value of a Retry-After header
+     *
+     * @return the number of milliseconds to wait before retrying
+     */
+    public static long getBackoffDelay(final int attempt, final long minDelay)
+    {
+        final long initialDelay = SeaAroundUsParameterConstants.RETRY_BACKOFF_INITIAL_MILLIS;
+        final long maxDelay = SeaAroundUsParameterConstants.RETRY_BACKOFF_MAX_MILLIS;
+
+        // prevent the shift from overflowing
+        final int exponent = Math.min(Math.max(attempt - 1, 0), Long.numberOfLeadingZeros(initialDelay) - 1);
+        final long delayCap = Math.min(maxDelay, initialDelay << exponent);
+
+        return Math.max(minDelay, ThreadLocalRandom.current().nextLong(delayCap + 1));
+    }
+
+
+    /**
+     * Adds the tokens that were generated since the last refill.
+     * The bucket holds at most one second worth of tokens.
+     *
+     * @param now the current time in nanoseconds
+     */
+    private void refill(final long now)
+    {
+        final double generatedTokens = (now - lastRefillTime) * rate / TimeUnit.SECONDS.toNanos(1);
+        tokens = Math.min(Math.max(rate, 1), tokens + generatedTokens);
+        lastRefillTime = now;
+    }
+
+
+    /**
+     * Closes the measurement window of the effective rate if it expired.
+     *
+     * @param now the current time in nanoseconds
+     */
+    private void updateEffectiveRate(final long now)
+    {
+        final long windowDuration = now - windowStartTime;
+
+        if (windowDuration >= SeaAroundUsParameterConstants.EFFECTIVE_RATE_WINDOW) {
+            effectiveRate = windowCount * (double) TimeUnit.SECONDS.toNanos(1) / windowDuration;
+            windowStartTime = now;
+            windowCount = 0;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsParameterConstants;
+import de.gerdiproject.harvest.seaaroundus.json.catches.SauCatch;
+import lombok.Getter;
+
+/**
+ * This class summarizes the catch time series of a single region, measure, and dimension.
+ * The values of all series are added up per year, which is why the memory that
+ * is required by a summary only depends on the number of years, no matter how many
+ * series or values there are.
+ * <br>
+ * A summary can be read from a streamed catches response, without parsing the
+ * value arrays into objects first.
+ *
+ * @author Robin Weiss
+ */
+public class CatchSummary
+{
+    @Getter
+    private int seriesCount;
+
+    @Getter
+    private double total;
+
+    private int firstYear;
+    private double[] yearTotals = new double[0];
+
+
+    /**
+     * Parses a catches response and summarizes all of its time series.
+     *
+     * @param reader a reader that is positioned before the response object
+     *
+     * @return a summary of the catches of the response
+     *
+     * @throws IOException if the response could not be read
+     */
+    public static CatchSummary read(final JsonReader reader) throws IOException
+    {
+        final CatchSummary summary = new CatchSummary();
+
+        reader.beginObject();
+
+        while (reader.hasNext()) {
+            if (SeaAroundUsParameterConstants.RESPONSE_DATA_FIELD.equals(reader.nextName())
+                && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+
+                while (reader.hasNext())
+                    summary.readSeries(reader);
+
+                reader.endArray();
+            } else
+                reader.skipValue();
+        }
+
+        reader.endObject();
+        return summary;
+    }
+
+
+    /**
+     * Adds the values of a parsed time series to the summary.
+     *
+     * @param series a catch time series
+     */
+    public void addSeries(final SauCatch series)
+    {
+        seriesCount++;
+
+        if (series.getValues() == null)
+            return;
+
+        for (final List<Double> value : series.getValues()) {
+            if (value != null && value.size() > 1 && value.get(0) != null && value.get(1) != null)
+                addValue(value.get(0).intValue(), value.get(1));
+        }
+    }
+
+
+    /**
+     * Adds a single value of a time series to the summary.
+     *
+     * @param year the year of the value
+     * @param value the catches of the year
+     */
+    public void addValue(final int year, final double value)
+    {
+        if (isEmpty()) {
+            firstYear = year;
+            yearTotals = new double[1];
+        }
+
+        // grow the array to fit the year, which makes the first and last year bounds of all added values
+        if (year < firstYear) {
+            final int shift = firstYear - year;
+            final double[] shiftedTotals = new double[yearTotals.length + shift];
+            System.arraycopy(yearTotals, 0, shiftedTotals, shift, yearTotals.length);
+            yearTotals = shiftedTotals;
+            firstYear = year;
+
+        } else if (year - firstYear >= yearTotals.length)
+            yearTotals = Arrays.copyOf(yearTotals, year - firstYear + 1);
+
+        yearTotals[year - firstYear] += value;
+        total += value;
+    }
+
+
+    /**
+     * Checks if the summary does not contain any values.
+     *
+     * @return true if no values were added
+     */
+    public boolean isEmpty()
+    {
+        return yearTotals.length == 0;
+    }
+
+
+    /**
+     * Returns the earliest year for which a value was added.
+     *
+     * @return the earliest year of the catches
+     */
+    public int getEarliestYear()
+    {
+        return firstYear;
+    }
+
+
+    /**
+     * Returns the latest year for which a value was added.
+     *
+     * @return the latest year of the catches
+     */
+    public int getLatestYear()
+    {
+        return firstYear + yearTotals.length - 1;
+    }
+
+
+    /**
+     * Returns the year with the highest sum of values. If several years
+     * share the highest sum, the earliest one is returned.
+     *
+     * @return the year of the peak catches
+     */
+    public int getPeakYear()
+    {
+        int peakIndex = 0;
+
+        for (int i = 1; i < yearTotals.length; i++) {
+            if (yearTotals[i] > yearTotals[peakIndex])
+                peakIndex = i;
+        }
+
+        return firstYear + peakIndex;
+    }
+
+
+    /**
+     * Returns the sum of the values of the peak year.
+     *
+     * @return the peak catches
+     */
+    public double getPeakTotal()
+    {
+        return isEmpty() ? 0 : yearTotals[getPeakYear() - firstYear];
+    }
+
+
+    /**
+     * Parses a single time series and adds its values to the summary.
+     *
+     * @param reader a reader that is positioned before the series object
+     *
+     * @throws IOException if the series could not be read
+     */
+    private void readSeries(final JsonReader reader) throws IOException
+    {
+        seriesCount++;
+        reader.beginObject();
+
+        while (reader.hasNext()) {
+            if (SeaAroundUsParameterConstants.CATCH_VALUES_FIELD.equals(reader.nextName())
+                && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+
+                while (reader.hasNext())
+                    readValue(reader);
+
+                reader.endArray();
+            } else
+                reader.skipValue();
+        }
+
+        reader.endObject();
+    }
+
+
+    /**
+     * Parses a single year-value pair and adds it to the summary.
+     * Pairs that lack a year or a value are skipped.
+     *
+     * @param reader a reader that is positioned before the pair array
+     *
+     * @throws IOException if the pair could not be read
+     */
+    private void readValue(final JsonReader reader) throws IOException
+    {
+        reader.beginArray();
+
+        if (reader.hasNext() && reader.peek() == JsonToken.NUMBER) {
+            final int year = (int) reader.nextDouble();
+
+            if (reader.hasNext() && reader.peek() == JsonToken.NUMBER)
+                addValue(year, reader.nextDouble());
+        }
+
+        while (reader.hasNext())
+            reader.skipValue();
+
+        reader.endArray();
+    }
+}
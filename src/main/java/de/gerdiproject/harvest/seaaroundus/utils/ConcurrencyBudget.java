@@ -0,0 +1,132 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * This class limits the number of operations that can be executed at the same time,
+ * across all threads that share an instance of this class. The limit can be
+ * changed at any time, without affecting operations that are already running.
+ *
+ * @author Robin Weiss
+ */
+public class ConcurrencyBudget
+{
+    private final ResizableSemaphore semaphore;
+    private int limit;
+
+
+    /**
+     * Constructor that requires the initial limit of concurrent operations.
+     *
+     * @param limit the max number of operations that can run at the same time,
+     *          or 0 if the number is not to be limited
+     */
+    public ConcurrencyBudget(final int limit)
+    {
+        this.semaphore = new ResizableSemaphore();
+        setLimit(limit);
+    }
+
+
+    /**
+     * Changes the max number of operations that can run at the same time.
+     *
+     * @param newLimit the max number of operations that can run at the same time,
+     *          or 0 if the number is not to be limited
+     */
+    public synchronized void setLimit(final int newLimit)
+    {
+        final int delta = newLimit - limit;
+
+        if (delta > 0)
+            semaphore.release(delta);
+        else if (delta < 0)
+            semaphore.reducePermits(-delta);
+
+        this.limit = newLimit;
+    }
+
+
+    /**
+     * Returns the max number of operations that can run at the same time.
+     *
+     * @return the max number of concurrent operations, or 0 if the number is not limited
+     */
+    public synchronized int getLimit()
+    {
+        return limit;
+    }
+
+
+    /**
+     * Blocks until an operation can be started, and reserves a part of the budget for it.
+     * Each call must be followed by a call of {@linkplain #release(boolean)}.
+     *
+     * @return true if a part of the budget was reserved, false if the budget is not limited
+     *
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public boolean acquire() throws InterruptedException
+    {
+        final boolean isLimited = getLimit() > 0;
+
+        if (isLimited)
+            semaphore.acquire();
+
+        return isLimited;
+    }
+
+
+    /**
+     * Frees the part of the budget that was reserved by {@linkplain #acquire()}.
+     *
+     * @param wasAcquired the value that was returned by {@linkplain #acquire()}
+     */
+    public void release(final boolean wasAcquired)
+    {
+        if (wasAcquired)
+            semaphore.release();
+    }
+
+
+    /**
+     * A {@linkplain Semaphore} that allows the number of permits to be reduced.
+     *
+     * @author Robin Weiss
+     */
+    private static class ResizableSemaphore extends Semaphore
+    {
+        private static final long serialVersionUID = 2283720409962314563L;
+
+
+        /**
+         * Constructor that creates a semaphore without permits.
+         */
+        ResizableSemaphore()
+        {
+            super(0, true);
+        }
+
+
+        @Override
+        protected void reducePermits(final int reduction)
+        {
+            super.reducePermits(reduction);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsParameterConstants;
+import lombok.Getter;
+
+/**
+ * This class keeps the ETag and Last-Modified headers that were sent by the server
+ * along with HTTP responses, in order to revalidate the responses by conditional requests.
+ * If the server responds with "304 Not Modified", the response that was downloaded before
+ * is still valid.
+ * <br>
+ * The validators and the responses are stored in a {@linkplain ResponseCache}, which means
+ * that they are subject to its size limit and are evicted when they were not used recently.
+ * Each response is only stored once: either under the dataset version with which the
+ * requester caches it anyway, or under a version that is derived from its validators.
+ *
+ * @author Robin Weiss
+ */
+public class ConditionalResponseStore
+{
+    private final ResponseCache responseCache;
+
+
+    /**
+     * Constructor that requires the cache in which the validators and responses are stored.
+     *
+     * @param responseCache the cache in which the validators and responses are stored
+     */
+    public ConditionalResponseStore(final ResponseCache responseCache)
+    {
+        this.responseCache = responseCache;
+    }
+
+
+    /**
+     * Retrieves the validators of the response of a URL.
+     *
+     * @param url the URL of the response
+     *
+     * @return the validators of the response, or null if none are stored
+     */
+    public Validators get(final String url)
+    {
+        return responseCache.get(url, SeaAroundUsParameterConstants.VALIDATORS_CACHE_VERSION, Validators.class);
+    }
+
+
+    /**
+     * Retrieves the response that belongs to stored validators.
+     *
+     * @param url the URL of the response
+     * @param validators the validators of the response
+     * @param responseType the type of the response
+     * @param <T> the type of the response
+     *
+     * @return the stored response, or null if it was evicted from the cache
+     */
+    public <T> T getResponse(final String url, final Validators validators, final Type responseType)
+    {
+        return responseCache.get(url, validators.responseVersion, responseType);
+    }
+
+
+    /**
+     * Stores the validators of a response. If the response is not cached under a dataset
+     * version, it is stored under a version that is derived from the validators.
+     * If the server did not send any validators, previously stored validators are removed,
+     * because the response could never be revalidated.
+     *
+     * @param url the URL of the response
+     * @param eTag the ETag header of the response, or null
+     * @param lastModified the Last-Modified header of the response, or null
+     * @param cacheVersion the dataset version under which the response is cached
+     *          by the caller, or null if the response is to be stored here
+     * @param response the response that is to be stored
+     */
+    public void put(final String url, final String eTag, final String lastModified, final String cacheVersion, final Object response)
+    {
+        if (eTag == null && lastModified == null) {
+            responseCache.remove(url, SeaAroundUsParameterConstants.VALIDATORS_CACHE_VERSION);
+            return;
+        }
+
+        final String responseVersion;
+
+        if (cacheVersion == null) {
+            responseVersion = String.format(SeaAroundUsParameterConstants.VALIDATED_RESPONSE_CACHE_VERSION, eTag, lastModified);
+            responseCache.put(url, responseVersion, response);
+        } else
+            responseVersion = cacheVersion;
+
+        responseCache.put(url, SeaAroundUsParameterConstants.VALIDATORS_CACHE_VERSION, new Validators(eTag, lastModified, responseVersion));
+    }
+
+
+    /**
+     * The validators of a stored response, along with the
+     * version under which the response is stored.
+     *
+     * @author Robin Weiss
+     */
+    public static class Validators
+    {
+        @Getter
+        private final String eTag;
+
+        @Getter
+        private final String lastModified;
+
+        private final String responseVersion;
+
+
+        /**
+         * Constructor that requires the validators and the version of the response.
+         *
+         * @param eTag the ETag header of the response, or null
+         * @param lastModified the Last-Modified header of the response, or null
+         * @param responseVersion the version under which the response is cached
+         */
+        Validators(final String eTag, final String lastModified, final String responseVersion)
+        {
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.responseVersion = responseVersion;
+        }
+
+
+        /**
+         * Checks if the response is cached under a specified version.
+         *
+         * @param version a version of the dataset
+         *
+         * @return true if the response is cached under the version
+         */
+        public boolean isCachedAs(final String version)
+        {
+            return responseVersion.equals(version);
+        }
+
+
+        /**
+         * Creates the headers of a conditional request, which ask the server to
+         * only send the response if it differs from the stored response.
+         *
+         * @return a map of HTTP header names to values
+         */
+        public Map<String, String> getConditionalHeaders()
+        {
+            final Map<String, String> headers = new HashMap<>();
+
+            if (eTag != null)
+                headers.put(SeaAroundUsParameterConstants.IF_NONE_MATCH_HEADER, eTag);
+
+            if (lastModified != null)
+                headers.put(SeaAroundUsParameterConstants.IF_MODIFIED_SINCE_HEADER, lastModified);
+
+            return headers;
+        }
+
+    }
+}
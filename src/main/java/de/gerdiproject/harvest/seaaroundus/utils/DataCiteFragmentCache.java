@@ -0,0 +1,128 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsDataCiteConstants;
+import de.gerdiproject.json.GsonUtils;
+import de.gerdiproject.json.datacite.DataCiteJson;
+
+/**
+ * This {@linkplain TypeAdapterFactory} serializes constant parts of
+ * {@linkplain DataCiteJson} documents only once, and splices the cached JSON
+ * into the output of every document that references the very same objects.
+ * Objects that are merely equal to a cached constant are serialized as usual.
+ * The output is identical to that of a {@linkplain Gson} instance without the cache.
+ *
+ * @author Robin Weiss
+ */
+public class DataCiteFragmentCache implements TypeAdapterFactory
+{
+    private final Map<Object, String> fragments;
+    private final List<Class<?>> fragmentClasses;
+
+
+    /**
+     * Constructor that serializes all constant objects.
+     *
+     * @param gson the Gson instance that is used to serialize the constant objects
+     * @param constants the objects that are serialized only once
+     */
+    public DataCiteFragmentCache(final Gson gson, final Collection<?> constants)
+    {
+        this.fragments = new IdentityHashMap<>();
+        this.fragmentClasses = new ArrayList<>();
+
+        for (final Object constant : constants) {
+            fragments.put(constant, gson.toJson(constant));
+
+            if (!fragmentClasses.contains(constant.getClass()))
+                fragmentClasses.add(constant.getClass());
+        }
+    }
+
+
+    /**
+     * Creates a {@linkplain GsonBuilder} for {@linkplain DataCiteJson} documents,
+     * which splices cached JSON of the constant parts that are shared by all
+     * SeaAroundUs documents, and streams geometries via a {@linkplain GeoJsonStreamWriter}.
+     *
+     * @return a new {@linkplain GsonBuilder}
+     */
+    public static GsonBuilder createGsonBuilder()
+    {
+        // creators and the logo link are not cached, because their fragments are tiny
+        // and wrapping the adapters of all creators and web links costs more than it saves
+        final List<Object> constants = new ArrayList<>();
+        constants.add(SeaAroundUsDataCiteConstants.PUBLISHER);
+        constants.addAll(SeaAroundUsDataCiteConstants.RIGHTS_LIST);
+        constants.addAll(SeaAroundUsDataCiteConstants.RESEARCH_DISCIPLINES);
+
+        final DataCiteFragmentCache fragmentCache = new DataCiteFragmentCache(
+            GsonUtils.createGerdiDocumentGsonBuilder().create(),
+            Collections.unmodifiableList(constants));
+
+        return GsonUtils.createGerdiDocumentGsonBuilder()
+               .registerTypeAdapterFactory(fragmentCache)
+               .registerTypeAdapterFactory(new GeoJsonStreamWriter(new GeometryFactory()));
+    }
+
+
+    @Override
+    public <T> TypeAdapter<T> create(final Gson gson, final TypeToken<T> type)
+    {
+        if (!fragmentClasses.contains(type.getRawType()))
+            return null;
+
+        final TypeAdapter<T> delegate = gson.getDelegateAdapter(this, type);
+
+        return new TypeAdapter<T>() {
+            @Override
+            public void write(final JsonWriter out, final T value) throws IOException
+            {
+                final String fragment = fragments.get(value);
+
+                if (fragment == null)
+                    delegate.write(out, value);
+                else
+                    out.jsonValue(fragment);
+            }
+
+
+            @Override
+            public T read(final JsonReader in) throws IOException
+            {
+                return delegate.read(in);
+            }
+        };
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+import de.gerdiproject.harvest.config.parameters.IntegerParameter;
+import de.gerdiproject.harvest.etls.AbstractETL;
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsParameterConstants;
+
+/**
+ * This class retrieves the details of the elements of an extractor concurrently,
+ * as configured by the prefetching parameters of the ETL. The details are
+ * retrieved by a fixed pool of threads, and the look-ahead caps the number of
+ * pending retrievals.
+ *
+ * @author Robin Weiss
+ */
+public class ElementPrefetcher
+{
+    private final String etlName;
+    private final IntegerParameter prefetchThreadsParam;
+    private final IntegerParameter prefetchLookAheadParam;
+    private ExecutorService prefetchExecutor;
+
+
+    /**
+     * Constructor that registers the prefetching parameters of an ETL.
+     *
+     * @param etl the ETL of which the elements are prefetched
+     */
+    public ElementPrefetcher(final AbstractETL<?, ?> etl)
+    {
+        this.etlName = etl.getName();
+        this.prefetchThreadsParam = SeaAroundUsParameterUtils.registerEtlParameter(
+                                        SeaAroundUsParameterConstants.PREFETCH_THREADS_KEY,
+                                        etl,
+                                        SeaAroundUsParameterConstants.PREFETCH_THREADS_DEFAULT);
+        this.prefetchLookAheadParam = SeaAroundUsParameterUtils.registerEtlParameter(
+                                          SeaAroundUsParameterConstants.PREFETCH_LOOK_AHEAD_KEY,
+                                          etl,
+                                          SeaAroundUsParameterConstants.PREFETCH_LOOK_AHEAD_DEFAULT);
+    }
+
+
+    /**
+     * Maps the elements of a source iterator, several elements ahead of the
+     * element that is currently retrieved. Threads of previous calls are stopped.
+     * If the number of prefetching threads is zero, the elements are mapped
+     * sequentially by the thread that iterates them.
+     *
+     * @param sourceIterator an iterator of elements that are to be mapped
+     * @param mappingFunction a function that retrieves the details of an element
+     * @param <S> the type of the source elements
+     * @param <T> the type of the mapped elements
+     *
+     * @return an iterator of mapped elements
+     */
+    public <S, T> Iterator<T> prefetch(final Iterator<S> sourceIterator, final Function<S, T> mappingFunction)
+    {
+        shutdown();
+
+        final int prefetchThreads = prefetchThreadsParam.getValue();
+
+        // zero threads disable prefetching
+        if (prefetchThreads == 0)
+            return new MappingIterator<>(sourceIterator, mappingFunction);
+
+        prefetchExecutor = PrefetchingIterator.createExecutor(etlName, prefetchThreads);
+
+        return new PrefetchingIterator<>(
+                   sourceIterator,
+                   mappingFunction,
+                   prefetchExecutor,
+                   prefetchLookAheadParam.getValue());
+    }
+
+
+    /**
+     * Stops all threads that prefetch elements.
+     */
+    public void shutdown()
+    {
+        if (prefetchExecutor != null) {
+            prefetchExecutor.shutdownNow();
+            prefetchExecutor = null;
+        }
+    }
+
+
+    /**
+     * This iterator maps the elements of a source iterator one at a time.
+     *
+     * @param <S> the type of the source elements
+     * @param <T> the type of the mapped elements
+     *
+     * @author Robin Weiss
+     */
+    private static class MappingIterator<S, T> implements Iterator<T>
+    {
+        private final Iterator<S> sourceIterator;
+        private final Function<S, T> mappingFunction;
+
+
+        /**
+         * Constructor that requires the source elements and the means to map them.
+         *
+         * @param sourceIterator an iterator of elements that are to be mapped
+         * @param mappingFunction a function that maps a source element
+         */
+        MappingIterator(final Iterator<S> sourceIterator, final Function<S, T> mappingFunction)
+        {
+            this.sourceIterator = sourceIterator;
+            this.mappingFunction = mappingFunction;
+        }
+
+
+        @Override
+        public boolean hasNext()
+        {
+            return sourceIterator.hasNext();
+        }
+
+
+        @Override
+        public T next()
+        {
+            return mappingFunction.apply(sourceIterator.next());
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.stream.JsonReader;
+
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsParameterConstants;
+import de.gerdiproject.harvest.seaaroundus.json.generic.GenericResponse;
+import de.gerdiproject.harvest.seaaroundus.json.generic.GenericResponseMetadata;
+import de.gerdiproject.json.geo.Feature;
+import de.gerdiproject.json.geo.FeatureCollection;
+
+/**
+ * This iterator parses the features of a {@linkplain GenericResponse} that carries a
+ * {@linkplain FeatureCollection} one at a time, while the response is being read.
+ * Unlike parsing the whole response, only the feature that is currently
+ * returned is held in memory.
+ * <br>
+ * The metadata of the response is parsed when the iterator is created,
+ * if it precedes the features. The underlying reader is closed as soon as
+ * all features were iterated.
+ *
+ * @param <T> the type of the parsed {@linkplain Feature}s
+ *
+ * @author Robin Weiss
+ */
+public class FeatureStreamIterator<T> implements Iterator<T>, Closeable
+{
+    private final JsonReader jsonReader;
+    private final Gson gson;
+    private final Type featureType;
+    private GenericResponseMetadata metadata;
+    private boolean isClosed;
+
+
+    /**
+     * Constructor that reads the response up to the first feature.
+     *
+     * @param reader a reader of the JSON response
+     * @param gson the Gson instance that is used to parse the features
+     * @param featureType the type of the parsed features
+     *
+     * @throws IOException if the response could not be read
+     */
+    public FeatureStreamIterator(final Reader reader, final Gson gson, final Type featureType) throws IOException
+    {
+        this.jsonReader = new JsonReader(reader);
+        this.gson = gson;
+        this.featureType = featureType;
+
+        final boolean hasFeatures;
+
+        try {
+            hasFeatures = moveToFeatures();
+        } catch (final IOException | RuntimeException e) { // NOPMD the reader must be closed on any error
+            close();
+            throw e;
+        }
+
+        if (!hasFeatures)
+            close();
+    }
+
+
+    /**
+     * Returns the metadata of the response, if it precedes the features.
+     *
+     * @return the metadata of the response, or null if it was not read
+     */
+    public GenericResponseMetadata getMetadata()
+    {
+        return metadata;
+    }
+
+
+    @Override
+    public boolean hasNext()
+    {
+        if (isClosed)
+            return false;
+
+        try {
+            if (jsonReader.hasNext())
+                return true;
+
+            close();
+            return false;
+        } catch (final IOException e) {
+            close();
+            throw new JsonIOException(e);
+        }
+    }
+
+
+    @Override
+    public T next()
+    {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        try {
+            return gson.fromJson(jsonReader, featureType);
+        } catch (final RuntimeException e) { // NOPMD the reader must be closed on any error
+            close();
+            throw e;
+        }
+    }
+
+
+    /**
+     * Skips the next feature without parsing it.
+     *
+     * @throws NoSuchElementException if there are no more features
+     */
+    public void skip()
+    {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        try {
+            jsonReader.skipValue();
+        } catch (final IOException e) {
+            close();
+            throw new JsonIOException(e);
+        }
+    }
+
+
+    /**
+     * Closes the underlying reader. Errors are ignored, because
+     * no data can be lost by closing a read-only stream.
+     */
+    @Override
+    public void close()
+    {
+        if (!isClosed) {
+            isClosed = true;
+
+            try {
+                jsonReader.close();
+            } catch (final IOException e) { // NOPMD nothing can be done about it
+            }
+        }
+    }
+
+
+    /**
+     * Reads the response until the beginning of the feature array.
+     * The metadata is parsed on the way, if it is encountered.
+     *
+     * @return true if the feature array was found
+     *
+     * @throws IOException if the response could not be read
+     */
+    private boolean moveToFeatures() throws IOException
+    {
+        jsonReader.beginObject();
+
+        while (jsonReader.hasNext()) {
+            final String name = jsonReader.nextName();
+
+            if (SeaAroundUsParameterConstants.RESPONSE_METADATA_FIELD.equals(name))
+                this.metadata = gson.fromJson(jsonReader, GenericResponseMetadata.class);
+            else if (SeaAroundUsParameterConstants.RESPONSE_DATA_FIELD.equals(name))
+                return moveToFeatureArray();
+            else
+                jsonReader.skipValue();
+        }
+
+        return false;
+    }
+
+
+    /**
+     * Reads the data object of the response until the beginning
+     * of the feature array.
+     *
+     * @return true if the feature array was found
+     *
+     * @throws IOException if the response could not be read
+     */
+    private boolean moveToFeatureArray() throws IOException
+    {
+        jsonReader.beginObject();
+
+        while (jsonReader.hasNext()) {
+            if (SeaAroundUsParameterConstants.FEATURES_FIELD.equals(jsonReader.nextName())) {
+                jsonReader.beginArray();
+                return true;
+            }
+
+            jsonReader.skipValue();
+        }
+
+        return false;
+    }
+}
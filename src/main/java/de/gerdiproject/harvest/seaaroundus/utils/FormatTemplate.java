@@ -0,0 +1,87 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import java.util.regex.Pattern;
+
+/**
+ * This class represents a text that was formatted once with a placeholder in
+ * place of a single variable. Replacing the placeholder with an actual value
+ * only requires a concatenation of the text fragments, which is considerably
+ * cheaper than formatting the whole text again.
+ *
+ * @author Robin Weiss
+ */
+public class FormatTemplate
+{
+    private final String[] fragments;
+    private final int fragmentsLength;
+
+
+    /**
+     * Constructor that splits a formatted text at all occurrences of a placeholder.
+     *
+     * @param formattedText a text that contains the placeholder where a variable is to be inserted
+     * @param placeholder a unique string that marks the positions of the variable
+     */
+    public FormatTemplate(final String formattedText, final String placeholder)
+    {
+        this.fragments = formattedText.split(Pattern.quote(placeholder), -1);
+
+        int length = 0;
+
+        for (final String fragment : fragments)
+            length += fragment.length();
+
+        this.fragmentsLength = length;
+    }
+
+
+    /**
+     * Inserts a value at all positions of the placeholder.
+     *
+     * @param value the value that replaces the placeholder
+     *
+     * @return the text with the inserted value
+     */
+    public String fill(final String value)
+    {
+        if (fragments.length == 1)
+            return fragments[0];
+
+        final String insertedValue = String.valueOf(value);
+        final StringBuilder sb = new StringBuilder(fragmentsLength + (fragments.length - 1) * insertedValue.length());
+        sb.append(fragments[0]);
+
+        for (int i = 1; i < fragments.length; i++)
+            sb.append(insertedValue).append(fragments[i]);
+
+        return sb.toString();
+    }
+
+
+    /**
+     * Inserts a number at all positions of the placeholder.
+     *
+     * @param value the number that replaces the placeholder
+     *
+     * @return the text with the inserted number
+     */
+    public String fill(final int value)
+    {
+        return fill(Integer.toString(value));
+    }
+}
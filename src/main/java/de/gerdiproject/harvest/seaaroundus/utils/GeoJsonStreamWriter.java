@@ -0,0 +1,309 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.MultiLineString;
+import com.vividsolutions.jts.geom.MultiPoint;
+import com.vividsolutions.jts.geom.MultiPolygon;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.geom.PrecisionModel;
+
+import de.gerdiproject.json.GsonUtils;
+import de.gerdiproject.json.datacite.DataCiteJson;
+import de.gerdiproject.json.geo.constants.GeometryConstants;
+
+/**
+ * This {@linkplain TypeAdapterFactory} writes the GeoJson geometries of
+ * {@linkplain DataCiteJson} documents straight to the {@linkplain JsonWriter}.
+ * The adapters of {@linkplain GsonUtils} build a {@linkplain JsonArray} for every
+ * coordinate and ring of a geometry before writing it, which adds up to most of
+ * the garbage of documents with large polygons.
+ * Geometries are still read by the adapters of {@linkplain GsonUtils}, and the
+ * output is identical to that of a {@linkplain Gson} instance without this factory.
+ *
+ * @author Robin Weiss
+ */
+public class GeoJsonStreamWriter implements TypeAdapterFactory
+{
+    private static final List<Class<?>> GEOMETRY_CLASSES = Collections.unmodifiableList(Arrays.asList(
+                                                               Geometry.class,
+                                                               Point.class,
+                                                               MultiPoint.class,
+                                                               LineString.class,
+                                                               MultiLineString.class,
+                                                               Polygon.class,
+                                                               MultiPolygon.class));
+
+    private final double decimalFactor;
+
+
+    /**
+     * Constructor that rounds coordinates like the adapters of {@linkplain GsonUtils},
+     * that were created with the same {@linkplain GeometryFactory}.
+     *
+     * @param geoFactory the factory of which the precision model determines the
+     *         rounding of coordinates
+     */
+    public GeoJsonStreamWriter(final GeometryFactory geoFactory)
+    {
+        final PrecisionModel precisionModel = geoFactory.getPrecisionModel();
+
+        this.decimalFactor = precisionModel.getType() == PrecisionModel.FIXED
+                             ? precisionModel.getScale() * 10
+                             : Double.POSITIVE_INFINITY;
+    }
+
+
+    @Override
+    public <T> TypeAdapter<T> create(final Gson gson, final TypeToken<T> type)
+    {
+        final Class<? super T> geometryClass = type.getRawType();
+
+        if (!GEOMETRY_CLASSES.contains(geometryClass))
+            return null;
+
+        final TypeAdapter<T> delegate = gson.getDelegateAdapter(this, type);
+
+        return new TypeAdapter<T>() {
+            @Override
+            public void write(final JsonWriter out, final T value) throws IOException
+            {
+                if (value == null)
+                    out.nullValue();
+                else {
+                    // like the GeometryAdapter, abstract geometries are written by their actual type
+                    final Geometry geometry = (Geometry) value;
+                    final String geometryType = geometryClass == Geometry.class
+                                                ? geometry.getGeometryType()
+                                                : geometryClass.getSimpleName();
+                    writeGeometry(out, geometry, geometryType);
+                }
+            }
+
+
+            @Override
+            public T read(final JsonReader in) throws IOException
+            {
+                return delegate.read(in);
+            }
+        };
+    }
+
+
+    /**
+     * Writes a GeoJson object, or null if the geometry has no coordinates.
+     *
+     * @param out the writer to which the geometry is written
+     * @param geometry the written geometry
+     * @param geometryType the GeoJson type of the geometry
+     *
+     * @throws IOException thrown if the geometry could not be written
+     * @throws JsonParseException thrown if the geometry type is not supported by GeoJson
+     */
+    private void writeGeometry(final JsonWriter out, final Geometry geometry, final String geometryType) throws IOException
+    {
+        if (!hasCoordinates(geometry, geometryType)) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name(GeometryConstants.TYPE_JSON_FIELD).value(geometryType);
+        out.name(GeometryConstants.COORDINATES_JSON_FIELD);
+
+        switch (geometryType) {
+            case GeometryConstants.POINT_TYPE:
+                writeCoordinate(out, geometry.getCoordinate());
+                break;
+
+            case GeometryConstants.MULTI_POINT_TYPE:
+            case GeometryConstants.LINE_STRING_TYPE:
+                writeCoordinates(out, geometry.getCoordinates());
+                break;
+
+            case GeometryConstants.MULTI_LINE_STRING_TYPE:
+                out.beginArray();
+
+                for (int i = 0; i < geometry.getNumGeometries(); i++)
+                    writeCoordinates(out, geometry.getGeometryN(i).getCoordinates());
+
+                out.endArray();
+                break;
+
+            case GeometryConstants.POLYGON_TYPE:
+                writePolygonCoordinates(out, (Polygon) geometry);
+                break;
+
+            default:
+                out.beginArray();
+
+                for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                    final Polygon polygon = (Polygon) geometry.getGeometryN(i);
+
+                    if (isValidPolygon(polygon))
+                        writePolygonCoordinates(out, polygon);
+                    else
+                        out.nullValue();
+                }
+
+                out.endArray();
+        }
+
+        out.endObject();
+    }
+
+
+    /**
+     * Checks if a geometry has coordinates that can be written.
+     *
+     * @param geometry the checked geometry
+     * @param geometryType the GeoJson type of the geometry
+     *
+     * @return true if the geometry has coordinates that can be written
+     *
+     * @throws JsonParseException thrown if the geometry type is not supported by GeoJson
+     */
+    private static boolean hasCoordinates(final Geometry geometry, final String geometryType)
+    {
+        switch (geometryType) {
+            case GeometryConstants.POINT_TYPE:
+                return geometry.getCoordinate() != null;
+
+            case GeometryConstants.MULTI_POINT_TYPE:
+            case GeometryConstants.LINE_STRING_TYPE:
+                return true;
+
+            case GeometryConstants.MULTI_LINE_STRING_TYPE:
+            case GeometryConstants.MULTI_POLYGON_TYPE:
+                return geometry.getNumGeometries() != 0;
+
+            case GeometryConstants.POLYGON_TYPE:
+                return isValidPolygon((Polygon) geometry);
+
+            default:
+                throw new JsonParseException(String.format(GeometryConstants.UNKNOWN_GEOMETRY_TYPE_ERROR, geometryType));
+        }
+    }
+
+
+    /**
+     * Checks if the hull of a polygon is a closed ring.
+     *
+     * @param polygon the checked polygon
+     *
+     * @return true if the hull has at least four coordinates
+     */
+    private static boolean isValidPolygon(final Polygon polygon)
+    {
+        final LineString hull = polygon.getExteriorRing();
+        return hull != null && hull.getCoordinates().length >= 4;
+    }
+
+
+    /**
+     * Writes the hull of a polygon, followed by all of its holes.
+     *
+     * @param out the writer to which the rings are written
+     * @param polygon the polygon of which the rings are written
+     *
+     * @throws IOException thrown if the rings could not be written
+     */
+    private void writePolygonCoordinates(final JsonWriter out, final Polygon polygon) throws IOException
+    {
+        out.beginArray();
+        writeCoordinates(out, polygon.getExteriorRing().getCoordinates());
+
+        for (int i = 0; i < polygon.getNumInteriorRing(); i++)
+            writeCoordinates(out, polygon.getInteriorRingN(i).getCoordinates());
+
+        out.endArray();
+    }
+
+
+    /**
+     * Writes an array of coordinates, skipping null coordinates.
+     *
+     * @param out the writer to which the coordinates are written
+     * @param coordinates the written coordinates
+     *
+     * @throws IOException thrown if the coordinates could not be written
+     */
+    private void writeCoordinates(final JsonWriter out, final Coordinate[] coordinates) throws IOException
+    {
+        out.beginArray();
+
+        for (final Coordinate coordinate : coordinates) {
+            if (coordinate != null)
+                writeCoordinate(out, coordinate);
+        }
+
+        out.endArray();
+    }
+
+
+    /**
+     * Writes a single coordinate, and its z-value if it is finite.
+     *
+     * @param out the writer to which the coordinate is written
+     * @param coordinate the written coordinate
+     *
+     * @throws IOException thrown if the coordinate could not be written
+     */
+    private void writeCoordinate(final JsonWriter out, final Coordinate coordinate) throws IOException
+    {
+        out.beginArray();
+        out.value(round(coordinate.x));
+        out.value(round(coordinate.y));
+
+        if (Double.isFinite(coordinate.z))
+            out.value(round(coordinate.z));
+
+        out.endArray();
+    }
+
+
+    /**
+     * Rounds a coordinate value to the precision of the {@linkplain GeometryFactory}.
+     *
+     * @param value the coordinate value
+     *
+     * @return the rounded value
+     */
+    private double round(final double value)
+    {
+        return decimalFactor == Double.POSITIVE_INFINITY
+               ? value
+               : Math.round(value * decimalFactor) / decimalFactor;
+    }
+}
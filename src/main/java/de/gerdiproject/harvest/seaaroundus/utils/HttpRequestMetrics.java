@@ -0,0 +1,472 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.ToLongFunction;
+
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsMetricsConstants;
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsUrlConstants;
+
+/**
+ * This class collects latencies, response sizes, errors, and retries of HTTP
+ * requests, grouped by the name of the requesting ETL and the path template
+ * of the requested URL, such as "eez/{id}".
+ * The measurements and additional gauges can be exported in the Prometheus text format.
+ *
+ * @author Robin Weiss
+ */
+public class HttpRequestMetrics
+{
+    private final Map<String, Map<String, RequestStats>> statsByEtl = new ConcurrentSkipListMap<>();
+    private final Map<String, Gauge> gauges = new ConcurrentSkipListMap<>();
+
+
+    /**
+     * Retrieves the statistics of all requests of an ETL to the same path template
+     * as a specified URL, creating them if they do not exist yet.
+     *
+     * @param etlName the name of the requesting ETL, or null if it is unknown
+     * @param url the requested URL
+     *
+     * @return the statistics of requests to the path template of the URL
+     */
+    public RequestStats getStats(final String etlName, final String url)
+    {
+        final String etlKey = etlName == null ? SeaAroundUsMetricsConstants.UNKNOWN_ETL : etlName;
+
+        return statsByEtl
+               .computeIfAbsent(etlKey, (final String key) -> new ConcurrentSkipListMap<>())
+               .computeIfAbsent(getPathTemplate(url), (final String key) -> new RequestStats());
+    }
+
+
+    /**
+     * Registers a value that is exported without labels, such as the current
+     * request rate. Gauges with the same name are replaced.
+     *
+     * @param name the name of the gauge
+     * @param help a description of the gauge
+     * @param valueGetter a function that retrieves the current value of the gauge
+     */
+    public void registerGauge(final String name, final String help, final DoubleSupplier valueGetter)
+    {
+        gauges.put(name, new Gauge(help, valueGetter));
+    }
+
+
+    /**
+     * Removes all measurements. Registered gauges are kept.
+     */
+    public void clear()
+    {
+        statsByEtl.clear();
+    }
+
+
+    /**
+     * Converts a URL to a path template by removing the API URL and
+     * replacing all numeric path segments and query values by placeholders.
+     *
+     * @param url the URL that is to be converted
+     *
+     * @return a path template, such as "global/{id}?fao_id={id}"
+     */
+    public static String getPathTemplate(final String url)
+    {
+        final String path = url.startsWith(SeaAroundUsUrlConstants.API_URL)
+                            ? url.substring(SeaAroundUsUrlConstants.API_URL.length() + 1)
+                            : url;
+
+        final StringBuilder templateBuilder = new StringBuilder(path.length());
+        int segmentStart = 0;
+
+        for (int i = 0; i <= path.length(); i++) {
+            final char c = i == path.length() ? '/' : path.charAt(i);
+
+            // the separators of path segments and query parameters are kept
+            if (c == '/' || c == '?' || c == '&' || c == '=') {
+                final String segment = path.substring(segmentStart, i);
+                templateBuilder.append(segment.matches(SeaAroundUsMetricsConstants.ID_PATTERN)
+                                       ? SeaAroundUsMetricsConstants.ID_PLACEHOLDER
+                                       : segment);
+
+                if (i < path.length())
+                    templateBuilder.append(c);
+
+                segmentStart = i + 1;
+            }
+        }
+
+        return templateBuilder.toString();
+    }
+
+
+    /**
+     * Exports all measurements in the Prometheus text format.
+     *
+     * @return all measurements in the Prometheus text format
+     */
+    public String toPrometheusText()
+    {
+        final StringBuilder textBuilder = new StringBuilder();
+
+        appendCounter(textBuilder, SeaAroundUsMetricsConstants.REQUESTS_METRIC, SeaAroundUsMetricsConstants.REQUESTS_HELP, RequestStats::getRequestCount);
+        appendCounter(textBuilder, SeaAroundUsMetricsConstants.ERRORS_METRIC, SeaAroundUsMetricsConstants.ERRORS_HELP, RequestStats::getErrorCount);
+        appendCounter(textBuilder, SeaAroundUsMetricsConstants.RETRIES_METRIC, SeaAroundUsMetricsConstants.RETRIES_HELP, RequestStats::getRetryCount);
+        appendCounter(textBuilder, SeaAroundUsMetricsConstants.BYTES_METRIC, SeaAroundUsMetricsConstants.BYTES_HELP, RequestStats::getByteCount);
+        appendCounter(textBuilder, SeaAroundUsMetricsConstants.REVALIDATION_HITS_METRIC, SeaAroundUsMetricsConstants.REVALIDATION_HITS_HELP, RequestStats::getRevalidationHitCount);
+        appendCounter(textBuilder, SeaAroundUsMetricsConstants.REVALIDATION_MISSES_METRIC, SeaAroundUsMetricsConstants.REVALIDATION_MISSES_HELP, RequestStats::getRevalidationMissCount);
+        appendLatencyHistogram(textBuilder);
+
+        gauges.forEach((final String name, final Gauge gauge) -> {
+            appendHeader(textBuilder, name, gauge.help, SeaAroundUsMetricsConstants.GAUGE_TYPE);
+            textBuilder.append(name).append(' ').append(gauge.valueGetter.getAsDouble()).append('\n');
+        });
+
+        return textBuilder.toString();
+    }
+
+
+    /**
+     * Appends a counter of all ETLs and path templates in the Prometheus text format.
+     *
+     * @param textBuilder the builder to which the counter is appended
+     * @param name the name of the counter
+     * @param help a description of the counter
+     * @param counter a function that retrieves the value of the counter
+     */
+    private void appendCounter(final StringBuilder textBuilder, final String name, final String help, final ToLongFunction<RequestStats> counter)
+    {
+        appendHeader(textBuilder, name, help, SeaAroundUsMetricsConstants.COUNTER_TYPE);
+
+        statsByEtl.forEach((final String etlName, final Map<String, RequestStats> statsByPath) ->
+                           statsByPath.forEach((final String path, final RequestStats stats) -> {
+                               appendLabels(textBuilder, name, etlName, path);
+                               textBuilder.append(SeaAroundUsMetricsConstants.LABELS_END)
+                               .append(counter.applyAsLong(stats))
+                               .append('\n');
+                           }));
+    }
+
+
+    /**
+     * Appends the latency histogram of all ETLs and path templates in the Prometheus text format.
+     *
+     * @param textBuilder the builder to which the histogram is appended
+     */
+    private void appendLatencyHistogram(final StringBuilder textBuilder)
+    {
+        final String name = SeaAroundUsMetricsConstants.LATENCY_METRIC;
+        final List<Double> bucketBounds = SeaAroundUsMetricsConstants.LATENCY_BUCKETS;
+        appendHeader(textBuilder, name, SeaAroundUsMetricsConstants.LATENCY_HELP, SeaAroundUsMetricsConstants.HISTOGRAM_TYPE);
+
+        statsByEtl.forEach((final String etlName, final Map<String, RequestStats> statsByPath) ->
+                           statsByPath.forEach((final String path, final RequestStats stats) -> {
+                               final long[] bucketCounts = stats.getCumulativeBucketCounts();
+
+                               for (int i = 0; i < bucketCounts.length; i++) {
+                                   final String bound = i < bucketBounds.size()
+                                                        ? bucketBounds.get(i).toString()
+                                                        : SeaAroundUsMetricsConstants.INFINITE_BUCKET;
+
+                                   appendLabels(textBuilder, name + SeaAroundUsMetricsConstants.BUCKET_SUFFIX, etlName, path);
+                                   textBuilder.append(SeaAroundUsMetricsConstants.LE_LABEL)
+                                   .append(bound)
+                                   .append(SeaAroundUsMetricsConstants.LABELS_END)
+                                   .append(bucketCounts[i])
+                                   .append('\n');
+                               }
+
+                               appendLabels(textBuilder, name + SeaAroundUsMetricsConstants.SUM_SUFFIX, etlName, path);
+                               textBuilder.append(SeaAroundUsMetricsConstants.LABELS_END)
+                               .append(stats.getLatencySumNanos() / SeaAroundUsMetricsConstants.NANOS_PER_SECOND)
+                               .append('\n');
+
+                               appendLabels(textBuilder, name + SeaAroundUsMetricsConstants.COUNT_SUFFIX, etlName, path);
+                               textBuilder.append(SeaAroundUsMetricsConstants.LABELS_END)
+                               .append(bucketCounts[bucketCounts.length - 1])
+                               .append('\n');
+                           }));
+    }
+
+
+    /**
+     * Appends the HELP and TYPE lines of a metric.
+     *
+     * @param textBuilder the builder to which the lines are appended
+     * @param name the name of the metric
+     * @param help a description of the metric
+     * @param type the Prometheus type of the metric
+     */
+    private static void appendHeader(final StringBuilder textBuilder, final String name, final String help, final String type)
+    {
+        textBuilder.append(SeaAroundUsMetricsConstants.HELP_PREFIX).append(name).append(' ').append(help).append('\n')
+        .append(SeaAroundUsMetricsConstants.TYPE_PREFIX).append(name).append(' ').append(type).append('\n');
+    }
+
+
+    /**
+     * Appends the name of a sample and its ETL and path labels, leaving the
+     * label set open for further labels.
+     *
+     * @param textBuilder the builder to which the sample is appended
+     * @param name the name of the sample
+     * @param etlName the name of the requesting ETL
+     * @param path the requested path template
+     */
+    private static void appendLabels(final StringBuilder textBuilder, final String name, final String etlName, final String path)
+    {
+        textBuilder.append(name)
+        .append(SeaAroundUsMetricsConstants.ETL_LABEL)
+        .append(escapeLabelValue(etlName))
+        .append(SeaAroundUsMetricsConstants.PATH_LABEL)
+        .append(escapeLabelValue(path));
+    }
+
+
+    /**
+     * Escapes backslashes, quotes, and line breaks of a Prometheus label value.
+     *
+     * @param value the label value that is to be escaped
+     *
+     * @return the escaped label value
+     */
+    private static String escapeLabelValue(final String value)
+    {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+
+    /**
+     * This class holds the description and value function of a gauge.
+     *
+     * @author Robin Weiss
+     */
+    private static class Gauge
+    {
+        private final String help;
+        private final DoubleSupplier valueGetter;
+
+
+        /**
+         * Constructor that requires the description and value function.
+         *
+         * @param help a description of the gauge
+         * @param valueGetter a function that retrieves the current value of the gauge
+         */
+        Gauge(final String help, final DoubleSupplier valueGetter)
+        {
+            this.help = help;
+            this.valueGetter = valueGetter;
+        }
+    }
+
+
+    /**
+     * This class holds the measurements of all requests to the same path template.
+     *
+     * @author Robin Weiss
+     */
+    public static class RequestStats
+    {
+        private final LongAdder requestCount = new LongAdder();
+        private final LongAdder errorCount = new LongAdder();
+        private final LongAdder retryCount = new LongAdder();
+        private final LongAdder byteCount = new LongAdder();
+        private final LongAdder revalidationHitCount = new LongAdder();
+        private final LongAdder revalidationMissCount = new LongAdder();
+        private final LongAdder latencySumNanos = new LongAdder();
+        private final LongAdder[] bucketCounts;
+        private final long[] bucketBoundsNanos;
+
+
+        /**
+         * Constructor that creates empty latency buckets.
+         */
+        RequestStats()
+        {
+            final List<Double> bucketBounds = SeaAroundUsMetricsConstants.LATENCY_BUCKETS;
+            this.bucketBoundsNanos = new long[bucketBounds.size()];
+            this.bucketCounts = new LongAdder[bucketBounds.size() + 1];
+
+            for (int i = 0; i < bucketBoundsNanos.length; i++)
+                bucketBoundsNanos[i] = (long)(bucketBounds.get(i) * SeaAroundUsMetricsConstants.NANOS_PER_SECOND);
+
+            for (int i = 0; i < bucketCounts.length; i++)
+                bucketCounts[i] = new LongAdder();
+        }
+
+
+        /**
+         * Records a finished request.
+         *
+         * @param durationNanos the duration of the request in nanoseconds
+         * @param isSuccessful if false, the request is also counted as an error
+         */
+        public void addRequest(final long durationNanos, final boolean isSuccessful)
+        {
+            requestCount.increment();
+            latencySumNanos.add(durationNanos);
+
+            if (!isSuccessful)
+                errorCount.increment();
+
+            int bucket = 0;
+
+            while (bucket < bucketBoundsNanos.length && durationNanos > bucketBoundsNanos[bucket])
+                bucket++;
+
+            bucketCounts[bucket].increment();
+        }
+
+
+        /**
+         * Records that a request was re-sent.
+         */
+        public void addRetry()
+        {
+            retryCount.increment();
+        }
+
+
+        /**
+         * Records bytes that were read from a response.
+         *
+         * @param bytes the number of read bytes
+         */
+        public void addBytes(final long bytes)
+        {
+            byteCount.add(bytes);
+        }
+
+
+        /**
+         * Records whether a stored response could be used, or if the response had to be downloaded.
+         *
+         * @param isHit if true, the server confirmed that a stored response is still valid
+         */
+        public void addRevalidation(final boolean isHit)
+        {
+            if (isHit)
+                revalidationHitCount.increment();
+            else
+                revalidationMissCount.increment();
+        }
+
+
+        /**
+         * Returns the number of finished requests.
+         *
+         * @return the number of finished requests
+         */
+        public long getRequestCount()
+        {
+            return requestCount.sum();
+        }
+
+
+        /**
+         * Returns the number of failed requests.
+         *
+         * @return the number of failed requests
+         */
+        public long getErrorCount()
+        {
+            return errorCount.sum();
+        }
+
+
+        /**
+         * Returns the number of re-sent requests.
+         *
+         * @return the number of re-sent requests
+         */
+        public long getRetryCount()
+        {
+            return retryCount.sum();
+        }
+
+
+        /**
+         * Returns the number of bytes that were read from responses.
+         *
+         * @return the number of bytes that were read from responses
+         */
+        public long getByteCount()
+        {
+            return byteCount.sum();
+        }
+
+
+        /**
+         * Returns the number of requests of which the stored response was still valid.
+         *
+         * @return the number of requests that were answered with "304 Not Modified"
+         */
+        public long getRevalidationHitCount()
+        {
+            return revalidationHitCount.sum();
+        }
+
+
+        /**
+         * Returns the number of requests of which the response had to be downloaded.
+         *
+         * @return the number of requests that could not be served from the local store
+         */
+        public long getRevalidationMissCount()
+        {
+            return revalidationMissCount.sum();
+        }
+
+
+        /**
+         * Returns the summed up duration of all finished requests.
+         *
+         * @return the summed up duration of all finished requests in nanoseconds
+         */
+        public long getLatencySumNanos()
+        {
+            return latencySumNanos.sum();
+        }
+
+
+        /**
+         * Returns the number of requests that did not take longer than the
+         * upper bound of each latency bucket. The last element is the total number
+         * of requests.
+         *
+         * @return the cumulative counts of all latency buckets
+         */
+        public long[] getCumulativeBucketCounts()
+        {
+            final long[] cumulativeCounts = new long[bucketCounts.length];
+            long sum = 0;
+
+            for (int i = 0; i < bucketCounts.length; i++) {
+                sum += bucketCounts[i].sum();
+                cumulativeCounts[i] = sum;
+            }
+
+            return cumulativeCounts;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * This class groups elements by a primitive integer key. All elements are stored
+ * in a single array, in which the elements of each group are contiguous, and an
+ * offset array marks where each group begins. The groups are ordered by the
+ * first occurrence of their key, and the group of a key can be looked up.
+ * <br>
+ * Groups can be removed from the index, which releases their elements
+ * as soon as they are no longer needed.
+ *
+ * @param <T> the type of the grouped elements
+ *
+ * @author Robin Weiss
+ */
+public class IntGroupIndex<T>
+{
+    private final Object[] elements;
+    private final int[] offsets;
+    private final int[] groupKeys;
+    private final int[] slotKeys;
+    private final int[] slotGroups;
+    private final int mask;
+
+
+    /**
+     * Constructor that groups a collection of elements.
+     *
+     * @param elements the elements that are to be grouped
+     * @param keyFunction a function that retrieves the group key of an element
+     */
+    public IntGroupIndex(final Collection<T> elements, final ToIntFunction<T> keyFunction)
+    {
+        final int elementCount = elements.size();
+
+        // look up the group of each key in an open addressing table,
+        // a slot value of zero marks an empty slot
+        final int capacity = IntObjectMap.getCapacity(elementCount);
+        this.mask = capacity - 1;
+        this.slotKeys = new int[capacity];
+        this.slotGroups = new int[capacity];
+
+        final int[] elementGroups = new int[elementCount];
+        final int[] keys = new int[elementCount];
+        final int[] groupSizes = new int[elementCount];
+        int groupCount = 0;
+        int elementIndex = 0;
+
+        for (final T element : elements) {
+            final int key = keyFunction.applyAsInt(element);
+            int slot = IntObjectMap.hash(key) & mask;
+
+            while (slotGroups[slot] != 0 && slotKeys[slot] != key)
+                slot = (slot + 1) & mask;
+
+            if (slotGroups[slot] == 0) {
+                keys[groupCount] = key;
+                slotKeys[slot] = key;
+                slotGroups[slot] = ++groupCount;
+            }
+
+            final int group = slotGroups[slot] - 1;
+            groupSizes[group]++;
+            elementGroups[elementIndex++] = group;
+        }
+
+        // the offset of each group is the sum of the sizes of all previous groups
+        this.offsets = new int[groupCount + 1];
+
+        for (int group = 0; group < groupCount; group++)
+            offsets[group + 1] = offsets[group] + groupSizes[group];
+
+        // copy the elements to their group, reusing the sizes array as insert position
+        this.elements = new Object[elementCount];
+        System.arraycopy(offsets, 0, groupSizes, 0, groupCount);
+        elementIndex = 0;
+
+        for (final T element : elements)
+            this.elements[groupSizes[elementGroups[elementIndex++]]++] = element;
+
+        this.groupKeys = Arrays.copyOf(keys, groupCount);
+    }
+
+
+    /**
+     * Returns the number of groups.
+     *
+     * @return the number of distinct keys
+     */
+    public int getGroupCount()
+    {
+        return groupKeys.length;
+    }
+
+
+    /**
+     * Returns the key of a group.
+     *
+     * @param group the index of the group
+     *
+     * @return the key that is shared by all elements of the group
+     */
+    public int getKey(final int group)
+    {
+        return groupKeys[group];
+    }
+
+
+    /**
+     * Looks up the group of a key.
+     *
+     * @param key the key of which the group is looked up
+     *
+     * @return the index of the group, or -1 if no element has the key
+     */
+    public int getGroup(final int key)
+    {
+        for (int slot = IntObjectMap.hash(key) & mask; slotGroups[slot] != 0; slot = (slot + 1) & mask) {
+            if (slotKeys[slot] == key)
+                return slotGroups[slot] - 1;
+        }
+
+        return -1;
+    }
+
+
+    /**
+     * Returns the number of elements of a group, including removed elements.
+     *
+     * @param group the index of the group
+     *
+     * @return the number of elements with the key of the group
+     */
+    public int getGroupSize(final int group)
+    {
+        return offsets[group + 1] - offsets[group];
+    }
+
+
+    /**
+     * Removes the elements of a group from the index and returns them
+     * in the order in which they were passed to the constructor.
+     *
+     * @param group the index of the group
+     *
+     * @return the elements of the group, or an empty list if
+     *          they were removed before
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> removeGroup(final int group)
+    {
+        final List<T> groupElements = new ArrayList<>(getGroupSize(group));
+
+        for (int i = offsets[group]; i < offsets[group + 1]; i++) {
+            if (elements[i] != null) {
+                groupElements.add((T) elements[i]);
+                elements[i] = null;
+            }
+        }
+
+        return groupElements;
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import java.util.Collection;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import lombok.Getter;
+
+/**
+ * This class is an immutable map of primitive integer keys to values.
+ * The entries are stored in two arrays using open addressing, which
+ * avoids boxing the keys and allocating an entry object per value.
+ * Since the map cannot be changed after it was created, it can be shared
+ * by multiple threads without synchronization.
+ *
+ * @param <V> the type of the values
+ *
+ * @author Robin Weiss
+ */
+public class IntObjectMap<V>
+{
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
+
+    private final int[] keys;
+    private final Object[] values;
+    private final int mask;
+
+    @Getter
+    private final int size;
+
+
+    /**
+     * Constructor that maps the keys of a collection of elements to values.
+     * Elements with a null value are omitted. If multiple elements have
+     * the same key, the value of the first element is kept.
+     *
+     * @param elements the elements that are to be mapped
+     * @param keyFunction a function that retrieves the key of an element
+     * @param valueFunction a function that retrieves the value of an element
+     * @param <T> the type of the elements
+     */
+    public <T> IntObjectMap(final Collection<T> elements, final ToIntFunction<T> keyFunction, final Function<T, V> valueFunction)
+    {
+        final int capacity = getCapacity(elements.size());
+
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+
+        int addedCount = 0;
+
+        for (final T element : elements) {
+            final V value = valueFunction.apply(element);
+
+            if (value != null && put(keyFunction.applyAsInt(element), value))
+                addedCount++;
+        }
+
+        this.size = addedCount;
+    }
+
+
+    /**
+     * Retrieves the value of a key.
+     *
+     * @param key the key of the value
+     *
+     * @return the value of the key, or null if the key is not mapped
+     */
+    @SuppressWarnings("unchecked")
+    public V get(final int key)
+    {
+        for (int i = getSlot(key); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key)
+                return (V) values[i];
+        }
+
+        return null;
+    }
+
+
+    /**
+     * Checks if a key is mapped to a value.
+     *
+     * @param key the key that is to be checked
+     *
+     * @return true if the key is mapped to a value
+     */
+    public boolean containsKey(final int key)
+    {
+        return get(key) != null;
+    }
+
+
+    /**
+     * Maps a key to a value, unless the key is already mapped.
+     *
+     * @param key the key of the value
+     * @param value the value that is to be mapped
+     *
+     * @return true if the value was added
+     */
+    private boolean put(final int key, final V value)
+    {
+        int i = getSlot(key);
+
+        while (values[i] != null) {
+            if (keys[i] == key)
+                return false;
+
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = key;
+        values[i] = value;
+        return true;
+    }
+
+
+    /**
+     * Calculates the preferred array index of a key.
+     *
+     * @param key the key of which the index is calculated
+     *
+     * @return the index of the first slot that is probed for the key
+     */
+    private int getSlot(final int key)
+    {
+        return hash(key) & mask;
+    }
+
+
+    /**
+     * Calculates the length of the arrays of an open addressing table,
+     * which keeps the load factor at or below 0.5.
+     *
+     * @param size the number of keys that are to be stored
+     *
+     * @return a power of two that is at least twice the number of keys
+     */
+    static int getCapacity(final int size)
+    {
+        return Integer.highestOneBit(Math.max(size, 1) * 2 - 1) << 1;
+    }
+
+
+    /**
+     * Calculates a hash of an integer key, which spreads
+     * consecutive keys across all bits.
+     *
+     * @param key the key of which the hash is calculated
+     *
+     * @return a hash of the key
+     */
+    static int hash(final int key)
+    {
+        final int hash = key * HASH_MULTIPLIER;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,340 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsParameterConstants;
+import lombok.Getter;
+
+/**
+ * This iterator runs a source iterator and a mapping function in separate stages,
+ * in order for the retrieval of source elements, their mapping, and the consumption
+ * of the mapped elements to overlap.
+ * <br>
+ * A dedicated thread pulls the source elements and submits their mapping to a pool
+ * of threads. The pending results are handed off to the consumer via a bounded
+ * queue, which blocks the source thread while the queue is full. The mapped elements
+ * are returned in the same order as the elements of the source iterator.
+ * <br>
+ * If the source iterator or the mapping function fail, the pipeline is shut down and
+ * the exception is re-thrown by {@linkplain #next()}.
+ *
+ * @param <S> the type of the source elements
+ * @param <T> the type of the mapped elements
+ *
+ * @author Robin Weiss
+ */
+public class PipelinedIterator<S, T> implements Iterator<T>
+{
+    private final Iterator<S> sourceIterator;
+    private final Function<S, T> mappingFunction;
+    private final ExecutorService mappingExecutor;
+    private final int mappingThreadCount;
+    private final Thread sourceThread;
+
+    @Getter
+    private final int queueSize;
+    private final BlockingQueue<Future<T>> queue;
+    private final Future<T> endOfPipeline = CompletableFuture.completedFuture(null);
+    private Future<T> nextElement;
+    private volatile boolean isClosed;
+
+    private final long startTime;
+    private volatile long endTime;
+    private final AtomicLong mappingBusyNanos = new AtomicLong();
+    private volatile long sourceIdleNanos;
+    private volatile long consumerIdleNanos;
+    private volatile long queueDepthSum;
+    private volatile int queueDepthSamples;
+
+    @Getter
+    private volatile int maxQueueDepth;
+
+
+    /**
+     * Constructor that starts retrieving and mapping source elements.
+     *
+     * @param name a name that is used as a prefix for the thread names
+     * @param sourceIterator an iterator of elements that are to be mapped
+     * @param mappingFunction a function that maps a source element
+     * @param mappingThreadCount the number of threads that run the mapping function
+     * @param queueSize the max number of pending elements that are handed off to the consumer
+     */
+    public PipelinedIterator(
+        final String name,
+        final Iterator<S> sourceIterator,
+        final Function<S, T> mappingFunction,
+        final int mappingThreadCount,
+        final int queueSize)
+    {
+        this.sourceIterator = sourceIterator;
+        this.mappingFunction = mappingFunction;
+        this.mappingThreadCount = Math.max(1, mappingThreadCount);
+        this.mappingExecutor = PrefetchingIterator.createExecutor(
+                                   SeaAroundUsParameterConstants.PIPELINE_TRANSFORM_THREAD_NAME,
+                                   name,
+                                   this.mappingThreadCount);
+        this.queueSize = Math.max(1, queueSize);
+        this.queue = new ArrayBlockingQueue<>(this.queueSize);
+
+        this.sourceThread = new Thread(this::feedQueue, String.format(SeaAroundUsParameterConstants.PIPELINE_EXTRACT_THREAD_NAME, name));
+        this.sourceThread.setDaemon(true);
+
+        this.startTime = System.nanoTime();
+        this.sourceThread.start();
+    }
+
+
+    @Override
+    public boolean hasNext()
+    {
+        return peek() != endOfPipeline;
+    }
+
+
+    @Override
+    public T next()
+    {
+        final Future<T> element = peek();
+
+        if (element == endOfPipeline)
+            throw new NoSuchElementException();
+
+        nextElement = null;
+        return await(element);
+    }
+
+
+    /**
+     * Stops retrieving and mapping source elements. Pending elements are discarded.
+     */
+    public synchronized void close()
+    {
+        if (isClosed)
+            return;
+
+        isClosed = true;
+        endTime = System.nanoTime();
+
+        sourceThread.interrupt();
+        mappingExecutor.shutdownNow();
+        queue.forEach((final Future<T> f) -> f.cancel(true));
+        queue.clear();
+    }
+
+
+    /**
+     * Returns the average number of pending elements in the queue,
+     * sampled whenever a source element was handed off.
+     *
+     * @return the average number of pending elements in the queue
+     */
+    public double getAverageQueueDepth()
+    {
+        final int samples = queueDepthSamples;
+        return samples == 0 ? 0 : (double) queueDepthSum / samples;
+    }
+
+
+    /**
+     * Returns the time that the source thread was blocked, because the queue was full.
+     *
+     * @return the idle time of the source stage in milliseconds
+     */
+    public long getSourceIdleMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(sourceIdleNanos);
+    }
+
+
+    /**
+     * Returns the accumulated time that the mapping threads did not map any elements.
+     *
+     * @return the idle time of the mapping stage in milliseconds
+     */
+    public long getMappingIdleMillis()
+    {
+        final long duration = (isClosed ? endTime : System.nanoTime()) - startTime;
+        return TimeUnit.NANOSECONDS.toMillis(Math.max(0, mappingThreadCount * duration - mappingBusyNanos.get()));
+    }
+
+
+    /**
+     * Returns the time that the consumer waited for mapped elements.
+     *
+     * @return the idle time of the consuming stage in milliseconds
+     */
+    public long getConsumerIdleMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(consumerIdleNanos);
+    }
+
+
+    /**
+     * Retrieves the pending result of the next element without removing it.
+     * The pipeline is closed when the end of the source iterator is reached.
+     *
+     * @return the pending result of the next element, or the end-of-pipeline marker
+     */
+    private Future<T> peek()
+    {
+        if (nextElement == null) {
+            if (isClosed)
+                return endOfPipeline;
+
+            final long waitStart = System.nanoTime();
+
+            try {
+                nextElement = queue.take();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new IllegalStateException(e);
+            }
+
+            consumerIdleNanos += System.nanoTime() - waitStart;
+
+            if (nextElement == endOfPipeline)
+                close();
+        }
+
+        return nextElement;
+    }
+
+
+    /**
+     * Waits for a mapping task to finish and returns its result. Exceptions
+     * that were thrown by the source iterator or the mapping function are re-thrown
+     * after the pipeline was closed.
+     *
+     * @param future the pending result of a mapping task
+     *
+     * @return the mapped element
+     */
+    private T await(final Future<T> future)
+    {
+        final long waitStart = System.nanoTime();
+
+        try {
+            return future.get();
+
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new IllegalStateException(e);
+
+        } catch (final ExecutionException e) {
+            close();
+            final Throwable cause = e.getCause();
+
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            else
+                throw new IllegalStateException(cause);
+
+        } finally {
+            consumerIdleNanos += System.nanoTime() - waitStart;
+        }
+    }
+
+
+    /**
+     * Retrieves all source elements, submits their mapping, and hands off the
+     * pending results to the consumer. This method is run by the source thread.
+     */
+    private void feedQueue()
+    {
+        try {
+            while (!isClosed && sourceIterator.hasNext()) {
+                final S sourceElement = sourceIterator.next();
+
+                // null elements are not mapped, but must be returned to keep the order
+                enqueue(sourceElement == null
+                        ? CompletableFuture.completedFuture(null)
+                        : mappingExecutor.submit(() -> map(sourceElement)));
+            }
+
+            enqueue(endOfPipeline);
+
+        } catch (final RuntimeException | Error e) { // NOPMD the failure must be handed off to the consumer
+            final CompletableFuture<T> failure = new CompletableFuture<>();
+            failure.completeExceptionally(e);
+            enqueue(failure);
+        }
+    }
+
+
+    /**
+     * Maps a source element and measures the time it took.
+     *
+     * @param sourceElement the element that is to be mapped
+     *
+     * @return the mapped element
+     */
+    private T map(final S sourceElement)
+    {
+        final long mappingStart = System.nanoTime();
+
+        try {
+            return mappingFunction.apply(sourceElement);
+        } finally {
+            mappingBusyNanos.addAndGet(System.nanoTime() - mappingStart);
+        }
+    }
+
+
+    /**
+     * Hands off a pending result to the consumer, waiting while the queue is full.
+     * The result is cancelled if the pipeline is closed in the meantime.
+     *
+     * @param element the pending result of a mapping task
+     */
+    private void enqueue(final Future<T> element)
+    {
+        final int queueDepth = queue.size();
+        queueDepthSum += queueDepth;
+        queueDepthSamples++;
+        maxQueueDepth = Math.max(maxQueueDepth, queueDepth);
+
+        final long waitStart = System.nanoTime();
+
+        try {
+            while (!queue.offer(element, SeaAroundUsParameterConstants.PIPELINE_POLL_INTERVAL, TimeUnit.MILLISECONDS)) {
+                if (isClosed) {
+                    element.cancel(true);
+                    return;
+                }
+            }
+        } catch (final InterruptedException e) {
+            // the pipeline was closed
+            element.cancel(true);
+            Thread.currentThread().interrupt();
+        } finally {
+            sourceIdleNanos += System.nanoTime() - waitStart;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.jsoup.HttpStatusException;
+
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsParameterConstants;
+import de.gerdiproject.harvest.seaaroundus.utils.HttpRequestMetrics.RequestStats;
+import de.gerdiproject.harvest.utils.data.constants.DataOperationConstants;
+import de.gerdiproject.harvest.utils.data.enums.RestRequestType;
+
+/**
+ * An HTTP client for GET requests that keeps connections alive and asks for
+ * compressed responses, which are decompressed while they are being read.
+ * <br>
+ * Connections are pooled by the keep-alive cache of the JVM, which only reuses
+ * a connection if its response was read completely. Therefore, unlike the
+ * {@linkplain de.gerdiproject.harvest.utils.data.WebDataRetriever}, this client
+ * discards the bodies of erroneous responses instead of disconnecting.
+ *
+ * @author Robin Weiss
+ */
+public class PooledHttpClient
+{
+    private static final Object POOL_LOCK = new Object();
+    private static boolean isPoolSizeFixed;
+
+    private final Charset charset;
+
+
+    /**
+     * Constructor that requires the charset of the responses.
+     *
+     * @param charset the charset of the HTTP responses
+     */
+    public PooledHttpClient(final Charset charset)
+    {
+        this.charset = charset;
+    }
+
+
+    /**
+     * Changes the max number of idle connections per host that are kept alive.
+     * The size of the JVM connection pool can only be changed before the first
+     * connection is opened, unless it was set via the "http.maxConnections"
+     * system property.
+     *
+     * @param maxIdleConnections the max number of idle connections per host
+     */
+    public static void setPoolSize(final int maxIdleConnections)
+    {
+        synchronized (POOL_LOCK) {
+            if (!isPoolSizeFixed && System.getProperty(SeaAroundUsParameterConstants.POOL_SIZE_PROPERTY) == null)
+                System.setProperty(SeaAroundUsParameterConstants.POOL_SIZE_PROPERTY, String.valueOf(maxIdleConnections));
+        }
+    }
+
+
+    /**
+     * Sends a GET request and follows redirects, unless they downgrade
+     * from HTTPS to HTTP.
+     *
+     * @param url the requested URL
+     *
+     * @return a connection that has received the response status
+     *
+     * @throws HttpStatusException if the response has a server error status code
+     * @throws IOException if the request could not be sent
+     */
+    public HttpURLConnection sendGetRequest(final String url) throws IOException
+    {
+        return sendGetRequest(url, Collections.emptyMap());
+    }
+
+
+    /**
+     * Sends a GET request with additional headers and follows redirects, unless
+     * they downgrade from HTTPS to HTTP. The headers are also sent to redirected URLs.
+     *
+     * @param url the requested URL
+     * @param requestHeaders a map of additional HTTP header names to values
+     *
+     * @return a connection that has received the response status
+     *
+     * @throws HttpStatusException if the response has a server error status code
+     * @throws IOException if the request could not be sent
+     */
+    public HttpURLConnection sendGetRequest(final String url, final Map<String, String> requestHeaders) throws IOException
+    {
+        String currentUrl = url;
+
+        for (int redirects = 0; ; redirects++) {
+            final HttpURLConnection connection = openConnection(currentUrl, requestHeaders);
+            final int statusCode = connection.getResponseCode();
+
+            if (statusCode >= HttpURLConnection.HTTP_INTERNAL_ERROR) {
+                discard(connection);
+                throw new HttpStatusException(
+                    String.format(DataOperationConstants.WEB_ERROR_REST_HTTP, RestRequestType.GET, currentUrl, null, statusCode),
+                    statusCode,
+                    currentUrl);
+            }
+
+            final String redirectedUrl = connection.getHeaderField(SeaAroundUsParameterConstants.LOCATION_HEADER);
+            final boolean isRedirected = statusCode >= HttpURLConnection.HTTP_MULT_CHOICE
+                                         && statusCode < HttpURLConnection.HTTP_BAD_REQUEST
+                                         && redirectedUrl != null
+                                         && redirects < SeaAroundUsParameterConstants.MAX_REDIRECTS
+                                         && (!currentUrl.startsWith(DataOperationConstants.HTTPS)
+                                             || redirectedUrl.startsWith(DataOperationConstants.HTTPS));
+
+            if (!isRedirected)
+                return connection;
+
+            discard(connection);
+            currentUrl = new URL(new URL(currentUrl), redirectedUrl).toString();
+        }
+    }
+
+
+    /**
+     * Returns the decompressed body of a response, counting the received
+     * bytes in the {@linkplain RequestStats} of the request.
+     * The stream must be read completely and closed for the connection to be reused.
+     *
+     * @param connection a connection that has received a response
+     * @param stats the statistics in which the received bytes are recorded
+     *
+     * @return a stream of the decompressed response body
+     *
+     * @throws IOException if the response body could not be opened
+     */
+    public InputStream getInputStream(final HttpURLConnection connection, final RequestStats stats) throws IOException
+    {
+        final InputStream receivedStream = new CountingInputStream(connection.getInputStream(), stats);
+        final String encoding = connection.getContentEncoding();
+
+        if (DataOperationConstants.GZIP_ENCODING.equalsIgnoreCase(encoding))
+            return new GZIPInputStream(receivedStream, SeaAroundUsParameterConstants.DECOMPRESSION_BUFFER_SIZE);
+
+        if (SeaAroundUsParameterConstants.DEFLATE_ENCODING.equalsIgnoreCase(encoding))
+            return new InflaterInputStream(receivedStream);
+
+        return receivedStream;
+    }
+
+
+    /**
+     * Reads and closes the body of a response that is not needed, allowing the
+     * connection to be reused. If that fails, the connection is closed.
+     *
+     * @param connection a connection that has received a response
+     */
+    public void discard(final HttpURLConnection connection)
+    {
+        try {
+            final InputStream body = connection.getResponseCode() >= HttpURLConnection.HTTP_BAD_REQUEST
+                                     ? connection.getErrorStream()
+                                     : connection.getInputStream();
+
+            if (body != null) {
+                try (InputStream discardedBody = body) {
+                    final byte[] buffer = new byte[SeaAroundUsParameterConstants.DECOMPRESSION_BUFFER_SIZE];
+
+                    while (discardedBody.read(buffer) != -1) {
+                        // the body is not needed
+                    }
+                }
+            }
+        } catch (final IOException e) {
+            connection.disconnect();
+        }
+    }
+
+
+    /**
+     * Opens a connection for a GET request that asks for a compressed response
+     * and for the connection to be kept alive.
+     *
+     * @param url the requested URL
+     * @param requestHeaders a map of additional HTTP header names to values
+     *
+     * @return a connection that has not been sent yet
+     *
+     * @throws IOException if the connection could not be opened
+     */
+    private HttpURLConnection openConnection(final String url, final Map<String, String> requestHeaders) throws IOException
+    {
+        synchronized (POOL_LOCK) {
+            isPoolSizeFixed = true;
+        }
+
+        final HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod(RestRequestType.GET.toString());
+        connection.setInstanceFollowRedirects(true);
+        connection.setUseCaches(false);
+        connection.setRequestProperty(SeaAroundUsParameterConstants.ACCEPT_CHARSET_HEADER, charset.displayName().toLowerCase(Locale.ENGLISH));
+        connection.setRequestProperty(SeaAroundUsParameterConstants.ACCEPT_ENCODING_HEADER, SeaAroundUsParameterConstants.ACCEPTED_ENCODINGS);
+        connection.setRequestProperty(SeaAroundUsParameterConstants.CONNECTION_HEADER, SeaAroundUsParameterConstants.KEEP_ALIVE);
+        requestHeaders.forEach(connection::setRequestProperty);
+
+        return connection;
+    }
+
+
+    /**
+     * This stream adds the number of read bytes to {@linkplain RequestStats}.
+     *
+     * @author Robin Weiss
+     */
+    private static class CountingInputStream extends FilterInputStream
+    {
+        private final RequestStats stats;
+
+
+        /**
+         * Constructor that requires the counted stream and the statistics.
+         *
+         * @param in the stream of which the read bytes are counted
+         * @param stats the statistics in which the read bytes are recorded
+         */
+        CountingInputStream(final InputStream in, final RequestStats stats)
+        {
+            super(in);
+            this.stats = stats;
+        }
+
+
+        @Override
+        public int read() throws IOException
+        {
+            final int readByte = super.read();
+
+            if (readByte != -1)
+                stats.addBytes(1);
+
+            return readByte;
+        }
+
+
+        @Override
+        public int read(final byte[] buffer, final int offset, final int length) throws IOException
+        {
+            final int readBytes = super.read(buffer, offset, length);
+
+            if (readBytes > 0)
+                stats.addBytes(readBytes);
+
+            return readBytes;
+        }
+
+
+        @Override
+        public long skip(final long n) throws IOException
+        {
+            final long skippedBytes = super.skip(n);
+            stats.addBytes(skippedBytes);
+            return skippedBytes;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsParameterConstants;
+
+/**
+ * This iterator maps the elements of a source iterator by submitting the mapping
+ * function to an {@linkplain ExecutorService}, several elements ahead of the
+ * element that is currently retrieved. The mapped elements are returned in the
+ * same order as the elements of the source iterator.
+ *
+ * @param <S> the type of the source elements
+ * @param <T> the type of the mapped elements
+ *
+ * @author Robin Weiss
+ */
+public class PrefetchingIterator<S, T> implements Iterator<T>
+{
+    private final Iterator<S> sourceIterator;
+    private final Function<S, T> mappingFunction;
+    private final ExecutorService executor;
+    private final int lookAhead;
+    private final Queue<Future<T>> pendingElements;
+
+
+    /**
+     * Constructor that requires the source elements and means to map them.
+     *
+     * @param sourceIterator an iterator of elements that are to be mapped
+     * @param mappingFunction a function that maps a source element, e.g. by sending an HTTP request
+     * @param executor the executor that runs the mapping function
+     * @param lookAhead the max number of elements that are mapped in advance
+     */
+    public PrefetchingIterator(final Iterator<S> sourceIterator, final Function<S, T> mappingFunction, final ExecutorService executor, final int lookAhead)
+    {
+        this.sourceIterator = sourceIterator;
+        this.mappingFunction = mappingFunction;
+        this.executor = executor;
+        this.lookAhead = Math.max(1, lookAhead);
+        this.pendingElements = new ArrayDeque<>(this.lookAhead);
+    }
+
+
+    @Override
+    public boolean hasNext()
+    {
+        return !pendingElements.isEmpty() || sourceIterator.hasNext();
+    }
+
+
+    @Override
+    public T next()
+    {
+        fillQueue();
+
+        final Future<T> nextElement = pendingElements.poll();
+
+        if (nextElement == null)
+            throw new NoSuchElementException();
+
+        // keep the workers busy while waiting for the next element
+        fillQueue();
+
+        return await(nextElement);
+    }
+
+
+    /**
+     * Submits mapping tasks until the look-ahead depth is reached or
+     * the source iterator is exhausted.
+     */
+    private void fillQueue()
+    {
+        while (pendingElements.size() < lookAhead && sourceIterator.hasNext()) {
+            final S sourceElement = sourceIterator.next();
+            pendingElements.add(executor.submit(() -> mappingFunction.apply(sourceElement)));
+        }
+    }
+
+
+    /**
+     * Waits for a mapping task to finish and returns its result. Exceptions
+     * that were thrown during the mapping are re-thrown.
+     *
+     * @param future the pending result of a mapping task
+     *
+     * @return the mapped element
+     */
+    private T await(final Future<T> future)
+    {
+        try {
+            return future.get();
+
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelPendingElements();
+            throw new IllegalStateException(e);
+
+        } catch (final ExecutionException e) {
+            cancelPendingElements();
+            final Throwable cause = e.getCause();
+
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            else
+                throw new IllegalStateException(cause);
+        }
+    }
+
+
+    /**
+     * Cancels all mapping tasks that have not finished yet.
+     */
+    private void cancelPendingElements()
+    {
+        pendingElements.forEach((final Future<T> f) -> f.cancel(true));
+        pendingElements.clear();
+    }
+
+
+    /**
+     * Creates a fixed size thread pool of daemon threads that can be used
+     * for prefetching elements.
+     *
+     * @param name a name that is used as a prefix for the thread names
+     * @param threadCount the number of threads in the pool
+     *
+     * @return a new thread pool
+     */
+    public static ExecutorService createExecutor(final String name, final int threadCount)
+    {
+        return createExecutor(SeaAroundUsParameterConstants.PREFETCH_THREAD_NAME, name, threadCount);
+    }
+
+
+    /**
+     * Creates a fixed size thread pool of daemon threads.
+     *
+     * @param threadNameFormat a format string for the thread names, which requires
+     *          the specified name and the index of the thread
+     * @param name a name that is used as part of the thread names
+     * @param threadCount the number of threads in the pool
+     *
+     * @return a new thread pool
+     */
+    public static ExecutorService createExecutor(final String threadNameFormat, final String name, final int threadCount)
+    {
+        final AtomicInteger threadIndex = new AtomicInteger();
+
+        return Executors.newFixedThreadPool(Math.max(1, threadCount), (final Runnable r) -> {
+            final Thread thread = new Thread(r, String.format(
+                                                 threadNameFormat,
+                                                 name,
+                                                 threadIndex.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,176 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsRegionConstants;
+
+/**
+ * This class caches reference data lists of SeaAroundUs, such as the taxon groups
+ * and levels, and the taxa, as dictionaries that map the numeric identifiers of
+ * the list entries to values.
+ * The dictionaries are shared by all ETLs and are only rebuilt if the version
+ * of the dataset changes, which means that lists that are not needed to detect
+ * a new version are downloaded only once per version.
+ * <br>
+ * The lists are identified by their API names, for instance
+ * {@linkplain SeaAroundUsRegionConstants#TAXON_GROUP_API_NAME}.
+ *
+ * @author Robin Weiss
+ */
+public class ReferenceDataCache
+{
+    private static final ReferenceDataCache INSTANCE = new ReferenceDataCache();
+
+    private final Map<String, VersionedDictionary> dictionaries;
+
+
+    /**
+     * Constructor that creates an empty cache.
+     */
+    public ReferenceDataCache()
+    {
+        this.dictionaries = new HashMap<>();
+    }
+
+
+    /**
+     * Returns the cache that is shared by all ETLs.
+     *
+     * @return the cache that is shared by all ETLs
+     */
+    public static ReferenceDataCache getInstance()
+    {
+        return INSTANCE;
+    }
+
+
+    /**
+     * Retrieves the dictionary of a list of a specified dataset version.
+     * If the dictionary was not cached for this version yet, the list is retrieved
+     * and the dictionary replaces the one of the previous version. Lists without
+     * a version are never cached.
+     * <br>
+     * A list must always be mapped to the same type of values.
+     *
+     * @param listName the API name of the list
+     * @param version the version of the dataset, or null if it is unknown
+     * @param listSupplier a function that retrieves the list
+     * @param keyFunction a function that retrieves the identifier of a list entry
+     * @param valueFunction a function that retrieves the value of a list entry
+     * @param <T> the type of the list entries
+     * @param <V> the type of the dictionary values
+     *
+     * @return a dictionary of the list
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T, V> IntObjectMap<V> getDictionary(
+        final String listName,
+        final String version,
+        final Supplier<? extends Collection<T>> listSupplier,
+        final ToIntFunction<T> keyFunction,
+        final Function<T, V> valueFunction)
+    {
+        final VersionedDictionary cachedDictionary = dictionaries.get(listName);
+
+        if (cachedDictionary != null && version != null && version.equals(cachedDictionary.version))
+            return (IntObjectMap<V>) cachedDictionary.dictionary;
+
+        final IntObjectMap<V> dictionary = new IntObjectMap<>(listSupplier.get(), keyFunction, valueFunction);
+
+        if (version != null)
+            dictionaries.put(listName, new VersionedDictionary(version, dictionary));
+
+        return dictionary;
+    }
+
+
+    /**
+     * Retrieves the most recently cached dictionary of a list, regardless of its version.
+     *
+     * @param listName the API name of the list
+     * @param <V> the type of the dictionary values
+     *
+     * @return a dictionary of the list, or null if the list was not cached yet
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <V> IntObjectMap<V> getDictionary(final String listName)
+    {
+        final VersionedDictionary cachedDictionary = dictionaries.get(listName);
+        return cachedDictionary == null ? null : (IntObjectMap<V>) cachedDictionary.dictionary;
+    }
+
+
+    /**
+     * Retrieves the cached dictionary of a list of a specified dataset version,
+     * without retrieving the list if it is not cached.
+     *
+     * @param listName the API name of the list
+     * @param version the version of the dataset
+     * @param <V> the type of the dictionary values
+     *
+     * @return a dictionary of the list, or null if the list was not cached for this version
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <V> IntObjectMap<V> getDictionary(final String listName, final String version)
+    {
+        final VersionedDictionary cachedDictionary = dictionaries.get(listName);
+
+        return cachedDictionary != null && cachedDictionary.version.equals(version)
+               ? (IntObjectMap<V>) cachedDictionary.dictionary
+               : null;
+    }
+
+
+    /**
+     * Removes all cached dictionaries.
+     */
+    public synchronized void clear()
+    {
+        dictionaries.clear();
+    }
+
+
+    /**
+     * A dictionary of a list, along with the dataset version of the list.
+     *
+     * @author Robin Weiss
+     */
+    private static class VersionedDictionary
+    {
+        private final String version;
+        private final IntObjectMap<?> dictionary;
+
+
+        /**
+         * Constructor that requires the version and the dictionary.
+         *
+         * @param version the dataset version of the list
+         * @param dictionary the dictionary of the list
+         */
+        VersionedDictionary(final String version, final IntObjectMap<?> dictionary)
+        {
+            this.version = version;
+            this.dictionary = dictionary;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.gson.Gson;
+
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsParameterConstants;
+import de.gerdiproject.harvest.utils.HashGenerator;
+import de.gerdiproject.harvest.utils.data.DiskIO;
+
+/**
+ * This class stores parsed HTTP responses on disk. The responses are identified
+ * by their URL and the version of the dataset they belong to, which means that
+ * responses are never outdated, but may be evicted when the size of the cache
+ * exceeds its limit. The least recently used responses are evicted first.
+ *
+ * @author Robin Weiss
+ */
+public class ResponseCache
+{
+    private final File cacheFolder;
+    private final DiskIO diskIO;
+    private final Map<String, Long> entrySizes;
+    private long totalSize;
+    private long maxSize;
+
+
+    /**
+     * Constructor that requires the folder of the cache and the means to parse
+     * the cached responses. Responses that were cached previously are re-used.
+     *
+     * @param cacheFolder the folder in which the responses are stored
+     * @param gson the Gson instance that is used to (de-)serialize the responses
+     * @param maxSize the max number of bytes that can be occupied by the cache
+     */
+    public ResponseCache(final File cacheFolder, final Gson gson, final long maxSize)
+    {
+        this.cacheFolder = cacheFolder;
+        this.diskIO = new DiskIO(gson, StandardCharsets.UTF_8);
+        this.entrySizes = new LinkedHashMap<>(16, 0.75f, true);
+        this.maxSize = maxSize;
+
+        loadEntries();
+    }
+
+
+    /**
+     * Retrieves a cached response.
+     *
+     * @param url the URL of the response
+     * @param version the version of the dataset to which the response belongs
+     * @param responseType the type of the response
+     * @param <T> the type of the response
+     *
+     * @return the cached response, or null if it is not cached
+     */
+    public <T> T get(final String url, final String version, final Type responseType)
+    {
+        final String key = createKey(url, version);
+
+        if (!touch(key))
+            return null;
+
+        final T response = diskIO.getObject(getFile(key), responseType);
+
+        // remove corrupted entries
+        if (response == null)
+            remove(key);
+
+        return response;
+    }
+
+
+    /**
+     * Stores a response in the cache, and evicts the least recently used responses
+     * if the cache exceeds its size limit. The response is written to a temporary
+     * file first, which is moved to its final location atomically, so that other
+     * threads never read or evict a partially written response.
+     *
+     * @param url the URL of the response
+     * @param version the version of the dataset to which the response belongs
+     * @param response the response that is to be stored
+     */
+    public void put(final String url, final String version, final Object response)
+    {
+        final String key = createKey(url, version);
+        final File tempFile = new File(
+            cacheFolder,
+            String.format(SeaAroundUsParameterConstants.RESPONSE_CACHE_TEMP_FILE, key, Thread.currentThread().getId()));
+        diskIO.writeObjectToFile(tempFile, response);
+
+        final long size = tempFile.length();
+
+        synchronized (this) {
+            try {
+                Files.move(tempFile.toPath(), getFile(key).toPath(),
+                           StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (final IOException e) {
+                tempFile.delete();
+                return;
+            }
+
+            final Long oldSize = entrySizes.put(key, size);
+
+            if (oldSize != null)
+                totalSize -= oldSize;
+
+            totalSize += size;
+            evict();
+        }
+    }
+
+
+    /**
+     * Removes a response from the cache.
+     *
+     * @param url the URL of the response
+     * @param version the version of the dataset to which the response belongs
+     */
+    public void remove(final String url, final String version)
+    {
+        remove(createKey(url, version));
+    }
+
+
+    /**
+     * Changes the max number of bytes that can be occupied by the cache,
+     * and evicts responses if the cache exceeds the new limit.
+     *
+     * @param maxSize the max number of bytes that can be occupied by the cache
+     */
+    public synchronized void setMaxSize(final long maxSize)
+    {
+        this.maxSize = maxSize;
+        evict();
+    }
+
+
+    /**
+     * Returns the number of bytes that are currently occupied by the cache.
+     *
+     * @return the number of bytes that are occupied by the cache
+     */
+    public synchronized long getSize()
+    {
+        return totalSize;
+    }
+
+
+    /**
+     * Marks a cache entry as recently used.
+     *
+     * @param key the key of the cache entry
+     *
+     * @return true if the entry exists
+     */
+    private synchronized boolean touch(final String key)
+    {
+        if (entrySizes.get(key) == null)
+            return false;
+
+        // persist the access order for future cache instances
+        getFile(key).setLastModified(System.currentTimeMillis());
+        return true;
+    }
+
+
+    /**
+     * Removes a single entry from the cache.
+     *
+     * @param key the key of the cache entry
+     */
+    private synchronized void remove(final String key)
+    {
+        final Long size = entrySizes.remove(key);
+
+        if (size != null) {
+            totalSize -= size;
+            getFile(key).delete();
+        }
+    }
+
+
+    /**
+     * Removes the least recently used entries until the cache
+     * size no longer exceeds the limit.
+     */
+    private void evict()
+    {
+        final Iterator<Map.Entry<String, Long>> iter = entrySizes.entrySet().iterator();
+
+        while (totalSize > maxSize && iter.hasNext()) {
+            final Map.Entry<String, Long> eldest = iter.next();
+            totalSize -= eldest.getValue();
+            getFile(eldest.getKey()).delete();
+            iter.remove();
+        }
+    }
+
+
+    /**
+     * Registers all responses that were stored in the cache folder previously,
+     * ordered by the time they were last used. Temporary files of responses that
+     * were never completely written are removed.
+     */
+    private synchronized void loadEntries()
+    {
+        final File[] tempFiles = cacheFolder.listFiles((final File dir, final String name) ->
+                                                       name.endsWith(SeaAroundUsParameterConstants.RESPONSE_CACHE_TEMP_FILE_EXTENSION));
+
+        if (tempFiles != null) {
+            for (final File tempFile : tempFiles)
+                tempFile.delete();
+        }
+
+        final File[] files = cacheFolder.listFiles((final File dir, final String name) ->
+                                                   name.endsWith(SeaAroundUsParameterConstants.RESPONSE_CACHE_FILE_EXTENSION));
+
+        if (files == null)
+            return;
+
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+
+        for (final File file : files) {
+            final String fileName = file.getName();
+            final String key = fileName.substring(0, fileName.length() - SeaAroundUsParameterConstants.RESPONSE_CACHE_FILE_EXTENSION.length());
+            entrySizes.put(key, file.length());
+            totalSize += file.length();
+        }
+
+        evict();
+    }
+
+
+    /**
+     * Returns the file in which a response is stored.
+     *
+     * @param key the key of the cache entry
+     *
+     * @return the file in which the response is stored
+     */
+    private File getFile(final String key)
+    {
+        return new File(cacheFolder, key + SeaAroundUsParameterConstants.RESPONSE_CACHE_FILE_EXTENSION);
+    }
+
+
+    /**
+     * Creates a unique key of a response.
+     *
+     * @param url the URL of the response
+     * @param version the version of the dataset to which the response belongs
+     *
+     * @return a hash of the URL and the version
+     */
+    private static String createKey(final String url, final String version)
+    {
+        return new HashGenerator(StandardCharsets.UTF_8).getShaHash(version + ' ' + url);
+    }
+}
@@ -16,6 +16,8 @@
 package de.gerdiproject.harvest.seaaroundus.utils;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -23,10 +25,13 @@ import com.vividsolutions.jts.geom.Geometry;
 
 import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsDataCiteConstants;
 import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsUrlConstants;
+import de.gerdiproject.harvest.seaaroundus.vos.CatchTemplatesVO;
 import de.gerdiproject.harvest.seaaroundus.vos.EntryVO;
 import de.gerdiproject.harvest.seaaroundus.vos.RegionParametersVO;
+import de.gerdiproject.harvest.seaaroundus.vos.RegionTemplatesVO;
 import de.gerdiproject.harvest.seaaroundus.vos.UrlVO;
 import de.gerdiproject.json.datacite.GeoLocation;
+import de.gerdiproject.json.datacite.Subject;
 import de.gerdiproject.json.datacite.extension.generic.ResearchData;
 import de.gerdiproject.json.datacite.extension.generic.WebLink;
 import de.gerdiproject.json.datacite.extension.generic.enums.WebLinkType;
@@ -108,12 +113,10 @@ public final class SeaAroundUsDataCiteUtils
      */
     public static WebLink createPrimaryProductionLink(final RegionParametersVO regionParams, final int regionId, final String regionName)
     {
-        final EntryVO regionType = regionParams.getRegionType();
-        final String primaryProductionLabel = String.format(SeaAroundUsDataCiteConstants.PRIMARY_PRODUCTION_LABEL, regionType.getDisplayName(), regionName);
-        final String viewUrl = String.format(SeaAroundUsUrlConstants.VIEW_URL_PREFIX, regionType.getUrlName());
+        final RegionTemplatesVO templates = regionParams.getTemplates();
 
-        final WebLink primaryProduction = new WebLink(regionParams.getUrls().getPrimaryProductionViewUrl(viewUrl, regionId));
-        primaryProduction.setName(primaryProductionLabel);
+        final WebLink primaryProduction = new WebLink(templates.getPrimaryProductionViewUrl().fill(regionId));
+        primaryProduction.setName(templates.getPrimaryProductionLabel().fill(regionName));
         primaryProduction.setType(WebLinkType.ViewURL);
 
         return primaryProduction;
@@ -131,12 +134,10 @@ public final class SeaAroundUsDataCiteUtils
      */
     public static WebLink createStockStatusLink(final RegionParametersVO regionParams, final int regionId, final String regionName)
     {
-        final EntryVO regionType = regionParams.getRegionType();
-        final String stockStatusLabel = String.format(SeaAroundUsDataCiteConstants.STOCK_STATUS_LABEL, regionType.getDisplayName(), regionName);
-        final String viewUrl = String.format(SeaAroundUsUrlConstants.VIEW_URL_PREFIX, regionType.getUrlName());
+        final RegionTemplatesVO templates = regionParams.getTemplates();
 
-        final WebLink stockStatus = new WebLink(regionParams.getUrls().getStockStatusViewUrl(viewUrl, regionId));
-        stockStatus.setName(stockStatusLabel);
+        final WebLink stockStatus = new WebLink(templates.getStockStatusViewUrl().fill(regionId));
+        stockStatus.setName(templates.getStockStatusLabel().fill(regionName));
         stockStatus.setType(WebLinkType.ViewURL);
 
         return stockStatus;
@@ -154,11 +155,10 @@ public final class SeaAroundUsDataCiteUtils
      */
     public static WebLink createMarineTrophicIndexLink(final RegionParametersVO regionParams, final int regionId, final String regionName)
     {
-        final String marineTrophicIndexLabel = String.format(SeaAroundUsDataCiteConstants.MARINE_TROPHIC_INDEX_LABEL, regionName);
-        final String viewUrl = String.format(SeaAroundUsUrlConstants.VIEW_URL_PREFIX, regionParams.getRegionType().getUrlName());
+        final RegionTemplatesVO templates = regionParams.getTemplates();
 
-        final WebLink marineTrophicIndex = new WebLink(regionParams.getUrls().getMarineTrophicIndexViewUrl(viewUrl, regionId));
-        marineTrophicIndex.setName(marineTrophicIndexLabel);
+        final WebLink marineTrophicIndex = new WebLink(templates.getMarineTrophicIndexViewUrl().fill(regionId));
+        marineTrophicIndex.setName(templates.getMarineTrophicIndexLabel().fill(regionName));
         marineTrophicIndex.setType(WebLinkType.ViewURL);
 
         return marineTrophicIndex;
@@ -176,11 +176,10 @@ public final class SeaAroundUsDataCiteUtils
      */
     public static ResearchData createPrimaryProductionFile(final RegionParametersVO regionParams, final int regionId, final String regionName)
     {
-        final String primaryProductionLabel = String.format(SeaAroundUsDataCiteConstants.PRIMARY_PRODUCTION_LABEL, regionParams.getRegionType().getDisplayName(), regionName);
-        final String apiUrl = getAllRegionsUrl(regionParams.getRegionType().getUrlName());
+        final RegionTemplatesVO templates = regionParams.getTemplates();
 
-        final ResearchData primaryProduction = new ResearchData(regionParams.getUrls().getPrimaryProductionDownloadUrl(apiUrl, regionId),
-                                                                primaryProductionLabel);
+        final ResearchData primaryProduction = new ResearchData(templates.getPrimaryProductionDownloadUrl().fill(regionId),
+                                                                templates.getPrimaryProductionLabel().fill(regionName));
         primaryProduction.setType(SeaAroundUsDataCiteConstants.CSV_FORMAT);
 
         return primaryProduction;
@@ -198,11 +197,10 @@ public final class SeaAroundUsDataCiteUtils
      */
     public static ResearchData createStockStatusFile(final RegionParametersVO regionParams, final int regionId, final String regionName)
     {
-        final String stockStatusLabel = String.format(SeaAroundUsDataCiteConstants.STOCK_STATUS_LABEL, regionParams.getRegionType().getDisplayName(), regionName);
-        final String apiUrl = getAllRegionsUrl(regionParams.getRegionType().getUrlName());
+        final RegionTemplatesVO templates = regionParams.getTemplates();
 
-        final ResearchData stockStatus = new ResearchData(regionParams.getUrls().getStockStatusDownloadUrl(apiUrl, regionId),
-                                                          stockStatusLabel);
+        final ResearchData stockStatus = new ResearchData(templates.getStockStatusDownloadUrl().fill(regionId),
+                                                          templates.getStockStatusLabel().fill(regionName));
         stockStatus.setType(SeaAroundUsDataCiteConstants.CSV_FORMAT);
 
         return stockStatus;
@@ -220,12 +218,11 @@ public final class SeaAroundUsDataCiteUtils
      */
     public static ResearchData createMarineTrophicIndexFile(final RegionParametersVO regionParams, final int regionId, final String regionName)
     {
-        final String marineTrophicIndexLabel = String.format(SeaAroundUsDataCiteConstants.MARINE_TROPHIC_INDEX_LABEL, regionName);
-        final String apiUrl = getAllRegionsUrl(regionParams.getRegionType().getUrlName());
+        final RegionTemplatesVO templates = regionParams.getTemplates();
 
         final ResearchData marineTrophicIndex = new ResearchData(
-            regionParams.getUrls().getMarineTrophicIndexDownloadUrl(apiUrl, regionId),
-            marineTrophicIndexLabel);
+            templates.getMarineTrophicIndexDownloadUrl().fill(regionId),
+            templates.getMarineTrophicIndexLabel().fill(regionName));
         marineTrophicIndex.setType(SeaAroundUsDataCiteConstants.CSV_FORMAT);
 
         return marineTrophicIndex;
@@ -245,27 +242,12 @@ public final class SeaAroundUsDataCiteUtils
     {
         final List<ResearchData> files = new LinkedList<>();
 
-        final EntryVO regionType = regionParams.getRegionType();
-        final List<EntryVO> dimensionList = regionParams.getDimensions();
-        final List<EntryVO> measureList = regionParams.getMeasures();
-        final UrlVO urls = regionParams.getUrls();
-        final String apiUrl = getAllRegionsUrl(regionType.getUrlName());
-
-        for (final EntryVO measure : measureList) {
-            for (final EntryVO dimension : dimensionList) {
-
-                final String catchesLabel = String.format(
-                                                SeaAroundUsDataCiteConstants.CATCHES_LABEL,
-                                                measure.getDisplayName(),
-                                                dimension.getDisplayName(),
-                                                regionType.getDisplayName(),
-                                                regionName);
-                final ResearchData cbdFile = new ResearchData(
-                    urls.getCatchesDownloadUrl(apiUrl, regionId, dimension.getUrlName(), measure.getUrlName()) + SeaAroundUsUrlConstants.CSV_FORM,
-                    catchesLabel);
-                cbdFile.setType(SeaAroundUsDataCiteConstants.CSV_FORMAT);
-                files.add(cbdFile);
-            }
+        for (final CatchTemplatesVO catchTemplates : regionParams.getTemplates().getCatches()) {
+            final ResearchData cbdFile = new ResearchData(
+                catchTemplates.getDownloadUrl().fill(regionId),
+                catchTemplates.getLabel().fill(regionName));
+            cbdFile.setType(SeaAroundUsDataCiteConstants.CSV_FORMAT);
+            files.add(cbdFile);
         }
 
         return files;
@@ -285,29 +267,103 @@ public final class SeaAroundUsDataCiteUtils
     {
         final List<WebLink> links = new LinkedList<>();
 
-        final EntryVO regionType = regionParams.getRegionType();
-        final List<EntryVO> dimensionList = regionParams.getDimensions();
-        final List<EntryVO> measureList = regionParams.getMeasures();
-        final UrlVO urls = regionParams.getUrls();
+        for (final CatchTemplatesVO catchTemplates : regionParams.getTemplates().getCatches()) {
+            final WebLink cbdLink = new WebLink(catchTemplates.getViewUrl().fill(regionId));
+            cbdLink.setName(catchTemplates.getLabel().fill(regionName));
+            cbdLink.setType(WebLinkType.ViewURL);
+            links.add(cbdLink);
+        }
+
+        return links;
+    }
+
+
+    /**
+     * Creates a list of {@linkplain Subject}s that summarize the catches of a region.
+     * Summaries without any values are skipped.
+     *
+     * @param regionParams parameters describing the region of the catches
+     * @param catchSummaries summaries of the catches, ordered like the catch templates of the region
+     * @param regionName the name of the region
+     *
+     * @return a list of {@linkplain Subject}s that summarize the catches of a region
+     */
+    public static List<Subject> createCatchSummarySubjects(final RegionParametersVO regionParams, final List<CatchSummary> catchSummaries, final String regionName)
+    {
+        final List<CatchTemplatesVO> catchTemplates = regionParams.getTemplates().getCatches();
+        final List<Subject> subjects = new LinkedList<>();
+
+        for (int i = 0; i < catchSummaries.size(); i++) {
+            final CatchSummary summary = catchSummaries.get(i);
+
+            if (!summary.isEmpty()) {
+                subjects.add(new Subject(String.format(
+                                             SeaAroundUsDataCiteConstants.CATCH_SUMMARY_SUBJECT,
+                                             catchTemplates.get(i).getLabel().fill(regionName),
+                                             summary.getEarliestYear(),
+                                             summary.getLatestYear(),
+                                             Math.round(summary.getTotal()),
+                                             Math.round(summary.getPeakTotal()),
+                                             summary.getPeakYear())));
+            }
+        }
+
+        return subjects;
+    }
+
+
+    /**
+     * Precompiles the labels and URLs that are created for every document of a region type.
+     *
+     * @param regionType the type of the region
+     * @param dimensions the dimensions by which catches of the region are categorized
+     * @param measures the measures of catches of the region
+     * @param urls the URL suffixes of the region data
+     *
+     * @return templates of labels that require a region name, and URLs that require a region ID
+     */
+    public static RegionTemplatesVO createRegionTemplates(final EntryVO regionType, final List<EntryVO> dimensions, final List<EntryVO> measures, final UrlVO urls)
+    {
+        final int id = SeaAroundUsDataCiteConstants.TEMPLATE_ID_PLACEHOLDER;
+        final String name = SeaAroundUsDataCiteConstants.TEMPLATE_NAME_PLACEHOLDER;
+        final String idPlaceholder = String.format(SeaAroundUsDataCiteConstants.TEMPLATE_ID_FORMAT, id);
+
         final String viewUrl = String.format(SeaAroundUsUrlConstants.VIEW_URL_PREFIX, regionType.getUrlName());
+        final String apiUrl = getAllRegionsUrl(regionType.getUrlName());
 
-        for (final EntryVO measure : measureList) {
-            for (final EntryVO dimension : dimensionList) {
+        final List<CatchTemplatesVO> catches = new ArrayList<>(measures.size() * dimensions.size());
 
+        for (final EntryVO measure : measures) {
+            for (final EntryVO dimension : dimensions) {
                 final String catchesLabel = String.format(
                                                 SeaAroundUsDataCiteConstants.CATCHES_LABEL,
                                                 measure.getDisplayName(),
                                                 dimension.getDisplayName(),
                                                 regionType.getDisplayName(),
-                                                regionName);
-                final WebLink cbdLink = new WebLink(urls.getCatchesViewUrl(viewUrl, regionId, dimension.getUrlName(), measure.getUrlName()));
-                cbdLink.setName(catchesLabel);
-                cbdLink.setType(WebLinkType.ViewURL);
-                links.add(cbdLink);
+                                                name);
+                final String catchesViewUrl = urls.getCatchesViewUrl(viewUrl, id, dimension.getUrlName(), measure.getUrlName());
+                final String catchesDataUrl = urls.getCatchesDownloadUrl(apiUrl, id, dimension.getUrlName(), measure.getUrlName());
+                final String catchesDownloadUrl = catchesDataUrl + SeaAroundUsUrlConstants.CSV_FORM;
+
+                catches.add(new CatchTemplatesVO(
+                                new FormatTemplate(catchesLabel, name),
+                                new FormatTemplate(catchesViewUrl, idPlaceholder),
+                                new FormatTemplate(catchesDownloadUrl, idPlaceholder),
+                                new FormatTemplate(catchesDataUrl, idPlaceholder)));
             }
         }
 
-        return links;
+        return new RegionTemplatesVO(
+                   new FormatTemplate(String.format(SeaAroundUsDataCiteConstants.PRIMARY_PRODUCTION_LABEL, regionType.getDisplayName(), name), name),
+                   new FormatTemplate(urls.getPrimaryProductionViewUrl(viewUrl, id), idPlaceholder),
+                   new FormatTemplate(urls.getPrimaryProductionDownloadUrl(apiUrl, id), idPlaceholder),
+                   new FormatTemplate(String.format(SeaAroundUsDataCiteConstants.STOCK_STATUS_LABEL, regionType.getDisplayName(), name), name),
+                   new FormatTemplate(urls.getStockStatusViewUrl(viewUrl, id), idPlaceholder),
+                   new FormatTemplate(urls.getStockStatusDownloadUrl(apiUrl, id), idPlaceholder),
+                   new FormatTemplate(String.format(SeaAroundUsDataCiteConstants.MARINE_TROPHIC_INDEX_LABEL, name), name),
+                   new FormatTemplate(urls.getMarineTrophicIndexViewUrl(viewUrl, id), idPlaceholder),
+                   new FormatTemplate(urls.getMarineTrophicIndexDownloadUrl(apiUrl, id), idPlaceholder),
+                   Collections.unmodifiableList(catches));
     }
 
 
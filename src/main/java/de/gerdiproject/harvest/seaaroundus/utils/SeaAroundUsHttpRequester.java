@@ -0,0 +1,616 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jsoup.HttpStatusException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+
+import de.gerdiproject.harvest.application.events.GetCacheFolderEvent;
+import de.gerdiproject.harvest.config.parameters.IntegerParameter;
+import de.gerdiproject.harvest.event.EventSystem;
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsMetricsConstants;
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsParameterConstants;
+import de.gerdiproject.harvest.seaaroundus.utils.ConditionalResponseStore.Validators;
+import de.gerdiproject.harvest.seaaroundus.utils.HttpRequestMetrics.RequestStats;
+import de.gerdiproject.harvest.utils.data.HttpRequester;
+import de.gerdiproject.harvest.utils.data.constants.DataOperationConstants;
+import de.gerdiproject.json.GsonUtils;
+
+/**
+ * An {@linkplain HttpRequester} that is shared by all SeaAroundUs extractors.
+ * All instances of this class share a global budget of HTTP requests that
+ * can be sent at the same time, no matter how many ETLs are harvesting concurrently.
+ * <br>
+ * If the version of the requested dataset is known, responses are also
+ * stored in a size-bounded {@linkplain ResponseCache} that is shared by all
+ * instances, allowing unchanged datasets to be re-harvested without
+ * sending HTTP requests.
+ * <br>
+ * The ETag and Last-Modified headers of the responses are kept in a
+ * {@linkplain ConditionalResponseStore}, and are used to revalidate the cached responses
+ * by conditional requests, which means that unchanged responses do not need to be
+ * downloaded again, even if the version of the dataset is unknown.
+ * <br>
+ * Large lists of features can be streamed, which means that they are
+ * parsed one feature at a time, while the response is being downloaded.
+ * <br>
+ * Requests that are sent to the web are paced by an {@linkplain AdaptiveRateLimiter}
+ * that adapts to the responses of the server, and retried after a jittered,
+ * exponential backoff. They are measured in {@linkplain HttpRequestMetrics}
+ * that are shared by all instances, and sent via a {@linkplain PooledHttpClient}
+ * that keeps connections alive and receives compressed responses.
+ *
+ * @author Robin Weiss
+ */
+public class SeaAroundUsHttpRequester extends HttpRequester
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(SeaAroundUsHttpRequester.class);
+    private static final ConcurrencyBudget GLOBAL_REQUEST_BUDGET =
+        new ConcurrencyBudget(SeaAroundUsParameterConstants.MAX_CONCURRENT_REQUESTS_DEFAULT);
+    private static final AdaptiveRateLimiter GLOBAL_RATE_LIMITER =
+        new AdaptiveRateLimiter(SeaAroundUsParameterConstants.MAX_REQUESTS_PER_SECOND_DEFAULT);
+    private static final HttpRequestMetrics GLOBAL_REQUEST_METRICS = new HttpRequestMetrics();
+    private static final PooledHttpClient GLOBAL_HTTP_CLIENT = new PooledHttpClient(StandardCharsets.UTF_8);
+
+    static {
+        GLOBAL_REQUEST_METRICS.registerGauge(
+            SeaAroundUsMetricsConstants.RATE_LIMIT_METRIC,
+            SeaAroundUsMetricsConstants.RATE_LIMIT_HELP,
+            GLOBAL_RATE_LIMITER::getRate);
+        GLOBAL_REQUEST_METRICS.registerGauge(
+            SeaAroundUsMetricsConstants.EFFECTIVE_RATE_METRIC,
+            SeaAroundUsMetricsConstants.EFFECTIVE_RATE_HELP,
+            GLOBAL_RATE_LIMITER::getEffectiveRate);
+    }
+
+    private static ResponseCache sharedResponseCache;
+
+    private final Gson gson;
+    private final Charset httpCharset;
+    private final PooledHttpClient httpClient;
+    private final IntegerParameter retriesParam;
+    private final IntegerParameter maxConcurrentRequestsParam;
+    private final IntegerParameter maxRequestsPerSecondParam;
+    private final IntegerParameter responseCacheSizeParam;
+    private final ResponseCache responseCache;
+    private final ConditionalResponseStore conditionalStore;
+    private volatile String cacheVersion;
+    private volatile String etlName;
+
+
+    /**
+     * Constructor that uses a GeoJson capable {@linkplain Gson} instance
+     * and the UTF-8 charset.
+     */
+    public SeaAroundUsHttpRequester()
+    {
+        this(GsonUtils.createGeoJsonGsonBuilder().create(), StandardCharsets.UTF_8);
+    }
+
+
+    /**
+     * Constructor that requires the means to parse HTTP responses.
+     *
+     * @param gson the Gson instance that is used to parse JSON responses
+     * @param httpCharset the charset of the HTTP responses
+     */
+    public SeaAroundUsHttpRequester(final Gson gson, final Charset httpCharset)
+    {
+        super(gson, httpCharset);
+        this.gson = gson;
+        this.httpCharset = httpCharset;
+        this.httpClient = StandardCharsets.UTF_8.equals(httpCharset)
+                          ? GLOBAL_HTTP_CLIENT
+                          : new PooledHttpClient(httpCharset);
+        this.retriesParam = SeaAroundUsParameterUtils.registerParameter(DataOperationConstants.RETRIES_PARAM);
+        this.maxConcurrentRequestsParam = SeaAroundUsParameterUtils.registerGlobalParameter(
+                                              SeaAroundUsParameterConstants.MAX_CONCURRENT_REQUESTS_KEY,
+                                              DataOperationConstants.HTTP_CATEGORY,
+                                              SeaAroundUsParameterConstants.MAX_CONCURRENT_REQUESTS_DEFAULT);
+        this.maxRequestsPerSecondParam = SeaAroundUsParameterUtils.registerGlobalParameter(
+                                             SeaAroundUsParameterConstants.MAX_REQUESTS_PER_SECOND_KEY,
+                                             DataOperationConstants.HTTP_CATEGORY,
+                                             SeaAroundUsParameterConstants.MAX_REQUESTS_PER_SECOND_DEFAULT);
+        final IntegerParameter keepAliveConnectionsParam = SeaAroundUsParameterUtils.registerGlobalParameter(
+                                                               SeaAroundUsParameterConstants.KEEP_ALIVE_CONNECTIONS_KEY,
+                                                               DataOperationConstants.HTTP_CATEGORY,
+                                                               SeaAroundUsParameterConstants.KEEP_ALIVE_CONNECTIONS_DEFAULT);
+        PooledHttpClient.setPoolSize(keepAliveConnectionsParam.getValue());
+        this.responseCacheSizeParam = SeaAroundUsParameterUtils.registerGlobalParameter(
+                                          SeaAroundUsParameterConstants.RESPONSE_CACHE_SIZE_KEY,
+                                          DataOperationConstants.HTTP_CATEGORY,
+                                          SeaAroundUsParameterConstants.RESPONSE_CACHE_SIZE_DEFAULT);
+        this.responseCache = getSharedResponseCache(
+                                 gson,
+                                 responseCacheSizeParam.getValue() * SeaAroundUsParameterConstants.BYTES_PER_MEGABYTE);
+        this.conditionalStore = responseCache == null ? null : new ConditionalResponseStore(responseCache);
+    }
+
+
+    /**
+     * Changes the version of the dataset that is requested by subsequent calls.
+     * Responses of known versions are stored in and retrieved from the
+     * {@linkplain ResponseCache}.
+     *
+     * @param cacheVersion the version of the requested dataset, or null
+     *          if responses are not to be cached
+     */
+    public void setCacheVersion(final String cacheVersion)
+    {
+        this.cacheVersion = cacheVersion;
+    }
+
+
+    /**
+     * Changes the name of the ETL by which the measurements of subsequent
+     * requests are grouped.
+     *
+     * @param etlName the name of the ETL that sends the requests
+     */
+    public void setEtlName(final String etlName)
+    {
+        this.etlName = etlName;
+    }
+
+
+    /**
+     * Returns the measurements of all HTTP requests that were sent by any instance.
+     *
+     * @return the measurements of all HTTP requests
+     */
+    public static HttpRequestMetrics getRequestMetrics()
+    {
+        return GLOBAL_REQUEST_METRICS;
+    }
+
+
+    @Override
+    public <T> T getObjectFromUrl(final String url, final Class<T> targetClass)
+    {
+        return getObjectFromUrl(url, (Type) targetClass);
+    }
+
+
+    @Override
+    public <T> T getObjectFromUrl(final String url, final Type targetType)
+    {
+        final String version = cacheVersion;
+        final boolean isCacheable = version != null
+                                    && responseCache != null
+                                    && responseCacheSizeParam.getValue() > 0
+                                    && !isReadingFromDisk();
+
+        if (isCacheable) {
+            final T cachedResponse = responseCache.get(url, version, targetType);
+
+            if (cachedResponse != null)
+                return cachedResponse;
+        }
+
+        final T response;
+
+        // responses that are read from or written to disk are neither measured nor paced
+        if (isReadingFromDisk() || isWritingToDisk()) {
+            final boolean isAcquired = acquireRequestBudget();
+
+            try {
+                response = super.getObjectFromUrl(url, targetType);
+            } finally {
+                GLOBAL_REQUEST_BUDGET.release(isAcquired);
+            }
+        } else
+            response = getObjectFromWeb(url, targetType, isCacheable ? version : null);
+
+        if (isCacheable && response != null) {
+            responseCache.setMaxSize(responseCacheSizeParam.getValue() * SeaAroundUsParameterConstants.BYTES_PER_MEGABYTE);
+            responseCache.put(url, version, response);
+        }
+
+        return response;
+    }
+
+
+    /**
+     * Sends a GET request and returns an iterator that parses the features of
+     * the response one at a time, while the response is being downloaded.
+     * Streamed responses are neither cached, nor read from or written to disk.
+     *
+     * @param url the URL of a response that carries a feature collection
+     * @param featureType the type of the parsed features
+     * @param <T> the type of the parsed features
+     *
+     * @return an iterator that must be closed if it is not iterated until the end
+     *
+     * @throws IOException if the response could not be retrieved
+     */
+    public <T> FeatureStreamIterator<T> getFeatureStreamFromUrl(final String url, final Type featureType) throws IOException
+    {
+        final RequestStats stats = GLOBAL_REQUEST_METRICS.getStats(etlName, url);
+        final long startTime = System.nanoTime();
+        boolean isConnected = false;
+
+        // the budget only limits concurrent connection attempts, because
+        // the stream is consumed while other requests are being sent
+        try {
+            final FeatureStreamIterator<T> featureStream = sendGetRequest(
+                                                               url,
+                                                               Collections.emptyMap(),
+                                                               stats,
+                                                               (final HttpURLConnection connection) -> new FeatureStreamIterator<>(
+                                                                   new InputStreamReader(httpClient.getInputStream(connection, stats), httpCharset),
+                                                                   gson,
+                                                                   featureType));
+            isConnected = true;
+            return featureStream;
+        } finally {
+            stats.addRequest(System.nanoTime() - startTime, isConnected);
+        }
+    }
+
+
+    /**
+     * Sends a GET request and parses the response while it is being downloaded,
+     * without holding the whole response in memory. Streamed responses are
+     * neither cached, nor read from or written to disk.
+     *
+     * @param url the requested URL
+     * @param responseParser a function that parses the streamed response
+     * @param <T> the type of the parsed response
+     *
+     * @return the parsed response, or null if it could not be retrieved
+     */
+    public <T> T getObjectFromStream(final String url, final StreamParser<T> responseParser)
+    {
+        final RequestStats stats = GLOBAL_REQUEST_METRICS.getStats(etlName, url);
+        final long startTime = System.nanoTime();
+        T response = null;
+
+        try {
+            response = sendGetRequest(url, Collections.emptyMap(), stats, (final HttpURLConnection connection) -> {
+                try (JsonReader reader = new JsonReader(new InputStreamReader(httpClient.getInputStream(connection, stats), httpCharset))) {
+                    return responseParser.parse(reader);
+                }
+            });
+        } catch (IOException | IllegalStateException e) {
+            LOGGER.warn(String.format(DataOperationConstants.WEB_ERROR_JSON, url), e);
+        } finally {
+            stats.addRequest(System.nanoTime() - startTime, response != null);
+        }
+
+        return response;
+    }
+
+
+    /**
+     * Sends a GET request and parses the response, recording the latency,
+     * response size, retries, and success of the request.
+     * If the validators of a cached response of the URL are known, the request is
+     * conditional, and the cached response is returned if it was not modified.
+     * If the cached response was evicted in the meantime, the request is sent again
+     * without conditional headers.
+     *
+     * @param url the requested URL
+     * @param targetType the type of the parsed response
+     * @param cacheVersion the version under which the response is cached by the caller,
+     *          or null if it is not cached
+     * @param <T> the type of the parsed response
+     *
+     * @return the parsed response, or null if it could not be retrieved
+     */
+    private <T> T getObjectFromWeb(final String url, final Type targetType, final String cacheVersion)
+    {
+        final ConditionalResponseStore store = responseCacheSizeParam.getValue() > 0 ? conditionalStore : null;
+        final Validators validators = store == null ? null : store.get(url);
+        final AtomicBoolean isCachedResponseMissing = new AtomicBoolean();
+
+        final T response = getObjectFromWeb(url, targetType, cacheVersion, store, validators, isCachedResponseMissing);
+
+        // the request must not be repeated inside the first one, because it would need another request budget
+        if (isCachedResponseMissing.get())
+            return getObjectFromWeb(url, targetType, cacheVersion, store, null, isCachedResponseMissing);
+
+        return response;
+    }
+
+
+    /**
+     * Sends a GET request and parses the response, recording the latency,
+     * response size, retries, and success of the request.
+     * If validators are specified, the request is conditional.
+     *
+     * @param url the requested URL
+     * @param targetType the type of the parsed response
+     * @param cacheVersion the version under which the response is cached by the caller,
+     *          or null if it is not cached
+     * @param store the store of the validators of responses, or null if responses are not to be revalidated
+     * @param validators the validators of the cached response, or null if the request is not conditional
+     * @param isCachedResponseMissing a flag that is set if the response was not modified,
+     *          but the cached response no longer exists
+     * @param <T> the type of the parsed response
+     *
+     * @return the parsed response, or null if it could not be retrieved
+     */
+    private <T> T getObjectFromWeb(
+        final String url,
+        final Type targetType,
+        final String cacheVersion,
+        final ConditionalResponseStore store,
+        final Validators validators,
+        final AtomicBoolean isCachedResponseMissing)
+    {
+        final RequestStats stats = GLOBAL_REQUEST_METRICS.getStats(etlName, url);
+        final long startTime = System.nanoTime();
+        final Map<String, String> requestHeaders = validators == null
+                                                   ? Collections.emptyMap()
+                                                   : validators.getConditionalHeaders();
+        T response = null;
+
+        try {
+            response = sendGetRequest(url, requestHeaders, stats, (final HttpURLConnection connection) -> {
+                if (validators != null && connection.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    httpClient.discard(connection);
+                    final T cachedResponse = store.getResponse(url, validators, targetType);
+
+                    if (cachedResponse == null) {
+                        isCachedResponseMissing.set(true);
+                        return null;
+                    }
+
+                    stats.addRevalidation(true);
+
+                    // point the validators to the version under which the caller caches the response
+                    if (cacheVersion != null && !validators.isCachedAs(cacheVersion))
+                        store.put(url, validators.getETag(), validators.getLastModified(), cacheVersion, cachedResponse);
+
+                    return cachedResponse;
+                }
+
+                final T downloadedResponse;
+
+                try (Reader reader = new InputStreamReader(httpClient.getInputStream(connection, stats), httpCharset)) {
+                    downloadedResponse = gson.fromJson(reader, targetType);
+                }
+
+                if (store != null && downloadedResponse != null) {
+                    stats.addRevalidation(false);
+                    store.put(
+                        url,
+                        connection.getHeaderField(SeaAroundUsParameterConstants.ETAG_HEADER),
+                        connection.getHeaderField(SeaAroundUsParameterConstants.LAST_MODIFIED_HEADER),
+                        cacheVersion,
+                        downloadedResponse);
+                }
+
+                return downloadedResponse;
+            });
+        } catch (JsonIOException | JsonSyntaxException | IOException | IllegalStateException e) {
+            LOGGER.warn(String.format(DataOperationConstants.WEB_ERROR_JSON, url), e);
+        } finally {
+            stats.addRequest(System.nanoTime() - startTime, response != null);
+        }
+
+        return response;
+    }
+
+
+    /**
+     * Sends a GET request at the pace of the global {@linkplain AdaptiveRateLimiter}
+     * and reads its response. Server errors, timeouts, and throttled requests are
+     * retried after an exponential, jittered backoff, and lower the pace of all requests.
+     *
+     * @param url the requested URL
+     * @param requestHeaders a map of additional HTTP header names to values
+     * @param stats the statistics in which retries are recorded
+     * @param responseReader a function that reads the response of a successful request
+     * @param <T> the type of the read response
+     *
+     * @return the read response
+     *
+     * @throws IOException if the request failed and may not be retried anymore
+     * @throws IllegalStateException if the thread was interrupted while waiting
+     */
+    private <T> T sendGetRequest(
+        final String url,
+        final Map<String, String> requestHeaders,
+        final RequestStats stats,
+        final ResponseReader<T> responseReader) throws IOException
+    {
+        final int maxRetries = retriesParam.getValue();
+
+        for (int attempt = 1; ; attempt++) {
+            IOException error;
+            long minRetryDelay = 0;
+
+            acquireRateLimit();
+            final boolean isAcquired = acquireRequestBudget();
+
+            try {
+                final long startTime = System.nanoTime();
+                final HttpURLConnection connection = httpClient.sendGetRequest(url, requestHeaders);
+                final int statusCode = connection.getResponseCode();
+
+                if (statusCode != SeaAroundUsParameterConstants.THROTTLED_STATUS_CODE) {
+                    GLOBAL_RATE_LIMITER.onSuccess(System.nanoTime() - startTime);
+
+                    // client errors are not retried, but their bodies are discarded to keep the connection alive
+                    if (statusCode >= HttpURLConnection.HTTP_BAD_REQUEST) {
+                        httpClient.discard(connection);
+                        throw new IOException(String.format(SeaAroundUsParameterConstants.CLIENT_ERROR, url, statusCode));
+                    }
+
+                    return responseReader.read(connection);
+                }
+
+                minRetryDelay = TimeUnit.SECONDS.toMillis(
+                                    connection.getHeaderFieldInt(SeaAroundUsParameterConstants.RETRY_AFTER_HEADER, 0));
+                httpClient.discard(connection);
+                error = new HttpStatusException(
+                    String.format(SeaAroundUsParameterConstants.THROTTLED_ERROR, url, statusCode),
+                    statusCode,
+                    url);
+            } catch (final HttpStatusException | SocketTimeoutException e) {
+                error = e;
+            } finally {
+                GLOBAL_REQUEST_BUDGET.release(isAcquired);
+            }
+
+            GLOBAL_RATE_LIMITER.onFailure();
+
+            if (maxRetries >= 0 && attempt > maxRetries)
+                throw error;
+
+            stats.addRetry();
+            final long retryDelay = AdaptiveRateLimiter.getBackoffDelay(attempt, minRetryDelay);
+            LOGGER.debug(String.format(DataOperationConstants.RETRY, url, TimeUnit.MILLISECONDS.toSeconds(retryDelay)));
+
+            try {
+                Thread.sleep(retryDelay);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+
+    /**
+     * Returns the {@linkplain ResponseCache} that is shared by all instances,
+     * creating it if it does not exist yet.
+     *
+     * @param gson the Gson instance that is used to (de-)serialize the responses
+     * @param maxSize the max number of bytes that can be occupied by the cache
+     *
+     * @return the shared response cache, or null if there is no cache folder
+     */
+    private static synchronized ResponseCache getSharedResponseCache(final Gson gson, final long maxSize)
+    {
+        if (sharedResponseCache == null) {
+            final File cacheRootFolder = EventSystem.sendSynchronousEvent(new GetCacheFolderEvent());
+
+            if (cacheRootFolder != null)
+                sharedResponseCache = new ResponseCache(
+                    new File(cacheRootFolder, SeaAroundUsParameterConstants.RESPONSE_CACHE_FOLDER),
+                    gson,
+                    maxSize);
+        }
+
+        return sharedResponseCache;
+    }
+
+
+    /**
+     * Blocks until the global rate limiter allows another request to be sent.
+     *
+     * @throws IllegalStateException if the thread was interrupted while waiting
+     */
+    private void acquireRateLimit()
+    {
+        GLOBAL_RATE_LIMITER.setMaxRate(maxRequestsPerSecondParam.getValue());
+
+        try {
+            GLOBAL_RATE_LIMITER.acquire();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+
+    /**
+     * Blocks until the global request budget allows another request to be sent.
+     *
+     * @return true if a part of the budget was reserved and needs to be released
+     *
+     * @throws IllegalStateException if the thread was interrupted while waiting
+     */
+    private boolean acquireRequestBudget()
+    {
+        GLOBAL_REQUEST_BUDGET.setLimit(maxConcurrentRequestsParam.getValue());
+
+        try {
+            return GLOBAL_REQUEST_BUDGET.acquire();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+
+    /**
+     * A function that reads the response of an open connection.
+     *
+     * @param <T> the type of the read response
+     *
+     * @author Robin Weiss
+     */
+    @FunctionalInterface
+    private interface ResponseReader<T>
+    {
+        /**
+         * Reads the response of an open connection.
+         *
+         * @param connection an open connection
+         *
+         * @return the read response
+         *
+         * @throws IOException if the response could not be read
+         */
+        T read(HttpURLConnection connection) throws IOException;
+    }
+
+
+    /**
+     * A function that parses a streamed JSON response.
+     *
+     * @param <T> the type of the parsed response
+     *
+     * @author Robin Weiss
+     */
+    @FunctionalInterface
+    public interface StreamParser<T>
+    {
+        /**
+         * Parses a streamed JSON response.
+         *
+         * @param reader a reader that is positioned at the beginning of the response
+         *
+         * @return the parsed response
+         *
+         * @throws IOException if the response could not be read
+         */
+        T parse(JsonReader reader) throws IOException;
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import java.util.Collection;
+
+import de.gerdiproject.harvest.config.Configuration;
+import de.gerdiproject.harvest.config.parameters.AbstractParameter;
+import de.gerdiproject.harvest.config.parameters.BooleanParameter;
+import de.gerdiproject.harvest.config.parameters.IntegerParameter;
+import de.gerdiproject.harvest.config.parameters.StringParameter;
+import de.gerdiproject.harvest.config.parameters.constants.ParameterMappingFunctions;
+import de.gerdiproject.harvest.etls.AbstractETL;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * A static helper class for registering harvester parameters.
+ *
+ * @author Robin Weiss
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class SeaAroundUsParameterUtils
+{
+    /**
+     * Registers an unsigned integer parameter in the category of a specified ETL.
+     * The parameter cannot be changed while the ETL is harvesting. If no
+     * {@linkplain Configuration} exists, an unregistered parameter is returned
+     * that holds the default value.
+     *
+     * @param key the parameter key
+     * @param etl the ETL that is configured by the parameter
+     * @param defaultValue the value of the parameter if it was not configured
+     *
+     * @return the registered parameter
+     */
+    public static IntegerParameter registerEtlParameter(final String key, final AbstractETL<?, ?> etl, final int defaultValue)
+    {
+        final IntegerParameter param = new IntegerParameter(
+            key,
+            etl.getName(),
+            defaultValue,
+            ParameterMappingFunctions.createMapperForETL(ParameterMappingFunctions::mapToUnsignedInteger, etl));
+
+        return registerParameter(param);
+    }
+
+
+    /**
+     * Registers a boolean parameter in the category of a specified ETL.
+     * The parameter cannot be changed while the ETL is harvesting. If no
+     * {@linkplain Configuration} exists, an unregistered parameter is returned
+     * that holds the default value.
+     *
+     * @param key the parameter key
+     * @param etl the ETL that is configured by the parameter
+     * @param defaultValue the value of the parameter if it was not configured
+     *
+     * @return the registered parameter
+     */
+    public static BooleanParameter registerEtlParameter(final String key, final AbstractETL<?, ?> etl, final boolean defaultValue)
+    {
+        final BooleanParameter param = new BooleanParameter(
+            key,
+            etl.getName(),
+            defaultValue,
+            ParameterMappingFunctions.createMapperForETL(ParameterMappingFunctions::mapToBoolean, etl));
+
+        return registerParameter(param);
+    }
+
+
+    /**
+     * Registers a string parameter in the category of a specified ETL, which
+     * only accepts a set of valid values. The parameter cannot be changed while
+     * the ETL is harvesting. If no {@linkplain Configuration} exists, an
+     * unregistered parameter is returned that holds the default value.
+     *
+     * @param key the parameter key
+     * @param etl the ETL that is configured by the parameter
+     * @param defaultValue the value of the parameter if it was not configured
+     * @param validValues all values that are accepted by the parameter
+     *
+     * @return the registered parameter
+     */
+    public static StringParameter registerEtlParameter(final String key, final AbstractETL<?, ?> etl, final String defaultValue, final Collection<String> validValues)
+    {
+        final StringParameter param = new StringParameter(
+            key,
+            etl.getName(),
+            defaultValue,
+            ParameterMappingFunctions.createMapperForETL(ParameterMappingFunctions.createStringListMapper(validValues), etl));
+
+        return registerParameter(param);
+    }
+
+
+    /**
+     * Registers an unsigned integer parameter that cannot be changed while
+     * any ETL is harvesting. If no {@linkplain Configuration} exists, an
+     * unregistered parameter is returned that holds the default value.
+     *
+     * @param key the parameter key
+     * @param category the parameter category
+     * @param defaultValue the value of the parameter if it was not configured
+     *
+     * @return the registered parameter
+     */
+    public static IntegerParameter registerGlobalParameter(final String key, final String category, final int defaultValue)
+    {
+        final IntegerParameter param = new IntegerParameter(
+            key,
+            category,
+            defaultValue,
+            ParameterMappingFunctions.createMapperForETLs(ParameterMappingFunctions::mapToUnsignedInteger));
+
+        return registerParameter(param);
+    }
+
+
+    /**
+     * Registers a parameter at the {@linkplain Configuration}, or returns the
+     * parameter itself if no {@linkplain Configuration} exists.
+     *
+     * @param param the parameter that is to be registered
+     * @param <T> the type of the parameter
+     *
+     * @return the registered parameter
+     */
+    public static <T extends AbstractParameter<?>> T registerParameter(final T param)
+    {
+        try {
+            return Configuration.registerParameter(param);
+        } catch (final IllegalStateException e) {
+            return param;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.vos;
+
+import de.gerdiproject.harvest.seaaroundus.utils.FormatTemplate;
+import lombok.Data;
+
+/**
+ * This value object contains precompiled templates for the label and URLs
+ * of the catches of a region by a single measure and dimension.
+ *
+ * @author Robin Weiss
+ */
+@Data
+public class CatchTemplatesVO
+{
+    /**
+     * The label of the catches, requiring the region name.
+     */
+    private final FormatTemplate label;
+
+    /**
+     * The URL of the catches overview page, requiring the region ID.
+     */
+    private final FormatTemplate viewUrl;
+
+    /**
+     * The CSV download URL of the catches, requiring the region ID.
+     */
+    private final FormatTemplate downloadUrl;
+
+    /**
+     * The JSON API URL of the catches, requiring the region ID.
+     */
+    private final FormatTemplate dataUrl;
+}
@@ -18,7 +18,10 @@ package de.gerdiproject.harvest.seaaroundus.vos;
 import java.util.List;
 
 import de.gerdiproject.harvest.etls.transformers.AbstractRegionTransformer;
+import de.gerdiproject.harvest.seaaroundus.utils.SeaAroundUsDataCiteUtils;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 
 
@@ -28,6 +31,8 @@ import lombok.Data;
  * @author Robin Weiss
  */
 @Data
+@EqualsAndHashCode(exclude = "templates")
+@ToString(exclude = "templates")
 public class RegionParametersVO
 {
     private final String etlName;
@@ -35,4 +40,26 @@ public class RegionParametersVO
     private final List<EntryVO> dimensions;
     private final List<EntryVO> measures;
     private final UrlVO urls;
+    private final RegionTemplatesVO templates;
+
+
+    /**
+     * Constructor that requires all parameters and precompiles the
+     * labels and URLs of the region.
+     *
+     * @param etlName the name of the ETL that harvests the region
+     * @param regionType the type of the region
+     * @param dimensions the dimensions by which catches of the region are categorized
+     * @param measures the measures of catches of the region
+     * @param urls the URL suffixes of the region data
+     */
+    public RegionParametersVO(final String etlName, final EntryVO regionType, final List<EntryVO> dimensions, final List<EntryVO> measures, final UrlVO urls)
+    {
+        this.etlName = etlName;
+        this.regionType = regionType;
+        this.dimensions = dimensions;
+        this.measures = measures;
+        this.urls = urls;
+        this.templates = SeaAroundUsDataCiteUtils.createRegionTemplates(regionType, dimensions, measures, urls);
+    }
 }
@@ -0,0 +1,49 @@
+/**
+ * Copyright © 2019 Robin Weiss (http://www.gerdi-project.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.vos;
+
+import java.util.List;
+
+import de.gerdiproject.harvest.seaaroundus.utils.FormatTemplate;
+import lombok.Data;
+
+/**
+ * This value object contains precompiled templates for the labels and URLs
+ * that are created for every document of a region type. Labels require the
+ * name of a region, while URLs require the ID of a region.
+ *
+ * @author Robin Weiss
+ */
+@Data
+public class RegionTemplatesVO
+{
+    private final FormatTemplate primaryProductionLabel;
+    private final FormatTemplate primaryProductionViewUrl;
+    private final FormatTemplate primaryProductionDownloadUrl;
+
+    private final FormatTemplate stockStatusLabel;
+    private final FormatTemplate stockStatusViewUrl;
+    private final FormatTemplate stockStatusDownloadUrl;
+
+    private final FormatTemplate marineTrophicIndexLabel;
+    private final FormatTemplate marineTrophicIndexViewUrl;
+    private final FormatTemplate marineTrophicIndexDownloadUrl;
+
+    /**
+     * The templates of all catches, ordered by measure and dimension.
+     */
+    private final List<CatchTemplatesVO> catches;
+}
@@ -0,0 +1,147 @@
+/*
+ *  Copyright © 2019 Robin Weiss (http://www.gerdi-project.de/)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package de.gerdiproject.harvest.etls.loaders;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+import de.gerdiproject.json.datacite.DataCiteJson;
+
+/**
+ * This class provides Unit Tests for the {@linkplain BulkRequestBatch}.
+ *
+ * @author Robin Weiss
+ */
+public class BulkRequestBatchTest
+{
+    private static final byte[] INDEX_INSTRUCTION = "{\"index\":{\"_id\":\"1\"}}\n{\"identifier\":\"1\"}\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] DELETE_INSTRUCTION = "{\"delete\":{\"_id\":\"2\"}}\n".getBytes(StandardCharsets.UTF_8);
+
+
+    /**
+     * Tests if the size of a batch is the number of bytes of its uncompressed instructions.
+     */
+    @Test
+    public void testSize()
+    {
+        final BulkRequestBatch batch = createBatch();
+
+        assertEquals("Expected the size to be the sum of all instruction sizes.",
+                     INDEX_INSTRUCTION.length + DELETE_INSTRUCTION.length,
+                     batch.getSize());
+        assertEquals("Expected deletions to be counted as instructions.", 2, batch.getInstructionCount());
+        assertFalse("Expected the batch not to be empty.", batch.isEmpty());
+        assertTrue("Expected new batches to be empty.", new BulkRequestBatch().isEmpty());
+    }
+
+
+    /**
+     * Tests if only indexed documents can be retrieved for resubmission.
+     */
+    @Test
+    public void testIndexedDocuments()
+    {
+        final BulkRequestBatch batch = createBatch();
+
+        assertEquals("Expected only the indexed document to be retrievable.", 1, batch.getIndexedDocuments().size());
+        assertTrue("Expected the indexed document to be mapped by its identifier.", batch.getIndexedDocuments().containsKey("1"));
+
+        batch.add("1", null, DELETE_INSTRUCTION);
+        assertTrue("Expected documents that are deleted afterwards not to be retrievable.", batch.getIndexedDocuments().isEmpty());
+    }
+
+
+    /**
+     * Tests if the instructions are written uncompressed and in order.
+     *
+     * @throws IOException thrown if the instructions could not be written
+     */
+    @Test
+    public void testUncompressedWriting() throws IOException
+    {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        createBatch().writeTo(out, false);
+
+        assertArrayEquals("Expected the instructions to be written in order.", getExpectedBytes(), out.toByteArray());
+    }
+
+
+    /**
+     * Tests if compressed instructions can be decompressed.
+     *
+     * @throws IOException thrown if the instructions could not be written or decompressed
+     */
+    @Test
+    public void testCompressedWriting() throws IOException
+    {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        createBatch().writeTo(out, true);
+
+        final ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            final byte[] buffer = new byte[1024];
+            int readBytes;
+
+            while ((readBytes = in.read(buffer)) != -1)
+                decompressed.write(buffer, 0, readBytes);
+        }
+
+        assertArrayEquals("Expected decompressed instructions to equal the uncompressed ones.",
+                          getExpectedBytes(),
+                          decompressed.toByteArray());
+    }
+
+
+    /**
+     * Creates a batch that indexes one document and deletes another one.
+     *
+     * @return a batch with two instructions
+     */
+    private static BulkRequestBatch createBatch()
+    {
+        final BulkRequestBatch batch = new BulkRequestBatch();
+        batch.add("1", new DataCiteJson("1"), INDEX_INSTRUCTION);
+        batch.add("2", null, DELETE_INSTRUCTION);
+        return batch;
+    }
+
+
+    /**
+     * Concatenates the instructions of the test batch.
+     *
+     * @return the bytes of all instructions of the test batch
+     */
+    private static byte[] getExpectedBytes()
+    {
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(INDEX_INSTRUCTION, 0, INDEX_INSTRUCTION.length);
+        expected.write(DELETE_INSTRUCTION, 0, DELETE_INSTRUCTION.length);
+        return expected.toByteArray();
+    }
+}
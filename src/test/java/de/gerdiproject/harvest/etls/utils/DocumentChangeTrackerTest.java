@@ -0,0 +1,192 @@
+/*
+ *  Copyright © 2019 Robin Weiss (http://www.gerdi-project.de/)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package de.gerdiproject.harvest.etls.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.gerdiproject.json.datacite.DataCiteJson;
+import de.gerdiproject.json.datacite.Subject;
+
+/**
+ * This class provides Unit Tests for the {@linkplain DocumentChangeTracker}.
+ *
+ * @author Robin Weiss
+ */
+public class DocumentChangeTrackerTest
+{
+    private static final String LOAD_TARGET = "ElasticSearchLoader http://localhost/index/_bulk";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File hashFile;
+
+
+    /**
+     * Creates a hash file of a previous harvest with two documents.
+     */
+    @Before
+    public void before()
+    {
+        hashFile = new File(temporaryFolder.getRoot(), "hashes.json");
+
+        final DocumentChangeTracker previousHarvest = new DocumentChangeTracker(hashFile, LOAD_TARGET);
+        previousHarvest.update("a", "hashA");
+        previousHarvest.update("b", "hashB");
+        previousHarvest.save(true);
+    }
+
+
+    /**
+     * Tests if unchanged documents are detected as such.
+     */
+    @Test
+    public void testUnchangedDocument()
+    {
+        final DocumentChangeTracker tracker = new DocumentChangeTracker(hashFile, LOAD_TARGET);
+        assertFalse("Expected a document with an unchanged hash not to be marked as changed.",
+                    tracker.update("a", "hashA"));
+    }
+
+
+    /**
+     * Tests if changed and new documents are detected as such.
+     */
+    @Test
+    public void testChangedDocument()
+    {
+        final DocumentChangeTracker tracker = new DocumentChangeTracker(hashFile, LOAD_TARGET);
+        assertTrue("Expected a document with a different hash to be marked as changed.",
+                   tracker.update("a", "hashA2"));
+        assertTrue("Expected a new document to be marked as changed.",
+                   tracker.update("c", "hashC"));
+    }
+
+
+    /**
+     * Tests if documents that were not harvested again are detected as removed.
+     */
+    @Test
+    public void testRemovedDocuments()
+    {
+        final DocumentChangeTracker tracker = new DocumentChangeTracker(hashFile, LOAD_TARGET);
+        tracker.update("a", "hashA");
+
+        assertEquals("Expected only the document that was not updated to be removed.",
+                     Arrays.asList("b"),
+                     tracker.getRemovedDocumentIds());
+    }
+
+
+    /**
+     * Tests if an incomplete harvest keeps the hashes of documents that were not harvested.
+     */
+    @Test
+    public void testIncompleteSave()
+    {
+        final DocumentChangeTracker tracker = new DocumentChangeTracker(hashFile, LOAD_TARGET);
+        tracker.update("a", "hashA2");
+        tracker.save(false);
+
+        final DocumentChangeTracker nextTracker = new DocumentChangeTracker(hashFile, LOAD_TARGET);
+        assertFalse("Expected the hash of the partially harvested document to be updated.",
+                    nextTracker.update("a", "hashA2"));
+        assertFalse("Expected the hash of the document that was not harvested to be kept.",
+                    nextTracker.update("b", "hashB"));
+    }
+
+
+    /**
+     * Tests if a complete harvest discards the hashes of documents that were not harvested.
+     */
+    @Test
+    public void testCompleteSave()
+    {
+        final DocumentChangeTracker tracker = new DocumentChangeTracker(hashFile, LOAD_TARGET);
+        tracker.update("a", "hashA");
+        tracker.save(true);
+
+        final DocumentChangeTracker nextTracker = new DocumentChangeTracker(hashFile, LOAD_TARGET);
+        assertTrue("Expected the hash of the removed document to be discarded.",
+                   nextTracker.update("b", "hashB"));
+    }
+
+
+    /**
+     * Tests if the hashes of the previous harvest are discarded if the documents
+     * are loaded to another target.
+     */
+    @Test
+    public void testChangedLoadTarget()
+    {
+        final DocumentChangeTracker tracker = new DocumentChangeTracker(hashFile, "ElasticSearchLoader http://otherhost/index/_bulk");
+
+        assertTrue("Expected an unchanged document to be loaded to a new target.",
+                   tracker.update("a", "hashA"));
+        assertTrue("Expected no documents to be removed from a new target.",
+                   tracker.getRemovedDocumentIds().isEmpty());
+    }
+
+
+    /**
+     * Tests if the content hash of a document depends on its content,
+     * but not on the order in which the elements of its sets are added.
+     */
+    @Test
+    public void testContentHash()
+    {
+        final DataCiteJson document = createDocument("first", "second");
+
+        assertEquals("Expected the hash not to depend on the order of subjects.",
+                     DocumentChangeTracker.getContentHash(document),
+                     DocumentChangeTracker.getContentHash(createDocument("second", "first")));
+
+        final String previousHash = DocumentChangeTracker.getContentHash(document);
+        document.addSubjects(Collections.singleton(new Subject("third")));
+
+        assertFalse("Expected the hash to change if a subject is added.",
+                    previousHash.equals(DocumentChangeTracker.getContentHash(document)));
+    }
+
+
+    /**
+     * Creates a document with two subjects.
+     *
+     * @param firstSubject the subject that is added first
+     * @param secondSubject the subject that is added second
+     *
+     * @return a document with two subjects
+     */
+    private static DataCiteJson createDocument(final String firstSubject, final String secondSubject)
+    {
+        final DataCiteJson document = new DataCiteJson("doc");
+        document.addSubjects(Collections.singleton(new Subject(firstSubject)));
+        document.addSubjects(Collections.singleton(new Subject(secondSubject)));
+        return document;
+    }
+}
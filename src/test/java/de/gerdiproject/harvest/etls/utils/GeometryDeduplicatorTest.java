@@ -0,0 +1,145 @@
+/*
+ *  Copyright © 2019 Robin Weiss (http://www.gerdi-project.de/)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package de.gerdiproject.harvest.etls.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Polygon;
+
+/**
+ * This class provides Unit Tests for the {@linkplain GeometryDeduplicator}.
+ *
+ * @author Robin Weiss
+ */
+public class GeometryDeduplicatorTest
+{
+    private static final double TOLERANCE = 1e-6;
+
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+
+
+    /**
+     * Tests if a polygon with a different start vertex and orientation
+     * is interned as the same instance.
+     */
+    @Test
+    public void testReorderedPolygon()
+    {
+        final Polygon square = createPolygon(0, 0, 0, 1, 1, 1, 1, 0, 0, 0);
+        final Polygon reorderedSquare = createPolygon(1, 1, 1, 0, 0, 0, 0, 1, 1, 1);
+
+        final GeometryDeduplicator deduplicator = new GeometryDeduplicator(TOLERANCE);
+        deduplicator.intern(square);
+
+        assertSame("Expected a reordered polygon to be replaced by the first polygon.",
+                   square,
+                   deduplicator.intern(reorderedSquare));
+    }
+
+
+    /**
+     * Tests if a polygon that differs by less than the tolerance is interned as the same instance.
+     */
+    @Test
+    public void testNearIdenticalPolygon()
+    {
+        final Polygon square = createPolygon(0, 0, 0, 1, 1, 1, 1, 0, 0, 0);
+        final Polygon nearSquare = createPolygon(0, 0, 0, 1, 1, 1.0000001, 1, 0, 0, 0);
+
+        final GeometryDeduplicator deduplicator = new GeometryDeduplicator(TOLERANCE);
+        deduplicator.intern(square);
+
+        assertSame("Expected a near-identical polygon to be replaced by the first polygon.",
+                   square,
+                   deduplicator.intern(nearSquare));
+    }
+
+
+    /**
+     * Tests if polygons that share a coordinate, but are different otherwise, are kept.
+     */
+    @Test
+    public void testDifferentPolygon()
+    {
+        final Polygon square = createPolygon(0, 0, 0, 1, 1, 1, 1, 0, 0, 0);
+        final Polygon triangle = createPolygon(0, 0, 1, 1, 2, 0, 0, 0);
+
+        final GeometryDeduplicator deduplicator = new GeometryDeduplicator(TOLERANCE);
+        deduplicator.intern(square);
+
+        assertNotSame("Expected a different polygon not to be replaced.",
+                      square,
+                      deduplicator.intern(triangle));
+    }
+
+
+    /**
+     * Tests if only those polygons of a multi-polygon are returned, that were not seen before.
+     */
+    @Test
+    public void testUniquePolygons()
+    {
+        final Polygon square = createPolygon(0, 0, 0, 1, 1, 1, 1, 0, 0, 0);
+        final Polygon reorderedSquare = createPolygon(1, 1, 1, 0, 0, 0, 0, 1, 1, 1);
+        final Polygon triangle = createPolygon(5, 5, 6, 6, 7, 5, 5, 5);
+        final Geometry multiPolygon = geometryFactory.createMultiPolygon(new Polygon[] {reorderedSquare, triangle, triangle});
+
+        final GeometryDeduplicator deduplicator = new GeometryDeduplicator(TOLERANCE);
+
+        assertEquals("Expected the first polygon to be unique.",
+                     1,
+                     deduplicator.getUniquePolygons(square).size());
+
+        final List<Geometry> uniquePolygons = deduplicator.getUniquePolygons(multiPolygon);
+        assertEquals("Expected only one polygon of the multi-polygon to be unique.",
+                     1,
+                     uniquePolygons.size());
+        assertSame("Expected the triangle to be unique.",
+                   triangle,
+                   uniquePolygons.get(0));
+        assertTrue("Expected no polygon of an interned geometry to be unique.",
+                   deduplicator.getUniquePolygons(multiPolygon).isEmpty());
+    }
+
+
+    /**
+     * Creates a polygon out of a sequence of x and y values.
+     *
+     * @param xy alternating x and y values of the polygon shell
+     *
+     * @return a polygon
+     */
+    private Polygon createPolygon(final double... xy)
+    {
+        final Coordinate[] coordinates = new Coordinate[xy.length / 2];
+
+        for (int i = 0; i < coordinates.length; i++)
+            coordinates[i] = new Coordinate(xy[2 * i], xy[2 * i + 1]);
+
+        return geometryFactory.createPolygon(coordinates);
+    }
+}
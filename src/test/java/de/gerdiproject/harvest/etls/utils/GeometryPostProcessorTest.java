@@ -0,0 +1,182 @@
+/*
+ *  Copyright © 2019 Robin Weiss (http://www.gerdi-project.de/)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package de.gerdiproject.harvest.etls.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Polygon;
+
+import de.gerdiproject.json.datacite.DataCiteJson;
+import de.gerdiproject.json.datacite.GeoLocation;
+
+/**
+ * This class provides Unit Tests for the {@linkplain GeometryPostProcessor}.
+ *
+ * @author Robin Weiss
+ */
+public class GeometryPostProcessorTest
+{
+    private static final int CIRCLE_VERTICES = 1000;
+    private static final double CIRCLE_RADIUS = 1.234567891;
+
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+
+
+    /**
+     * Tests if the coordinates of polygons are rounded to the configured number of decimals.
+     */
+    @Test
+    public void testRounding()
+    {
+        final DataCiteJson document = createDocument();
+        new GeometryPostProcessor(2, 0, 0, true, false).process(document);
+
+        for (final Coordinate c : getPolygon(document).getCoordinates()) {
+            assertEquals("Expected the x-coordinate to be rounded.", Math.round(c.x * 100) / 100.0, c.x, 0);
+            assertEquals("Expected the y-coordinate to be rounded.", Math.round(c.y * 100) / 100.0, c.y, 0);
+        }
+    }
+
+
+    /**
+     * Tests if polygons are simplified until they fit into the vertex budget.
+     */
+    @Test
+    public void testVertexBudget()
+    {
+        final int vertexBudget = 50;
+        final DataCiteJson document = createDocument();
+        new GeometryPostProcessor(6, 0, vertexBudget, true, false).process(document);
+
+        assertTrue("Expected the polygon to fit into the vertex budget.",
+                   getPolygon(document).getNumPoints() <= vertexBudget);
+    }
+
+
+    /**
+     * Tests if the Douglas-Peucker simplification reduces the number of vertices.
+     */
+    @Test
+    public void testDouglasPeucker()
+    {
+        final DataCiteJson document = createDocument();
+        new GeometryPostProcessor(4, 100, 0, false, false).process(document);
+
+        assertTrue("Expected the polygon to be simplified.",
+                   getPolygon(document).getNumPoints() < CIRCLE_VERTICES);
+    }
+
+
+    /**
+     * Tests if the saved bytes are reported.
+     */
+    @Test
+    public void testStatistics()
+    {
+        final GeometryPostProcessor processor = new GeometryPostProcessor(4, 10, 0, true, true);
+        processor.process(createDocument());
+
+        assertEquals("Expected the original vertices to be counted.", CIRCLE_VERTICES + 1, processor.getOriginalVertexCount());
+        assertTrue("Expected the number of vertices to be reduced.",
+                   processor.getProcessedVertexCount() < processor.getOriginalVertexCount());
+        assertTrue("Expected bytes to be saved.", processor.getSavedByteCount() > 0);
+        assertEquals("Expected the saved bytes to be the difference of the byte counts.",
+                     processor.getOriginalByteCount() - processor.getProcessedByteCount(),
+                     processor.getSavedByteCount());
+    }
+
+
+    /**
+     * Tests if the bytes are not measured, unless it is enabled.
+     */
+    @Test
+    public void testUnmeasuredBytes()
+    {
+        final GeometryPostProcessor processor = new GeometryPostProcessor(4, 10, 0, true, false);
+        processor.process(createDocument());
+
+        assertTrue("Expected the number of vertices to be reduced.",
+                   processor.getProcessedVertexCount() < processor.getOriginalVertexCount());
+        assertEquals("Expected no bytes to be measured.", 0, processor.getOriginalByteCount());
+        assertEquals("Expected no bytes to be measured.", 0, processor.getProcessedByteCount());
+    }
+
+
+    /**
+     * Tests if the processed {@linkplain GeoLocation}s can still be found
+     * in the set of the document, after their hash codes have changed.
+     */
+    @Test
+    public void testGeoLocationLookup()
+    {
+        final DataCiteJson document = createDocument();
+        new GeometryPostProcessor(4, 10, 0, true, false).process(document);
+
+        final GeoLocation geoLocation = document.getGeoLocations().iterator().next();
+        assertTrue("Expected the processed GeoLocation to be found in the document.",
+                   document.getGeoLocations().contains(geoLocation));
+    }
+
+
+    /**
+     * Creates a document with a single {@linkplain GeoLocation} that has a
+     * circular polygon with many vertices.
+     *
+     * @return a document with a circular polygon
+     */
+    private DataCiteJson createDocument()
+    {
+        final Coordinate[] coordinates = new Coordinate[CIRCLE_VERTICES + 1];
+
+        for (int i = 0; i < CIRCLE_VERTICES; i++) {
+            final double angle = 2 * Math.PI * i / CIRCLE_VERTICES;
+            coordinates[i] = new Coordinate(CIRCLE_RADIUS * Math.cos(angle), CIRCLE_RADIUS * Math.sin(angle));
+        }
+
+        coordinates[CIRCLE_VERTICES] = coordinates[0];
+
+        final GeoLocation geoLocation = new GeoLocation();
+        geoLocation.addPolygons(Arrays.<Geometry>asList(geometryFactory.createPolygon(coordinates)));
+
+        final DataCiteJson document = new DataCiteJson("circle");
+        document.addGeoLocations(Arrays.asList(geoLocation));
+        return document;
+    }
+
+
+    /**
+     * Retrieves the single polygon of a document that was created via {@linkplain #createDocument()}.
+     *
+     * @param document the document of which the polygon is retrieved
+     *
+     * @return the polygon of the document
+     */
+    private Polygon getPolygon(final DataCiteJson document)
+    {
+        final GeoLocation geoLocation = document.getGeoLocations().iterator().next();
+        assertEquals("Expected the polygon not to be split.", 1, geoLocation.getPolygons().size());
+        return geoLocation.getPolygons().iterator().next();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ *  Copyright © 2019 Robin Weiss (http://www.gerdi-project.de/)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package de.gerdiproject.harvest.etls.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * This class provides Unit Tests for the {@linkplain HarvestCheckpoint}.
+ *
+ * @author Robin Weiss
+ */
+public class HarvestCheckpointTest
+{
+    private static final String VERSION = "version1";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File checkpointFile;
+
+
+    /**
+     * Sets up the path of the checkpoint file.
+     */
+    @Before
+    public void before()
+    {
+        checkpointFile = new File(temporaryFolder.getRoot(), "checkpoint.json");
+    }
+
+
+    /**
+     * Tests if the position is 0 if nothing was committed.
+     */
+    @Test
+    public void testMissingCheckpoint()
+    {
+        assertEquals("Expected a harvest without checkpoint to start from the beginning.",
+                     0,
+                     new HarvestCheckpoint(checkpointFile).getPosition(VERSION));
+    }
+
+
+    /**
+     * Tests if a committed position can be read by a new checkpoint instance.
+     */
+    @Test
+    public void testCommittedPosition()
+    {
+        new HarvestCheckpoint(checkpointFile).commit(VERSION, 42);
+
+        assertEquals("Expected the committed position to be resumed.",
+                     42,
+                     new HarvestCheckpoint(checkpointFile).getPosition(VERSION));
+    }
+
+
+    /**
+     * Tests if a position that was committed for a different version is ignored.
+     */
+    @Test
+    public void testChangedVersion()
+    {
+        new HarvestCheckpoint(checkpointFile).commit(VERSION, 42);
+
+        assertEquals("Expected a checkpoint of a different version to be ignored.",
+                     0,
+                     new HarvestCheckpoint(checkpointFile).getPosition("version2"));
+    }
+
+
+    /**
+     * Tests if a deleted checkpoint causes the harvest to start from the beginning.
+     */
+    @Test
+    public void testDelete()
+    {
+        final HarvestCheckpoint checkpoint = new HarvestCheckpoint(checkpointFile);
+        checkpoint.commit(VERSION, 42);
+        checkpoint.delete();
+
+        assertFalse("Expected the checkpoint file to be deleted.",
+                    checkpointFile.exists());
+        assertEquals("Expected a deleted checkpoint to be ignored.",
+                     0,
+                     checkpoint.getPosition(VERSION));
+    }
+
+
+    /**
+     * Tests if skipping elements stops at the end of the iterator.
+     */
+    @Test
+    public void testSkip()
+    {
+        final Iterator<Integer> elements = Arrays.asList(1, 2, 3).iterator();
+
+        assertEquals("Expected two elements to be skipped.",
+                     2,
+                     HarvestCheckpoint.skip(elements, 2));
+        assertEquals("Expected the iteration to continue after the skipped elements.",
+                     Integer.valueOf(3),
+                     elements.next());
+        assertEquals("Expected no more elements to be skipped than the iterator has.",
+                     0,
+                     HarvestCheckpoint.skip(elements, 2));
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ *  Copyright © 2019 Robin Weiss (http://www.gerdi-project.de/)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package de.gerdiproject.harvest.etls.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * This class provides Unit Tests for the {@linkplain ShardFilter}.
+ *
+ * @author Robin Weiss
+ */
+public class ShardFilterTest
+{
+    private static final int SHARD_COUNT = 3;
+    private static final int KEY_COUNT = 3000;
+
+
+    /**
+     * Tests if every key belongs to exactly one shard.
+     */
+    @Test
+    public void testPartitioning()
+    {
+        for (int key = 0; key < KEY_COUNT; key++) {
+            int shardsOfKey = 0;
+
+            for (int shardIndex = 0; shardIndex < SHARD_COUNT; shardIndex++) {
+                if (new ShardFilter(SHARD_COUNT, shardIndex).contains(key))
+                    shardsOfKey++;
+            }
+
+            assertEquals("Expected key " + key + " to belong to exactly one shard.",
+                         1,
+                         shardsOfKey);
+        }
+    }
+
+
+    /**
+     * Tests if consecutive keys are distributed evenly across all shards.
+     */
+    @Test
+    public void testDistribution()
+    {
+        for (int shardIndex = 0; shardIndex < SHARD_COUNT; shardIndex++) {
+            final ShardFilter filter = new ShardFilter(SHARD_COUNT, shardIndex);
+            int shardSize = 0;
+
+            for (int key = 0; key < KEY_COUNT; key++) {
+                if (filter.contains(key))
+                    shardSize++;
+            }
+
+            assertTrue("Expected shard " + shardIndex + " to contain roughly a third of all keys, but it contains " + shardSize,
+                       Math.abs(shardSize - KEY_COUNT / SHARD_COUNT) < KEY_COUNT / 20);
+        }
+    }
+
+
+    /**
+     * Tests if filtered lists and iterators contain the same elements.
+     */
+    @Test
+    public void testFilter()
+    {
+        final List<Integer> keys = Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        final ShardFilter filter = new ShardFilter(SHARD_COUNT, 1);
+
+        final List<Integer> iteratedKeys = new LinkedList<>();
+        final Iterator<Integer> keyIterator = filter.filter(keys.iterator(), Integer::intValue);
+        keyIterator.forEachRemaining(iteratedKeys::add);
+
+        assertEquals("Expected the filtered iterator to return the same keys as the filtered list.",
+                     filter.filter(keys, Integer::intValue),
+                     iteratedKeys);
+        assertFalse("Expected the filtered iterator to be depleted.",
+                    keyIterator.hasNext());
+    }
+
+
+    /**
+     * Tests if a single shard contains all elements and does not change the version.
+     */
+    @Test
+    public void testSingleShard()
+    {
+        final ShardFilter filter = new ShardFilter(1, 0);
+        final List<Integer> keys = Arrays.asList(1, 2, 3);
+
+        assertFalse("Expected a single shard not to be sharded.",
+                    filter.isSharded());
+        assertEquals("Expected a single shard to contain all keys.",
+                     keys,
+                     filter.filter(keys, Integer::intValue));
+        assertEquals("Expected the version of a single shard to remain unchanged.",
+                     "v1",
+                     filter.getShardVersion("v1"));
+    }
+
+
+    /**
+     * Tests if different shards have different versions.
+     */
+    @Test
+    public void testShardVersion()
+    {
+        assertFalse("Expected the versions of different shards to differ.",
+                    new ShardFilter(SHARD_COUNT, 0).getShardVersion("v1").equals(
+                        new ShardFilter(SHARD_COUNT, 1).getShardVersion("v1")));
+    }
+
+
+    /**
+     * Tests if a shard index that is out of range is rejected.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testInvalidShardIndex()
+    {
+        new ShardFilter(SHARD_COUNT, SHARD_COUNT);
+    }
+}
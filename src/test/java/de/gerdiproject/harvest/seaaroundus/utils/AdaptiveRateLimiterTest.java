@@ -0,0 +1,149 @@
+/*
+ *  Copyright © 2019 Robin Weiss (http://www.gerdi-project.de/)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsParameterConstants;
+
+/**
+ * This class provides Unit Tests for the {@linkplain AdaptiveRateLimiter}.
+ *
+ * @author Robin Weiss
+ */
+public class AdaptiveRateLimiterTest
+{
+    private static final double MAX_RATE = 8;
+    private static final double DELTA = 0.0001;
+
+
+    /**
+     * Tests if the rate starts at its maximum and is halved on failures.
+     */
+    @Test
+    public void testMultiplicativeDecrease()
+    {
+        final AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(MAX_RATE);
+        assertEquals("Expected the rate to start at its maximum.", MAX_RATE, limiter.getRate(), DELTA);
+
+        limiter.onFailure();
+        assertEquals("Expected a failure to halve the rate.",
+                     MAX_RATE * SeaAroundUsParameterConstants.RATE_DECREASE_FACTOR,
+                     limiter.getRate(),
+                     DELTA);
+
+        limiter.onFailure();
+        assertEquals("Expected concurrent failures to lower the rate only once.",
+                     MAX_RATE * SeaAroundUsParameterConstants.RATE_DECREASE_FACTOR,
+                     limiter.getRate(),
+                     DELTA);
+    }
+
+
+    /**
+     * Tests if fast successful responses raise the rate up to its maximum,
+     * whereas slow responses lower it.
+     */
+    @Test
+    public void testAdditiveIncrease()
+    {
+        final AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(MAX_RATE);
+        limiter.onFailure();
+        final double loweredRate = limiter.getRate();
+
+        limiter.onSuccess(0);
+        assertEquals("Expected a success to raise the rate by a fraction of the increase per second.",
+                     loweredRate + SeaAroundUsParameterConstants.RATE_INCREASE_PER_SECOND / loweredRate,
+                     limiter.getRate(),
+                     DELTA);
+
+        for (int i = 0; i < 1000; i++)
+            limiter.onSuccess(0);
+
+        assertEquals("Expected the rate not to exceed its maximum.", MAX_RATE, limiter.getRate(), DELTA);
+    }
+
+
+    /**
+     * Tests if changing the maximum lowers the current rate and
+     * a maximum of 0 disables the limit.
+     *
+     * @throws InterruptedException if the test was interrupted while waiting
+     */
+    @Test
+    public void testMaxRate() throws InterruptedException
+    {
+        final AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(MAX_RATE);
+        limiter.setMaxRate(2);
+        assertEquals("Expected a lower maximum to lower the rate.", 2, limiter.getRate(), DELTA);
+
+        limiter.setMaxRate(0);
+        final long startTime = System.nanoTime();
+
+        for (int i = 0; i < 100; i++)
+            limiter.acquire();
+
+        assertTrue("Expected an unlimited rate not to delay operations.",
+                   System.nanoTime() - startTime < TimeUnit.MILLISECONDS.toNanos(500));
+    }
+
+
+    /**
+     * Tests if operations are delayed once the tokens are depleted.
+     *
+     * @throws InterruptedException if the test was interrupted while waiting
+     */
+    @Test
+    public void testPacing() throws InterruptedException
+    {
+        final AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(MAX_RATE);
+        final long startTime = System.nanoTime();
+
+        // the first token is available immediately, the others take 1/8 s each
+        for (int i = 0; i < 5; i++)
+            limiter.acquire();
+
+        assertTrue("Expected operations to be paced according to the rate.",
+                   System.nanoTime() - startTime >= TimeUnit.MILLISECONDS.toNanos(450));
+    }
+
+
+    /**
+     * Tests if the backoff grows exponentially, but is capped and respects a minimum delay.
+     */
+    @Test
+    public void testBackoffDelay()
+    {
+        final long initialDelay = SeaAroundUsParameterConstants.RETRY_BACKOFF_INITIAL_MILLIS;
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue("Expected the first backoff not to exceed the initial delay.",
+                       AdaptiveRateLimiter.getBackoffDelay(1, 0) <= initialDelay);
+            assertTrue("Expected the third backoff not to exceed four times the initial delay.",
+                       AdaptiveRateLimiter.getBackoffDelay(3, 0) <= 4 * initialDelay);
+            assertTrue("Expected the backoff not to exceed its maximum.",
+                       AdaptiveRateLimiter.getBackoffDelay(Integer.MAX_VALUE, 0) <= SeaAroundUsParameterConstants.RETRY_BACKOFF_MAX_MILLIS);
+            assertTrue("Expected the backoff not to undercut the min delay.",
+                       AdaptiveRateLimiter.getBackoffDelay(1, 2000) >= 2000);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ *  Copyright © 2019 Robin Weiss (http://www.gerdi-project.de/)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsRegionConstants;
+import de.gerdiproject.harvest.seaaroundus.json.catches.SauCatch;
+import de.gerdiproject.harvest.seaaroundus.json.generic.GenericResponse;
+
+/**
+ * This class provides Unit Tests for the {@linkplain CatchSummary}.
+ *
+ * @author Robin Weiss
+ */
+public class CatchSummaryTest
+{
+    private static final String CATCHES_RESPONSE = "{\"data\":["
+                                                   + "{\"key\":\"cod\",\"values\":[[1950,10.0],[1951,20.0],[1952,5.0]],\"entity_id\":1},"
+                                                   + "{\"key\":\"herring\",\"values\":[[1951,1.5],[1953,30.0]],\"entity_id\":2},"
+                                                   + "{\"key\":\"Others\",\"values\":[[1949,null],[1950,0.5]],\"entity_id\":null}"
+                                                   + "],\"meta\":{\"version\":\"1\"}}";
+    private static final double DELTA = 1e-9;
+
+
+    /**
+     * Tests if a streamed response is summarized correctly.
+     *
+     * @throws IOException thrown if the response could not be read
+     */
+    @Test
+    public void testRead() throws IOException
+    {
+        final CatchSummary summary = CatchSummary.read(new JsonReader(new StringReader(CATCHES_RESPONSE)));
+
+        assertFalse("Expected the summary to contain values.", summary.isEmpty());
+        assertEquals("Expected one count per series.", 3, summary.getSeriesCount());
+        assertEquals("Expected years without values to be ignored.", 1950, summary.getEarliestYear());
+        assertEquals(1953, summary.getLatestYear());
+        assertEquals(67.0, summary.getTotal(), DELTA);
+        assertEquals("Expected the values of all series to be added up per year.", 1953, summary.getPeakYear());
+        assertEquals(30.0, summary.getPeakTotal(), DELTA);
+    }
+
+
+    /**
+     * Tests if summarizing parsed series yields the same summary as reading
+     * the streamed response.
+     *
+     * @throws IOException thrown if the response could not be read
+     */
+    @Test
+    public void testAddSeries() throws IOException
+    {
+        final GenericResponse<List<SauCatch>> response = new Gson().fromJson(CATCHES_RESPONSE, SeaAroundUsRegionConstants.CATCHES_RESPONSE_TYPE);
+        final CatchSummary parsedSummary = new CatchSummary();
+        response.getData().forEach(parsedSummary::addSeries);
+
+        final CatchSummary streamedSummary = CatchSummary.read(new JsonReader(new StringReader(CATCHES_RESPONSE)));
+
+        assertEquals(streamedSummary.getSeriesCount(), parsedSummary.getSeriesCount());
+        assertEquals(streamedSummary.getEarliestYear(), parsedSummary.getEarliestYear());
+        assertEquals(streamedSummary.getLatestYear(), parsedSummary.getLatestYear());
+        assertEquals(streamedSummary.getPeakYear(), parsedSummary.getPeakYear());
+        assertEquals(streamedSummary.getTotal(), parsedSummary.getTotal(), DELTA);
+        assertEquals("Expected the latest year of a series to be its last value.", 1952, response.getData().get(0).getLatestYear());
+    }
+
+
+    /**
+     * Tests if values that precede the first added year extend the summary.
+     */
+    @Test
+    public void testUnorderedYears()
+    {
+        final CatchSummary summary = new CatchSummary();
+        summary.addValue(2000, 1.0);
+        summary.addValue(1990, 4.0);
+        summary.addValue(2005, 2.0);
+        summary.addValue(2000, 5.0);
+
+        assertEquals(1990, summary.getEarliestYear());
+        assertEquals(2005, summary.getLatestYear());
+        assertEquals(2000, summary.getPeakYear());
+        assertEquals(6.0, summary.getPeakTotal(), DELTA);
+        assertEquals(12.0, summary.getTotal(), DELTA);
+    }
+
+
+    /**
+     * Tests if a response without data results in an empty summary.
+     *
+     * @throws IOException thrown if the response could not be read
+     */
+    @Test
+    public void testEmptyResponse() throws IOException
+    {
+        final CatchSummary summary = CatchSummary.read(new JsonReader(new StringReader("{\"data\":[],\"meta\":{}}")));
+
+        assertTrue("Expected the summary to be empty.", summary.isEmpty());
+        assertEquals(0, summary.getSeriesCount());
+        assertEquals(0.0, summary.getPeakTotal(), DELTA);
+    }
+}
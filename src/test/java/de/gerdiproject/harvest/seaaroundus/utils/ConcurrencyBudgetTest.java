@@ -0,0 +1,97 @@
+/*
+ *  Copyright © 2019 Robin Weiss (http://www.gerdi-project.de/)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * This class provides Unit Tests for the {@linkplain ConcurrencyBudget}.
+ *
+ * @author Robin Weiss
+ */
+public class ConcurrencyBudgetTest
+{
+    private static final int LIMIT = 3;
+    private static final int THREAD_COUNT = 8;
+
+
+    /**
+     * Tests if no more operations than the limit are running at the same time.
+     *
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void testLimit() throws InterruptedException
+    {
+        final ConcurrencyBudget budget = new ConcurrencyBudget(LIMIT);
+        final AtomicInteger runningCount = new AtomicInteger();
+        final AtomicInteger maxRunningCount = new AtomicInteger();
+        final CountDownLatch finishedLatch = new CountDownLatch(THREAD_COUNT);
+        final ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            executor.execute(() -> {
+                try {
+                    final boolean isAcquired = budget.acquire();
+                    maxRunningCount.accumulateAndGet(runningCount.incrementAndGet(), Math::max);
+                    TimeUnit.MILLISECONDS.sleep(20);
+                    runningCount.decrementAndGet();
+                    budget.release(isAcquired);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                finishedLatch.countDown();
+            });
+        }
+
+        finishedLatch.await(10, TimeUnit.SECONDS);
+        executor.shutdownNow();
+
+        assertTrue("Expected the number of concurrent operations not to exceed the limit.",
+                   maxRunningCount.get() <= LIMIT);
+    }
+
+
+    /**
+     * Tests if a limit of zero disables the budget.
+     *
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void testUnlimited() throws InterruptedException
+    {
+        final ConcurrencyBudget budget = new ConcurrencyBudget(LIMIT);
+        budget.setLimit(0);
+
+        assertFalse("Expected no budget to be reserved if the limit is zero.",
+                    budget.acquire());
+        assertEquals("Expected the limit to be changed.",
+                     0,
+                     budget.getLimit());
+    }
+}
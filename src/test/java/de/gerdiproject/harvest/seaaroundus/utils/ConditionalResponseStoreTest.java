@@ -0,0 +1,154 @@
+/*
+ *  Copyright © 2019 Robin Weiss (http://www.gerdi-project.de/)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.gson.Gson;
+
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsParameterConstants;
+import de.gerdiproject.harvest.seaaroundus.utils.ConditionalResponseStore.Validators;
+
+/**
+ * This class provides Unit Tests for the {@linkplain ConditionalResponseStore}.
+ *
+ * @author Robin Weiss
+ */
+public class ConditionalResponseStoreTest
+{
+    private static final String URL = "http://api.seaaroundus.org/api/v1/eez/8";
+    private static final String ETAG = "\"v1\"";
+    private static final String LAST_MODIFIED = "Wed, 21 Oct 2015 07:28:00 GMT";
+    private static final String RESPONSE = "{\"data\": 8}";
+    private static final String VERSION = "1.0";
+    private static final long MAX_CACHE_SIZE = 1024 * 1024;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private ResponseCache responseCache;
+    private ConditionalResponseStore store;
+
+
+    /**
+     * Creates a store that keeps its entries in a cache in a temporary folder.
+     *
+     * @throws IOException if the cache folder could not be created
+     */
+    @Before
+    public void before() throws IOException
+    {
+        responseCache = new ResponseCache(temporaryFolder.newFolder(), new Gson(), MAX_CACHE_SIZE);
+        store = new ConditionalResponseStore(responseCache);
+    }
+
+
+    /**
+     * Tests if a stored response can be retrieved via its validators.
+     */
+    @Test
+    public void testGet()
+    {
+        store.put(URL, ETAG, LAST_MODIFIED, null, RESPONSE);
+
+        assertEquals("Expected the stored response to be retrieved.",
+                     RESPONSE,
+                     store.getResponse(URL, store.get(URL), String.class));
+    }
+
+
+    /**
+     * Tests if the validators of a stored response are sent as conditional headers.
+     */
+    @Test
+    public void testConditionalHeaders()
+    {
+        store.put(URL, ETAG, LAST_MODIFIED, null, RESPONSE);
+
+        final Map<String, String> expectedHeaders = new HashMap<>();
+        expectedHeaders.put("If-None-Match", ETAG);
+        expectedHeaders.put("If-Modified-Since", LAST_MODIFIED);
+
+        final Validators validators = store.get(URL);
+        assertEquals("Expected the ETag and Last-Modified headers to be revalidated.",
+                     expectedHeaders,
+                     validators.getConditionalHeaders());
+    }
+
+
+    /**
+     * Tests if responses without validators are not stored, and replace
+     * a previously stored response.
+     */
+    @Test
+    public void testMissingValidators()
+    {
+        store.put(URL, ETAG, null, null, RESPONSE);
+        store.put(URL, null, null, null, RESPONSE);
+
+        assertNull("Expected responses that cannot be revalidated not to be stored.",
+                   store.get(URL));
+    }
+
+
+    /**
+     * Tests if responses that are cached under a dataset version are not stored a second time.
+     */
+    @Test
+    public void testCachedResponse()
+    {
+        responseCache.put(URL, VERSION, RESPONSE);
+        store.put(URL, ETAG, LAST_MODIFIED, VERSION, RESPONSE);
+        final Validators validators = store.get(URL);
+
+        assertTrue("Expected the validators to refer to the cached response.",
+                   validators.isCachedAs(VERSION));
+        assertEquals("Expected the cached response to be retrieved.",
+                     RESPONSE,
+                     store.getResponse(URL, validators, String.class));
+        assertNull("Expected the response not to be stored a second time.",
+                   responseCache.get(
+                       URL,
+                       String.format(SeaAroundUsParameterConstants.VALIDATED_RESPONSE_CACHE_VERSION, ETAG, LAST_MODIFIED),
+                       String.class));
+    }
+
+
+    /**
+     * Tests if no response is retrieved if it was evicted from the cache,
+     * while its validators remain.
+     */
+    @Test
+    public void testEvictedResponse()
+    {
+        store.put(URL, ETAG, LAST_MODIFIED, VERSION, RESPONSE);
+
+        assertNull("Expected no response to be retrieved if it is not cached.",
+                   store.getResponse(URL, store.get(URL), String.class));
+    }
+}
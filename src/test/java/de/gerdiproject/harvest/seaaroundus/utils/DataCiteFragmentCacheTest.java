@@ -0,0 +1,127 @@
+/*
+ *  Copyright © 2019 Robin Weiss (http://www.gerdi-project.de/)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsDataCiteConstants;
+import de.gerdiproject.json.GsonUtils;
+import de.gerdiproject.json.datacite.DataCiteJson;
+import de.gerdiproject.json.datacite.nested.Publisher;
+
+/**
+ * This class provides Unit Tests for the {@linkplain DataCiteFragmentCache}.
+ *
+ * @author Robin Weiss
+ */
+public class DataCiteFragmentCacheTest
+{
+    private static final String SOURCE_ID = "http://api.seaaroundus.org/api/v1/taxa/600004";
+
+
+    /**
+     * Tests if documents with constant parts are serialized exactly like
+     * {@linkplain DataCiteJson#toJson()} does.
+     */
+    @Test
+    public void testIdenticalSerialization()
+    {
+        final DataCiteJson document = createDocument(SeaAroundUsDataCiteConstants.PUBLISHER);
+        final Gson gson = DataCiteFragmentCache.createGsonBuilder().create();
+
+        assertEquals("Expected the cached fragments not to change the serialized document.",
+                     document.toJson(),
+                     gson.toJson(document));
+    }
+
+
+    /**
+     * Tests if cached fragments are spliced into documents that reference
+     * the constant objects.
+     */
+    @Test
+    public void testSplicingOfConstants()
+    {
+        final String serializedDocument = createPrettyFragmentGson().toJson(createDocument(SeaAroundUsDataCiteConstants.PUBLISHER));
+
+        assertTrue("Expected the pretty printed fragment of the constant to be spliced.",
+                   serializedDocument.contains("\n"));
+    }
+
+
+    /**
+     * Tests if objects that are merely equal to a constant are serialized anew.
+     */
+    @Test
+    public void testSerializationOfEqualObjects()
+    {
+        final Publisher equalPublisher = new Publisher(
+            SeaAroundUsDataCiteConstants.PUBLISHER.getValue(),
+            SeaAroundUsDataCiteConstants.PUBLISHER.getLang());
+        final String serializedDocument = createPrettyFragmentGson().toJson(createDocument(equalPublisher));
+
+        assertFalse("Expected objects that are not the constant itself not to be spliced.",
+                    serializedDocument.contains("\n"));
+    }
+
+
+    /**
+     * Creates a {@linkplain Gson} instance that splices pretty printed
+     * fragments of the SeaAroundUs publisher.
+     *
+     * @return a Gson instance that splices a recognizable fragment
+     */
+    private static Gson createPrettyFragmentGson()
+    {
+        final Gson prettyGson = GsonUtils.createGerdiDocumentGsonBuilder().setPrettyPrinting().create();
+        final GsonBuilder builder = GsonUtils.createGerdiDocumentGsonBuilder();
+        builder.registerTypeAdapterFactory(new DataCiteFragmentCache(
+                                               prettyGson,
+                                               Arrays.asList(SeaAroundUsDataCiteConstants.PUBLISHER)));
+        return builder.create();
+    }
+
+
+    /**
+     * Creates a document with the constant parts of SeaAroundUs documents.
+     *
+     * @param publisher the publisher of the document
+     *
+     * @return a document with constant parts
+     */
+    private static DataCiteJson createDocument(final Publisher publisher)
+    {
+        final DataCiteJson document = new DataCiteJson(SOURCE_ID);
+        document.setRepositoryIdentifier(SeaAroundUsDataCiteConstants.REPOSITORY_ID);
+        document.setPublisher(publisher);
+        document.addResearchDisciplines(SeaAroundUsDataCiteConstants.RESEARCH_DISCIPLINES);
+        document.addFormats(SeaAroundUsDataCiteConstants.CSV_FORMATS);
+        document.addCreators(SeaAroundUsDataCiteConstants.SAU_CREATORS);
+        document.addRights(SeaAroundUsDataCiteConstants.RIGHTS_LIST);
+        document.addWebLinks(Arrays.asList(SeaAroundUsDataCiteConstants.LOGO_LINK));
+        return document;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ *  Copyright © 2019 Robin Weiss (http://www.gerdi-project.de/)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsRegionConstants;
+import de.gerdiproject.harvest.seaaroundus.json.generic.SauFeatureProperties;
+import de.gerdiproject.json.GsonUtils;
+import de.gerdiproject.json.geo.Feature;
+
+/**
+ * This class provides Unit Tests for the {@linkplain FeatureStreamIterator}.
+ *
+ * @author Robin Weiss
+ */
+public class FeatureStreamIteratorTest
+{
+    private static final String FEATURE = "{\"type\": \"Feature\", \"geometry\": {\"type\": \"Point\", \"coordinates\": [1.0, 2.0]}, "
+                                          + "\"properties\": {\"title\": \"Region %d\", \"region_id\": %d}}";
+    private static final String META = "\"meta\": {\"version\": \"42\"}";
+    private static final String DATA = "\"data\": {\"type\": \"FeatureCollection\", \"features\": [%s]}";
+
+    private final Gson gson = GsonUtils.createGeoJsonGsonBuilder().create();
+
+
+    /**
+     * Tests if all features are parsed in the order of the response.
+     *
+     * @throws IOException if the response could not be read
+     */
+    @Test
+    public void testFeatures() throws IOException
+    {
+        final List<Feature<SauFeatureProperties>> features = new LinkedList<>();
+
+        try (FeatureStreamIterator<Feature<SauFeatureProperties>> iter = createIterator(META, createData(3))) {
+            iter.forEachRemaining(features::add);
+        }
+
+        assertEquals("Expected all features to be parsed.", 3, features.size());
+
+        for (int i = 0; i < features.size(); i++)
+            assertEquals("Expected the features to be parsed in order.", i, features.get(i).getProperties().getRegionId());
+    }
+
+
+    /**
+     * Tests if the metadata is parsed if it precedes the features.
+     *
+     * @throws IOException if the response could not be read
+     */
+    @Test
+    public void testMetadata() throws IOException
+    {
+        try (FeatureStreamIterator<Feature<SauFeatureProperties>> iter = createIterator(META, createData(1))) {
+            assertEquals("Expected the metadata to be parsed before the features.", "42", iter.getMetadata().getVersion());
+        }
+    }
+
+
+    /**
+     * Tests if the metadata is not available if it succeeds the features.
+     *
+     * @throws IOException if the response could not be read
+     */
+    @Test
+    public void testTrailingMetadata() throws IOException
+    {
+        try (FeatureStreamIterator<Feature<SauFeatureProperties>> iter = createIterator(createData(1), META)) {
+            assertNull("Expected the metadata not to be parsed after the features.", iter.getMetadata());
+        }
+    }
+
+
+    /**
+     * Tests if features can be skipped without being parsed.
+     *
+     * @throws IOException if the response could not be read
+     */
+    @Test
+    public void testSkip() throws IOException
+    {
+        try (FeatureStreamIterator<Feature<SauFeatureProperties>> iter = createIterator(META, createData(2))) {
+            iter.skip();
+            assertEquals("Expected the second feature to be parsed after skipping the first.",
+                         1,
+                         iter.next().getProperties().getRegionId());
+            assertFalse("Expected no more features.", iter.hasNext());
+        }
+    }
+
+
+    /**
+     * Tests if a response without features yields no features.
+     *
+     * @throws IOException if the response could not be read
+     */
+    @Test
+    public void testNoFeatures() throws IOException
+    {
+        try (FeatureStreamIterator<Feature<SauFeatureProperties>> iter = createIterator(META)) {
+            assertFalse("Expected no features if the response has no data.", iter.hasNext());
+        }
+    }
+
+
+    /**
+     * Creates a {@linkplain FeatureStreamIterator} for a response with the specified fields.
+     *
+     * @param fields JSON fields of the response
+     *
+     * @return a new {@linkplain FeatureStreamIterator}
+     *
+     * @throws IOException if the response could not be read
+     */
+    private FeatureStreamIterator<Feature<SauFeatureProperties>> createIterator(final String... fields) throws IOException
+    {
+        final String response = "{" + String.join(", ", fields) + "}";
+        return new FeatureStreamIterator<>(new StringReader(response), gson, SeaAroundUsRegionConstants.REGION_FEATURE_TYPE);
+    }
+
+
+    /**
+     * Creates the data field of a response with the specified number of features.
+     *
+     * @param featureCount the number of features
+     *
+     * @return a JSON field of a feature collection
+     */
+    private String createData(final int featureCount)
+    {
+        final List<String> features = new LinkedList<>();
+
+        for (int i = 0; i < featureCount; i++)
+            features.add(String.format(FEATURE, i, i));
+
+        return String.format(DATA, String.join(", ", features));
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ *  Copyright © 2019 Robin Weiss (http://www.gerdi-project.de/)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.geom.PrecisionModel;
+
+import de.gerdiproject.json.GsonUtils;
+import de.gerdiproject.json.datacite.DataCiteJson;
+import de.gerdiproject.json.datacite.GeoLocation;
+
+/**
+ * This class provides Unit Tests for the {@linkplain GeoJsonStreamWriter}.
+ *
+ * @author Robin Weiss
+ */
+public class GeoJsonStreamWriterTest
+{
+    private static final String OUTPUT_RESOURCE = "/de/gerdiproject/harvest/etls/transformers/%sTransformerTest/output.json";
+    private static final List<String> TRANSFORMER_TEST_NAMES = Arrays.asList(
+                                                                   "Country",
+                                                                   "Eez",
+                                                                   "Fao",
+                                                                   "FishingEntity",
+                                                                   "GlobalRegion",
+                                                                   "HighSeas",
+                                                                   "Lme",
+                                                                   "Mariculture",
+                                                                   "Rfmo",
+                                                                   "Taxon");
+    private static final String SOURCE_ID = "http://api.seaaroundus.org/api/v1/lme/1";
+
+    private final GeometryFactory geoFactory = new GeometryFactory();
+
+
+    /**
+     * Tests if the documents of all transformer tests are serialized exactly
+     * like {@linkplain DataCiteJson#toJson()} does.
+     *
+     * @throws IOException thrown if a document could not be read
+     */
+    @Test
+    public void testTransformerOutputs() throws IOException
+    {
+        final Gson readingGson = GsonUtils.createGerdiDocumentGsonBuilder().create();
+        final Gson streamingGson = DataCiteFragmentCache.createGsonBuilder().create();
+
+        for (final String testName : TRANSFORMER_TEST_NAMES) {
+            final String resource = String.format(OUTPUT_RESOURCE, testName);
+
+            try (Reader reader = new InputStreamReader(getClass().getResourceAsStream(resource), StandardCharsets.UTF_8)) {
+                final DataCiteJson document = readingGson.fromJson(reader, DataCiteJson.class);
+
+                assertEquals("Expected the streamed geometries not to change the document of the " + testName + " transformer test.",
+                             document.toJson(),
+                             streamingGson.toJson(document));
+            }
+        }
+    }
+
+
+    /**
+     * Tests if all types of geometries, including polygons with holes, invalid polygons,
+     * null coordinates, and z-values, are serialized exactly like the
+     * adapters of {@linkplain GsonUtils} do.
+     */
+    @Test
+    public void testGeometryTypes()
+    {
+        final Polygon polygonWithHole = geoFactory.createPolygon(
+                                            createRing(0, 0, 10),
+                                            new LinearRing[] {createRing(2, 2, 3)});
+        final Polygon invalidPolygon = geoFactory.createPolygon((LinearRing) null);
+
+        final List<Geometry> geometries = Arrays.asList(
+                                              geoFactory.createPoint(new Coordinate(1.5, -2.25, 3)),
+                                              geoFactory.createPoint((Coordinate) null),
+                                              geoFactory.createMultiPoint(new Coordinate[] {new Coordinate(1, 2), new Coordinate(3, 4)}),
+                                              geoFactory.createLineString(new Coordinate[] {new Coordinate(1, 2), new Coordinate(3, 4.125)}),
+                                              geoFactory.createMultiLineString(new LineString[] {
+                                                  geoFactory.createLineString(new Coordinate[] {new Coordinate(1, 2), new Coordinate(3, 4)})
+                                              }),
+                                              geoFactory.createMultiLineString(new LineString[0]),
+                                              polygonWithHole,
+                                              invalidPolygon,
+                                              geoFactory.createMultiPolygon(new Polygon[] {polygonWithHole, invalidPolygon}),
+                                              geoFactory.createMultiPolygon(new Polygon[0]));
+
+        final Gson treeGson = GsonUtils.createGeoJsonGsonBuilder().create();
+        final Gson streamingGson = GsonUtils.createGeoJsonGsonBuilder()
+                                   .registerTypeAdapterFactory(new GeoJsonStreamWriter(geoFactory))
+                                   .create();
+
+        for (final Geometry geometry : geometries) {
+            assertEquals("Expected the streamed " + geometry.getGeometryType() + " to be identical.",
+                         treeGson.toJson(geometry, Geometry.class),
+                         streamingGson.toJson(geometry, Geometry.class));
+            assertEquals("Expected the streamed " + geometry.getGeometryType() + " to be identical.",
+                         treeGson.toJson(geometry),
+                         streamingGson.toJson(geometry));
+        }
+    }
+
+
+    /**
+     * Tests if coordinates are rounded like the adapters of {@linkplain GsonUtils}
+     * do, if the {@linkplain GeometryFactory} has a fixed precision.
+     */
+    @Test
+    public void testFixedPrecision()
+    {
+        final int decimalPlaces = 3;
+        final GeometryFactory fixedFactory = new GeometryFactory(new PrecisionModel(Math.pow(10, decimalPlaces - 1)));
+        final Geometry point = fixedFactory.createPoint(new Coordinate(1.23456, -6.54321, 0.98765));
+
+        final Gson treeGson = GsonUtils.createGeoJsonGsonBuilder(decimalPlaces).create();
+        final Gson streamingGson = GsonUtils.createGeoJsonGsonBuilder(decimalPlaces)
+                                   .registerTypeAdapterFactory(new GeoJsonStreamWriter(fixedFactory))
+                                   .create();
+
+        assertEquals("Expected the streamed coordinates to be rounded like the serialized ones.",
+                     treeGson.toJson(point),
+                     streamingGson.toJson(point));
+    }
+
+
+    /**
+     * Tests if streamed geometries of documents can be read again.
+     */
+    @Test
+    public void testReading()
+    {
+        final GeoLocation geoLocation = new GeoLocation("Test Region");
+        geoLocation.setBox(1, 2, 3, 4);
+
+        final DataCiteJson document = new DataCiteJson(SOURCE_ID);
+        document.addGeoLocations(Arrays.asList(geoLocation));
+
+        final Gson streamingGson = DataCiteFragmentCache.createGsonBuilder().create();
+        final String json = streamingGson.toJson(document);
+        final DataCiteJson readDocument = streamingGson.fromJson(json, DataCiteJson.class);
+
+        assertTrue("Expected the streamed geometry to be readable.",
+                   readDocument.getGeoLocations().contains(geoLocation));
+    }
+
+
+    /**
+     * Creates a closed, square ring.
+     *
+     * @param x the x-value of the lower left corner
+     * @param y the y-value of the lower left corner
+     * @param size the length of the sides of the square
+     *
+     * @return a closed, square ring
+     */
+    private LinearRing createRing(final double x, final double y, final double size)
+    {
+        return geoFactory.createLinearRing(new Coordinate[] {
+                                               new Coordinate(x, y),
+                                               new Coordinate(x + size, y),
+                                               new Coordinate(x + size, y + size),
+                                               new Coordinate(x, y + size),
+                                               new Coordinate(x, y)
+                                           });
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ *  Copyright © 2019 Robin Weiss (http://www.gerdi-project.de/)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsUrlConstants;
+import de.gerdiproject.harvest.seaaroundus.utils.HttpRequestMetrics.RequestStats;
+
+/**
+ * This class provides Unit Tests for the {@linkplain HttpRequestMetrics}.
+ *
+ * @author Robin Weiss
+ */
+public class HttpRequestMetricsTest
+{
+    private static final String ETL_NAME = "EezETL";
+    private static final String EEZ_URL = SeaAroundUsUrlConstants.API_URL + "/eez/8";
+
+
+    /**
+     * Tests if the API URL is removed and IDs of paths and queries are replaced by placeholders.
+     */
+    @Test
+    public void testPathTemplates()
+    {
+        assertEquals("Expected lists of regions to keep their trailing slash.",
+                     "eez/",
+                     HttpRequestMetrics.getPathTemplate(SeaAroundUsUrlConstants.API_URL + "/eez/"));
+        assertEquals("Expected IDs in paths to be replaced.",
+                     "eez/{id}",
+                     HttpRequestMetrics.getPathTemplate(EEZ_URL));
+        assertEquals("Expected IDs in queries to be replaced.",
+                     "global/{id}?fao_id={id}",
+                     HttpRequestMetrics.getPathTemplate(SeaAroundUsUrlConstants.API_URL + "/global/1?fao_id=21"));
+        assertEquals("Expected non-numeric values to be kept.",
+                     "taxon-group/",
+                     HttpRequestMetrics.getPathTemplate(SeaAroundUsUrlConstants.API_URL + "/taxon-group/"));
+    }
+
+
+    /**
+     * Tests if requests to the same path template share their statistics.
+     */
+    @Test
+    public void testStatsGrouping()
+    {
+        final HttpRequestMetrics metrics = new HttpRequestMetrics();
+        metrics.getStats(ETL_NAME, EEZ_URL).addRequest(0, true);
+        metrics.getStats(ETL_NAME, SeaAroundUsUrlConstants.API_URL + "/eez/12").addRequest(0, false);
+
+        final RequestStats stats = metrics.getStats(ETL_NAME, EEZ_URL);
+        assertEquals("Expected requests of the same path template to be counted together.", 2, stats.getRequestCount());
+        assertEquals("Expected failed requests to be counted as errors.", 1, stats.getErrorCount());
+    }
+
+
+    /**
+     * Tests if latencies are counted in cumulative buckets.
+     */
+    @Test
+    public void testLatencyBuckets()
+    {
+        final RequestStats stats = new HttpRequestMetrics().getStats(ETL_NAME, EEZ_URL);
+        stats.addRequest(TimeUnit.MILLISECONDS.toNanos(10), true);
+        stats.addRequest(TimeUnit.MILLISECONDS.toNanos(300), true);
+        stats.addRequest(TimeUnit.MINUTES.toNanos(5), true);
+
+        assertArrayEquals("Expected each latency to be counted in its bucket and all larger ones.",
+                          new long[] {1, 1, 1, 2, 2, 2, 2, 2, 2, 2, 3},
+                          stats.getCumulativeBucketCounts());
+    }
+
+
+    /**
+     * Tests if the Prometheus text contains the labeled counters and histogram of a request.
+     */
+    @Test
+    public void testPrometheusText()
+    {
+        final HttpRequestMetrics metrics = new HttpRequestMetrics();
+        final RequestStats stats = metrics.getStats(ETL_NAME, EEZ_URL);
+        stats.addRequest(TimeUnit.MILLISECONDS.toNanos(500), true);
+        stats.addRetry();
+        stats.addBytes(1234);
+        stats.addRevalidation(true);
+
+        final String text = metrics.toPrometheusText();
+
+        assertTrue("Expected the request counter to be exported.",
+                   text.contains("seaaroundus_http_requests_total{etl=\"EezETL\",path=\"eez/{id}\"} 1\n"));
+        assertTrue("Expected the retry counter to be exported.",
+                   text.contains("seaaroundus_http_request_retries_total{etl=\"EezETL\",path=\"eez/{id}\"} 1\n"));
+        assertTrue("Expected the byte counter to be exported.",
+                   text.contains("seaaroundus_http_response_bytes_total{etl=\"EezETL\",path=\"eez/{id}\"} 1234\n"));
+        assertTrue("Expected the revalidation hit counter to be exported.",
+                   text.contains("seaaroundus_http_revalidation_hits_total{etl=\"EezETL\",path=\"eez/{id}\"} 1\n"));
+        assertTrue("Expected the revalidation miss counter to be exported.",
+                   text.contains("seaaroundus_http_revalidation_misses_total{etl=\"EezETL\",path=\"eez/{id}\"} 0\n"));
+        assertTrue("Expected the latency buckets to be exported.",
+                   text.contains("seaaroundus_http_request_duration_seconds_bucket{etl=\"EezETL\",path=\"eez/{id}\",le=\"0.5\"} 1\n"));
+        assertTrue("Expected the infinite latency bucket to be exported.",
+                   text.contains("seaaroundus_http_request_duration_seconds_bucket{etl=\"EezETL\",path=\"eez/{id}\",le=\"+Inf\"} 1\n"));
+        assertTrue("Expected the latency sum to be exported in seconds.",
+                   text.contains("seaaroundus_http_request_duration_seconds_sum{etl=\"EezETL\",path=\"eez/{id}\"} 0.5\n"));
+        assertTrue("Expected the metric types to be exported.",
+                   text.contains("# TYPE seaaroundus_http_request_duration_seconds histogram\n"));
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ *  Copyright © 2019 Robin Weiss (http://www.gerdi-project.de/)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * This class provides Unit Tests for the {@linkplain IntGroupIndex}.
+ *
+ * @author Robin Weiss
+ */
+public class IntGroupIndexTest
+{
+    private static final List<String> ELEMENTS = Arrays.asList("b1", "a1", "b2", "c1", "a2", "b3");
+
+
+    /**
+     * Tests if the groups are ordered by the first occurrence of their key,
+     * and if the elements of each group keep their order.
+     */
+    @Test
+    public void testGrouping()
+    {
+        final IntGroupIndex<String> index = createIndex();
+
+        assertEquals("Expected one group per distinct key.", 3, index.getGroupCount());
+        assertEquals("Expected the first group to have the first key.", 'b', index.getKey(0));
+        assertEquals("Expected the second group to have the second key.", 'a', index.getKey(1));
+        assertEquals("Expected the third group to have the third key.", 'c', index.getKey(2));
+
+        assertEquals("Expected the group size to be the number of elements with the key.", 3, index.getGroupSize(0));
+        assertEquals(Arrays.asList("b1", "b2", "b3"), index.removeGroup(0));
+        assertEquals(Arrays.asList("a1", "a2"), index.removeGroup(1));
+        assertEquals(Arrays.asList("c1"), index.removeGroup(2));
+    }
+
+
+    /**
+     * Tests if the group of a key can be looked up.
+     */
+    @Test
+    public void testGetGroup()
+    {
+        final IntGroupIndex<String> index = createIndex();
+
+        assertEquals("Expected the group of the first key to be found.", 0, index.getGroup('b'));
+        assertEquals("Expected the group of the last key to be found.", 2, index.getGroup('c'));
+        assertEquals("Expected an unknown key to have no group.", -1, index.getGroup('d'));
+    }
+
+
+    /**
+     * Tests if removed groups are empty.
+     */
+    @Test
+    public void testRemoveGroup()
+    {
+        final IntGroupIndex<String> index = createIndex();
+        index.removeGroup(1);
+
+        assertTrue("Expected a removed group to be empty.", index.removeGroup(1).isEmpty());
+        assertEquals("Expected other groups to remain.", Arrays.asList("c1"), index.removeGroup(2));
+    }
+
+
+    /**
+     * Tests if an empty collection results in an index without groups.
+     */
+    @Test
+    public void testEmptyIndex()
+    {
+        final IntGroupIndex<String> index = new IntGroupIndex<>(Collections.<String>emptyList(), String::length);
+
+        assertEquals("Expected an empty index to have no groups.", 0, index.getGroupCount());
+    }
+
+
+    /**
+     * Creates an index that groups the test elements by their first character.
+     *
+     * @return an index of the test elements
+     */
+    private static IntGroupIndex<String> createIndex()
+    {
+        return new IntGroupIndex<>(ELEMENTS, (final String e) -> e.charAt(0));
+    }
+}
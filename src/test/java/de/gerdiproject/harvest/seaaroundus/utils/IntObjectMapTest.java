@@ -0,0 +1,96 @@
+/*
+ *  Copyright © 2019 Robin Weiss (http://www.gerdi-project.de/)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+/**
+ * This class provides Unit Tests for the {@linkplain IntObjectMap}.
+ *
+ * @author Robin Weiss
+ */
+public class IntObjectMapTest
+{
+    private static final int KEY_COUNT = 3000;
+
+
+    /**
+     * Tests if all keys of a collection can be looked up.
+     */
+    @Test
+    public void testGet()
+    {
+        final List<Integer> keys = new ArrayList<>();
+
+        // include negative keys and keys that are multiples of the capacity
+        for (int i = -KEY_COUNT / 2; i < KEY_COUNT / 2; i++)
+            keys.add(i * 4096);
+
+        final IntObjectMap<String> map = new IntObjectMap<>(keys, Integer::intValue, String::valueOf);
+
+        assertEquals("Expected the map to contain all keys.", KEY_COUNT, map.getSize());
+
+        for (final int key : keys)
+            assertEquals("Expected key " + key + " to be mapped.", String.valueOf(key), map.get(key));
+
+        assertNull("Expected unmapped keys to return null.", map.get(1));
+        assertFalse("Expected unmapped keys to not be contained.", map.containsKey(1));
+    }
+
+
+    /**
+     * Tests if the first value of duplicate keys is kept and null values are omitted.
+     */
+    @Test
+    public void testDuplicatesAndNullValues()
+    {
+        final List<String> elements = Arrays.asList("a1", "b1", "a2", "c");
+        final IntObjectMap<String> map = new IntObjectMap<>(
+            elements,
+            (final String e) -> e.charAt(0),
+            (final String e) -> e.equals("c") ? null : e);
+
+        assertEquals("Expected duplicate keys and null values to be omitted.", 2, map.getSize());
+        assertEquals("Expected the first value of a duplicate key to be kept.", "a1", map.get('a'));
+        assertTrue("Expected keys with non-null values to be contained.", map.containsKey('b'));
+        assertFalse("Expected keys with null values to be omitted.", map.containsKey('c'));
+    }
+
+
+    /**
+     * Tests if an empty map can be created and queried.
+     */
+    @Test
+    public void testEmptyMap()
+    {
+        final IntObjectMap<Integer> map = new IntObjectMap<>(Collections.<Integer>emptyList(), Integer::intValue, Function.identity());
+
+        assertEquals("Expected the map to be empty.", 0, map.getSize());
+        assertNull("Expected keys of an empty map to return null.", map.get(0));
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ *  Copyright © 2019 Robin Weiss (http://www.gerdi-project.de/)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * This class provides Unit Tests for the {@linkplain PipelinedIterator}.
+ *
+ * @author Robin Weiss
+ */
+public class PipelinedIteratorTest
+{
+    private static final List<Integer> SOURCE_ELEMENTS = Arrays.asList(1, 2, null, 4, 5, 6, 7, 8, 9, 10, 11, 12);
+    private static final int QUEUE_SIZE = 3;
+
+    private PipelinedIterator<Integer, String> pipeline;
+
+
+    /**
+     * Shuts down the pipeline.
+     */
+    @After
+    public void after()
+    {
+        if (pipeline != null)
+            pipeline.close();
+    }
+
+
+    /**
+     * Tests if elements are returned in the order of the source elements,
+     * even if the mapping of the elements finishes in a different order.
+     */
+    @Test
+    public void testOrder()
+    {
+        pipeline = new PipelinedIterator<>("test", SOURCE_ELEMENTS.iterator(), this::mapWithRandomDelay, 4, QUEUE_SIZE);
+
+        final List<String> mappedElements = new ArrayList<>();
+        pipeline.forEachRemaining(mappedElements::add);
+
+        final List<String> expectedElements = new ArrayList<>();
+        SOURCE_ELEMENTS.forEach((final Integer i) -> expectedElements.add(i == null ? null : i.toString()));
+
+        assertEquals("Expected the mapped elements to be returned in the order of the source elements.",
+                     expectedElements,
+                     mappedElements);
+        assertFalse("Expected hasNext() to return false after all elements were retrieved.",
+                    pipeline.hasNext());
+    }
+
+
+    /**
+     * Tests if the source elements are not retrieved further ahead than
+     * the queue allows, while no element is consumed.
+     *
+     * @throws InterruptedException if the test is interrupted while waiting
+     */
+    @Test
+    public void testBackpressure() throws InterruptedException
+    {
+        final AtomicInteger retrievedCount = new AtomicInteger();
+        final Iterator<Integer> source = new Iterator<Integer>() {
+            @Override
+            public boolean hasNext()
+            {
+                return true;
+            }
+
+
+            @Override
+            public Integer next()
+            {
+                return retrievedCount.incrementAndGet();
+            }
+        };
+
+        pipeline = new PipelinedIterator<>("test", source, String::valueOf, 2, QUEUE_SIZE);
+        TimeUnit.MILLISECONDS.sleep(200);
+
+        // the source thread may hold one element while waiting for the queue
+        assertTrue("Expected the source to be blocked by the full queue, but it retrieved " + retrievedCount.get() + " elements.",
+                   retrievedCount.get() <= QUEUE_SIZE + 1);
+        assertEquals("Expected the first element to be returned.", "1", pipeline.next());
+    }
+
+
+    /**
+     * Tests if exceptions that are thrown while mapping an element are
+     * re-thrown when the element is retrieved, and if the pipeline is closed.
+     */
+    @Test
+    public void testMappingExceptionPropagation()
+    {
+        pipeline = new PipelinedIterator<>(
+            "test",
+            SOURCE_ELEMENTS.iterator(),
+            (final Integer i) -> {
+                throw new IllegalArgumentException();
+            },
+            2,
+            QUEUE_SIZE);
+
+        try {
+            pipeline.next();
+        } catch (final IllegalArgumentException e) {
+            assertFalse("Expected the pipeline to be closed after an exception.", pipeline.hasNext());
+            return;
+        }
+
+        throw new AssertionError("Expected an IllegalArgumentException to be thrown.");
+    }
+
+
+    /**
+     * Tests if exceptions that are thrown while retrieving a source
+     * element are re-thrown when the element is retrieved.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testSourceExceptionPropagation()
+    {
+        final Iterator<Integer> source = new Iterator<Integer>() {
+            @Override
+            public boolean hasNext()
+            {
+                return true;
+            }
+
+
+            @Override
+            public Integer next()
+            {
+                throw new IllegalStateException();
+            }
+        };
+
+        pipeline = new PipelinedIterator<>("test", source, String::valueOf, 2, QUEUE_SIZE);
+        pipeline.next();
+    }
+
+
+    /**
+     * Maps an integer to a string after waiting a random amount of time.
+     *
+     * @param value the integer that is to be mapped
+     *
+     * @return the string representation of the integer
+     */
+    private String mapWithRandomDelay(final Integer value)
+    {
+        try {
+            TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextInt(20));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return value.toString();
+    }
+}
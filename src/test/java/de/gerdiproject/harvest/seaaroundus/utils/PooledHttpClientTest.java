@@ -0,0 +1,284 @@
+/*
+ *  Copyright © 2019 Robin Weiss (http://www.gerdi-project.de/)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.jsoup.HttpStatusException;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import de.gerdiproject.harvest.seaaroundus.utils.HttpRequestMetrics.RequestStats;
+
+/**
+ * This class provides Unit Tests for the {@linkplain PooledHttpClient},
+ * using a local HTTP server.
+ *
+ * @author Robin Weiss
+ */
+public class PooledHttpClientTest
+{
+    private static final String BODY = "{\"data\":\"Sea Around Us\"}";
+    private static final String ETL_NAME = "EezETL";
+    private static final String ETAG = "\"v1\"";
+
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private HttpServer server;
+    private String serverUrl;
+    private PooledHttpClient client;
+    private RequestStats stats;
+
+
+    /**
+     * Starts a local HTTP server that compresses its responses as requested
+     * by the "encoding" query, fails requests of the "error" path, and responds
+     * with "304 Not Modified" if the ETag of the body is known.
+     *
+     * @throws IOException thrown if the server could not be started
+     */
+    @Before
+    public void before() throws IOException
+    {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::respond);
+        server.start();
+
+        serverUrl = "http://localhost:" + server.getAddress().getPort();
+        client = new PooledHttpClient(StandardCharsets.UTF_8);
+        stats = new HttpRequestMetrics().getStats(ETL_NAME, serverUrl);
+    }
+
+
+    /**
+     * Stops the local HTTP server.
+     */
+    @After
+    public void after()
+    {
+        server.stop(0);
+    }
+
+
+    /**
+     * Tests if gzip compressed responses are decompressed.
+     *
+     * @throws IOException thrown if the response could not be read
+     */
+    @Test
+    public void testGzipDecompression() throws IOException
+    {
+        assertEquals("Expected gzip compressed responses to be decompressed.",
+                     BODY,
+                     getBody(serverUrl + "/?encoding=gzip"));
+    }
+
+
+    /**
+     * Tests if deflate compressed responses are decompressed.
+     *
+     * @throws IOException thrown if the response could not be read
+     */
+    @Test
+    public void testDeflateDecompression() throws IOException
+    {
+        assertEquals("Expected deflate compressed responses to be decompressed.",
+                     BODY,
+                     getBody(serverUrl + "/?encoding=deflate"));
+    }
+
+
+    /**
+     * Tests if received bytes are counted before they are decompressed.
+     *
+     * @throws IOException thrown if the response could not be read
+     */
+    @Test
+    public void testCompressedByteCount() throws IOException
+    {
+        getBody(serverUrl + "/?encoding=gzip");
+        assertEquals("Expected the compressed bytes to be counted.",
+                     compress(BODY.getBytes(StandardCharsets.UTF_8), "gzip").length,
+                     stats.getByteCount());
+    }
+
+
+    /**
+     * Tests if consecutive requests reuse the same connection,
+     * even if a request failed with a server error.
+     *
+     * @throws IOException thrown if a response could not be read
+     */
+    @Test
+    public void testConnectionReuse() throws IOException
+    {
+        getBody(serverUrl + "/");
+
+        try {
+            client.sendGetRequest(serverUrl + "/error");
+        } catch (final HttpStatusException e) {
+            assertEquals("Expected the status code of the server error.",
+                         HttpURLConnection.HTTP_UNAVAILABLE,
+                         e.getStatusCode());
+        }
+
+        getBody(serverUrl + "/?encoding=gzip");
+
+        assertEquals("Expected all requests to be sent via the same connection.", 1, clientPorts.size());
+    }
+
+
+    /**
+     * Tests if compressed responses are requested.
+     *
+     * @throws IOException thrown if the request could not be sent
+     */
+    @Test
+    public void testAcceptedEncodings() throws IOException
+    {
+        final HttpURLConnection connection = client.sendGetRequest(serverUrl + "/?encoding=gzip");
+        client.discard(connection);
+
+        assertTrue("Expected gzip compressed responses to be requested.",
+                   connection.getContentEncoding().contains("gzip"));
+    }
+
+
+    /**
+     * Tests if additional request headers are sent, allowing for conditional requests.
+     *
+     * @throws IOException thrown if the request could not be sent
+     */
+    @Test
+    public void testConditionalRequest() throws IOException
+    {
+        final HttpURLConnection connection = client.sendGetRequest(
+                                                 serverUrl + "/",
+                                                 Collections.singletonMap("If-None-Match", ETAG));
+        client.discard(connection);
+
+        assertEquals("Expected the server to confirm that the known response was not modified.",
+                     HttpURLConnection.HTTP_NOT_MODIFIED,
+                     connection.getResponseCode());
+    }
+
+
+    /**
+     * Sends a GET request to the local server and reads the decompressed body.
+     *
+     * @param url the requested URL
+     *
+     * @return the decompressed body of the response
+     *
+     * @throws IOException thrown if the response could not be read
+     */
+    private String getBody(final String url) throws IOException
+    {
+        final HttpURLConnection connection = client.sendGetRequest(url);
+
+        try (InputStream body = client.getInputStream(connection, stats)) {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[1024];
+            int readBytes;
+
+            while ((readBytes = body.read(buffer)) != -1)
+                bytes.write(buffer, 0, readBytes);
+
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+
+    /**
+     * Responds to a request of the local server.
+     *
+     * @param exchange the request and response
+     *
+     * @throws IOException thrown if the response could not be sent
+     */
+    private void respond(final HttpExchange exchange) throws IOException
+    {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+
+        final String query = exchange.getRequestURI().getQuery();
+        final String encoding = query == null ? null : query.substring(query.indexOf('=') + 1);
+        final String acceptedEncodings = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        final boolean isCompressed = encoding != null && acceptedEncodings != null && acceptedEncodings.contains(encoding);
+        final boolean isError = exchange.getRequestURI().getPath().endsWith("error");
+
+        if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.sendResponseHeaders(HttpURLConnection.HTTP_NOT_MODIFIED, -1);
+            exchange.close();
+            return;
+        }
+
+        exchange.getResponseHeaders().add("ETag", ETAG);
+        byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+
+        if (isCompressed) {
+            body = compress(body, encoding);
+            exchange.getResponseHeaders().add("Content-Encoding", encoding);
+        }
+
+        exchange.sendResponseHeaders(isError ? HttpURLConnection.HTTP_UNAVAILABLE : HttpURLConnection.HTTP_OK, body.length);
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+
+    /**
+     * Compresses bytes with the specified encoding.
+     *
+     * @param bytes the uncompressed bytes
+     * @param encoding either "gzip" or "deflate"
+     *
+     * @return the compressed bytes
+     *
+     * @throws IOException thrown if the bytes could not be compressed
+     */
+    private static byte[] compress(final byte[] bytes, final String encoding) throws IOException
+    {
+        final ByteArrayOutputStream compressedBytes = new ByteArrayOutputStream();
+
+        try (OutputStream out = "gzip".equals(encoding)
+                                ? new GZIPOutputStream(compressedBytes)
+                                : new DeflaterOutputStream(compressedBytes)) {
+            out.write(bytes);
+        }
+
+        return compressedBytes.toByteArray();
+    }
+}
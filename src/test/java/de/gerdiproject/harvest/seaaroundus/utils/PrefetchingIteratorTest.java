@@ -0,0 +1,129 @@
+/*
+ *  Copyright © 2019 Robin Weiss (http://www.gerdi-project.de/)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class provides Unit Tests for the {@linkplain PrefetchingIterator}.
+ *
+ * @author Robin Weiss
+ */
+public class PrefetchingIteratorTest
+{
+    private static final List<Integer> SOURCE_ELEMENTS = Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12);
+
+    private ExecutorService executor;
+
+
+    /**
+     * Creates a thread pool for prefetching elements.
+     */
+    @Before
+    public void before()
+    {
+        executor = PrefetchingIterator.createExecutor("test", 4);
+    }
+
+
+    /**
+     * Shuts down the thread pool.
+     */
+    @After
+    public void after()
+    {
+        executor.shutdownNow();
+    }
+
+
+    /**
+     * Tests if elements are returned in the order of the source elements,
+     * even if the mapping of the elements finishes in a different order.
+     */
+    @Test
+    public void testOrder()
+    {
+        final Iterator<String> iter = new PrefetchingIterator<>(
+            SOURCE_ELEMENTS.iterator(),
+            this::mapWithRandomDelay,
+            executor,
+            5);
+
+        final List<String> mappedElements = new ArrayList<>();
+        iter.forEachRemaining(mappedElements::add);
+
+        final List<String> expectedElements = new ArrayList<>();
+        SOURCE_ELEMENTS.forEach((final Integer i) -> expectedElements.add(i.toString()));
+
+        assertEquals("Expected the mapped elements to be returned in the order of the source elements.",
+                     expectedElements,
+                     mappedElements);
+        assertFalse("Expected hasNext() to return false after all elements were retrieved.",
+                    iter.hasNext());
+    }
+
+
+    /**
+     * Tests if exceptions that are thrown while mapping an element are
+     * re-thrown when the element is retrieved.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testExceptionPropagation()
+    {
+        final Iterator<String> iter = new PrefetchingIterator<>(
+            SOURCE_ELEMENTS.iterator(),
+            (final Integer i) -> {
+                throw new IllegalArgumentException();
+            },
+            executor,
+            5);
+
+        iter.next();
+    }
+
+
+    /**
+     * Maps an integer to a string after waiting a random amount of time.
+     *
+     * @param value the integer that is to be mapped
+     *
+     * @return the string representation of the integer
+     */
+    private String mapWithRandomDelay(final Integer value)
+    {
+        try {
+            TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextInt(20));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return value.toString();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ *  Copyright © 2019 Robin Weiss (http://www.gerdi-project.de/)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+/**
+ * This class provides Unit Tests for the {@linkplain ReferenceDataCache}.
+ *
+ * @author Robin Weiss
+ */
+public class ReferenceDataCacheTest
+{
+    private static final String LIST_NAME = "taxon-group";
+    private static final String VERSION = "v1";
+    private static final String NEXT_VERSION = "v2";
+    private static final List<String> LIST = Arrays.asList("1", "2", "3");
+
+    private final ReferenceDataCache cache = new ReferenceDataCache();
+    private final AtomicInteger retrievalCount = new AtomicInteger();
+    private final Supplier<List<String>> listSupplier = () -> {
+        retrievalCount.incrementAndGet();
+        return LIST;
+    };
+
+
+    /**
+     * Tests if a list is only retrieved once per version.
+     */
+    @Test
+    public void testSameVersion()
+    {
+        final IntObjectMap<String> dictionary = getDictionary(VERSION);
+
+        assertSame("Expected the dictionary of the same version to be cached.",
+                   dictionary,
+                   getDictionary(VERSION));
+        assertEquals("Expected the list to be retrieved once.", 1, retrievalCount.get());
+        assertEquals("Expected the dictionary to contain all list entries.", "2", dictionary.get(2));
+    }
+
+
+    /**
+     * Tests if a list is retrieved again if the version changes,
+     * and if the new dictionary replaces the old one.
+     */
+    @Test
+    public void testNewVersion()
+    {
+        final IntObjectMap<String> dictionary = getDictionary(VERSION);
+        final IntObjectMap<String> nextDictionary = getDictionary(NEXT_VERSION);
+
+        assertNotSame("Expected a new version to create a new dictionary.", dictionary, nextDictionary);
+        assertEquals("Expected the list to be retrieved twice.", 2, retrievalCount.get());
+        assertSame("Expected the latest dictionary to be cached.",
+                   nextDictionary,
+                   cache.getDictionary(LIST_NAME));
+    }
+
+
+    /**
+     * Tests if lists without a version are not cached.
+     */
+    @Test
+    public void testUnknownVersion()
+    {
+        getDictionary(null);
+        getDictionary(null);
+
+        assertEquals("Expected the list to be retrieved every time.", 2, retrievalCount.get());
+        assertNull("Expected the dictionary not to be cached.", cache.getDictionary(LIST_NAME));
+    }
+
+
+    /**
+     * Tests if a cached dictionary is only looked up for its own version,
+     * without retrieving the list.
+     */
+    @Test
+    public void testVersionLookup()
+    {
+        assertNull("Expected no dictionary to be cached yet.", cache.getDictionary(LIST_NAME, VERSION));
+
+        final IntObjectMap<String> dictionary = getDictionary(VERSION);
+
+        assertSame("Expected the cached dictionary to be returned.",
+                   dictionary,
+                   cache.getDictionary(LIST_NAME, VERSION));
+        assertNull("Expected no dictionary to be returned for a different version.",
+                   cache.getDictionary(LIST_NAME, NEXT_VERSION));
+        assertEquals("Expected the list to be retrieved only once.", 1, retrievalCount.get());
+    }
+
+
+    /**
+     * Retrieves the dictionary of the test list.
+     *
+     * @param version the version of the list
+     *
+     * @return the dictionary of the test list
+     */
+    private IntObjectMap<String> getDictionary(final String version)
+    {
+        return cache.getDictionary(LIST_NAME, version, listSupplier, Integer::parseInt, Function.identity());
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ *  Copyright © 2019 Robin Weiss (http://www.gerdi-project.de/)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.gson.Gson;
+
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsParameterConstants;
+
+/**
+ * This class provides Unit Tests for the {@linkplain ResponseCache}.
+ *
+ * @author Robin Weiss
+ */
+public class ResponseCacheTest
+{
+    private static final String URL = "http://api.seaaroundus.org/api/v1/eez/%d";
+    private static final String VERSION = "1.0";
+    private static final String RESPONSE = "{\"data\": %d}";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+
+    /**
+     * Tests if a cached response can be retrieved by URL and version,
+     * and is not retrieved for a different version.
+     *
+     * @throws IOException if the cache folder could not be created
+     */
+    @Test
+    public void testGet() throws IOException
+    {
+        final ResponseCache cache = createCache(Long.MAX_VALUE);
+        cache.put(String.format(URL, 1), VERSION, String.format(RESPONSE, 1));
+
+        assertEquals("Expected the cached response to be retrieved.",
+                     String.format(RESPONSE, 1),
+                     cache.get(String.format(URL, 1), VERSION, String.class));
+        assertNull("Expected no response to be retrieved for a different version.",
+                   cache.get(String.format(URL, 1), "2.0", String.class));
+    }
+
+
+    /**
+     * Tests if the least recently used responses are evicted when the
+     * cache exceeds its size limit.
+     *
+     * @throws IOException if the cache folder could not be created
+     */
+    @Test
+    public void testEviction() throws IOException
+    {
+        final ResponseCache cache = createCache(Long.MAX_VALUE);
+
+        for (int i = 0; i < 3; i++)
+            cache.put(String.format(URL, i), VERSION, String.format(RESPONSE, i));
+
+        // make the first response the most recently used one
+        cache.get(String.format(URL, 0), VERSION, String.class);
+
+        cache.setMaxSize(cache.getSize() - 1);
+
+        assertNull("Expected the least recently used response to be evicted.",
+                   cache.get(String.format(URL, 1), VERSION, String.class));
+        assertEquals("Expected a recently used response to be kept.",
+                     String.format(RESPONSE, 0),
+                     cache.get(String.format(URL, 0), VERSION, String.class));
+    }
+
+
+    /**
+     * Tests if responses that were cached by a previous instance are re-used.
+     *
+     * @throws IOException if the cache folder could not be created
+     */
+    @Test
+    public void testPersistence() throws IOException
+    {
+        final File cacheFolder = temporaryFolder.newFolder();
+        new ResponseCache(cacheFolder, new Gson(), Long.MAX_VALUE)
+        .put(String.format(URL, 1), VERSION, String.format(RESPONSE, 1));
+
+        final ResponseCache reloadedCache = new ResponseCache(cacheFolder, new Gson(), Long.MAX_VALUE);
+
+        assertTrue("Expected the size of the previously cached responses to be known.",
+                   reloadedCache.getSize() > 0);
+        assertEquals("Expected a previously cached response to be retrieved.",
+                     String.format(RESPONSE, 1),
+                     reloadedCache.get(String.format(URL, 1), VERSION, String.class));
+    }
+
+
+    /**
+     * Tests if no temporary files remain after responses were cached, and if
+     * temporary files of a previous instance are removed.
+     *
+     * @throws IOException if the cache folder could not be created
+     */
+    @Test
+    public void testTemporaryFiles() throws IOException
+    {
+        final File cacheFolder = temporaryFolder.newFolder();
+        final File staleFile = new File(cacheFolder, "stale" + SeaAroundUsParameterConstants.RESPONSE_CACHE_TEMP_FILE_EXTENSION);
+        assertTrue("Expected the stale temporary file to be created.", staleFile.createNewFile());
+
+        new ResponseCache(cacheFolder, new Gson(), Long.MAX_VALUE)
+        .put(String.format(URL, 1), VERSION, String.format(RESPONSE, 1));
+
+        assertEquals("Expected only the cached response to remain in the cache folder.",
+                     1,
+                     cacheFolder.listFiles().length);
+    }
+
+
+    /**
+     * Creates a cache in a temporary folder.
+     *
+     * @param maxSize the max number of bytes that can be occupied by the cache
+     *
+     * @return a new cache
+     *
+     * @throws IOException if the cache folder could not be created
+     */
+    private ResponseCache createCache(final long maxSize) throws IOException
+    {
+        return new ResponseCache(temporaryFolder.newFolder(), new Gson(), maxSize);
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ *  Copyright © 2019 Robin Weiss (http://www.gerdi-project.de/)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package de.gerdiproject.harvest.seaaroundus.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsDataCiteConstants;
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsRegionConstants;
+import de.gerdiproject.harvest.seaaroundus.constants.SeaAroundUsUrlConstants;
+import de.gerdiproject.harvest.seaaroundus.vos.EntryVO;
+import de.gerdiproject.harvest.seaaroundus.vos.RegionParametersVO;
+import de.gerdiproject.json.datacite.extension.generic.ResearchData;
+import de.gerdiproject.json.datacite.extension.generic.WebLink;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * This class provides Unit Tests for the {@linkplain SeaAroundUsDataCiteUtils}.
+ * It verifies that the precompiled templates of a region yield the same
+ * labels and URLs as formatting them directly.
+ *
+ * @author Robin Weiss
+ */
+@RunWith(Parameterized.class) @RequiredArgsConstructor
+public class SeaAroundUsDataCiteUtilsTest
+{
+    private static final int REGION_ID = 1337;
+    private static final String REGION_NAME = "Mocked Region";
+
+    @Parameters(name = "{0}")
+    public static Object[] getParameters()
+    {
+        return new Object[] {
+                   SeaAroundUsRegionConstants.EEZ_PARAMS,
+                   SeaAroundUsRegionConstants.FAO_PARAMS,
+                   SeaAroundUsRegionConstants.GLOBAL_SUBREGION_PARAMS
+               };
+    }
+
+
+    private final RegionParametersVO params;
+
+
+    /**
+     * Tests if the catch links are equal to directly formatted ones.
+     */
+    @Test
+    public void testCatchLinks()
+    {
+        final EntryVO regionType = params.getRegionType();
+        final String viewUrl = String.format(SeaAroundUsUrlConstants.VIEW_URL_PREFIX, regionType.getUrlName());
+        final List<WebLink> links = SeaAroundUsDataCiteUtils.createCatchLinks(params, REGION_ID, REGION_NAME);
+        final Iterator<WebLink> linkIter = links.iterator();
+
+        assertEquals("Expected one link per measure and dimension.",
+                     params.getMeasures().size() * params.getDimensions().size(),
+                     links.size());
+
+        for (final EntryVO measure : params.getMeasures()) {
+            for (final EntryVO dimension : params.getDimensions()) {
+                final WebLink link = linkIter.next();
+                assertEquals("Expected the catch link label to be unchanged.",
+                             getCatchesLabel(measure, dimension),
+                             link.getName());
+                assertEquals("Expected the catch link URL to be unchanged.",
+                             params.getUrls().getCatchesViewUrl(viewUrl, REGION_ID, dimension.getUrlName(), measure.getUrlName()),
+                             link.getUri());
+            }
+        }
+    }
+
+
+    /**
+     * Tests if the catch research data are equal to directly formatted ones.
+     */
+    @Test
+    public void testCatchResearchData()
+    {
+        final String apiUrl = SeaAroundUsDataCiteUtils.getAllRegionsUrl(params.getRegionType().getUrlName());
+        final List<ResearchData> files = SeaAroundUsDataCiteUtils.createCatchResearchData(params, REGION_ID, REGION_NAME);
+        final Iterator<ResearchData> fileIter = files.iterator();
+
+        assertEquals("Expected one file per measure and dimension.",
+                     params.getMeasures().size() * params.getDimensions().size(),
+                     files.size());
+
+        for (final EntryVO measure : params.getMeasures()) {
+            for (final EntryVO dimension : params.getDimensions()) {
+                final ResearchData file = fileIter.next();
+                assertEquals("Expected the catch file label to be unchanged.",
+                             getCatchesLabel(measure, dimension),
+                             file.getLabel());
+                assertEquals("Expected the catch file URL to be unchanged.",
+                             params.getUrls().getCatchesDownloadUrl(apiUrl, REGION_ID, dimension.getUrlName(), measure.getUrlName())
+                             + SeaAroundUsUrlConstants.CSV_FORM,
+                             file.getUrl());
+            }
+        }
+    }
+
+
+    /**
+     * Tests if the primary production, stock status, and marine trophic index
+     * links are equal to directly formatted ones.
+     */
+    @Test
+    public void testRegionLinks()
+    {
+        final String displayName = params.getRegionType().getDisplayName();
+        final String viewUrl = String.format(SeaAroundUsUrlConstants.VIEW_URL_PREFIX, params.getRegionType().getUrlName());
+
+        final WebLink primaryProduction = SeaAroundUsDataCiteUtils.createPrimaryProductionLink(params, REGION_ID, REGION_NAME);
+        assertEquals("Expected the primary production label to be unchanged.",
+                     String.format(SeaAroundUsDataCiteConstants.PRIMARY_PRODUCTION_LABEL, displayName, REGION_NAME),
+                     primaryProduction.getName());
+        assertEquals("Expected the primary production URL to be unchanged.",
+                     params.getUrls().getPrimaryProductionViewUrl(viewUrl, REGION_ID),
+                     primaryProduction.getUri());
+
+        final WebLink stockStatus = SeaAroundUsDataCiteUtils.createStockStatusLink(params, REGION_ID, REGION_NAME);
+        assertEquals("Expected the stock status label to be unchanged.",
+                     String.format(SeaAroundUsDataCiteConstants.STOCK_STATUS_LABEL, displayName, REGION_NAME),
+                     stockStatus.getName());
+        assertEquals("Expected the stock status URL to be unchanged.",
+                     params.getUrls().getStockStatusViewUrl(viewUrl, REGION_ID),
+                     stockStatus.getUri());
+
+        final WebLink marineTrophicIndex = SeaAroundUsDataCiteUtils.createMarineTrophicIndexLink(params, REGION_ID, REGION_NAME);
+        assertEquals("Expected the marine trophic index label to be unchanged.",
+                     String.format(SeaAroundUsDataCiteConstants.MARINE_TROPHIC_INDEX_LABEL, REGION_NAME),
+                     marineTrophicIndex.getName());
+        assertEquals("Expected the marine trophic index URL to be unchanged.",
+                     params.getUrls().getMarineTrophicIndexViewUrl(viewUrl, REGION_ID),
+                     marineTrophicIndex.getUri());
+    }
+
+
+    /**
+     * Formats the label of catches of the tested region.
+     *
+     * @param measure the catch measure
+     * @param dimension the catch dimension
+     *
+     * @return the label of the catches
+     */
+    private String getCatchesLabel(final EntryVO measure, final EntryVO dimension)
+    {
+        return String.format(
+                   SeaAroundUsDataCiteConstants.CATCHES_LABEL,
+                   measure.getDisplayName(),
+                   dimension.getDisplayName(),
+                   params.getRegionType().getDisplayName(),
+                   REGION_NAME);
+    }
+}